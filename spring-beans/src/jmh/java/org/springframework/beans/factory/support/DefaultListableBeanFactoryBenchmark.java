@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+
+/**
+ * Benchmarks for {@link DefaultListableBeanFactory#getBean(Class)} lookups
+ * against a bean factory holding a configurable number of bean definitions.
+ *
+ * @since 5.2.26
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@Benchmark
+	public void getSingletonByType(BeanFactoryData data, Blackhole bh) {
+		bh.consume(data.beanFactory.getBean(TargetService.class));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void getSingletonByTypeConcurrently(BeanFactoryData data, Blackhole bh) {
+		bh.consume(data.beanFactory.getBean(TargetService.class));
+	}
+
+	@Benchmark
+	public void getSingletonByName(BeanFactoryData data, Blackhole bh) {
+		bh.consume(data.beanFactory.getBean("targetService"));
+	}
+
+	@Benchmark
+	public void getPrototypeByType(BeanFactoryData data, Blackhole bh) {
+		bh.consume(data.beanFactory.getBean(PrototypeService.class));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BeanFactoryData {
+
+		@Param({"10", "1000"})
+		public int beanCount;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				this.beanFactory.registerBeanDefinition("filler" + i, new RootBeanDefinition(FillerBean.class));
+			}
+			this.beanFactory.registerBeanDefinition("targetService", new RootBeanDefinition(TargetService.class));
+			RootBeanDefinition prototype = new RootBeanDefinition(PrototypeService.class);
+			prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			this.beanFactory.registerBeanDefinition("prototypeService", prototype);
+			this.beanFactory.freezeConfiguration();
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	public static class FillerBean {
+	}
+
+
+	public static class TargetService {
+	}
+
+
+	public static class PrototypeService {
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,6 +36,8 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.core.SpringProperties;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.core.metrics.CacheRegistry;
+import org.springframework.core.metrics.MapCacheMetrics;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ConcurrentReferenceHashMap;
@@ -127,6 +129,12 @@ public final class CachedIntrospectionResults {
 	static final ConcurrentMap<Class<?>, CachedIntrospectionResults> softClassCache =
 			new ConcurrentReferenceHashMap<>(64);
 
+	private static final MapCacheMetrics strongClassCacheMetrics = CacheRegistry.register(
+			CachedIntrospectionResults.class.getName() + ".strongClassCache", new MapCacheMetrics(strongClassCache));
+
+	private static final MapCacheMetrics softClassCacheMetrics = CacheRegistry.register(
+			CachedIntrospectionResults.class.getName() + ".softClassCache", new MapCacheMetrics(softClassCache));
+
 
 	/**
 	 * Accept the given ClassLoader as cache-safe, even if its classes would
@@ -170,10 +178,12 @@ public final class CachedIntrospectionResults {
 	static CachedIntrospectionResults forClass(Class<?> beanClass) throws BeansException {
 		CachedIntrospectionResults results = strongClassCache.get(beanClass);
 		if (results != null) {
+			strongClassCacheMetrics.recordHit();
 			return results;
 		}
 		results = softClassCache.get(beanClass);
 		if (results != null) {
+			softClassCacheMetrics.recordHit();
 			return results;
 		}
 
@@ -183,12 +193,14 @@ public final class CachedIntrospectionResults {
 		if (ClassUtils.isCacheSafe(beanClass, CachedIntrospectionResults.class.getClassLoader()) ||
 				isClassLoaderAccepted(beanClass.getClassLoader())) {
 			classCacheToUse = strongClassCache;
+			strongClassCacheMetrics.recordMiss();
 		}
 		else {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Not strongly caching class [" + beanClass.getName() + "] because it is not cache-safe");
 			}
 			classCacheToUse = softClassCache;
+			softClassCacheMetrics.recordMiss();
 		}
 
 		CachedIntrospectionResults existing = classCacheToUse.putIfAbsent(beanClass, results);
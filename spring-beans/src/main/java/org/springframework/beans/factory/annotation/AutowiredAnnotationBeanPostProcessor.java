@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,14 @@ package org.springframework.beans.factory.annotation;
 
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
@@ -33,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -150,6 +155,11 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 
 	private final Map<String, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<>(256);
 
+	private boolean compileInjectionPlans = false;
+
+	/** Incremented on every bean definition reset, invalidating compiled injection plans. */
+	private final AtomicInteger injectionPlanGeneration = new AtomicInteger();
+
 
 	/**
 	 * Create a new {@code AutowiredAnnotationBeanPostProcessor} for Spring's
@@ -222,6 +232,25 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 		this.requiredParameterValue = requiredParameterValue;
 	}
 
+	/**
+	 * Specify whether to compile the injection points of beans that get autowired
+	 * repeatedly (i.e. prototype and other non-singleton scoped beans) into
+	 * pre-resolved injection plans.
+	 * <p>Default is "false", resolving each dependency through the bean factory
+	 * for every bean instance (with a shortcut to the target bean name where possible).
+	 * <p>Switch this flag to "true" to let the second and any subsequent injection
+	 * of an annotated field or method use a compiled plan: dependencies on singleton
+	 * beans are bound to the singleton instances directly, other dependencies use the
+	 * cached resolution, and values are injected through {@link MethodHandle}-based
+	 * setters. Plans are recompiled after any bean definition reset (e.g. a bean
+	 * definition being removed or overridden) and whenever a pre-bound singleton
+	 * has been destroyed or replaced.
+	 * @since 5.2.26
+	 */
+	public void setCompileInjectionPlans(boolean compileInjectionPlans) {
+		this.compileInjectionPlans = compileInjectionPlans;
+	}
+
 	public void setOrder(int order) {
 		this.order = order;
 	}
@@ -251,6 +280,7 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 	public void resetBeanDefinition(String beanName) {
 		this.lookupMethodsChecked.remove(beanName);
 		this.injectionMetadataCache.remove(beanName);
+		this.injectionPlanGeneration.incrementAndGet();
 	}
 
 	@Override
@@ -618,6 +648,9 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 		@Nullable
 		private volatile Object cachedFieldValue;
 
+		@Nullable
+		private volatile InjectionPlan injectionPlan;
+
 		public AutowiredFieldElement(Field field, boolean required) {
 			super(field, null);
 			this.required = required;
@@ -627,9 +660,16 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 		protected void inject(Object bean, @Nullable String beanName, @Nullable PropertyValues pvs) throws Throwable {
 			Field field = (Field) this.member;
 			Object value;
+			InjectionPlan plan = null;
 			if (this.cached) {
 				try {
-					value = resolvedCachedArgument(beanName, this.cachedFieldValue);
+					if (compileInjectionPlans) {
+						plan = obtainInjectionPlan();
+						value = plan.resolveArguments(beanName)[0];
+					}
+					else {
+						value = resolvedCachedArgument(beanName, this.cachedFieldValue);
+					}
 				}
 				catch (NoSuchBeanDefinitionException ex) {
 					// Unexpected removal of target bean for cached argument -> re-resolve
@@ -640,11 +680,26 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 				value = resolveFieldValue(field, bean, beanName);
 			}
 			if (value != null) {
-				ReflectionUtils.makeAccessible(field);
-				field.set(bean, value);
+				MethodHandle setter = (plan != null ? plan.getInvoker() : null);
+				if (setter != null) {
+					setter.invokeExact(bean, value);
+				}
+				else {
+					ReflectionUtils.makeAccessible(field);
+					field.set(bean, value);
+				}
 			}
 		}
 
+		private InjectionPlan obtainInjectionPlan() {
+			InjectionPlan plan = this.injectionPlan;
+			if (plan == null || !plan.isCurrent()) {
+				plan = new InjectionPlan(this.member, new Object[] {this.cachedFieldValue});
+				this.injectionPlan = plan;
+			}
+			return plan;
+		}
+
 		@Nullable
 		private Object resolveFieldValue(Field field, Object bean, @Nullable String beanName) {
 			DependencyDescriptor desc = new DependencyDescriptor(field, this.required);
@@ -695,6 +750,9 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 		@Nullable
 		private volatile Object[] cachedMethodArguments;
 
+		@Nullable
+		private volatile InjectionPlan injectionPlan;
+
 		public AutowiredMethodElement(Method method, boolean required, @Nullable PropertyDescriptor pd) {
 			super(method, pd);
 			this.required = required;
@@ -707,9 +765,17 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 			}
 			Method method = (Method) this.member;
 			Object[] arguments;
+			InjectionPlan plan = null;
 			if (this.cached) {
 				try {
-					arguments = resolveCachedArguments(beanName);
+					Object[] cachedMethodArguments = this.cachedMethodArguments;
+					if (compileInjectionPlans && cachedMethodArguments != null) {
+						plan = obtainInjectionPlan(cachedMethodArguments);
+						arguments = plan.resolveArguments(beanName);
+					}
+					else {
+						arguments = resolveCachedArguments(beanName);
+					}
 				}
 				catch (NoSuchBeanDefinitionException ex) {
 					// Unexpected removal of target bean for cached argument -> re-resolve
@@ -720,6 +786,11 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 				arguments = resolveMethodArguments(method, bean, beanName);
 			}
 			if (arguments != null) {
+				MethodHandle invoker = (plan != null ? plan.getInvoker() : null);
+				if (invoker != null) {
+					invoker.invokeExact(bean, arguments);
+					return;
+				}
 				try {
 					ReflectionUtils.makeAccessible(method);
 					method.invoke(bean, arguments);
@@ -730,6 +801,15 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 			}
 		}
 
+		private InjectionPlan obtainInjectionPlan(Object[] cachedMethodArguments) {
+			InjectionPlan plan = this.injectionPlan;
+			if (plan == null || !plan.isCurrent()) {
+				plan = new InjectionPlan(this.member, cachedMethodArguments);
+				this.injectionPlan = plan;
+			}
+			return plan;
+		}
+
 		@Nullable
 		private Object[] resolveCachedArguments(@Nullable String beanName) {
 			Object[] cachedMethodArguments = this.cachedMethodArguments;
@@ -798,6 +878,108 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 	}
 
 
+	/**
+	 * Compiled injection of an annotated field or method: dependencies on singleton
+	 * beans are pre-bound to the singleton instances, all other dependencies are
+	 * resolved from their cached descriptors, and the value(s) are injected through
+	 * a {@link MethodHandle} rather than through reflection.
+	 * @since 5.2.26
+	 * @see #setCompileInjectionPlans
+	 */
+	private class InjectionPlan {
+
+		private final int generation;
+
+		private final Object[] cachedArguments;
+
+		private final String[] preboundNames;
+
+		private final Object[] preboundValues;
+
+		@Nullable
+		private final MethodHandle invoker;
+
+		public InjectionPlan(Member member, Object[] cachedArguments) {
+			ConfigurableListableBeanFactory beanFactory = AutowiredAnnotationBeanPostProcessor.this.beanFactory;
+			Assert.state(beanFactory != null, "No BeanFactory available");
+			this.generation = injectionPlanGeneration.get();
+			this.cachedArguments = cachedArguments;
+			this.preboundNames = new String[cachedArguments.length];
+			this.preboundValues = new Object[cachedArguments.length];
+			for (int i = 0; i < cachedArguments.length; i++) {
+				if (cachedArguments[i] instanceof ShortcutDependencyDescriptor) {
+					ShortcutDependencyDescriptor descriptor = (ShortcutDependencyDescriptor) cachedArguments[i];
+					// A FactoryBean's singleton instance is the factory, not the exposed object
+					if (beanFactory.isSingleton(descriptor.shortcut) &&
+							!beanFactory.isFactoryBean(descriptor.shortcut) &&
+							!beanFactory.isCurrentlyInCreation(descriptor.shortcut)) {
+						Object singleton = beanFactory.getSingleton(descriptor.shortcut);
+						if (descriptor.requiredType.isInstance(singleton)) {
+							this.preboundNames[i] = descriptor.shortcut;
+							this.preboundValues[i] = singleton;
+						}
+					}
+				}
+			}
+			this.invoker = createInvoker(member);
+		}
+
+		@Nullable
+		private MethodHandle createInvoker(Member member) {
+			try {
+				if (member instanceof Field) {
+					Field field = (Field) member;
+					ReflectionUtils.makeAccessible(field);
+					return MethodHandles.lookup().unreflectSetter(field)
+							.asType(MethodType.methodType(void.class, Object.class, Object.class));
+				}
+				Method method = (Method) member;
+				ReflectionUtils.makeAccessible(method);
+				return MethodHandles.lookup().unreflect(method).asFixedArity()
+						.asSpreader(Object[].class, method.getParameterCount())
+						.asType(MethodType.methodType(void.class, Object.class, Object[].class));
+			}
+			catch (IllegalAccessException ex) {
+				// Fall back to reflective injection
+				return null;
+			}
+		}
+
+		/**
+		 * Determine whether this plan is still valid: no bean definition has been
+		 * reset since it was compiled, and all pre-bound singletons are still current.
+		 */
+		public boolean isCurrent() {
+			if (this.generation != injectionPlanGeneration.get()) {
+				return false;
+			}
+			ConfigurableListableBeanFactory beanFactory = AutowiredAnnotationBeanPostProcessor.this.beanFactory;
+			Assert.state(beanFactory != null, "No BeanFactory available");
+			for (int i = 0; i < this.preboundValues.length; i++) {
+				if (this.preboundValues[i] != null &&
+						beanFactory.getSingleton(this.preboundNames[i]) != this.preboundValues[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public Object[] resolveArguments(@Nullable String beanName) {
+			Object[] arguments = new Object[this.cachedArguments.length];
+			for (int i = 0; i < arguments.length; i++) {
+				arguments[i] = (this.preboundValues[i] != null ? this.preboundValues[i] :
+						resolvedCachedArgument(beanName, this.cachedArguments[i]));
+			}
+			return arguments;
+		}
+
+		@Nullable
+		public MethodHandle getInvoker() {
+			return this.invoker;
+		}
+	}
+
+
 	/**
 	 * DependencyDescriptor variant with a pre-resolved target bean name.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
@@ -39,7 +40,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -47,6 +51,7 @@ import java.util.stream.Stream;
 import javax.inject.Provider;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
@@ -70,14 +75,19 @@ import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.NamedBeanHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.annotation.MergedAnnotations;
 import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
 import org.springframework.core.log.LogMessage;
+import org.springframework.core.metrics.CacheRegistry;
+import org.springframework.core.metrics.MapCacheMetrics;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -150,6 +160,10 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether to allow eager class loading even for lazy-init beans. */
 	private boolean allowEagerClassLoading = true;
 
+	/** Optional Executor for pre-instantiating independent singletons in parallel. */
+	@Nullable
+	private Executor preInstantiationExecutor;
+
 	/** Optional OrderComparator for dependency Lists and arrays. */
 	@Nullable
 	private Comparator<Object> dependencyComparator;
@@ -172,6 +186,15 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Map of singleton-only bean names, keyed by dependency type. */
 	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+	/** Metrics for the bean-names-by-type caches, registered with the CacheRegistry. */
+	private final MapCacheMetrics allBeanNamesByTypeMetrics = CacheRegistry.register(
+			DefaultListableBeanFactory.class.getName() + ".allBeanNamesByType@" +
+					ObjectUtils.getIdentityHexString(this), new MapCacheMetrics(this.allBeanNamesByType));
+
+	private final MapCacheMetrics singletonBeanNamesByTypeMetrics = CacheRegistry.register(
+			DefaultListableBeanFactory.class.getName() + ".singletonBeanNamesByType@" +
+					ObjectUtils.getIdentityHexString(this), new MapCacheMetrics(this.singletonBeanNamesByType));
+
 	/** List of bean definition names, in registration order. */
 	private volatile List<String> beanDefinitionNames = new ArrayList<>(256);
 
@@ -269,6 +292,42 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.allowEagerClassLoading;
 	}
 
+	/**
+	 * Specify an {@link Executor} for pre-instantiating singletons in parallel
+	 * in {@link #preInstantiateSingletons()}, e.g. a
+	 * {@link java.util.concurrent.ForkJoinPool} or a bounded thread pool.
+	 * <p>Default is none, creating all non-lazy singletons one after another
+	 * on the calling thread. With an Executor specified, the dependency graph
+	 * declared by the merged bean definitions ("depends-on", {@code @DependsOn},
+	 * bean references and factory beans) is used to create singletons in
+	 * parallel as soon as the singletons they depend on have been created.
+	 * Beans within dependency cycles (and beans depending on them) are created
+	 * sequentially on the calling thread afterwards, and
+	 * {@link SmartInitializingSingleton} callbacks are still invoked on the
+	 * calling thread, in registration order, once all singletons are created.
+	 * <p>Dependencies that are only resolved during bean creation (e.g. through
+	 * autowiring) are created on demand by the thread needing them; setting an
+	 * Executor therefore also switches on
+	 * {@link #setConcurrentSingletonCreation concurrent singleton creation}.
+	 * @since 5.2.26
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setPreInstantiationExecutor(@Nullable Executor preInstantiationExecutor) {
+		this.preInstantiationExecutor = preInstantiationExecutor;
+		if (preInstantiationExecutor != null) {
+			setConcurrentSingletonCreation(true);
+		}
+	}
+
+	/**
+	 * Return the Executor for pre-instantiating singletons in parallel, if any.
+	 * @since 5.2.26
+	 */
+	@Nullable
+	public Executor getPreInstantiationExecutor() {
+		return this.preInstantiationExecutor;
+	}
+
 	/**
 	 * Set a {@link java.util.Comparator} for dependency Lists and arrays.
 	 * @since 4.0
@@ -496,10 +555,14 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 		Map<Class<?>, String[]> cache =
 				(includeNonSingletons ? this.allBeanNamesByType : this.singletonBeanNamesByType);
+		MapCacheMetrics cacheMetrics =
+				(includeNonSingletons ? this.allBeanNamesByTypeMetrics : this.singletonBeanNamesByTypeMetrics);
 		String[] resolvedBeanNames = cache.get(type);
 		if (resolvedBeanNames != null) {
+			cacheMetrics.recordHit();
 			return resolvedBeanNames;
 		}
+		cacheMetrics.recordMiss();
 		resolvedBeanNames = doGetBeanNamesForType(ResolvableType.forRawClass(type), includeNonSingletons, true);
 		if (ClassUtils.isCacheSafe(type, getBeanClassLoader())) {
 			cache.put(type, resolvedBeanNames);
@@ -873,37 +936,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 		// Trigger initialization of all non-lazy singleton beans...
 		// 触发所有的非延迟加载单例 bean 的初始化，遍历集合对象
-		for (String beanName : beanNames) {
-			// 合并父类 BeanDefinition
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			// 条件判断 不是抽象、单例、非懒加载
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				// 判断是否实现了 BeanFactory 接口
-				if (isFactoryBean(beanName)) {
-					// 根据 & + name 获取 FactoryBean
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					// 判断是否实现了 FactoryBean 接口
-					if (bean instanceof FactoryBean) {
-						FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit; // [Eager - 急切的]
-						// 判断这个 FactoryBean 是否希望急切的进行实例化
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged(
-									(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				else {
-					getBean(beanName);
-				}
+		Executor executor = this.preInstantiationExecutor;
+		if (executor != null) {
+			preInstantiateSingletonsInParallel(beanNames, executor);
+		}
+		else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -911,17 +950,192 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		for (String beanName : beanNames) {
 			Object singletonInstance = getSingleton(beanName);
 			if (singletonInstance instanceof SmartInitializingSingleton) {
+				StartupStep smartInitialize = getApplicationStartup().start("spring.beans.smart-initialize")
+						.tag("beanName", beanName);
 				SmartInitializingSingleton smartSingleton = (SmartInitializingSingleton) singletonInstance;
-				if (System.getSecurityManager() != null) {
-					AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
+				try {
+					if (System.getSecurityManager() != null) {
+						AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
+							smartSingleton.afterSingletonsInstantiated();
+							return null;
+						}, getAccessControlContext());
+					}
+					else {
 						smartSingleton.afterSingletonsInstantiated();
-						return null;
-					}, getAccessControlContext());
+					}
 				}
-				else {
-					smartSingleton.afterSingletonsInstantiated();
+				finally {
+					smartInitialize.end();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Instantiate the given bean if it is a non-lazy singleton, also considering
+	 * {@link SmartFactoryBean#isEagerInit() eager-init} FactoryBeans.
+	 * @param beanName the name of the bean
+	 */
+	private void preInstantiateSingleton(String beanName) {
+		// 合并父类 BeanDefinition
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		// 条件判断 不是抽象、单例、非懒加载
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			// 判断是否实现了 BeanFactory 接口
+			if (isFactoryBean(beanName)) {
+				// 根据 & + name 获取 FactoryBean
+				Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+				// 判断是否实现了 FactoryBean 接口
+				if (bean instanceof FactoryBean) {
+					FactoryBean<?> factory = (FactoryBean<?>) bean;
+					boolean isEagerInit; // [Eager - 急切的]
+					// 判断这个 FactoryBean 是否希望急切的进行实例化
+					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+						isEagerInit = AccessController.doPrivileged(
+								(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
+								getAccessControlContext());
+					}
+					else {
+						isEagerInit = (factory instanceof SmartFactoryBean &&
+								((SmartFactoryBean<?>) factory).isEagerInit());
+					}
+					if (isEagerInit) {
+						getBean(beanName);
+					}
 				}
 			}
+			else {
+				getBean(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Instantiate all non-lazy singletons, creating independent ones in parallel
+	 * on the given Executor according to the dependencies declared in their
+	 * merged bean definitions, and remaining ones in a dependency cycle sequentially.
+	 * @param beanNames the bean names, in registration order
+	 * @param executor the Executor to create singletons with
+	 * @see #setPreInstantiationExecutor
+	 */
+	private void preInstantiateSingletonsInParallel(List<String> beanNames, Executor executor) {
+		Map<String, Set<String>> dependencies = new LinkedHashMap<>(beanNames.size());
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+				dependencies.put(beanName, getDeclaredDependencies(bd));
+			}
+		}
+
+		// Schedule each singleton once all of its declared dependencies are created,
+		// visiting the dependency graph in topological order (Kahn's algorithm).
+		Map<String, Integer> pendingDependencyCounts = new LinkedHashMap<>(dependencies.size());
+		Map<String, List<String>> dependentBeans = new LinkedHashMap<>(dependencies.size());
+		for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+			int count = 0;
+			for (String dependency : entry.getValue()) {
+				if (dependencies.containsKey(dependency)) {
+					dependentBeans.computeIfAbsent(dependency, name -> new ArrayList<>()).add(entry.getKey());
+					count++;
+				}
+			}
+			pendingDependencyCounts.put(entry.getKey(), count);
+		}
+		List<String> schedulable = new ArrayList<>();
+		pendingDependencyCounts.forEach((beanName, count) -> {
+			if (count == 0) {
+				schedulable.add(beanName);
+			}
+		});
+
+		Map<String, CompletableFuture<Void>> creations = new LinkedHashMap<>(dependencies.size());
+		for (int i = 0; i < schedulable.size(); i++) {
+			String beanName = schedulable.get(i);
+			CompletableFuture<?>[] dependencyCreations = dependencies.get(beanName).stream()
+					.map(creations::get).filter(creation -> creation != null).toArray(CompletableFuture[]::new);
+			creations.put(beanName, CompletableFuture.allOf(dependencyCreations)
+					.thenRunAsync(() -> preInstantiateSingleton(beanName), executor));
+			for (String dependentBean : dependentBeans.getOrDefault(beanName, Collections.emptyList())) {
+				if (pendingDependencyCounts.merge(dependentBean, -1, Integer::sum) == 0) {
+					schedulable.add(dependentBean);
+				}
+			}
+		}
+
+		try {
+			CompletableFuture.allOf(creations.values().toArray(new CompletableFuture<?>[0])).join();
+		}
+		catch (CompletionException ex) {
+			// Rethrow the first failure in registration order, as sequential creation would have done.
+			for (CompletableFuture<Void> creation : creations.values()) {
+				if (creation.isCompletedExceptionally()) {
+					try {
+						creation.join();
+					}
+					catch (CompletionException creationEx) {
+						Throwable cause = creationEx.getCause();
+						if (cause instanceof RuntimeException) {
+							throw (RuntimeException) cause;
+						}
+						if (cause instanceof Error) {
+							throw (Error) cause;
+						}
+						throw new BeanCreationException("Parallel singleton pre-instantiation failed", cause);
+					}
+				}
+			}
+			throw ex;
+		}
+
+		// Singletons within (or depending on) a declared dependency cycle: one after another.
+		for (String beanName : dependencies.keySet()) {
+			if (!creations.containsKey(beanName)) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Pre-instantiating singleton '" + beanName +
+							"' sequentially because of a circular dependency declaration");
+				}
+				preInstantiateSingleton(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Determine the names of the beans that the given bean definition declares as
+	 * dependencies: its "depends-on" beans, its factory bean and any bean references
+	 * in its constructor arguments and property values.
+	 * @param bd the merged bean definition
+	 * @return the canonical names of the declared dependencies
+	 */
+	private Set<String> getDeclaredDependencies(RootBeanDefinition bd) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependsOnBean : dependsOn) {
+				dependencies.add(transformedBeanName(dependsOnBean));
+			}
+		}
+		if (bd.getFactoryBeanName() != null) {
+			dependencies.add(transformedBeanName(bd.getFactoryBeanName()));
+		}
+		if (bd.hasConstructorArgumentValues()) {
+			for (ValueHolder valueHolder : bd.getConstructorArgumentValues().getIndexedArgumentValues().values()) {
+				addDeclaredDependency(valueHolder.getValue(), dependencies);
+			}
+			for (ValueHolder valueHolder : bd.getConstructorArgumentValues().getGenericArgumentValues()) {
+				addDeclaredDependency(valueHolder.getValue(), dependencies);
+			}
+		}
+		if (bd.hasPropertyValues()) {
+			for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+				addDeclaredDependency(pv.getValue(), dependencies);
+			}
+		}
+		return dependencies;
+	}
+
+	private void addDeclaredDependency(@Nullable Object value, Set<String> dependencies) {
+		if (value instanceof RuntimeBeanReference && !((RuntimeBeanReference) value).isToParent()) {
+			dependencies.add(transformedBeanName(((RuntimeBeanReference) value).getBeanName()));
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,8 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCreationNotAllowedException;
@@ -61,6 +63,12 @@ import org.springframework.util.StringUtils;
  * (which inherit from it). Can alternatively also be used as a nested
  * helper to delegate to.
  *
+ * <p>By default, singleton creation is serialized through a single registry-wide
+ * lock (see {@link #getSingletonMutex()}). With
+ * {@link #setConcurrentSingletonCreation "concurrentSingletonCreation"} switched on,
+ * each singleton is created under its own per-bean-name lock instead, so that
+ * unrelated singletons can be created by different threads at the same time.
+ *
  * @author Juergen Hoeller
  * @since 2.0
  * @see #registerSingleton
@@ -99,7 +107,19 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private Set<Exception> suppressedExceptions;
 
 	/** Flag that indicates whether we're currently within destroySingletons. */
-	private boolean singletonsCurrentlyInDestruction = false;
+	private volatile boolean singletonsCurrentlyInDestruction = false;
+
+	/** Whether to create singletons under per-bean-name locks rather than the singleton mutex. */
+	private volatile boolean concurrentSingletonCreation = false;
+
+	/** Per-bean-name creation locks, only used in concurrent singleton creation mode. */
+	private final Map<String, SingletonCreationLock> singletonCreationLocks = new ConcurrentHashMap<>(64);
+
+	/** Threads currently creating singletons: bean name to creating thread. */
+	private final Map<String, Thread> singletonCreationThreads = new ConcurrentHashMap<>(16);
+
+	/** Threads waiting for a creation lock: thread to bean name (for deadlock detection). */
+	private final Map<Thread, String> singletonCreationWaits = new HashMap<>(16);
 
 	/** Disposable bean instances: bean name to disposable instance. */
 	private final Map<String, Object> disposableBeans = new LinkedHashMap<>();
@@ -114,6 +134,33 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
 
 
+	/**
+	 * Set whether singletons should be created under a lock per bean name rather
+	 * than under the registry-wide singleton mutex.
+	 * <p>Default is "false", serializing all singleton creation. Switch this flag
+	 * to "true" in order to allow unrelated singletons to be created concurrently,
+	 * e.g. by several threads warming up the same bean factory. The lookup of
+	 * fully initialized singletons does not lock in either mode.
+	 * <p>Circular references between singletons that happen to be created by
+	 * different threads are detected when a thread would otherwise wait for a
+	 * creation lock held by a thread which in turn waits for it; such a cycle is
+	 * resolved through an early singleton reference, just like a circular
+	 * reference within a single thread.
+	 * @since 5.2.26
+	 * @see #getSingleton(String, ObjectFactory)
+	 */
+	public void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		this.concurrentSingletonCreation = concurrentSingletonCreation;
+	}
+
+	/**
+	 * Return whether singletons are created under a lock per bean name.
+	 * @since 5.2.26
+	 */
+	public boolean isConcurrentSingletonCreation() {
+		return this.concurrentSingletonCreation;
+	}
+
 	@Override
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		Assert.notNull(beanName, "Bean name must not be null");
@@ -181,26 +228,76 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// Quick check for existing instance without full singleton lock
 		Object singletonObject = this.singletonObjects.get(beanName);
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+			if (this.concurrentSingletonCreation && !isSingletonCreationThread(beanName)) {
+				// Another thread is creating this singleton: do not expose its early reference
+				// but let the caller wait for the creation lock in getSingleton(String, ObjectFactory)
+				return null;
+			}
 			singletonObject = this.earlySingletonObjects.get(beanName);
 			if (singletonObject == null && allowEarlyReference) {
-				synchronized (this.singletonObjects) {
-					// Consistent creation of early reference within full singleton lock
-					singletonObject = this.singletonObjects.get(beanName);
+				singletonObject = getEarlySingletonReference(beanName);
+			}
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Obtain an early reference to the specified singleton, creating it through
+	 * the registered singleton factory if necessary.
+	 * @param beanName the name of the bean
+	 * @return the early singleton reference, or {@code null} if none available
+	 */
+	@Nullable
+	private Object getEarlySingletonReference(String beanName) {
+		if (!this.concurrentSingletonCreation) {
+			synchronized (this.singletonObjects) {
+				// Consistent creation of early reference within full singleton lock
+				Object singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject == null) {
+					singletonObject = this.earlySingletonObjects.get(beanName);
 					if (singletonObject == null) {
-						singletonObject = this.earlySingletonObjects.get(beanName);
-						if (singletonObject == null) {
-							ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-							if (singletonFactory != null) {
-								singletonObject = singletonFactory.getObject();
-								this.earlySingletonObjects.put(beanName, singletonObject);
-								this.singletonFactories.remove(beanName);
-							}
+						ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+						if (singletonFactory != null) {
+							singletonObject = singletonFactory.getObject();
+							this.earlySingletonObjects.put(beanName, singletonObject);
+							this.singletonFactories.remove(beanName);
 						}
 					}
 				}
+				return singletonObject;
 			}
 		}
-		return singletonObject;
+
+		// Concurrent mode: the early reference is only ever requested by the thread holding
+		// the creation lock or by a thread resolving a cross-thread circular reference while
+		// the lock holder waits for it. Do not call the factory within the singleton mutex,
+		// since the factory may in turn need to obtain other beans.
+		ObjectFactory<?> singletonFactory;
+		synchronized (this.singletonObjects) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = this.earlySingletonObjects.get(beanName);
+			}
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			singletonFactory = this.singletonFactories.get(beanName);
+			if (singletonFactory == null) {
+				return null;
+			}
+		}
+		Object earlyReference = singletonFactory.getObject();
+		synchronized (this.singletonObjects) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = this.earlySingletonObjects.putIfAbsent(beanName, earlyReference);
+				if (singletonObject == null) {
+					singletonObject = earlyReference;
+					this.singletonFactories.remove(beanName);
+				}
+			}
+			return singletonObject;
+		}
 	}
 
 	/**
@@ -213,55 +310,208 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (this.concurrentSingletonCreation) {
+			return getSingletonWithCreationLock(beanName, singletonFactory);
+		}
 		synchronized (this.singletonObjects) {
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
-				if (this.singletonsCurrentlyInDestruction) {
-					throw new BeanCreationNotAllowedException(beanName,
-							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
-							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
-				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
-				}
-				beforeSingletonCreation(beanName); // 记录当前对象的加载状态
-				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
-				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
-				}
-				try {
-					singletonObject = singletonFactory.getObject();
-					newSingleton = true;
-				}
-				catch (IllegalStateException ex) {
-					// Has the singleton object implicitly appeared in the meantime ->
-					// if yes, proceed with it since the exception indicates that state.
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						throw ex;
-					}
-				}
-				catch (BeanCreationException ex) {
-					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
-							ex.addRelatedCause(suppressedException);
-						}
-					}
-					throw ex;
+				singletonObject = createSingleton(beanName, singletonFactory);
+			}
+			return singletonObject;
+		}
+	}
+
+	/**
+	 * Variant of {@link #getSingleton(String, ObjectFactory)} for concurrent singleton
+	 * creation, holding a creation lock for the given bean name only.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton with
+	 * @return the registered singleton object
+	 */
+	private Object getSingletonWithCreationLock(String beanName, ObjectFactory<?> singletonFactory) {
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		SingletonCreationLock lock =
+				this.singletonCreationLocks.computeIfAbsent(beanName, name -> new SingletonCreationLock());
+		if (!acquireCreationLock(beanName, lock)) {
+			// Circular reference between threads: the creating thread waits for us,
+			// so proceed with its early reference just like within a single thread.
+			singletonObject = getEarlySingletonReference(beanName);
+			if (singletonObject == null) {
+				throw new BeanCurrentlyInCreationException(beanName);
+			}
+			return singletonObject;
+		}
+		this.singletonCreationThreads.put(beanName, Thread.currentThread());
+		try {
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = createSingleton(beanName, singletonFactory);
+				// Registered now: later callers find the singleton before asking for a lock.
+				this.singletonCreationLocks.remove(beanName, lock);
+			}
+			return singletonObject;
+		}
+		finally {
+			if (lock.getHoldCount() == 1) {
+				this.singletonCreationThreads.remove(beanName);
+			}
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Acquire the creation lock for the given bean name, for use by subclasses which
+	 * perform an extended singleton creation phase in concurrent singleton creation
+	 * mode (instead of synchronizing on the {@link #getSingletonMutex() singleton mutex}).
+	 * @param beanName the name of the bean
+	 * @return the lock, held by the current thread and to be released through
+	 * {@link Lock#unlock()}, or {@code null} if waiting for it would deadlock
+	 * because of a circular reference across threads
+	 * @since 5.2.26
+	 * @see #isConcurrentSingletonCreation()
+	 */
+	@Nullable
+	protected Lock acquireSingletonCreationLock(String beanName) {
+		SingletonCreationLock lock =
+				this.singletonCreationLocks.computeIfAbsent(beanName, name -> new SingletonCreationLock());
+		return (acquireCreationLock(beanName, lock) ? lock : null);
+	}
+
+	/**
+	 * Release a lock obtained from {@link #acquireSingletonCreationLock}.
+	 * <p>Once the guarded object has been completely created and cached, the lock
+	 * is discarded as well: later callers are expected to find the cached object
+	 * before asking for a lock again, while current waiters find it after
+	 * acquiring the discarded lock.
+	 * @param beanName the name of the bean
+	 * @param lock the lock held by the current thread
+	 * @param completed whether the object guarded by the lock is available now
+	 * @since 5.2.26
+	 */
+	protected void releaseSingletonCreationLock(String beanName, Lock lock, boolean completed) {
+		try {
+			if (completed && lock instanceof SingletonCreationLock &&
+					((SingletonCreationLock) lock).getHoldCount() == 1) {
+				this.singletonCreationLocks.remove(beanName, lock);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Acquire the given creation lock, unless waiting for it would deadlock
+	 * since its holder (transitively) waits for a lock held by the current thread.
+	 * @param beanName the name of the bean that the lock guards
+	 * @param lock the creation lock for the bean
+	 * @return {@code true} if the lock has been acquired, {@code false} if the
+	 * current thread participates in a circular reference across threads
+	 */
+	private boolean acquireCreationLock(String beanName, SingletonCreationLock lock) {
+		if (lock.tryLock()) {
+			return true;
+		}
+		Thread currentThread = Thread.currentThread();
+		synchronized (this.singletonCreationWaits) {
+			Thread owner = lock.getCreationThread();
+			for (int i = 0; owner != null && i <= this.singletonCreationWaits.size(); i++) {
+				if (owner == currentThread) {
+					return false;
 				}
-				finally {
-					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
+				String awaitedBeanName = this.singletonCreationWaits.get(owner);
+				SingletonCreationLock awaitedLock =
+						(awaitedBeanName != null ? this.singletonCreationLocks.get(awaitedBeanName) : null);
+				owner = (awaitedLock != null ? awaitedLock.getCreationThread() : null);
+			}
+			this.singletonCreationWaits.put(currentThread, beanName);
+		}
+		try {
+			lock.lock();
+		}
+		finally {
+			synchronized (this.singletonCreationWaits) {
+				this.singletonCreationWaits.remove(currentThread);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determine whether the specified singleton is not being created by
+	 * a thread other than the current one.
+	 * @param beanName the name of the bean
+	 */
+	private boolean isSingletonCreationThread(String beanName) {
+		Thread creationThread = this.singletonCreationThreads.get(beanName);
+		return (creationThread == null || creationThread == Thread.currentThread());
+	}
+
+	/**
+	 * Create and register the specified singleton through the given factory.
+	 * <p>Called within the singleton mutex or, in concurrent singleton creation
+	 * mode, within the creation lock for the given bean name.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to create the singleton with
+	 * @return the new singleton object
+	 */
+	private Object createSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+		if (this.singletonsCurrentlyInDestruction) {
+			throw new BeanCreationNotAllowedException(beanName,
+					"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+					"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+		}
+		beforeSingletonCreation(beanName); // 记录当前对象的加载状态
+		Object singletonObject;
+		boolean newSingleton = false;
+		boolean recordSuppressedExceptions;
+		synchronized (this.singletonObjects) {
+			recordSuppressedExceptions = (this.suppressedExceptions == null);
+			if (recordSuppressedExceptions) {
+				this.suppressedExceptions = new LinkedHashSet<>();
+			}
+		}
+		try {
+			singletonObject = singletonFactory.getObject();
+			newSingleton = true;
+		}
+		catch (IllegalStateException ex) {
+			// Has the singleton object implicitly appeared in the meantime ->
+			// if yes, proceed with it since the exception indicates that state.
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				throw ex;
+			}
+		}
+		catch (BeanCreationException ex) {
+			if (recordSuppressedExceptions) {
+				synchronized (this.singletonObjects) {
+					for (Exception suppressedException : this.suppressedExceptions) {
+						ex.addRelatedCause(suppressedException);
 					}
-					afterSingletonCreation(beanName); // 移除缓存中对该 bean 的正在加载状态记录
 				}
-				if (newSingleton) {
-					addSingleton(beanName, singletonObject);
+			}
+			throw ex;
+		}
+		finally {
+			if (recordSuppressedExceptions) {
+				synchronized (this.singletonObjects) {
+					this.suppressedExceptions = null;
 				}
 			}
-			return singletonObject;
+			afterSingletonCreation(beanName); // 移除缓存中对该 bean 的正在加载状态记录
+		}
+		if (newSingleton) {
+			addSingleton(beanName, singletonObject);
 		}
+		return singletonObject;
 	}
 
 	/**
@@ -537,6 +787,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.singletonFactories.clear();
 			this.earlySingletonObjects.clear();
 			this.registeredSingletons.clear();
+			this.singletonCreationLocks.clear();
 			this.singletonsCurrentlyInDestruction = false;
 		}
 	}
@@ -627,10 +878,28 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * any sort of extended singleton creation phase. In particular, subclasses
 	 * should <i>not</i> have their own mutexes involved in singleton creation,
 	 * to avoid the potential for deadlocks in lazy-init situations.
+	 * <p>In {@link #isConcurrentSingletonCreation() concurrent singleton creation}
+	 * mode, the mutex only guards short-lived updates of the registry state;
+	 * an extended singleton creation phase should hold the
+	 * {@link #acquireSingletonCreationLock creation lock} for the bean instead.
 	 */
 	@Override
 	public final Object getSingletonMutex() {
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * Creation lock for a single bean name, exposing its current holder
+	 * for the purpose of deadlock detection.
+	 */
+	@SuppressWarnings("serial")
+	private static class SingletonCreationLock extends ReentrantLock {
+
+		@Nullable
+		Thread getCreationThread() {
+			return getOwner();
+		}
+	}
+
 }
@@ -26,7 +26,9 @@ import java.security.Principal;
 import java.security.PrivilegedAction;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -37,6 +39,8 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -160,6 +164,87 @@ class DefaultListableBeanFactoryTests {
 		assertThat(KnowsIfInstantiated.wasInstantiated()).as("singleton was instantiated").isTrue();
 	}
 
+	@Test
+	void parallelPreInstantiation() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setPreInstantiationExecutor(executor);
+			assertThat(lbf.isConcurrentSingletonCreation()).isTrue();
+			for (int i = 0; i < 20; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(NameRecordingBean.class);
+				if (i > 0) {
+					bd.setDependsOn("bean" + (i - 1));
+				}
+				lbf.registerBeanDefinition("bean" + i, bd);
+			}
+			RootBeanDefinition lazy = new RootBeanDefinition(NameRecordingBean.class);
+			lazy.setLazyInit(true);
+			lbf.registerBeanDefinition("lazy", lazy);
+			lbf.registerBeanDefinition("callback", new RootBeanDefinition(SingletonCountingCallback.class));
+
+			NameRecordingBean.names.clear();
+			lbf.preInstantiateSingletons();
+
+			List<String> expected = IntStream.range(0, 20).mapToObj(i -> "bean" + i).collect(Collectors.toList());
+			assertThat(NameRecordingBean.names).isEqualTo(expected);
+			assertThat(lbf.containsSingleton("lazy")).isFalse();
+			SingletonCountingCallback callback = lbf.getBean(SingletonCountingCallback.class);
+			assertThat(callback.thread).isSameAs(Thread.currentThread());
+			assertThat(callback.singletonCount).isEqualTo(21);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void parallelPreInstantiationWithCircularReferences() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setPreInstantiationExecutor(executor);
+			RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+			bd1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+			lbf.registerBeanDefinition("tb1", bd1);
+			RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+			bd2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+			lbf.registerBeanDefinition("tb2", bd2);
+			RootBeanDefinition bd3 = new RootBeanDefinition(TestBean.class);
+			bd3.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+			lbf.registerBeanDefinition("tb3", bd3);
+			lbf.registerBeanDefinition("independent", new RootBeanDefinition(TestBean.class));
+
+			lbf.preInstantiateSingletons();
+
+			TestBean tb1 = lbf.getBean("tb1", TestBean.class);
+			TestBean tb2 = lbf.getBean("tb2", TestBean.class);
+			assertThat(tb1.getSpouse()).isSameAs(tb2);
+			assertThat(tb2.getSpouse()).isSameAs(tb1);
+			assertThat(lbf.getBean("tb3", TestBean.class).getSpouse()).isSameAs(tb1);
+			assertThat(lbf.containsSingleton("independent")).isTrue();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void parallelPreInstantiationWithFailure() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setPreInstantiationExecutor(executor);
+			lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.getPropertyValues().add("nonExistingProperty", "value");
+			lbf.registerBeanDefinition("broken", bd);
+
+			assertThatExceptionOfType(BeanCreationException.class).isThrownBy(lbf::preInstantiateSingletons)
+					.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("broken"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	@Test
 	void factoryBeanDidNotCreatePrototype() {
 		Properties p = new Properties();
@@ -3380,4 +3465,36 @@ class DefaultListableBeanFactoryTests {
 		}
 	}
 
+
+	public static class NameRecordingBean implements BeanNameAware {
+
+		static final List<String> names = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public void setBeanName(String name) {
+			names.add(name);
+		}
+	}
+
+
+	public static class SingletonCountingCallback implements SmartInitializingSingleton, BeanFactoryAware {
+
+		private DefaultListableBeanFactory beanFactory;
+
+		Thread thread;
+
+		int singletonCount;
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			this.beanFactory = (DefaultListableBeanFactory) beanFactory;
+		}
+
+		@Override
+		public void afterSingletonsInstantiated() {
+			this.thread = Thread.currentThread();
+			this.singletonCount = this.beanFactory.getSingletonCount();
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -134,6 +134,94 @@ public class AutowiredAnnotationBeanPostProcessorTests {
 		assertThat(bean.getTestBean2()).isSameAs(tb);
 	}
 
+	@Test
+	public void testExtendedResourceInjectionWithCompiledInjectionPlans() {
+		bpp.setCompileInjectionPlans(true);
+		RootBeanDefinition bd = new RootBeanDefinition(TypedExtendedResourceInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		TestBean tb = new TestBean();
+		bf.registerSingleton("testBean", tb);
+		NestedTestBean ntb = new NestedTestBean();
+		bf.registerSingleton("nestedTestBean", ntb);
+
+		for (int i = 0; i < 3; i++) {
+			TypedExtendedResourceInjectionBean bean = (TypedExtendedResourceInjectionBean) bf.getBean("annotatedBean");
+			assertThat(bean.getTestBean()).isSameAs(tb);
+			assertThat(bean.getTestBean2()).isSameAs(tb);
+			assertThat(bean.getTestBean3()).isSameAs(tb);
+			assertThat(bean.getTestBean4()).isSameAs(tb);
+			assertThat(bean.getNestedTestBean()).isSameAs(ntb);
+			assertThat(bean.getBeanFactory()).isSameAs(bf);
+		}
+	}
+
+	@Test
+	public void testCompiledInjectionPlansWithReplacedSingleton() {
+		bpp.setCompileInjectionPlans(true);
+		RootBeanDefinition bd = new RootBeanDefinition(ResourceInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		bf.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+
+		ResourceInjectionBean bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		TestBean tb = bf.getBean("testBean", TestBean.class);
+		assertThat(bean.getTestBean()).isSameAs(tb);
+		bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		assertThat(bean.getTestBean()).isSameAs(tb);
+		assertThat(bean.getTestBean2()).isSameAs(tb);
+
+		bf.destroySingleton("testBean");
+		bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		TestBean tb2 = bf.getBean("testBean", TestBean.class);
+		assertThat(tb2).isNotSameAs(tb);
+		assertThat(bean.getTestBean()).isSameAs(tb2);
+		assertThat(bean.getTestBean2()).isSameAs(tb2);
+
+		bf.removeBeanDefinition("testBean");
+		bf.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+		bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		TestBean tb3 = bf.getBean("testBean", TestBean.class);
+		assertThat(tb3).isNotSameAs(tb2);
+		assertThat(bean.getTestBean()).isSameAs(tb3);
+		assertThat(bean.getTestBean2()).isSameAs(tb3);
+	}
+
+	@Test
+	public void testCompiledInjectionPlansWithFactoryBeanDependency() {
+		bpp.setCompileInjectionPlans(true);
+		RootBeanDefinition bd = new RootBeanDefinition(ResourceInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		bf.registerBeanDefinition("testBean", new RootBeanDefinition(TestBeanExposingFactoryBean.class));
+
+		TestBean tb = bf.getBean("testBean", TestBean.class);
+		assertThat(tb).isNotInstanceOf(FactoryBean.class);
+		for (int i = 0; i < 3; i++) {
+			ResourceInjectionBean bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+			assertThat(bean.getTestBean()).isSameAs(tb);
+			assertThat(bean.getTestBean2()).isSameAs(tb);
+		}
+	}
+
+	@Test
+	public void testCompiledInjectionPlansWithPrototypeDependency() {
+		bpp.setCompileInjectionPlans(true);
+		RootBeanDefinition bd = new RootBeanDefinition(ResourceInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		RootBeanDefinition tbd = new RootBeanDefinition(TestBean.class);
+		tbd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("testBean", tbd);
+
+		ResourceInjectionBean bean1 = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		ResourceInjectionBean bean2 = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		ResourceInjectionBean bean3 = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		assertThat(bean2.getTestBean()).isNotNull().isNotSameAs(bean1.getTestBean());
+		assertThat(bean3.getTestBean()).isNotNull().isNotSameAs(bean2.getTestBean());
+		assertThat(bean3.getTestBean2()).isNotNull().isNotSameAs(bean3.getTestBean());
+	}
+
 	@Test
 	public void testExtendedResourceInjection() {
 		RootBeanDefinition bd = new RootBeanDefinition(TypedExtendedResourceInjectionBean.class);
@@ -4007,6 +4095,22 @@ public class AutowiredAnnotationBeanPostProcessorTests {
 	}
 
 
+	public static class TestBeanExposingFactoryBean extends TestBean implements FactoryBean<TestBean> {
+
+		private final TestBean exposedTestBean = new TestBean();
+
+		@Override
+		public TestBean getObject() {
+			return this.exposedTestBean;
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return TestBean.class;
+		}
+	}
+
+
 	public static class TestBeanFactory {
 
 		@Order(1)
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,27 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.testfixture.beans.DerivedTestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.beans.testfixture.beans.factory.DummyFactory;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * @author Juergen Hoeller
@@ -101,4 +114,153 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+	@Test
+	public void testConcurrentSingletonCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		CountDownLatch bothInCreation = new CountDownLatch(2);
+
+		// Each factory only completes once the other one runs: would time out with a registry-wide lock
+		ObjectFactory<Object> factory = () -> {
+			bothInCreation.countDown();
+			try {
+				return bothInCreation.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				throw new IllegalStateException(ex);
+			}
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> tb1 = executor.submit(() -> beanRegistry.getSingleton("tb1", factory));
+			Future<Object> tb2 = executor.submit(() -> beanRegistry.getSingleton("tb2", factory));
+
+			assertThat(tb1.get(10, TimeUnit.SECONDS)).isEqualTo(true);
+			assertThat(tb2.get(10, TimeUnit.SECONDS)).isEqualTo(true);
+			assertThat(beanRegistry.getSingleton("tb1")).isSameAs(tb1.get());
+			assertThat(beanRegistry.getSingletonCount()).isEqualTo(2);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentSingletonCreationWithCircularReferenceInSameThread() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setConcurrentSingletonCreation(true);
+		RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+		bd1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		beanFactory.registerBeanDefinition("tb1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+		bd2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+		beanFactory.registerBeanDefinition("tb2", bd2);
+
+		TestBean tb1 = beanFactory.getBean("tb1", TestBean.class);
+		TestBean tb2 = beanFactory.getBean("tb2", TestBean.class);
+		assertThat(tb1.getSpouse()).isSameAs(tb2);
+		assertThat(tb2.getSpouse()).isSameAs(tb1);
+	}
+
+	@Test
+	public void testConcurrentSingletonCreationWithCircularReferenceAcrossThreads() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setConcurrentSingletonCreation(true);
+		RootBeanDefinition bd1 = new RootBeanDefinition(LatchedTestBean.class);
+		bd1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		beanFactory.registerBeanDefinition("tb1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(LatchedTestBean.class);
+		bd2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+		beanFactory.registerBeanDefinition("tb2", bd2);
+
+		// Both beans get instantiated by different threads before either one resolves its spouse
+		LatchedTestBean.latch = new CountDownLatch(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<TestBean> tb1 = executor.submit(() -> beanFactory.getBean("tb1", TestBean.class));
+			Future<TestBean> tb2 = executor.submit(() -> beanFactory.getBean("tb2", TestBean.class));
+
+			assertThat(tb1.get(10, TimeUnit.SECONDS).getSpouse()).isSameAs(tb2.get(10, TimeUnit.SECONDS));
+			assertThat(tb2.get().getSpouse()).isSameAs(tb1.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentSingletonCreationWithUnresolvableCircularReference() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setConcurrentSingletonCreation(true);
+		RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+		bd1.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("tb2"));
+		beanFactory.registerBeanDefinition("tb1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+		bd2.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("tb1"));
+		beanFactory.registerBeanDefinition("tb2", bd2);
+
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() ->
+				beanFactory.getBean("tb1"))
+				.satisfies(ex -> assertThat(ex.contains(BeanCurrentlyInCreationException.class)).isTrue());
+	}
+
+	@Test
+	public void testConcurrentSingletonCreationWithFactoryBean() {
+		AtomicInteger lockCount = new AtomicInteger();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory() {
+			@Override
+			protected Lock acquireSingletonCreationLock(String beanName) {
+				lockCount.incrementAndGet();
+				return super.acquireSingletonCreationLock(beanName);
+			}
+		};
+		beanFactory.setConcurrentSingletonCreation(true);
+		beanFactory.registerBeanDefinition("factory", new RootBeanDefinition(DummyFactory.class));
+
+		Object product = beanFactory.getBean("factory");
+		int locksForCreation = lockCount.get();
+		assertThat(beanFactory.getBean("factory")).isSameAs(product);
+		assertThat(beanFactory.getBean("factory")).isSameAs(product);
+		assertThat(lockCount.get()).isEqualTo(locksForCreation);
+	}
+
+	@Test
+	public void testConcurrentSingletonCreationWithFactoryBeanTypeCheck() {
+		AtomicInteger lockCount = new AtomicInteger();
+		AtomicInteger completedCount = new AtomicInteger();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory() {
+			@Override
+			protected Lock acquireSingletonCreationLock(String beanName) {
+				lockCount.incrementAndGet();
+				return super.acquireSingletonCreationLock(beanName);
+			}
+			@Override
+			protected void releaseSingletonCreationLock(String beanName, Lock lock, boolean completed) {
+				if (completed) {
+					completedCount.incrementAndGet();
+				}
+				super.releaseSingletonCreationLock(beanName, lock, completed);
+			}
+		};
+		beanFactory.setConcurrentSingletonCreation(true);
+		beanFactory.registerBeanDefinition("factory", new RootBeanDefinition(DummyFactory.class));
+
+		assertThat(beanFactory.getType("factory")).isEqualTo(TestBean.class);
+		assertThat(lockCount.get()).isEqualTo(1);
+		assertThat(completedCount.get()).isEqualTo(1);
+		assertThat(beanFactory.getType("factory")).isEqualTo(TestBean.class);
+		assertThat(lockCount.get()).isEqualTo(1);
+	}
+
+
+	public static class LatchedTestBean extends TestBean {
+
+		static volatile CountDownLatch latch;
+
+		public LatchedTestBean() throws InterruptedException {
+			latch.countDown();
+			latch.await(5, TimeUnit.SECONDS);
+		}
+	}
+
 }
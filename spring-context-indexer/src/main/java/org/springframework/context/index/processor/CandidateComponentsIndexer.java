@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.Completion;
@@ -38,7 +39,8 @@ import javax.lang.model.element.TypeElement;
 
 /**
  * Annotation {@link Processor} that writes {@link CandidateComponentsMetadata}
- * file for spring components.
+ * file for spring components, along with the class-level metadata of those
+ * components (see {@link ClassMetadataEncoder}).
  *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
@@ -55,6 +57,8 @@ public class CandidateComponentsIndexer implements Processor {
 
 	private TypeHelper typeHelper;
 
+	private ClassMetadataEncoder classMetadataEncoder;
+
 	private List<StereotypesProvider> stereotypesProviders;
 
 
@@ -77,8 +81,10 @@ public class CandidateComponentsIndexer implements Processor {
 	public synchronized void init(ProcessingEnvironment env) {
 		this.stereotypesProviders = getStereotypesProviders(env);
 		this.typeHelper = new TypeHelper(env);
+		this.classMetadataEncoder = new ClassMetadataEncoder(env);
 		this.metadataStore = new MetadataStore(env);
-		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata());
+		this.metadataCollector = new MetadataCollector(env,
+				this.metadataStore.readMetadata(), this.metadataStore.readClassMetadata());
 	}
 
 	@Override
@@ -118,6 +124,12 @@ public class CandidateComponentsIndexer implements Processor {
 		this.stereotypesProviders.forEach(p -> stereotypes.addAll(p.getStereotypes(element)));
 		if (!stereotypes.isEmpty()) {
 			this.metadataCollector.add(new ItemMetadata(this.typeHelper.getType(element), stereotypes));
+			if (element instanceof TypeElement) {
+				Map<String, String> classMetadata = this.classMetadataEncoder.encode((TypeElement) element);
+				if (classMetadata != null) {
+					this.metadataCollector.addClassMetadata(classMetadata);
+				}
+			}
 		}
 	}
 
@@ -126,6 +138,7 @@ public class CandidateComponentsIndexer implements Processor {
 		if (!metadata.getItems().isEmpty()) {
 			try {
 				this.metadataStore.writeMetadata(metadata);
+				this.metadataStore.writeClassMetadata(this.metadataCollector.getClassMetadata());
 			}
 			catch (IOException ex) {
 				throw new IllegalStateException("Failed to write metadata", ex);
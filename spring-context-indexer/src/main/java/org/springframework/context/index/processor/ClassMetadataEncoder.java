@@ -0,0 +1,281 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Encode the class-level metadata of a candidate type (as otherwise read from
+ * the class file by Spring's {@code MetadataReader}) into index entries.
+ *
+ * <p>For a type {@code com.example.Foo}, the following entries are written:
+ * <ul>
+ * <li>{@code com.example.Foo}: the flags of the type ({@code interface},
+ * {@code annotation}, {@code abstract}, {@code final}, {@code independent})</li>
+ * <li>{@code com.example.Foo#super}, {@code #interfaces}, {@code #enclosing} and
+ * {@code #members}: the related type names</li>
+ * <li>{@code com.example.Foo#annotations}: the runtime annotations of the type</li>
+ * <li>{@code com.example.Foo#method.<index>}: the annotated methods and constructors,
+ * as {@code name:returnType:flags:annotations} (e.g. {@code @Bean} methods and
+ * {@code @Autowired} constructors)</li>
+ * </ul>
+ * Annotations are encoded as {@code @type(name="value",array={"a","b"},nested=@type())},
+ * with all explicit values encoded as quoted strings: class values use the binary
+ * class name and enum values the name of the constant. Default values are omitted.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ */
+class ClassMetadataEncoder {
+
+	static final char TYPE_SEPARATOR = '#';
+
+	private final Elements elements;
+
+	private final Types types;
+
+
+	public ClassMetadataEncoder(ProcessingEnvironment env) {
+		this.elements = env.getElementUtils();
+		this.types = env.getTypeUtils();
+	}
+
+
+	/**
+	 * Encode the metadata of the specified type.
+	 * @param type the type to handle
+	 * @return the index entries, or {@code null} if the metadata of the type cannot
+	 * be determined completely (for instance, if it refers to types that are not
+	 * available yet)
+	 */
+	public Map<String, String> encode(TypeElement type) {
+		try {
+			return doEncode(type);
+		}
+		catch (IncompleteMetadataException ex) {
+			return null;
+		}
+	}
+
+	private Map<String, String> doEncode(TypeElement type) {
+		Map<String, String> entries = new LinkedHashMap<>();
+		String className = getBinaryName(type);
+		String prefix = className + TYPE_SEPARATOR;
+		entries.put(className, getTypeFlags(type));
+		if (type.getKind() == ElementKind.CLASS || type.getKind() == ElementKind.ENUM) {
+			TypeMirror superclass = type.getSuperclass();
+			if (superclass.getKind() != TypeKind.NONE) {
+				entries.put(prefix + "super", getClassName(superclass));
+			}
+		}
+		List<String> interfaceNames = new ArrayList<>();
+		for (TypeMirror candidate : type.getInterfaces()) {
+			interfaceNames.add(getClassName(candidate));
+		}
+		putIfNotEmpty(entries, prefix + "interfaces", String.join(",", interfaceNames));
+		Element enclosingElement = type.getEnclosingElement();
+		if (enclosingElement instanceof TypeElement) {
+			entries.put(prefix + "enclosing", getBinaryName((TypeElement) enclosingElement));
+		}
+
+		List<String> memberNames = new ArrayList<>();
+		int methodIndex = 0;
+		for (Element member : type.getEnclosedElements()) {
+			if (member instanceof TypeElement) {
+				memberNames.add(getBinaryName((TypeElement) member));
+			}
+			else if (member instanceof ExecutableElement) {
+				String annotations = encodeAnnotations(member);
+				if (!annotations.isEmpty()) {
+					entries.put(prefix + "method." + (methodIndex++), encodeMethod((ExecutableElement) member, annotations));
+				}
+			}
+		}
+		putIfNotEmpty(entries, prefix + "members", String.join(",", memberNames));
+		putIfNotEmpty(entries, prefix + "annotations", encodeAnnotations(type));
+		return entries;
+	}
+
+	private String getTypeFlags(TypeElement type) {
+		Set<Modifier> modifiers = type.getModifiers();
+		ElementKind kind = type.getKind();
+		List<String> flags = new ArrayList<>();
+		if (kind == ElementKind.INTERFACE || kind == ElementKind.ANNOTATION_TYPE) {
+			flags.add("interface");
+			flags.add("abstract");
+		}
+		else if (modifiers.contains(Modifier.ABSTRACT)) {
+			flags.add("abstract");
+		}
+		if (kind == ElementKind.ANNOTATION_TYPE) {
+			flags.add("annotation");
+		}
+		if (modifiers.contains(Modifier.FINAL)) {
+			flags.add("final");
+		}
+		if (!(type.getEnclosingElement() instanceof TypeElement) || modifiers.contains(Modifier.STATIC) ||
+				kind == ElementKind.INTERFACE || kind == ElementKind.ANNOTATION_TYPE || kind == ElementKind.ENUM) {
+			flags.add("independent");
+		}
+		return String.join(",", flags);
+	}
+
+	private String encodeMethod(ExecutableElement method, String annotations) {
+		Set<Modifier> modifiers = method.getModifiers();
+		boolean constructor = (method.getKind() == ElementKind.CONSTRUCTOR);
+		List<String> flags = new ArrayList<>();
+		for (Modifier modifier : new Modifier[] {Modifier.ABSTRACT, Modifier.STATIC, Modifier.FINAL, Modifier.PRIVATE}) {
+			if (modifiers.contains(modifier)) {
+				flags.add(modifier.toString());
+			}
+		}
+		String name = (constructor ? "<init>" : method.getSimpleName().toString());
+		String returnType = (constructor ? "void" : getClassName(method.getReturnType()));
+		return name + ":" + returnType + ":" + String.join(",", flags) + ":" + annotations;
+	}
+
+	private String encodeAnnotations(Element element) {
+		StringBuilder result = new StringBuilder();
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (annotation.getAnnotationType().getKind() == TypeKind.ERROR) {
+				throw new IncompleteMetadataException();
+			}
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			Retention retention = annotationType.getAnnotation(Retention.class);
+			if (retention != null && retention.value() == RetentionPolicy.RUNTIME &&
+					!getBinaryName(annotationType).startsWith("java.lang.")) {
+				encodeAnnotation(annotation, result);
+			}
+		}
+		return result.toString();
+	}
+
+	private void encodeAnnotation(AnnotationMirror annotation, StringBuilder result) {
+		result.append('@').append(getBinaryName((TypeElement) annotation.getAnnotationType().asElement()));
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotation.getElementValues();
+		if (!values.isEmpty()) {
+			result.append('(');
+			boolean first = true;
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+				if (!first) {
+					result.append(',');
+				}
+				result.append(entry.getKey().getSimpleName()).append('=');
+				encodeValue(entry.getValue().getValue(), result);
+				first = false;
+			}
+			result.append(')');
+		}
+	}
+
+	private void encodeValue(Object value, StringBuilder result) {
+		if (value instanceof AnnotationMirror) {
+			encodeAnnotation((AnnotationMirror) value, result);
+		}
+		else if (value instanceof List) {
+			result.append('{');
+			boolean first = true;
+			for (Object element : (List<?>) value) {
+				if (!first) {
+					result.append(',');
+				}
+				encodeValue(((AnnotationValue) element).getValue(), result);
+				first = false;
+			}
+			result.append('}');
+		}
+		else if (value instanceof TypeMirror) {
+			encodeString(getClassName((TypeMirror) value), result);
+		}
+		else if (value instanceof VariableElement) {
+			encodeString(((VariableElement) value).getSimpleName().toString(), result);
+		}
+		else if (value instanceof String && "<error>".equals(value)) {
+			throw new IncompleteMetadataException();
+		}
+		else {
+			encodeString(String.valueOf(value), result);
+		}
+	}
+
+	private void encodeString(String value, StringBuilder result) {
+		result.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				result.append('\\');
+			}
+			result.append(c);
+		}
+		result.append('"');
+	}
+
+	private String getClassName(TypeMirror type) {
+		TypeMirror erasure = this.types.erasure(type);
+		if (erasure.getKind() == TypeKind.ERROR) {
+			throw new IncompleteMetadataException();
+		}
+		if (erasure instanceof ArrayType) {
+			return getClassName(((ArrayType) erasure).getComponentType()) + "[]";
+		}
+		if (erasure instanceof DeclaredType) {
+			return getBinaryName((TypeElement) ((DeclaredType) erasure).asElement());
+		}
+		return erasure.toString();
+	}
+
+	private String getBinaryName(TypeElement type) {
+		return this.elements.getBinaryName(type).toString();
+	}
+
+	private static void putIfNotEmpty(Map<String, String> entries, String key, String value) {
+		if (!value.isEmpty()) {
+			entries.put(key, value);
+		}
+	}
+
+
+	/**
+	 * Signal that the metadata of a type refers to types that cannot be resolved.
+	 */
+	@SuppressWarnings("serial")
+	private static class IncompleteMetadataException extends RuntimeException {
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,7 +18,10 @@ package org.springframework.context.index.processor;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
 import javax.annotation.processing.ProcessingEnvironment;
@@ -40,6 +43,10 @@ class MetadataCollector {
 
 	private final CandidateComponentsMetadata previousMetadata;
 
+	private final Map<String, String> classMetadata = new LinkedHashMap<>();
+
+	private final Properties previousClassMetadata;
+
 	private final TypeHelper typeHelper;
 
 	private final Set<String> processedSourceTypes = new HashSet<>();
@@ -49,12 +56,14 @@ class MetadataCollector {
 	 * Create a new {@code MetadataProcessor} instance.
 	 * @param processingEnvironment the processing environment of the build
 	 * @param previousMetadata any previous metadata or {@code null}
+	 * @param previousClassMetadata any previous class metadata or {@code null}
 	 */
 	public MetadataCollector(ProcessingEnvironment processingEnvironment,
-			CandidateComponentsMetadata previousMetadata) {
+			CandidateComponentsMetadata previousMetadata, Properties previousClassMetadata) {
 
 		this.processingEnvironment = processingEnvironment;
 		this.previousMetadata = previousMetadata;
+		this.previousClassMetadata = previousClassMetadata;
 		this.typeHelper = new TypeHelper(processingEnvironment);
 	}
 
@@ -75,6 +84,24 @@ class MetadataCollector {
 		this.metadataItems.add(metadata);
 	}
 
+	public void addClassMetadata(Map<String, String> entries) {
+		this.classMetadata.putAll(entries);
+	}
+
+	public Map<String, String> getClassMetadata() {
+		Map<String, String> metadata = new LinkedHashMap<>(this.classMetadata);
+		if (this.previousClassMetadata != null) {
+			this.previousClassMetadata.forEach((key, value) -> {
+				String entry = (String) key;
+				String sourceType = getTopLevelType(entry);
+				if (!deletedInCurrentBuild(sourceType) && !processedInCurrentBuild(sourceType)) {
+					metadata.putIfAbsent(entry, (String) value);
+				}
+			});
+		}
+		return metadata;
+	}
+
 	public CandidateComponentsMetadata getMetadata() {
 		CandidateComponentsMetadata metadata = new CandidateComponentsMetadata();
 		for (ItemMetadata item : this.metadataItems) {
@@ -91,6 +118,13 @@ class MetadataCollector {
 		return metadata;
 	}
 
+	private String getTopLevelType(String classMetadataEntry) {
+		int separator = classMetadataEntry.indexOf(ClassMetadataEncoder.TYPE_SEPARATOR);
+		String type = (separator != -1 ? classMetadataEntry.substring(0, separator) : classMetadataEntry);
+		int nestedSeparator = type.indexOf('$');
+		return (nestedSeparator != -1 ? type.substring(0, nestedSeparator) : type);
+	}
+
 	private boolean shouldBeMerged(ItemMetadata itemMetadata) {
 		String sourceType = itemMetadata.getType();
 		return (sourceType != null && !deletedInCurrentBuild(sourceType)
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.context.index.processor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.tools.FileObject;
@@ -34,6 +36,8 @@ class MetadataStore {
 
 	static final String METADATA_PATH = "META-INF/spring.components";
 
+	static final String CLASS_METADATA_PATH = "META-INF/spring.components.metadata";
+
 	private final ProcessingEnvironment environment;
 
 
@@ -61,6 +65,30 @@ class MetadataStore {
 	}
 
 
+	public Properties readClassMetadata() {
+		try (InputStream in = getResource(CLASS_METADATA_PATH).openInputStream()) {
+			Properties properties = new Properties();
+			properties.load(in);
+			return properties;
+		}
+		catch (IOException ex) {
+			// Failed to read metadata -> ignore.
+			return null;
+		}
+	}
+
+	public void writeClassMetadata(Map<String, String> classMetadata) throws IOException {
+		if (!classMetadata.isEmpty()) {
+			Properties props = new SortedProperties(true);
+			props.putAll(classMetadata);
+			try (OutputStream outputStream = this.environment.getFiler().createResource(
+					StandardLocation.CLASS_OUTPUT, "", CLASS_METADATA_PATH).openOutputStream()) {
+				props.store(outputStream, null);
+			}
+		}
+	}
+
+
 	private CandidateComponentsMetadata readMetadata(InputStream in) throws IOException {
 		try {
 			return PropertiesMarshaller.read(in);
@@ -71,7 +99,11 @@ class MetadataStore {
 	}
 
 	private FileObject getMetadataResource() throws IOException {
-		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return getResource(METADATA_PATH);
+	}
+
+	private FileObject getResource(String path) throws IOException {
+		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
 	private FileObject createMetadataResource() throws IOException {
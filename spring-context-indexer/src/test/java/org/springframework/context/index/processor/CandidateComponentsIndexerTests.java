@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Properties;
 
 import javax.annotation.ManagedBean;
 import javax.inject.Named;
@@ -36,6 +37,7 @@ import org.junit.jupiter.api.io.TempDir;
 import org.springframework.context.index.sample.AbstractController;
 import org.springframework.context.index.sample.MetaControllerIndexed;
 import org.springframework.context.index.sample.SampleComponent;
+import org.springframework.context.index.sample.SampleConfiguration;
 import org.springframework.context.index.sample.SampleController;
 import org.springframework.context.index.sample.SampleEmbedded;
 import org.springframework.context.index.sample.SampleMetaController;
@@ -218,6 +220,35 @@ class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems()).hasSize(0);
 	}
 
+	@Test
+	void classMetadataForConfiguration() throws IOException {
+		compile(SampleConfiguration.class);
+		Properties classMetadata = readGeneratedClassMetadata(this.compiler.getOutputLocation());
+		String prefix = SampleConfiguration.class.getName() + "#";
+		assertThat(classMetadata.getProperty(SampleConfiguration.class.getName())).isEqualTo("independent");
+		assertThat(classMetadata.getProperty(prefix + "super")).isEqualTo("java.lang.Object");
+		assertThat(classMetadata.getProperty(prefix + "annotations")).isEqualTo(
+				"@org.springframework.context.annotation.Configuration(proxyBeanMethods=\"false\")");
+		assertThat(classMetadata.getProperty(prefix + "method.0")).isEqualTo(
+				"sampleComponent:" + SampleComponent.class.getName() + ":static:" +
+				"@org.springframework.context.annotation.Bean" +
+				"@org.springframework.context.annotation.Profile(value={\"dev\"})");
+		assertThat(classMetadata.getProperty(prefix + "method.1")).isEqualTo(
+				"sampleControllers:" + SampleController.class.getName() + "[]::" +
+				"@org.springframework.context.annotation.Bean(initMethod=\"init\")");
+		assertThat(classMetadata.getProperty(prefix + "method.2")).isNull();
+		assertThat(classMetadata.getProperty(prefix + "field.0")).isNull();
+	}
+
+	@Test
+	void classMetadataForNestedCandidates() throws IOException {
+		compile(SampleEmbedded.class);
+		Properties classMetadata = readGeneratedClassMetadata(this.compiler.getOutputLocation());
+		String nestedType = SampleEmbedded.PublicCandidate.class.getName();
+		assertThat(classMetadata.getProperty(nestedType)).isEqualTo("independent");
+		assertThat(classMetadata.getProperty(nestedType + "#enclosing")).isEqualTo(SampleEmbedded.class.getName());
+	}
+
 	private void testComponent(Class<?>... classes) {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
@@ -244,6 +275,15 @@ class CandidateComponentsIndexerTests {
 		return readGeneratedMetadata(this.compiler.getOutputLocation());
 	}
 
+	private Properties readGeneratedClassMetadata(File outputLocation) throws IOException {
+		Properties properties = new Properties();
+		try (FileInputStream fileInputStream = new FileInputStream(
+				new File(outputLocation, MetadataStore.CLASS_METADATA_PATH))) {
+			properties.load(fileInputStream);
+		}
+		return properties;
+	}
+
 	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation) {
 		File metadataFile = new File(outputLocation, MetadataStore.METADATA_PATH);
 		if (metadataFile.isFile()) {
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.sample;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Test candidate for {@link Configuration} with {@link Bean} methods and
+ * injection points.
+ *
+ * @author Peggy M
+ */
+@Configuration(proxyBeanMethods = false)
+public class SampleConfiguration {
+
+	@Autowired
+	private SampleService service;
+
+	@Bean
+	@Profile("dev")
+	public static SampleComponent sampleComponent() {
+		return new SampleComponent();
+	}
+
+	@Bean(initMethod = "init")
+	SampleController[] sampleControllers() {
+		return new SampleController[0];
+	}
+
+	public void notABean() {
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,15 +22,24 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.cache.interceptor.CacheEvictOperation;
 import org.springframework.cache.interceptor.CacheOperation;
 import org.springframework.cache.interceptor.CachePutOperation;
 import org.springframework.cache.interceptor.CacheableOperation;
-import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotationPredicates;
+import org.springframework.core.annotation.MergedAnnotationSelectors;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.core.annotation.RepeatableContainers;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 
@@ -95,39 +104,70 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 	private Collection<CacheOperation> parseCacheAnnotations(
 			DefaultCacheConfig cachingConfig, AnnotatedElement ae, boolean localOnly) {
 
-		Collection<? extends Annotation> anns = (localOnly ?
-				AnnotatedElementUtils.getAllMergedAnnotations(ae, CACHE_OPERATION_ANNOTATIONS) :
-				AnnotatedElementUtils.findAllMergedAnnotations(ae, CACHE_OPERATION_ANNOTATIONS));
+		// Same selection as AnnotatedElementUtils.getAllMergedAnnotations / findAllMergedAnnotations,
+		// reading the attributes of each merged annotation without synthesizing it
+		MergedAnnotations annotations = MergedAnnotations.from(ae, (localOnly ?
+				SearchStrategy.INHERITED_ANNOTATIONS : SearchStrategy.TYPE_HIERARCHY), RepeatableContainers.none());
+		List<MergedAnnotation<Annotation>> anns = annotations.stream()
+				.filter(MergedAnnotationPredicates.typeIn(CACHE_OPERATION_ANNOTATIONS))
+				.collect(Collectors.toList());
 		if (anns.isEmpty()) {
 			return null;
 		}
+		if (!localOnly) {
+			anns.sort((ann1, ann2) -> Integer.compare(ann2.getAggregateIndex(), ann1.getAggregateIndex()));
+		}
 
 		final Collection<CacheOperation> ops = new ArrayList<>(1);
-		anns.stream().filter(ann -> ann instanceof Cacheable).forEach(
-				ann -> ops.add(parseCacheableAnnotation(ae, cachingConfig, (Cacheable) ann)));
-		anns.stream().filter(ann -> ann instanceof CacheEvict).forEach(
-				ann -> ops.add(parseEvictAnnotation(ae, cachingConfig, (CacheEvict) ann)));
-		anns.stream().filter(ann -> ann instanceof CachePut).forEach(
-				ann -> ops.add(parsePutAnnotation(ae, cachingConfig, (CachePut) ann)));
-		anns.stream().filter(ann -> ann instanceof Caching).forEach(
-				ann -> parseCachingAnnotation(ae, cachingConfig, (Caching) ann, ops));
+		for (Class<? extends Annotation> annotationType : CACHE_OPERATION_ANNOTATIONS) {
+			Set<List<CacheOperation>> distinctOps = new HashSet<>(4);
+			for (MergedAnnotation<Annotation> ann : anns) {
+				if (ann.getType() == annotationType) {
+					List<CacheOperation> annOps = parseCacheOperationAnnotation(ae, cachingConfig, ann);
+					// Equal annotations (e.g. redeclared on an interface) result in equal operations
+					if (distinctOps.add(annOps)) {
+						ops.addAll(annOps);
+					}
+				}
+			}
+		}
 		return ops;
 	}
 
+	private List<CacheOperation> parseCacheOperationAnnotation(
+			AnnotatedElement ae, DefaultCacheConfig defaultConfig, MergedAnnotation<?> ann) {
+
+		Class<? extends Annotation> annotationType = ann.getType();
+		if (annotationType == Cacheable.class) {
+			return Collections.singletonList(parseCacheableAnnotation(ae, defaultConfig, ann));
+		}
+		else if (annotationType == CacheEvict.class) {
+			return Collections.singletonList(parseEvictAnnotation(ae, defaultConfig, ann));
+		}
+		else if (annotationType == CachePut.class) {
+			return Collections.singletonList(parsePutAnnotation(ae, defaultConfig, ann));
+		}
+		else {
+			List<CacheOperation> ops = new ArrayList<>();
+			parseCachingAnnotation(ae, defaultConfig, ann, ops);
+			return ops;
+		}
+	}
+
 	private CacheableOperation parseCacheableAnnotation(
-			AnnotatedElement ae, DefaultCacheConfig defaultConfig, Cacheable cacheable) {
+			AnnotatedElement ae, DefaultCacheConfig defaultConfig, MergedAnnotation<?> cacheable) {
 
 		CacheableOperation.Builder builder = new CacheableOperation.Builder();
 
 		builder.setName(ae.toString());
-		builder.setCacheNames(cacheable.cacheNames());
-		builder.setCondition(cacheable.condition());
-		builder.setUnless(cacheable.unless());
-		builder.setKey(cacheable.key());
-		builder.setKeyGenerator(cacheable.keyGenerator());
-		builder.setCacheManager(cacheable.cacheManager());
-		builder.setCacheResolver(cacheable.cacheResolver());
-		builder.setSync(cacheable.sync());
+		builder.setCacheNames(cacheable.getStringArray("cacheNames"));
+		builder.setCondition(cacheable.getString("condition"));
+		builder.setUnless(cacheable.getString("unless"));
+		builder.setKey(cacheable.getString("key"));
+		builder.setKeyGenerator(cacheable.getString("keyGenerator"));
+		builder.setCacheManager(cacheable.getString("cacheManager"));
+		builder.setCacheResolver(cacheable.getString("cacheResolver"));
+		builder.setSync(cacheable.getBoolean("sync"));
 
 		defaultConfig.applyDefault(builder);
 		CacheableOperation op = builder.build();
@@ -137,19 +177,19 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 	}
 
 	private CacheEvictOperation parseEvictAnnotation(
-			AnnotatedElement ae, DefaultCacheConfig defaultConfig, CacheEvict cacheEvict) {
+			AnnotatedElement ae, DefaultCacheConfig defaultConfig, MergedAnnotation<?> cacheEvict) {
 
 		CacheEvictOperation.Builder builder = new CacheEvictOperation.Builder();
 
 		builder.setName(ae.toString());
-		builder.setCacheNames(cacheEvict.cacheNames());
-		builder.setCondition(cacheEvict.condition());
-		builder.setKey(cacheEvict.key());
-		builder.setKeyGenerator(cacheEvict.keyGenerator());
-		builder.setCacheManager(cacheEvict.cacheManager());
-		builder.setCacheResolver(cacheEvict.cacheResolver());
-		builder.setCacheWide(cacheEvict.allEntries());
-		builder.setBeforeInvocation(cacheEvict.beforeInvocation());
+		builder.setCacheNames(cacheEvict.getStringArray("cacheNames"));
+		builder.setCondition(cacheEvict.getString("condition"));
+		builder.setKey(cacheEvict.getString("key"));
+		builder.setKeyGenerator(cacheEvict.getString("keyGenerator"));
+		builder.setCacheManager(cacheEvict.getString("cacheManager"));
+		builder.setCacheResolver(cacheEvict.getString("cacheResolver"));
+		builder.setCacheWide(cacheEvict.getBoolean("allEntries"));
+		builder.setBeforeInvocation(cacheEvict.getBoolean("beforeInvocation"));
 
 		defaultConfig.applyDefault(builder);
 		CacheEvictOperation op = builder.build();
@@ -159,18 +199,18 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 	}
 
 	private CacheOperation parsePutAnnotation(
-			AnnotatedElement ae, DefaultCacheConfig defaultConfig, CachePut cachePut) {
+			AnnotatedElement ae, DefaultCacheConfig defaultConfig, MergedAnnotation<?> cachePut) {
 
 		CachePutOperation.Builder builder = new CachePutOperation.Builder();
 
 		builder.setName(ae.toString());
-		builder.setCacheNames(cachePut.cacheNames());
-		builder.setCondition(cachePut.condition());
-		builder.setUnless(cachePut.unless());
-		builder.setKey(cachePut.key());
-		builder.setKeyGenerator(cachePut.keyGenerator());
-		builder.setCacheManager(cachePut.cacheManager());
-		builder.setCacheResolver(cachePut.cacheResolver());
+		builder.setCacheNames(cachePut.getStringArray("cacheNames"));
+		builder.setCondition(cachePut.getString("condition"));
+		builder.setUnless(cachePut.getString("unless"));
+		builder.setKey(cachePut.getString("key"));
+		builder.setKeyGenerator(cachePut.getString("keyGenerator"));
+		builder.setCacheManager(cachePut.getString("cacheManager"));
+		builder.setCacheResolver(cachePut.getString("cacheResolver"));
 
 		defaultConfig.applyDefault(builder);
 		CachePutOperation op = builder.build();
@@ -179,19 +219,19 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		return op;
 	}
 
-	private void parseCachingAnnotation(
-			AnnotatedElement ae, DefaultCacheConfig defaultConfig, Caching caching, Collection<CacheOperation> ops) {
+	private void parseCachingAnnotation(AnnotatedElement ae, DefaultCacheConfig defaultConfig,
+			MergedAnnotation<?> caching, Collection<CacheOperation> ops) {
 
-		Cacheable[] cacheables = caching.cacheable();
-		for (Cacheable cacheable : cacheables) {
+		MergedAnnotation<Cacheable>[] cacheables = caching.getAnnotationArray("cacheable", Cacheable.class);
+		for (MergedAnnotation<Cacheable> cacheable : cacheables) {
 			ops.add(parseCacheableAnnotation(ae, defaultConfig, cacheable));
 		}
-		CacheEvict[] cacheEvicts = caching.evict();
-		for (CacheEvict cacheEvict : cacheEvicts) {
+		MergedAnnotation<CacheEvict>[] cacheEvicts = caching.getAnnotationArray("evict", CacheEvict.class);
+		for (MergedAnnotation<CacheEvict> cacheEvict : cacheEvicts) {
 			ops.add(parseEvictAnnotation(ae, defaultConfig, cacheEvict));
 		}
-		CachePut[] cachePuts = caching.put();
-		for (CachePut cachePut : cachePuts) {
+		MergedAnnotation<CachePut>[] cachePuts = caching.getAnnotationArray("put", CachePut.class);
+		for (MergedAnnotation<CachePut> cachePut : cachePuts) {
 			ops.add(parsePutAnnotation(ae, defaultConfig, cachePut));
 		}
 	}
@@ -263,12 +303,14 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		 */
 		public void applyDefault(CacheOperation.Builder builder) {
 			if (!this.initialized) {
-				CacheConfig annotation = AnnotatedElementUtils.findMergedAnnotation(this.target, CacheConfig.class);
-				if (annotation != null) {
-					this.cacheNames = annotation.cacheNames();
-					this.keyGenerator = annotation.keyGenerator();
-					this.cacheManager = annotation.cacheManager();
-					this.cacheResolver = annotation.cacheResolver();
+				MergedAnnotation<CacheConfig> annotation =
+						MergedAnnotations.from(this.target, SearchStrategy.TYPE_HIERARCHY, RepeatableContainers.none())
+								.get(CacheConfig.class, null, MergedAnnotationSelectors.firstDirectlyDeclared());
+				if (annotation.isPresent()) {
+					this.cacheNames = annotation.getStringArray("cacheNames");
+					this.keyGenerator = annotation.getString("keyGenerator");
+					this.cacheManager = annotation.getString("cacheManager");
+					this.cacheResolver = annotation.getString("cacheResolver");
 				}
 				this.initialized = true;
 			}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.context.annotation;
 
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
@@ -23,6 +24,7 @@ import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
@@ -131,6 +133,25 @@ public class AnnotationConfigApplicationContext extends GenericApplicationContex
 				AnnotationConfigUtils.CONFIGURATION_BEAN_NAME_GENERATOR, beanNameGenerator);
 	}
 
+	/**
+	 * Provide an {@link Executor} for reading candidate class files in parallel
+	 * during classpath scanning, both for {@link #scan(String...)} and for
+	 * {@link ComponentScan @ComponentScan} declarations.
+	 * <p>Default is none, scanning on the calling thread. The order of detected
+	 * components is the same either way.
+	 * <p>Any call to this method must occur prior to calls to {@link #scan(String...)}
+	 * and prior to {@link #refresh()}.
+	 * @since 5.2.26
+	 * @see ClassPathScanningCandidateComponentProvider#setScanExecutor
+	 * @see AnnotationConfigUtils#COMPONENT_SCAN_EXECUTOR_BEAN_NAME
+	 */
+	public void setScanExecutor(Executor scanExecutor) {
+		Assert.notNull(scanExecutor, "Executor must not be null");
+		this.scanner.setScanExecutor(scanExecutor);
+		getBeanFactory().registerSingleton(
+				AnnotationConfigUtils.COMPONENT_SCAN_EXECUTOR_BEAN_NAME, scanExecutor);
+	}
+
 	/**
 	 * Set the {@link ScopeMetadataResolver} to use for registered component classes.
 	 * <p>The default is an {@link AnnotationScopeMetadataResolver}.
@@ -162,6 +183,38 @@ public class AnnotationConfigApplicationContext extends GenericApplicationContex
 		this.reader.register(componentClasses);
 	}
 
+	/**
+	 * Register the bean definitions of a build-time {@link BeanDefinitionSnapshot}
+	 * for the given component classes, if an up-to-date snapshot generated for the
+	 * same component classes and active profiles is available; otherwise fall back
+	 * to {@link #register(Class...)}.
+	 * <p>With a snapshot in place, configuration class parsing, component scanning
+	 * and condition evaluation are skipped on {@link #refresh()}: conditions are
+	 * not re-evaluated against the runtime environment. Any other
+	 * {@link org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor
+	 * BeanDefinitionRegistryPostProcessors} still run as usual.
+	 * @param componentClasses one or more component classes &mdash; for example,
+	 * {@link Configuration @Configuration} classes
+	 * @return {@code true} if the snapshot has been used, {@code false} if the
+	 * component classes have been registered for regular processing
+	 * @since 5.2.26
+	 * @see BeanDefinitionSnapshotGenerator
+	 * @see BeanDefinitionSnapshot#IGNORE_SNAPSHOT
+	 */
+	public boolean registerWithSnapshot(Class<?>... componentClasses) {
+		Assert.notEmpty(componentClasses, "At least one component class must be specified");
+		BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.load(getClassLoader());
+		if (snapshot == null || !snapshot.isApplicableTo(componentClasses, getEnvironment())) {
+			register(componentClasses);
+			return false;
+		}
+		StartupStep registerSnapshot = getApplicationStartup().start("spring.context.snapshot.register")
+				.tag("beanDefinitionCount", String.valueOf(snapshot.getBeanDefinitionCount()));
+		snapshot.registerBeanDefinitions(this);
+		registerSnapshot.end();
+		return true;
+	}
+
 	/**
 	 * Perform a scan within the specified base packages.
 	 * <p>Note that {@link #refresh()} must be called in order for the context
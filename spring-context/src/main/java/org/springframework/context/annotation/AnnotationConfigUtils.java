@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,11 +30,19 @@ import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.event.DefaultEventListenerFactory;
 import org.springframework.context.event.EventListenerMethodProcessor;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.context.index.CandidateComponentsMetadataIndex;
+import org.springframework.context.index.IndexedMetadataReaderFactory;
 import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.type.AnnotatedTypeMetadata;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SharedMetadataReaderFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
 
@@ -117,6 +125,27 @@ public abstract class AnnotationConfigUtils {
 	public static final String EVENT_LISTENER_FACTORY_BEAN_NAME =
 			"org.springframework.context.event.internalEventListenerFactory";
 
+	/**
+	 * The bean name of the internally managed Executor for parallel classpath
+	 * scanning when processing {@link ComponentScan} annotations. Set by
+	 * {@link AnnotationConfigApplicationContext#setScanExecutor}.
+	 * @since 5.2.26
+	 * @see ClassPathScanningCandidateComponentProvider#setScanExecutor
+	 */
+	public static final String COMPONENT_SCAN_EXECUTOR_BEAN_NAME =
+			"org.springframework.context.annotation.internalComponentScanExecutor";
+
+	/**
+	 * System property that instructs Spring's annotation config infrastructure
+	 * to read class files through a JVM-wide {@link SharedMetadataReaderFactory}
+	 * cache rather than through a context-local cache: {@code "spring.metadata.cache.shared"}.
+	 * <p>Useful when many application contexts scan the same class files, e.g.
+	 * in test suites or for multi-tenant child contexts.
+	 * @since 5.2.26
+	 * @see org.springframework.core.type.classreading.MetadataReaderCache#getSharedInstance()
+	 */
+	public static final String SHARED_METADATA_CACHE_PROPERTY_NAME = "spring.metadata.cache.shared";
+
 	private static final boolean jsr250Present;
 
 	private static final boolean jpaPresent;
@@ -217,8 +246,29 @@ public abstract class AnnotationConfigUtils {
 		return new BeanDefinitionHolder(definition, beanName);
 	}
 
+	/**
+	 * Create a {@link MetadataReaderFactory} for the given resource loader,
+	 * serving indexed candidates from {@code META-INF/spring.components.metadata}
+	 * if such an index is available. Class files are read through a
+	 * {@link SharedMetadataReaderFactory} if the
+	 * {@link #SHARED_METADATA_CACHE_PROPERTY_NAME} property is set, and through
+	 * a context-local {@link CachingMetadataReaderFactory} otherwise.
+	 * @since 5.2.26
+	 * @see CandidateComponentsIndexLoader#loadMetadataIndex
+	 */
+	static MetadataReaderFactory createMetadataReaderFactory(@Nullable ResourceLoader resourceLoader) {
+		ClassLoader classLoader = (resourceLoader != null ? resourceLoader.getClassLoader() : null);
+		CandidateComponentsMetadataIndex metadataIndex = CandidateComponentsIndexLoader.loadMetadataIndex(classLoader);
+		MetadataReaderFactory sharedFactory = (SpringProperties.getFlag(SHARED_METADATA_CACHE_PROPERTY_NAME) ?
+				new SharedMetadataReaderFactory(resourceLoader) : null);
+		if (metadataIndex != null) {
+			return new IndexedMetadataReaderFactory(resourceLoader, metadataIndex, sharedFactory);
+		}
+		return (sharedFactory != null ? sharedFactory : new CachingMetadataReaderFactory(resourceLoader));
+	}
+
 	@Nullable
-	private static DefaultListableBeanFactory unwrapDefaultListableBeanFactory(BeanDefinitionRegistry registry) {
+	static DefaultListableBeanFactory unwrapDefaultListableBeanFactory(BeanDefinitionRegistry registry) {
 		if (registry instanceof DefaultListableBeanFactory) {
 			return (DefaultListableBeanFactory) registry;
 		}
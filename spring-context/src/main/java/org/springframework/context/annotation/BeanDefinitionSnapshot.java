@@ -0,0 +1,1144 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.parsing.FailFastProblemReporter;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.ConfigurationClassBeanDefinitionReader.ConfigurationClassBeanDefinition;
+import org.springframework.core.Conventions;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.SpringVersion;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.EnvironmentCapable;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Snapshot of the bean definitions resulting from configuration class processing,
+ * captured at build time by a {@link BeanDefinitionSnapshotGenerator} and stored
+ * in {@value #SNAPSHOT_LOCATION}.
+ *
+ * <p>Registering a snapshot makes the container skip configuration class parsing,
+ * component scanning and {@link Conditional @Conditional} evaluation on startup:
+ * the resulting bean definitions, the {@link PropertySource @PropertySource}
+ * declarations and the import relationships needed for {@link ImportAware} are
+ * restored as captured. As a consequence, only {@link Profile @Profile} conditions
+ * are supported, evaluated against the active profiles recorded in the snapshot:
+ * the generation of a snapshot fails for any other kind of condition, since its
+ * outcome may depend on the runtime {@link Environment}.
+ *
+ * <p>The snapshot is a versioned, line-based UTF-8 text format. It records a
+ * {@link #computeClasspathHash content hash} of the classpath at build time.
+ * Since computing that hash reads the entire classpath, it is only compared on
+ * {@link #load loading} if the {@value #VERIFY_SNAPSHOT} flag is set, e.g. in
+ * development where classes may change without regenerating the snapshot:
+ * the snapshot is then considered stale as soon as the hash changes, be it for
+ * library jars or for application classes, in a directory or packaged in a jar.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see BeanDefinitionSnapshotGenerator
+ * @see AnnotationConfigApplicationContext#registerWithSnapshot
+ */
+public final class BeanDefinitionSnapshot {
+
+	/**
+	 * The location of the snapshot within the application classpath.
+	 */
+	public static final String SNAPSHOT_LOCATION = "META-INF/spring.beans.snapshot";
+
+	/**
+	 * System property that instructs Spring to ignore any bean definition snapshot,
+	 * i.e. to always return {@code null} from {@link #load(ClassLoader)}.
+	 */
+	public static final String IGNORE_SNAPSHOT = "spring.beans.snapshot.ignore";
+
+	/**
+	 * System property that instructs Spring to verify the classpath hash of a
+	 * bean definition snapshot on {@link #load(ClassLoader) loading}, ignoring
+	 * the snapshot if the classpath has changed since it was generated.
+	 * <p>Off by default, since it requires reading the entire classpath.
+	 * @see #computeClasspathHash(ClassLoader)
+	 */
+	public static final String VERIFY_SNAPSHOT = "spring.beans.snapshot.verify";
+
+	/**
+	 * The current version of the snapshot format.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	/**
+	 * Bean definition attribute marking definitions restored from a snapshot,
+	 * which do not need any further configuration class processing.
+	 */
+	static final String SNAPSHOT_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(BeanDefinitionSnapshot.class, "restored");
+
+	/**
+	 * The bean name of the internal set of evaluated condition class names, if
+	 * registered as a singleton with a bean factory: typically during snapshot
+	 * generation, in order to reject conditions other than profile conditions.
+	 */
+	static final String EVALUATED_CONDITIONS_BEAN_NAME =
+			BeanDefinitionSnapshot.class.getName() + ".evaluatedConditions";
+
+	private static final boolean shouldIgnoreSnapshot = SpringProperties.getFlag(IGNORE_SNAPSHOT);
+
+	private static final Log logger = LogFactory.getLog(BeanDefinitionSnapshot.class);
+
+	private static final String BEAN_RECORD = "bean";
+
+	private static final String PROPERTY_SOURCE_RECORD = "propertySource";
+
+	private static final AbstractBeanDefinition DEFAULTS = new GenericBeanDefinition();
+
+
+	private final int version;
+
+	private final String classpathHash;
+
+	private final List<String> componentClassNames;
+
+	private final Set<String> activeProfiles;
+
+	private final List<Record> records;
+
+
+	private BeanDefinitionSnapshot(int version, String classpathHash, List<String> componentClassNames,
+			Set<String> activeProfiles, List<Record> records) {
+
+		this.version = version;
+		this.classpathHash = classpathHash;
+		this.componentClassNames = componentClassNames;
+		this.activeProfiles = activeProfiles;
+		this.records = records;
+	}
+
+
+	/**
+	 * Return the version of the format this snapshot has been written with.
+	 */
+	public int getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Return the classpath hash recorded when this snapshot was generated.
+	 * @see #computeClasspathHash(ClassLoader)
+	 */
+	public String getClasspathHash() {
+		return this.classpathHash;
+	}
+
+	/**
+	 * Return the number of bean definitions in this snapshot.
+	 */
+	public int getBeanDefinitionCount() {
+		int count = 0;
+		for (Record record : this.records) {
+			if (BEAN_RECORD.equals(record.type)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Determine whether this snapshot has been generated for the given component
+	 * classes and for the active profiles of the given environment.
+	 * @param componentClasses the component classes the application would register
+	 * @param environment the environment of the application context
+	 */
+	public boolean isApplicableTo(Class<?>[] componentClasses, Environment environment) {
+		List<String> classNames = new ArrayList<>(componentClasses.length);
+		for (Class<?> componentClass : componentClasses) {
+			classNames.add(componentClass.getName());
+		}
+		return (this.componentClassNames.equals(classNames) &&
+				this.activeProfiles.equals(new LinkedHashSet<>(Arrays.asList(environment.getActiveProfiles()))));
+	}
+
+	/**
+	 * Register the bean definitions of this snapshot with the given registry.
+	 * <p>Bean definitions already present in the registry (such as the common
+	 * annotation config processors) take precedence over the snapshot. The
+	 * {@link PropertySource @PropertySource} declarations are applied to the
+	 * registry's environment, if it exposes a {@link ConfigurableEnvironment}.
+	 * @param registry the registry to register the bean definitions with
+	 * @throws BeanDefinitionStoreException if a property source cannot be loaded
+	 */
+	public void registerBeanDefinitions(BeanDefinitionRegistry registry) {
+		DefaultListableBeanFactory beanFactory = AnnotationConfigUtils.unwrapDefaultListableBeanFactory(registry);
+		ResourceLoader resourceLoader = (registry instanceof ResourceLoader ?
+				(ResourceLoader) registry : new DefaultResourceLoader());
+		ClassLoader classLoader = (beanFactory != null ? beanFactory.getBeanClassLoader() : resourceLoader.getClassLoader());
+		Environment environment = (registry instanceof EnvironmentCapable ?
+				((EnvironmentCapable) registry).getEnvironment() : new StandardEnvironment());
+
+		ConfigurationClassParser parser = null;
+		Map<String, String> imports = new HashMap<>();
+		Map<String, RootBeanDefinition> decorated = new HashMap<>();
+		Map<String, AbstractBeanDefinition> beanDefinitions = new HashMap<>();
+		for (Record record : this.records) {
+			if (PROPERTY_SOURCE_RECORD.equals(record.type)) {
+				if (environment instanceof ConfigurableEnvironment) {
+					if (parser == null) {
+						parser = new ConfigurationClassParser(new CachingMetadataReaderFactory(resourceLoader),
+								new FailFastProblemReporter(), environment, resourceLoader,
+								AnnotationBeanNameGenerator.INSTANCE, registry);
+					}
+					registerPropertySource(parser, record, classLoader);
+				}
+			}
+			else if (BEAN_RECORD.equals(record.type)) {
+				String beanName = record.value;
+				AbstractBeanDefinition beanDefinition = createBeanDefinition(record, classLoader);
+				String importedBy = record.attributes.getFirst("importedBy");
+				if (importedBy != null && beanDefinition.getBeanClassName() != null) {
+					imports.put(beanDefinition.getBeanClassName(), importedBy);
+				}
+				String decoratedName = record.attributes.getFirst("decorated");
+				if (decoratedName != null && beanDefinition instanceof RootBeanDefinition) {
+					decorated.put(decoratedName, (RootBeanDefinition) beanDefinition);
+				}
+				if (!registry.containsBeanDefinition(beanName)) {
+					registry.registerBeanDefinition(beanName, beanDefinition);
+				}
+				beanDefinitions.put(beanName, beanDefinition);
+				for (String alias : record.getAll("alias")) {
+					if (!registry.isAlias(alias)) {
+						registry.registerAlias(beanName, alias);
+					}
+				}
+			}
+		}
+
+		decorated.forEach((targetName, beanDefinition) -> {
+			AbstractBeanDefinition target = beanDefinitions.get(targetName);
+			if (target != null) {
+				beanDefinition.setDecoratedDefinition(new BeanDefinitionHolder(target, targetName));
+			}
+		});
+
+		if (beanFactory != null && !imports.isEmpty() &&
+				!beanFactory.containsSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME)) {
+			beanFactory.registerSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME,
+					new SnapshotImportRegistry(imports, classLoader));
+		}
+	}
+
+	private void registerPropertySource(ConfigurationClassParser parser, Record record, @Nullable ClassLoader classLoader) {
+		AnnotationAttributes attributes = new AnnotationAttributes(PropertySource.class);
+		String name = record.attributes.getFirst("name");
+		String encoding = record.attributes.getFirst("encoding");
+		attributes.put("name", (name != null ? name : ""));
+		attributes.put("encoding", (encoding != null ? encoding : ""));
+		attributes.put("value", StringUtils.toStringArray(record.getAll("location")));
+		attributes.put("ignoreResourceNotFound", Boolean.parseBoolean(record.attributes.getFirst("ignoreResourceNotFound")));
+		attributes.put("factory", ClassUtils.resolveClassName(record.value, classLoader));
+		try {
+			parser.processPropertySource(attributes);
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException(
+					"I/O failure while restoring @PropertySource from bean definition snapshot", ex);
+		}
+	}
+
+	private AbstractBeanDefinition createBeanDefinition(Record record, @Nullable ClassLoader classLoader) {
+		MultiValueMap<String, String> attributes = record.attributes;
+		String parentName = attributes.getFirst("parent");
+		String beanMethod = attributes.getFirst("beanMethod");
+		AbstractBeanDefinition bd;
+		if (parentName != null) {
+			GenericBeanDefinition gbd = new GenericBeanDefinition();
+			gbd.setParentName(parentName);
+			bd = gbd;
+		}
+		else if (beanMethod != null) {
+			bd = new SnapshotBeanMethodDefinition(beanMethod);
+		}
+		else {
+			bd = new RootBeanDefinition();
+		}
+
+		for (Map.Entry<String, List<String>> entry : attributes.entrySet()) {
+			String key = entry.getKey();
+			List<String> values = entry.getValue();
+			String value = values.get(0);
+			if (key.startsWith("attribute.")) {
+				bd.setAttribute(key.substring(10), decodeValue(value, classLoader));
+			}
+			else if (key.startsWith("property.")) {
+				bd.getPropertyValues().add(key.substring(9), decodeValue(value, classLoader));
+			}
+			else if (key.startsWith("arg.")) {
+				String[] parts = StringUtils.tokenizeToStringArray(key.substring(4), ".");
+				int index = Integer.parseInt(parts[0]);
+				ValueHolder holder = bd.getConstructorArgumentValues().getIndexedArgumentValue(index, null, null);
+				if (parts.length == 1) {
+					Object decoded = decodeValue(value, classLoader);
+					if (holder != null) {
+						holder.setValue(decoded);
+					}
+					else {
+						bd.getConstructorArgumentValues().addIndexedArgumentValue(index, decoded);
+					}
+				}
+				else {
+					if (holder == null) {
+						bd.getConstructorArgumentValues().addIndexedArgumentValue(index, null);
+						holder = bd.getConstructorArgumentValues().getIndexedArgumentValue(index, null, null);
+						Assert.state(holder != null, "No argument holder");
+					}
+					if ("type".equals(parts[1])) {
+						holder.setType(value);
+					}
+					else if ("name".equals(parts[1])) {
+						holder.setName(value);
+					}
+				}
+			}
+			else {
+				switch (key) {
+					case "class":
+						bd.setBeanClassName(value);
+						break;
+					case "scope":
+						bd.setScope(value);
+						break;
+					case "abstract":
+						bd.setAbstract(Boolean.parseBoolean(value));
+						break;
+					case "lazy":
+						bd.setLazyInit(Boolean.parseBoolean(value));
+						break;
+					case "primary":
+						bd.setPrimary(Boolean.parseBoolean(value));
+						break;
+					case "autowire":
+						bd.setAutowireMode(Integer.parseInt(value));
+						break;
+					case "autowireCandidate":
+						bd.setAutowireCandidate(Boolean.parseBoolean(value));
+						break;
+					case "dependencyCheck":
+						bd.setDependencyCheck(Integer.parseInt(value));
+						break;
+					case "dependsOn":
+						bd.setDependsOn(StringUtils.toStringArray(values));
+						break;
+					case "role":
+						bd.setRole(Integer.parseInt(value));
+						break;
+					case "factoryBean":
+						bd.setFactoryBeanName(value);
+						break;
+					case "factoryMethod":
+						bd.setFactoryMethodName(value);
+						break;
+					case "uniqueFactoryMethod":
+						((RootBeanDefinition) bd).setUniqueFactoryMethodName(value);
+						break;
+					case "initMethod":
+						bd.setInitMethodName(value);
+						break;
+					case "enforceInit":
+						bd.setEnforceInitMethod(Boolean.parseBoolean(value));
+						break;
+					case "destroyMethod":
+						bd.setDestroyMethodName(value);
+						break;
+					case "enforceDestroy":
+						bd.setEnforceDestroyMethod(Boolean.parseBoolean(value));
+						break;
+					case "synthetic":
+						bd.setSynthetic(Boolean.parseBoolean(value));
+						break;
+					case "nonPublicAccess":
+						bd.setNonPublicAccessAllowed(Boolean.parseBoolean(value));
+						break;
+					case "lenient":
+						bd.setLenientConstructorResolution(Boolean.parseBoolean(value));
+						break;
+					case "description":
+						bd.setDescription(value);
+						break;
+					case "resource":
+						bd.setResourceDescription(value);
+						break;
+					case "targetType":
+						((RootBeanDefinition) bd).setTargetType(ClassUtils.resolveClassName(value, classLoader));
+						break;
+					default:
+						// "parent", "beanMethod", "alias", "importedBy", "decorated" and unknown keys
+				}
+			}
+		}
+		List<String> genericArgs = record.getAll("garg");
+		for (String genericArg : genericArgs) {
+			bd.getConstructorArgumentValues().addGenericArgumentValue(decodeValue(genericArg, classLoader));
+		}
+		bd.setAttribute(SNAPSHOT_ATTRIBUTE, Boolean.TRUE);
+		return bd;
+	}
+
+
+	/**
+	 * Write this snapshot to the given {@link Writer}.
+	 * @param writer the writer to use (not closed by this method)
+	 * @throws IOException in case of I/O errors
+	 */
+	public void write(Writer writer) throws IOException {
+		writer.write("# Spring bean definition snapshot - generated, do not edit\n");
+		writeEntry(writer, "version", String.valueOf(this.version));
+		writeEntry(writer, "classpath", this.classpathHash);
+		for (String profile : this.activeProfiles) {
+			writeEntry(writer, "profile", profile);
+		}
+		for (String componentClassName : this.componentClassNames) {
+			writeEntry(writer, "component", componentClassName);
+		}
+		for (Record record : this.records) {
+			writer.write('\n');
+			writeEntry(writer, record.type, record.value);
+			for (Map.Entry<String, List<String>> entry : record.attributes.entrySet()) {
+				for (String value : entry.getValue()) {
+					writeEntry(writer, entry.getKey(), value);
+				}
+			}
+		}
+		writer.flush();
+	}
+
+	private static void writeEntry(Writer writer, String key, String value) throws IOException {
+		writer.write(key);
+		writer.write('=');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '\\':
+					writer.write("\\\\");
+					break;
+				case '\n':
+					writer.write("\\n");
+					break;
+				case '\r':
+					writer.write("\\r");
+					break;
+				default:
+					writer.write(c);
+			}
+		}
+		writer.write('\n');
+	}
+
+	/**
+	 * Read a snapshot from the given {@link Reader}.
+	 * @param reader the reader to use (not closed by this method)
+	 * @return the snapshot
+	 * @throws IOException in case of I/O errors
+	 * @throws IllegalArgumentException if the content is not a valid snapshot
+	 */
+	public static BeanDefinitionSnapshot read(Reader reader) throws IOException {
+		BufferedReader lines = (reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader));
+		int version = -1;
+		String classpathHash = null;
+		List<String> componentClassNames = new ArrayList<>();
+		Set<String> activeProfiles = new LinkedHashSet<>();
+		List<Record> records = new ArrayList<>();
+		Record current = null;
+		String line;
+		while ((line = lines.readLine()) != null) {
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			int separator = line.indexOf('=');
+			if (separator < 1) {
+				throw new IllegalArgumentException("Invalid bean definition snapshot line: " + line);
+			}
+			String key = line.substring(0, separator);
+			String value = unescape(line.substring(separator + 1));
+			if (BEAN_RECORD.equals(key) || PROPERTY_SOURCE_RECORD.equals(key)) {
+				current = new Record(key, value);
+				records.add(current);
+			}
+			else if (current != null) {
+				current.attributes.add(key, value);
+			}
+			else if ("version".equals(key)) {
+				version = Integer.parseInt(value);
+			}
+			else if ("classpath".equals(key)) {
+				classpathHash = value;
+			}
+			else if ("profile".equals(key)) {
+				activeProfiles.add(value);
+			}
+			else if ("component".equals(key)) {
+				componentClassNames.add(value);
+			}
+		}
+		if (version < 0 || classpathHash == null) {
+			throw new IllegalArgumentException("Invalid bean definition snapshot: no version or classpath hash");
+		}
+		return new BeanDefinitionSnapshot(version, classpathHash, componentClassNames, activeProfiles, records);
+	}
+
+	private static String unescape(String value) {
+		if (value.indexOf('\\') == -1) {
+			return value;
+		}
+		StringBuilder sb = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' && i + 1 < value.length()) {
+				char next = value.charAt(++i);
+				sb.append(next == 'n' ? '\n' : (next == 'r' ? '\r' : next));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Load the snapshot from {@value #SNAPSHOT_LOCATION}, using the given class loader.
+	 * <p>Returns {@code null} if no snapshot is available, if it has been written
+	 * with a different format version or, if the {@value #VERIFY_SNAPSHOT} flag
+	 * is set, if it is stale: that is, if the {@link #computeClasspathHash
+	 * classpath hash} has changed since it was generated.
+	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
+	 * @return the snapshot to use or {@code null} if no up-to-date snapshot was found
+	 * @throws IllegalStateException if the snapshot cannot be read
+	 * @see #IGNORE_SNAPSHOT
+	 * @see #VERIFY_SNAPSHOT
+	 */
+	@Nullable
+	public static BeanDefinitionSnapshot load(@Nullable ClassLoader classLoader) {
+		if (shouldIgnoreSnapshot) {
+			return null;
+		}
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		URL url = (classLoaderToUse != null ? classLoaderToUse.getResource(SNAPSHOT_LOCATION) :
+				ClassLoader.getSystemResource(SNAPSHOT_LOCATION));
+		if (url == null) {
+			return null;
+		}
+		BeanDefinitionSnapshot snapshot;
+		try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)) {
+			snapshot = read(reader);
+		}
+		catch (IOException | IllegalArgumentException ex) {
+			throw new IllegalStateException("Unable to load bean definition snapshot from location [" + url + "]", ex);
+		}
+		if (snapshot.getVersion() != FORMAT_VERSION) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Ignoring bean definition snapshot [" + url + "] with unsupported format version " +
+						snapshot.getVersion());
+			}
+			return null;
+		}
+		if (SpringProperties.getFlag(VERIFY_SNAPSHOT) &&
+				!computeClasspathHash(classLoaderToUse).equals(snapshot.getClasspathHash())) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Ignoring stale bean definition snapshot [" + url + "]: classpath has changed");
+			}
+			return null;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Loaded bean definition snapshot [" + url + "] with " +
+					snapshot.getBeanDefinitionCount() + " bean definitions");
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Compute a content hash of the classpath of the given class loader, along
+	 * with the Spring version in use.
+	 * <p>The hash covers the name and the CRC-32 checksum of every class file and
+	 * every {@code META-INF/spring.*} resource (except for the snapshot itself) in
+	 * each classpath root: directories and jar files, including nested jars that
+	 * are exposed through {@code jar:} URLs. Since only the location of an entry
+	 * within its root counts, application classes in a build directory lead to
+	 * the same hash as the same classes packaged in a jar.
+	 * <p>The classpath roots are taken from the {@link URLClassLoader URLClassLoaders}
+	 * in the class loader hierarchy or, if there are none, from the
+	 * {@code java.class.path} system property. Checksums of jar entries are read
+	 * from the central directory of the jar, whereas files in directories are
+	 * read in full: this is meant to be cheap for packaged applications rather
+	 * than for exploded ones.
+	 * @param classLoader the class loader to compute the hash for
+	 * (can be {@code null} to use the default)
+	 * @return the hash as a hex String
+	 */
+	public static String computeClasspathHash(@Nullable ClassLoader classLoader) {
+		List<String> entries = new ArrayList<>();
+		for (URL root : getClasspathRoots(classLoader)) {
+			try {
+				addClasspathEntries(root, entries);
+			}
+			catch (IOException ex) {
+				// Unreadable classpath root: only take its location into account
+				entries.add(root + ":unreadable");
+			}
+		}
+		Collections.sort(entries);
+		StringBuilder key = new StringBuilder(String.valueOf(SpringVersion.getVersion()));
+		for (String entry : entries) {
+			key.append(';').append(entry);
+		}
+		return DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Set<URL> getClasspathRoots(@Nullable ClassLoader classLoader) {
+		Set<URL> roots = new LinkedHashSet<>();
+		ClassLoader current = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		while (current != null) {
+			if (current instanceof URLClassLoader) {
+				roots.addAll(Arrays.asList(((URLClassLoader) current).getURLs()));
+			}
+			current = current.getParent();
+		}
+		if (roots.isEmpty()) {
+			String classpath = System.getProperty("java.class.path", "");
+			for (String path : StringUtils.tokenizeToStringArray(classpath, File.pathSeparator)) {
+				try {
+					roots.add(new File(path).toURI().toURL());
+				}
+				catch (IOException ex) {
+					// Ignore invalid classpath entry, just like the class loader does
+				}
+			}
+		}
+		return roots;
+	}
+
+	private static void addClasspathEntries(URL root, List<String> entries) throws IOException {
+		if (ResourceUtils.isFileURL(root)) {
+			File file = ResourceUtils.getFile(root);
+			if (file.isDirectory()) {
+				Path rootPath = file.toPath();
+				try (Stream<Path> paths = Files.walk(rootPath)) {
+					for (Path path : (Iterable<Path>) paths::iterator) {
+						String name = StringUtils.cleanPath(rootPath.relativize(path).toString());
+						if (isHashedEntry(name) && Files.isRegularFile(path)) {
+							entries.add(name + ':' + checksum(path));
+						}
+					}
+				}
+			}
+			else if (file.isFile()) {
+				try (ZipFile zipFile = new ZipFile(file)) {
+					addJarEntries(zipFile, "", entries);
+				}
+			}
+		}
+		else if (ResourceUtils.isJarURL(root)) {
+			URLConnection connection = root.openConnection();
+			if (connection instanceof JarURLConnection) {
+				JarURLConnection jarConnection = (JarURLConnection) connection;
+				String entryName = jarConnection.getEntryName();
+				JarFile jarFile = jarConnection.getJarFile();
+				try {
+					addJarEntries(jarFile, (entryName != null ? entryName : ""), entries);
+				}
+				finally {
+					if (!jarConnection.getUseCaches()) {
+						jarFile.close();
+					}
+				}
+			}
+		}
+		else {
+			entries.add(root.toString());
+		}
+	}
+
+	private static void addJarEntries(ZipFile zipFile, String prefix, List<String> entries) {
+		Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+		while (zipEntries.hasMoreElements()) {
+			ZipEntry entry = zipEntries.nextElement();
+			String name = entry.getName();
+			if (!entry.isDirectory() && name.startsWith(prefix)) {
+				name = name.substring(prefix.length());
+				if (isHashedEntry(name)) {
+					entries.add(name + ':' + Long.toHexString(entry.getCrc()));
+				}
+			}
+		}
+	}
+
+	private static boolean isHashedEntry(String name) {
+		return (name.endsWith(ClassUtils.CLASS_FILE_SUFFIX) ||
+				(name.startsWith("META-INF/spring.") && !name.equals(SNAPSHOT_LOCATION)));
+	}
+
+	private static String checksum(Path path) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[8192];
+		try (InputStream inputStream = Files.newInputStream(path)) {
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				crc.update(buffer, 0, read);
+			}
+		}
+		return Long.toHexString(crc.getValue());
+	}
+
+
+	/**
+	 * Capture the bean definitions of the given bean factory, after configuration
+	 * class processing.
+	 * @throws IllegalStateException if some bean definitions cannot be captured
+	 * or if conditions other than profile conditions have been evaluated
+	 */
+	static BeanDefinitionSnapshot capture(ConfigurableListableBeanFactory beanFactory,
+			@Nullable ImportRegistry importRegistry, List<AnnotationAttributes> propertySources,
+			Set<String> evaluatedConditions, Class<?>[] componentClasses, String[] activeProfiles,
+			String classpathHash) {
+
+		List<String> problems = new ArrayList<>();
+		for (String conditionClass : evaluatedConditions) {
+			if (!ProfileCondition.class.getName().equals(conditionClass)) {
+				problems.add("condition " + conditionClass + " may depend on the runtime environment");
+			}
+		}
+
+		List<Record> records = new ArrayList<>();
+		for (AnnotationAttributes propertySource : propertySources) {
+			Class<?> factoryClass = propertySource.getClass("factory");
+			Record record = new Record(PROPERTY_SOURCE_RECORD, factoryClass.getName());
+			addIfText(record, "name", propertySource.getString("name"));
+			addIfText(record, "encoding", propertySource.getString("encoding"));
+			if (propertySource.getBoolean("ignoreResourceNotFound")) {
+				record.attributes.add("ignoreResourceNotFound", "true");
+			}
+			for (String location : propertySource.getStringArray("value")) {
+				record.attributes.add("location", location);
+			}
+			records.add(record);
+		}
+
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			Record record = new Record(BEAN_RECORD, beanName);
+			describeBeanDefinition(beanName, beanFactory.getBeanDefinition(beanName), record,
+					importRegistry, beanFactory.getBeanClassLoader(), problems);
+			for (String alias : beanFactory.getAliases(beanName)) {
+				record.attributes.add("alias", alias);
+			}
+			records.add(record);
+		}
+		if (!problems.isEmpty()) {
+			throw new IllegalStateException("Cannot capture bean definition snapshot: " +
+					StringUtils.collectionToDelimitedString(problems, "; "));
+		}
+
+		List<String> componentClassNames = new ArrayList<>(componentClasses.length);
+		for (Class<?> componentClass : componentClasses) {
+			componentClassNames.add(componentClass.getName());
+		}
+		return new BeanDefinitionSnapshot(FORMAT_VERSION, classpathHash, componentClassNames,
+				new LinkedHashSet<>(Arrays.asList(activeProfiles)), records);
+	}
+
+	private static void describeBeanDefinition(String beanName, BeanDefinition bd, Record record,
+			@Nullable ImportRegistry importRegistry, @Nullable ClassLoader classLoader, List<String> problems) {
+
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			problems.add("bean '" + beanName + "' is not an AbstractBeanDefinition");
+			return;
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		if (abd.getInstanceSupplier() != null) {
+			problems.add("bean '" + beanName + "' has an instance supplier");
+		}
+		if (abd.hasMethodOverrides()) {
+			problems.add("bean '" + beanName + "' has method overrides");
+		}
+		if (!abd.getQualifiers().isEmpty()) {
+			problems.add("bean '" + beanName + "' has qualifiers in its definition");
+		}
+
+		MultiValueMap<String, String> attributes = record.attributes;
+		addIfText(attributes, "parent", abd.getParentName());
+		addIfText(attributes, "class", abd.getBeanClassName());
+		addIfText(attributes, "scope", abd.getScope());
+		addIfChanged(attributes, "abstract", abd.isAbstract(), DEFAULTS.isAbstract());
+		if (abd.getLazyInit() != null) {
+			attributes.add("lazy", abd.getLazyInit().toString());
+		}
+		addIfChanged(attributes, "primary", abd.isPrimary(), DEFAULTS.isPrimary());
+		addIfChanged(attributes, "autowire", abd.getAutowireMode(), DEFAULTS.getAutowireMode());
+		addIfChanged(attributes, "autowireCandidate", abd.isAutowireCandidate(), DEFAULTS.isAutowireCandidate());
+		addIfChanged(attributes, "dependencyCheck", abd.getDependencyCheck(), DEFAULTS.getDependencyCheck());
+		if (abd.getDependsOn() != null) {
+			for (String dependsOn : abd.getDependsOn()) {
+				attributes.add("dependsOn", dependsOn);
+			}
+		}
+		addIfChanged(attributes, "role", abd.getRole(), DEFAULTS.getRole());
+		addIfText(attributes, "factoryBean", abd.getFactoryBeanName());
+		if (abd instanceof ConfigurationClassBeanDefinition && abd.getFactoryMethodName() != null) {
+			ConfigurationClassBeanDefinition ccbd = (ConfigurationClassBeanDefinition) abd;
+			attributes.add("beanMethod", ccbd.getDerivedBeanName());
+			attributes.add(isUniqueBeanMethod(ccbd, classLoader) ? "uniqueFactoryMethod" : "factoryMethod",
+					abd.getFactoryMethodName());
+		}
+		else {
+			addIfText(attributes, "factoryMethod", abd.getFactoryMethodName());
+		}
+		addIfText(attributes, "initMethod", abd.getInitMethodName());
+		addIfChanged(attributes, "enforceInit", abd.isEnforceInitMethod(), DEFAULTS.isEnforceInitMethod());
+		addIfText(attributes, "destroyMethod", abd.getDestroyMethodName());
+		addIfChanged(attributes, "enforceDestroy", abd.isEnforceDestroyMethod(), DEFAULTS.isEnforceDestroyMethod());
+		addIfChanged(attributes, "synthetic", abd.isSynthetic(), DEFAULTS.isSynthetic());
+		addIfChanged(attributes, "nonPublicAccess", abd.isNonPublicAccessAllowed(), DEFAULTS.isNonPublicAccessAllowed());
+		addIfChanged(attributes, "lenient", abd.isLenientConstructorResolution(),
+				DEFAULTS.isLenientConstructorResolution());
+		addIfText(attributes, "description", abd.getDescription());
+		addIfText(attributes, "resource", abd.getResourceDescription());
+
+		if (abd instanceof RootBeanDefinition) {
+			RootBeanDefinition rbd = (RootBeanDefinition) abd;
+			Class<?> targetType = rbd.getTargetType();
+			if (targetType != null) {
+				if (rbd.getResolvableType().hasGenerics()) {
+					problems.add("bean '" + beanName + "' has a generic target type");
+				}
+				attributes.add("targetType", targetType.getName());
+			}
+			BeanDefinitionHolder decorated = rbd.getDecoratedDefinition();
+			if (decorated != null) {
+				attributes.add("decorated", decorated.getBeanName());
+			}
+		}
+
+		if (importRegistry != null && abd.getBeanClassName() != null &&
+				abd.getAttribute(ConfigurationClassUtils.CONFIGURATION_CLASS_ATTRIBUTE) != null) {
+			AnnotationMetadata importingClass = importRegistry.getImportingClassFor(abd.getBeanClassName());
+			if (importingClass != null) {
+				attributes.add("importedBy", importingClass.getClassName());
+			}
+		}
+
+		for (String attributeName : abd.attributeNames()) {
+			String encoded = encodeValue(abd.getAttribute(attributeName));
+			if (encoded != null) {
+				attributes.add("attribute." + attributeName, encoded);
+			}
+			else {
+				problems.add("bean '" + beanName + "' has unsupported attribute '" + attributeName + "'");
+			}
+		}
+		for (Map.Entry<Integer, ValueHolder> entry : abd.getConstructorArgumentValues().getIndexedArgumentValues().entrySet()) {
+			String prefix = "arg." + entry.getKey();
+			ValueHolder holder = entry.getValue();
+			String encoded = encodeValue(holder.getValue());
+			if (encoded != null) {
+				attributes.add(prefix, encoded);
+				addIfText(attributes, prefix + ".type", holder.getType());
+				addIfText(attributes, prefix + ".name", holder.getName());
+			}
+			else {
+				problems.add("bean '" + beanName + "' has unsupported constructor argument " + entry.getKey());
+			}
+		}
+		for (ValueHolder holder : abd.getConstructorArgumentValues().getGenericArgumentValues()) {
+			String encoded = encodeValue(holder.getValue());
+			if (encoded != null && holder.getType() == null && holder.getName() == null) {
+				attributes.add("garg", encoded);
+			}
+			else {
+				problems.add("bean '" + beanName + "' has unsupported generic constructor argument");
+			}
+		}
+		for (PropertyValue pv : abd.getPropertyValues().getPropertyValueList()) {
+			String encoded = encodeValue(pv.getValue());
+			if (encoded != null) {
+				attributes.add("property." + pv.getName(), encoded);
+			}
+			else {
+				problems.add("bean '" + beanName + "' has unsupported property value '" + pv.getName() + "'");
+			}
+		}
+	}
+
+	private static boolean isUniqueBeanMethod(ConfigurationClassBeanDefinition ccbd, @Nullable ClassLoader classLoader) {
+		String factoryMethodName = ccbd.getFactoryMethodName();
+		Class<?> configClass = ClassUtils.resolveClassName(ccbd.getMetadata().getClassName(), classLoader);
+		int count = 0;
+		for (Method method : ReflectionUtils.getUniqueDeclaredMethods(configClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+			if (method.getName().equals(factoryMethodName) && BeanAnnotationHelper.isBeanAnnotated(method) &&
+					BeanAnnotationHelper.determineBeanNameFor(method).equals(ccbd.getDerivedBeanName())) {
+				count++;
+			}
+		}
+		return (count <= 1);
+	}
+
+	@Nullable
+	private static String encodeValue(@Nullable Object value) {
+		if (value == null) {
+			return "null";
+		}
+		else if (value instanceof String) {
+			return "s:" + value;
+		}
+		else if (value instanceof TypedStringValue) {
+			TypedStringValue typedValue = (TypedStringValue) value;
+			String stringValue = typedValue.getValue();
+			if (stringValue == null || typedValue.isDynamic()) {
+				return null;
+			}
+			String targetTypeName = typedValue.getTargetTypeName();
+			return (targetTypeName != null ? "t:" + targetTypeName + ":" + stringValue : "v:" + stringValue);
+		}
+		else if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			return (!reference.isToParent() ? "r:" + reference.getBeanName() : null);
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			return "n:" + ((RuntimeBeanNameReference) value).getBeanName();
+		}
+		else if (value instanceof Boolean) {
+			return "b:" + value;
+		}
+		else if (value instanceof Integer) {
+			return "i:" + value;
+		}
+		else if (value instanceof Long) {
+			return "l:" + value;
+		}
+		else if (value instanceof Class) {
+			return "c:" + ((Class<?>) value).getName();
+		}
+		return null;
+	}
+
+	@Nullable
+	private static Object decodeValue(String encoded, @Nullable ClassLoader classLoader) {
+		if ("null".equals(encoded)) {
+			return null;
+		}
+		Assert.isTrue(encoded.length() > 1 && encoded.charAt(1) == ':', () -> "Invalid snapshot value: " + encoded);
+		String value = encoded.substring(2);
+		switch (encoded.charAt(0)) {
+			case 's':
+				return value;
+			case 'v':
+				return new TypedStringValue(value);
+			case 't':
+				int separator = value.indexOf(':');
+				return new TypedStringValue(value.substring(separator + 1), value.substring(0, separator));
+			case 'r':
+				return new RuntimeBeanReference(value);
+			case 'n':
+				return new RuntimeBeanNameReference(value);
+			case 'b':
+				return Boolean.valueOf(value);
+			case 'i':
+				return Integer.valueOf(value);
+			case 'l':
+				return Long.valueOf(value);
+			case 'c':
+				return ClassUtils.resolveClassName(value, classLoader);
+			default:
+				throw new IllegalArgumentException("Invalid snapshot value: " + encoded);
+		}
+	}
+
+	private static void addIfText(Record record, String key, @Nullable String value) {
+		addIfText(record.attributes, key, value);
+	}
+
+	private static void addIfText(MultiValueMap<String, String> attributes, String key, @Nullable String value) {
+		if (StringUtils.hasLength(value)) {
+			attributes.add(key, value);
+		}
+	}
+
+	private static void addIfChanged(MultiValueMap<String, String> attributes, String key, Object value, Object defaultValue) {
+		if (!value.equals(defaultValue)) {
+			attributes.add(key, value.toString());
+		}
+	}
+
+
+	/**
+	 * A record of the snapshot: a bean definition or a property source declaration.
+	 */
+	private static final class Record {
+
+		final String type;
+
+		final String value;
+
+		final MultiValueMap<String, String> attributes = new LinkedMultiValueMap<>();
+
+		Record(String type, String value) {
+			this.type = type;
+			this.value = value;
+		}
+
+		List<String> getAll(String key) {
+			List<String> values = this.attributes.get(key);
+			return (values != null ? values : Collections.emptyList());
+		}
+	}
+
+
+	/**
+	 * Bean definition restored for a {@link Bean @Bean} method, only considering
+	 * {@code @Bean} annotated methods with the same derived bean name as factory
+	 * method candidates.
+	 */
+	@SuppressWarnings("serial")
+	private static final class SnapshotBeanMethodDefinition extends RootBeanDefinition {
+
+		private final String derivedBeanName;
+
+		SnapshotBeanMethodDefinition(String derivedBeanName) {
+			this.derivedBeanName = derivedBeanName;
+		}
+
+		private SnapshotBeanMethodDefinition(SnapshotBeanMethodDefinition original) {
+			super(original);
+			this.derivedBeanName = original.derivedBeanName;
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && BeanAnnotationHelper.isBeanAnnotated(candidate) &&
+					BeanAnnotationHelper.determineBeanNameFor(candidate).equals(this.derivedBeanName));
+		}
+
+		@Override
+		public SnapshotBeanMethodDefinition cloneBeanDefinition() {
+			return new SnapshotBeanMethodDefinition(this);
+		}
+	}
+
+
+	/**
+	 * {@link ImportRegistry} restored from a snapshot, resolving the metadata of
+	 * importing classes on demand. Delegates to the registry of any configuration
+	 * classes that are still processed at runtime.
+	 */
+	static final class SnapshotImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> imports;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		@Nullable
+		private volatile ImportRegistry fallback;
+
+		SnapshotImportRegistry(Map<String, String> imports, @Nullable ClassLoader classLoader) {
+			this.imports = new HashMap<>(imports);
+			this.classLoader = classLoader;
+		}
+
+		void setFallback(ImportRegistry fallback) {
+			this.fallback = fallback;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.imports.get(importedClass);
+			if (importingClass != null) {
+				return AnnotationMetadata.introspect(ClassUtils.resolveClassName(importingClass, this.classLoader));
+			}
+			ImportRegistry fallback = this.fallback;
+			return (fallback != null ? fallback.getImportingClassFor(importedClass) : null);
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			this.imports.values().removeIf(importingClass::equals);
+			ImportRegistry fallback = this.fallback;
+			if (fallback != null) {
+				fallback.removeImportingClass(importingClass);
+			}
+		}
+	}
+
+}
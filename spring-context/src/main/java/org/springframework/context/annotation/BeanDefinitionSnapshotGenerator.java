@@ -0,0 +1,187 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Build-time generator for a {@link BeanDefinitionSnapshot}: registers the given
+ * component classes with a plain bean factory, runs configuration class processing
+ * (including component scanning and {@link Conditional @Conditional} evaluation)
+ * and captures the resulting bean definitions.
+ *
+ * <p>Typically invoked through {@link #main} as part of the build, for example
+ * with a Gradle task such as:
+ *
+ * <pre class="code">
+ * task generateBeanSnapshot(type: JavaExec) {
+ *     classpath = sourceSets.main.runtimeClasspath
+ *     main = "org.springframework.context.annotation.BeanDefinitionSnapshotGenerator"
+ *     args = ["$buildDir/resources/main", "com.example.AppConfig"]
+ * }</pre>
+ *
+ * Only declarative bean definitions can be captured: definitions with an instance
+ * supplier, method overrides, qualifiers or constructor argument and property values
+ * other than plain values and bean references lead to a failure of the generation.
+ * The same applies to {@link Conditional @Conditional} declarations other than
+ * {@link Profile @Profile}, since their outcome cannot be replayed from the build.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see BeanDefinitionSnapshot
+ */
+public class BeanDefinitionSnapshotGenerator {
+
+	private final ConfigurableEnvironment environment;
+
+	private final ResourceLoader resourceLoader;
+
+
+	/**
+	 * Create a new generator using a {@link StandardEnvironment} and a default
+	 * resource loader.
+	 */
+	public BeanDefinitionSnapshotGenerator() {
+		this(new StandardEnvironment(), new DefaultResourceLoader());
+	}
+
+	/**
+	 * Create a new generator using the given environment and resource loader.
+	 * @param environment the environment to evaluate conditions and profiles against
+	 * @param resourceLoader the resource loader to use for component scanning
+	 */
+	public BeanDefinitionSnapshotGenerator(ConfigurableEnvironment environment, ResourceLoader resourceLoader) {
+		Assert.notNull(environment, "Environment must not be null");
+		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
+		this.environment = environment;
+		this.resourceLoader = resourceLoader;
+	}
+
+
+	/**
+	 * Generate a snapshot for the given component classes.
+	 * @param componentClasses the component classes, as they will be registered
+	 * at runtime (typically {@link Configuration @Configuration} classes)
+	 * @return the snapshot
+	 * @throws IllegalStateException if some bean definitions cannot be captured
+	 * or if conditions other than profile conditions are involved
+	 */
+	public BeanDefinitionSnapshot generate(Class<?>... componentClasses) {
+		Assert.notEmpty(componentClasses, "At least one component class must be specified");
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setBeanClassLoader(this.resourceLoader.getClassLoader());
+		Set<String> evaluatedConditions = ConcurrentHashMap.newKeySet();
+		beanFactory.registerSingleton(BeanDefinitionSnapshot.EVALUATED_CONDITIONS_BEAN_NAME, evaluatedConditions);
+		AnnotatedBeanDefinitionReader reader = new AnnotatedBeanDefinitionReader(beanFactory, this.environment);
+		reader.register(componentClasses);
+
+		List<ConfigurationClassParser> parsers = new ArrayList<>(1);
+		ConfigurationClassPostProcessor postProcessor = new ConfigurationClassPostProcessor();
+		postProcessor.setEnvironment(this.environment);
+		postProcessor.setResourceLoader(this.resourceLoader);
+		ClassLoader classLoader = this.resourceLoader.getClassLoader();
+		if (classLoader != null) {
+			postProcessor.setBeanClassLoader(classLoader);
+		}
+		postProcessor.setParserCallback(parsers::add);
+		postProcessor.postProcessBeanDefinitionRegistry(beanFactory);
+
+		ImportRegistry importRegistry = null;
+		List<AnnotationAttributes> propertySources = Collections.emptyList();
+		if (!parsers.isEmpty()) {
+			ConfigurationClassParser parser = parsers.get(0);
+			importRegistry = parser.getImportRegistry();
+			propertySources = parser.getProcessedPropertySources();
+		}
+		return BeanDefinitionSnapshot.capture(beanFactory, importRegistry, propertySources, evaluatedConditions,
+				componentClasses, this.environment.getActiveProfiles(), getClasspathHash());
+	}
+
+	/**
+	 * Compute the classpath hash to record in the snapshot.
+	 * <p>The default implementation delegates to
+	 * {@link BeanDefinitionSnapshot#computeClasspathHash} for the class loader
+	 * of the generator's resource loader.
+	 */
+	protected String getClasspathHash() {
+		return BeanDefinitionSnapshot.computeClasspathHash(this.resourceLoader.getClassLoader());
+	}
+
+	/**
+	 * Generate a snapshot and write it to {@value BeanDefinitionSnapshot#SNAPSHOT_LOCATION}
+	 * within the given output directory.
+	 * @param outputDirectory the root of the classpath directory to write to
+	 * @param componentClasses the component classes to generate the snapshot for
+	 * @return the file written
+	 * @throws IOException in case of I/O errors
+	 */
+	public File writeSnapshot(File outputDirectory, Class<?>... componentClasses) throws IOException {
+		BeanDefinitionSnapshot snapshot = generate(componentClasses);
+		File file = new File(outputDirectory, BeanDefinitionSnapshot.SNAPSHOT_LOCATION);
+		File parent = file.getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Unable to create directory " + parent);
+		}
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+			snapshot.write(writer);
+		}
+		return file;
+	}
+
+
+	/**
+	 * Command-line entry point: expects the output directory as first argument,
+	 * followed by the fully qualified names of the component classes.
+	 * <p>Active profiles may be specified through the standard
+	 * {@code spring.profiles.active} system property.
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: BeanDefinitionSnapshotGenerator <outputDirectory> <componentClass>...");
+			System.exit(1);
+		}
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		Class<?>[] componentClasses = new Class<?>[args.length - 1];
+		for (int i = 1; i < args.length; i++) {
+			componentClasses[i - 1] = ClassUtils.forName(args[i], classLoader);
+		}
+		File file = new BeanDefinitionSnapshotGenerator(
+				new StandardEnvironment(), new DefaultResourceLoader(classLoader))
+				.writeSnapshot(new File(args[0]), componentClasses);
+		System.out.println("Bean definition snapshot written to " + file);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,9 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -89,6 +92,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/** Number of resources read per task when scanning in parallel. */
+	private static final int SCAN_PARTITION_SIZE = 64;
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -113,6 +119,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	@Nullable
+	private Executor scanExecutor;
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -263,7 +272,7 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Override
 	public void setResourceLoader(@Nullable ResourceLoader resourceLoader) {
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
-		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		this.metadataReaderFactory = AnnotationConfigUtils.createMetadataReaderFactory(resourceLoader);
 		this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
 	}
 
@@ -302,6 +311,33 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return this.metadataReaderFactory;
 	}
 
+	/**
+	 * Specify an {@link Executor} for reading candidate class files in parallel
+	 * during classpath scanning.
+	 * <p>Default is none, reading class files one at a time on the calling thread.
+	 * With an Executor specified, the scanned resources are read in partitions
+	 * concurrently; the candidates are still returned in the order of the
+	 * resources, so bean naming and overriding behave exactly as for a
+	 * sequential scan. The index-based lookup is not affected.
+	 * <p>Note that the configured {@link TypeFilter TypeFilters}, the
+	 * {@link MetadataReaderFactory} and any overridden
+	 * {@code isCandidateComponent} methods need to be thread-safe in this case.
+	 * @since 5.2.26
+	 * @see org.springframework.core.type.classreading.SharedMetadataReaderFactory
+	 */
+	public void setScanExecutor(@Nullable Executor scanExecutor) {
+		this.scanExecutor = scanExecutor;
+	}
+
+	/**
+	 * Return the Executor for reading candidate class files in parallel, if any.
+	 * @since 5.2.26
+	 */
+	@Nullable
+	public Executor getScanExecutor() {
+		return this.scanExecutor;
+	}
+
 
 	/**
 	 * Scan the class path for candidate components.
@@ -419,50 +455,122 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
 					resolveBasePackage(basePackage) + '/' + this.resourcePattern;
 			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
-			boolean traceEnabled = logger.isTraceEnabled();
-			boolean debugEnabled = logger.isDebugEnabled();
-			for (Resource resource : resources) {
-				if (traceEnabled) {
-					logger.trace("Scanning " + resource);
+			Executor executor = this.scanExecutor;
+			if (executor != null && resources.length > SCAN_PARTITION_SIZE) {
+				scanCandidateComponentsInParallel(resources, executor, candidates);
+			}
+			else {
+				for (Resource resource : resources) {
+					ScannedGenericBeanDefinition sbd = scanCandidateComponent(resource);
+					if (sbd != null) {
+						candidates.add(sbd);
+					}
 				}
-				try {
-					MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
-					if (isCandidateComponent(metadataReader)) {
-						ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
-						sbd.setSource(resource);
-						if (isCandidateComponent(sbd)) {
-							if (debugEnabled) {
-								logger.debug("Identified candidate component class: " + resource);
-							}
-							candidates.add(sbd);
-						}
-						else {
-							if (debugEnabled) {
-								logger.debug("Ignored because not a concrete top-level class: " + resource);
-							}
-						}
+			}
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("I/O failure during classpath scanning", ex);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Read the given resources in partitions on the given Executor, adding
+	 * the candidates to the given set in the order of the resources, exactly
+	 * as a sequential scan would.
+	 * @since 5.2.26
+	 * @see #setScanExecutor
+	 */
+	private void scanCandidateComponentsInParallel(
+			Resource[] resources, Executor executor, Set<BeanDefinition> candidates) {
+
+		// Initialize lazily created state up front rather than from worker threads.
+		getMetadataReaderFactory();
+		if (this.conditionEvaluator == null) {
+			this.conditionEvaluator =
+					new ConditionEvaluator(getRegistry(), this.environment, this.resourcePatternResolver);
+		}
+
+		List<CompletableFuture<List<ScannedGenericBeanDefinition>>> partitions = new ArrayList<>();
+		for (int start = 0; start < resources.length; start += SCAN_PARTITION_SIZE) {
+			int from = start;
+			int to = Math.min(start + SCAN_PARTITION_SIZE, resources.length);
+			partitions.add(CompletableFuture.supplyAsync(() -> {
+				List<ScannedGenericBeanDefinition> result = new ArrayList<>(to - from);
+				for (int i = from; i < to; i++) {
+					ScannedGenericBeanDefinition sbd = scanCandidateComponent(resources[i]);
+					if (sbd != null) {
+						result.add(sbd);
 					}
-					else {
-						if (traceEnabled) {
-							logger.trace("Ignored because not matching any filter: " + resource);
-						}
+				}
+				return result;
+			}, executor));
+		}
+		for (CompletableFuture<List<ScannedGenericBeanDefinition>> partition : partitions) {
+			try {
+				candidates.addAll(partition.join());
+			}
+			catch (CompletionException ex) {
+				// Rethrow the failure of the earliest failed partition, as a sequential scan would
+				Throwable cause = ex.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new BeanDefinitionStoreException("Failed to scan candidate components", cause);
+			}
+		}
+	}
+
+	/**
+	 * Read the given resource and build a bean definition for it if it
+	 * qualifies as a candidate component.
+	 * @param resource the class file to read
+	 * @return the bean definition, or {@code null} if not a candidate
+	 * @throws BeanDefinitionStoreException if the class file could not be read
+	 */
+	@Nullable
+	private ScannedGenericBeanDefinition scanCandidateComponent(Resource resource) {
+		boolean traceEnabled = logger.isTraceEnabled();
+		boolean debugEnabled = logger.isDebugEnabled();
+		if (traceEnabled) {
+			logger.trace("Scanning " + resource);
+		}
+		try {
+			MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+			if (isCandidateComponent(metadataReader)) {
+				ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
+				sbd.setSource(resource);
+				if (isCandidateComponent(sbd)) {
+					if (debugEnabled) {
+						logger.debug("Identified candidate component class: " + resource);
 					}
+					return sbd;
 				}
-				catch (FileNotFoundException ex) {
-					if (traceEnabled) {
-						logger.trace("Ignored non-readable " + resource + ": " + ex.getMessage());
+				else {
+					if (debugEnabled) {
+						logger.debug("Ignored because not a concrete top-level class: " + resource);
 					}
 				}
-				catch (Throwable ex) {
-					throw new BeanDefinitionStoreException(
-							"Failed to read candidate component class: " + resource, ex);
+			}
+			else {
+				if (traceEnabled) {
+					logger.trace("Ignored because not matching any filter: " + resource);
 				}
 			}
 		}
-		catch (IOException ex) {
-			throw new BeanDefinitionStoreException("I/O failure during classpath scanning", ex);
+		catch (FileNotFoundException ex) {
+			if (traceEnabled) {
+				logger.trace("Ignored non-readable " + resource + ": " + ex.getMessage());
+			}
 		}
-		return candidates;
+		catch (Throwable ex) {
+			throw new BeanDefinitionStoreException(
+					"Failed to read candidate component class: " + resource, ex);
+		}
+		return null;
 	}
 
 
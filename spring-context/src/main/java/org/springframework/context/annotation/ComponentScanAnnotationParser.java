@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,10 +22,12 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -104,6 +106,14 @@ class ComponentScanAnnotationParser {
 			}
 		}
 
+		if (this.registry instanceof SingletonBeanRegistry) {
+			Object scanExecutor = ((SingletonBeanRegistry) this.registry).getSingleton(
+					AnnotationConfigUtils.COMPONENT_SCAN_EXECUTOR_BEAN_NAME);
+			if (scanExecutor instanceof Executor) {
+				scanner.setScanExecutor((Executor) scanExecutor);
+			}
+		}
+
 		boolean lazyInit = componentScan.getBoolean("lazyInit");
 		if (lazyInit) {
 			scanner.getBeanDefinitionDefaults().setLazyInit(true);
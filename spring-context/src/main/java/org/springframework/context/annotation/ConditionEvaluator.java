@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.context.annotation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
@@ -49,14 +50,22 @@ class ConditionEvaluator {
 
 	private final ConditionContextImpl context;
 
+	@Nullable
+	private final Set<String> evaluatedConditions;
+
 
 	/**
 	 * Create a new {@link ConditionEvaluator} instance.
 	 */
+	@SuppressWarnings("unchecked")
 	public ConditionEvaluator(@Nullable BeanDefinitionRegistry registry,
 			@Nullable Environment environment, @Nullable ResourceLoader resourceLoader) {
 
 		this.context = new ConditionContextImpl(registry, environment, resourceLoader);
+		ConfigurableListableBeanFactory beanFactory = this.context.getBeanFactory();
+		this.evaluatedConditions = (beanFactory != null &&
+				beanFactory.containsSingleton(BeanDefinitionSnapshot.EVALUATED_CONDITIONS_BEAN_NAME) ?
+				(Set<String>) beanFactory.getSingleton(BeanDefinitionSnapshot.EVALUATED_CONDITIONS_BEAN_NAME) : null);
 	}
 
 
@@ -95,6 +104,9 @@ class ConditionEvaluator {
 			for (String conditionClass : conditionClasses) {
 				Condition condition = getCondition(conditionClass, this.context.getClassLoader());
 				conditions.add(condition);
+				if (this.evaluatedConditions != null) {
+					this.evaluatedConditions.add(conditionClass);
+				}
 			}
 		}
 
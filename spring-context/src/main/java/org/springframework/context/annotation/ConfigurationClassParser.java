@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -141,6 +141,8 @@ class ConfigurationClassParser {
 
 	private final List<String> propertySourceNames = new ArrayList<>();
 
+	private final List<AnnotationAttributes> processedPropertySources = new ArrayList<>();
+
 	private final ImportStack importStack = new ImportStack();
 
 	private final DeferredImportSelectorHandler deferredImportSelectorHandler = new DeferredImportSelectorHandler();
@@ -462,7 +464,8 @@ class ConfigurationClassParser {
 	 * @param propertySource metadata for the <code>@PropertySource</code> annotation found
 	 * @throws IOException if loading a property source failed
 	 */
-	private void processPropertySource(AnnotationAttributes propertySource) throws IOException {
+	void processPropertySource(AnnotationAttributes propertySource) throws IOException {
+		this.processedPropertySources.add(propertySource);
 		String name = propertySource.getString("name");
 		if (!StringUtils.hasLength(name)) {
 			name = null;
@@ -657,6 +660,14 @@ class ConfigurationClassParser {
 		return this.importStack;
 	}
 
+	/**
+	 * Return the <code>@PropertySource</code> declarations processed so far, in order.
+	 * @since 5.2.26
+	 */
+	List<AnnotationAttributes> getProcessedPropertySources() {
+		return this.processedPropertySources;
+	}
+
 
 	/**
 	 * Factory method to obtain a {@link SourceClass} from a {@link ConfigurationClass}.
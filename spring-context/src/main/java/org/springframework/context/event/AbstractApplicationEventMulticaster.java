@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,6 +35,8 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.metrics.CacheRegistry;
+import org.springframework.core.metrics.MapCacheMetrics;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -67,6 +69,10 @@ public abstract class AbstractApplicationEventMulticaster
 
 	final Map<ListenerCacheKey, CachedListenerRetriever> retrieverCache = new ConcurrentHashMap<>(64);
 
+	private final MapCacheMetrics retrieverCacheMetrics = CacheRegistry.register(
+			AbstractApplicationEventMulticaster.class.getName() + ".retrieverCache@" +
+					ObjectUtils.getIdentityHexString(this), new MapCacheMetrics(this.retrieverCache));
+
 	@Nullable
 	private ClassLoader beanClassLoader;
 
@@ -197,12 +203,14 @@ public abstract class AbstractApplicationEventMulticaster
 		if (existingRetriever != null) {
 			Collection<ApplicationListener<?>> result = existingRetriever.getApplicationListeners();
 			if (result != null) {
+				this.retrieverCacheMetrics.recordHit();
 				return result;
 			}
 			// If result is null, the existing retriever is not fully populated yet by another thread.
 			// Proceed like caching wasn't possible for this current local attempt.
 		}
 
+		this.retrieverCacheMetrics.recordMiss();
 		return retrieveApplicationListeners(eventType, sourceType, newRetriever);
 	}
 
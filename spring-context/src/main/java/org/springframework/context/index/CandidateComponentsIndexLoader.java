@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,13 @@ public final class CandidateComponentsIndexLoader {
 	 */
 	public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring.components";
 
+	/**
+	 * The location to look for the class-level metadata of the components.
+	 * <p>Can be present in multiple JAR files.
+	 * @since 5.2.26
+	 */
+	public static final String METADATA_RESOURCE_LOCATION = "META-INF/spring.components.metadata";
+
 	/**
 	 * System property that instructs Spring to ignore the components index, i.e.
 	 * to always return {@code null} from {@link #loadIndex(ClassLoader)}.
@@ -66,6 +73,9 @@ public final class CandidateComponentsIndexLoader {
 	private static final ConcurrentMap<ClassLoader, CandidateComponentsIndex> cache =
 			new ConcurrentReferenceHashMap<>();
 
+	private static final ConcurrentMap<ClassLoader, CandidateComponentsMetadataIndex> metadataCache =
+			new ConcurrentReferenceHashMap<>();
+
 
 	private CandidateComponentsIndexLoader() {
 	}
@@ -118,4 +128,52 @@ public final class CandidateComponentsIndexLoader {
 		}
 	}
 
+	/**
+	 * Load and instantiate the {@link CandidateComponentsMetadataIndex} from
+	 * {@value #METADATA_RESOURCE_LOCATION}, using the given class loader. If no
+	 * index is available, return {@code null}.
+	 * <p>Like the components index, the metadata index is ignored if the
+	 * {@value #IGNORE_INDEX} flag is set.
+	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
+	 * @return the index to use or {@code null} if no index was found
+	 * @throws IllegalArgumentException if any module index cannot be loaded
+	 * @since 5.2.26
+	 */
+	@Nullable
+	public static CandidateComponentsMetadataIndex loadMetadataIndex(@Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = CandidateComponentsIndexLoader.class.getClassLoader();
+		}
+		return metadataCache.computeIfAbsent(classLoaderToUse, CandidateComponentsIndexLoader::doLoadMetadataIndex);
+	}
+
+	@Nullable
+	private static CandidateComponentsMetadataIndex doLoadMetadataIndex(ClassLoader classLoader) {
+		if (shouldIgnoreIndex) {
+			return null;
+		}
+
+		try {
+			Enumeration<URL> urls = classLoader.getResources(METADATA_RESOURCE_LOCATION);
+			if (!urls.hasMoreElements()) {
+				return null;
+			}
+			List<Properties> result = new ArrayList<>();
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				result.add(PropertiesLoaderUtils.loadProperties(new UrlResource(url)));
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded " + result.size() + " metadata index(es)");
+			}
+			CandidateComponentsMetadataIndex index = new CandidateComponentsMetadataIndex(result, classLoader);
+			return (index.size() > 0 ? index : null);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to load indexes from location [" +
+					METADATA_RESOURCE_LOCATION + "]", ex);
+		}
+	}
+
 }
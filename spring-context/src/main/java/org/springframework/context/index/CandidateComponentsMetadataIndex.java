@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Provide access to the class-level metadata of the candidates that is defined in
+ * {@code META-INF/spring.components.metadata}, as generated by the
+ * {@code spring-context-indexer} alongside {@code META-INF/spring.components}.
+ *
+ * <p>The index exposes the {@link AnnotationMetadata} that would otherwise be read
+ * from the class file, including {@link org.springframework.context.annotation.Bean @Bean}
+ * methods, {@link org.springframework.context.annotation.Conditional @Conditional}
+ * declarations and annotated constructors and methods (such as {@code @Autowired}
+ * injection points).
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see IndexedMetadataReaderFactory
+ */
+public class CandidateComponentsMetadataIndex {
+
+	private static final char TYPE_SEPARATOR = '#';
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final Map<String, Map<String, String>> entries;
+
+	private final Map<String, IndexedAnnotationMetadata> metadataCache = new ConcurrentHashMap<>();
+
+
+	CandidateComponentsMetadataIndex(List<Properties> content, @Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+		this.entries = parseIndex(content);
+	}
+
+	private static Map<String, Map<String, String>> parseIndex(List<Properties> content) {
+		Map<String, Map<String, String>> index = new HashMap<>();
+		for (Properties properties : content) {
+			properties.forEach((key, value) -> {
+				String entry = (String) key;
+				int separator = entry.indexOf(TYPE_SEPARATOR);
+				String className = (separator != -1 ? entry.substring(0, separator) : entry);
+				String name = (separator != -1 ? entry.substring(separator + 1) : "");
+				index.computeIfAbsent(className, type -> new HashMap<>()).put(name, (String) value);
+			});
+		}
+		// Only keep complete entries, i.e. the ones that define the type flags
+		index.values().removeIf(typeEntries -> !typeEntries.containsKey(""));
+		return index;
+	}
+
+
+	/**
+	 * Return the number of types for which metadata is available.
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Specify whether metadata is available for the specified type.
+	 * @param className the fully qualified name of the type
+	 */
+	public boolean hasMetadata(String className) {
+		return this.entries.containsKey(className);
+	}
+
+	/**
+	 * Return the {@link AnnotationMetadata} of the specified type.
+	 * @param className the fully qualified name of the type
+	 * @return the metadata, or {@code null} if the type is not indexed
+	 * @throws IllegalArgumentException if the indexed metadata is invalid
+	 */
+	@Nullable
+	public AnnotationMetadata getAnnotationMetadata(String className) {
+		return getIndexedMetadata(className);
+	}
+
+	@Nullable
+	private IndexedAnnotationMetadata getIndexedMetadata(String className) {
+		IndexedAnnotationMetadata metadata = this.metadataCache.get(className);
+		if (metadata == null) {
+			Map<String, String> typeEntries = this.entries.get(className);
+			if (typeEntries == null) {
+				return null;
+			}
+			metadata = createMetadata(className, typeEntries);
+			this.metadataCache.put(className, metadata);
+		}
+		return metadata;
+	}
+
+	private IndexedAnnotationMetadata createMetadata(String className, Map<String, String> typeEntries) {
+		Set<String> flags = new HashSet<>(Arrays.asList(
+				StringUtils.commaDelimitedListToStringArray(typeEntries.get(""))));
+		Map<Integer, String> methods = new TreeMap<>();
+		typeEntries.forEach((name, value) -> {
+			if (name.startsWith("method.")) {
+				methods.put(Integer.valueOf(name.substring(7)), value);
+			}
+		});
+
+		List<MethodMetadata> annotatedMethods = new ArrayList<>(methods.size());
+		for (String method : methods.values()) {
+			// name:returnType:flags:annotations
+			String[] parts = method.split(":", 4);
+			if (parts.length != 4) {
+				throw new IllegalArgumentException("Invalid indexed method for " + className + ": " + method);
+			}
+			Set<String> methodFlags = new HashSet<>(Arrays.asList(StringUtils.commaDelimitedListToStringArray(parts[2])));
+			annotatedMethods.add(new IndexedMethodMetadata(parts[0], className, parts[1],
+					methodFlags.contains("abstract"), methodFlags.contains("static"),
+					methodFlags.contains("final"), methodFlags.contains("private"),
+					parseAnnotations(className + "." + parts[0], parts[3])));
+		}
+
+		return new IndexedAnnotationMetadata(className, flags, typeEntries.get("enclosing"), typeEntries.get("super"),
+				StringUtils.commaDelimitedListToStringArray(typeEntries.get("interfaces")),
+				StringUtils.commaDelimitedListToStringArray(typeEntries.get("members")),
+				annotatedMethods.toArray(new MethodMetadata[0]),
+				parseAnnotations(className, typeEntries.getOrDefault("annotations", "")));
+	}
+
+	private MergedAnnotations parseAnnotations(String source, String content) {
+		if (content.isEmpty()) {
+			return MergedAnnotations.of(Collections.emptyList());
+		}
+		return MergedAnnotations.of(IndexedAnnotationParser.parse(this.classLoader, source, content));
+	}
+
+}
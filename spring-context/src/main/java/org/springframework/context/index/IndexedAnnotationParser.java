@@ -0,0 +1,255 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.annotation.AnnotationFilter;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Parser for the annotations encoded in {@code META-INF/spring.components.metadata},
+ * creating {@link MergedAnnotation} instances the same way as the ASM-based
+ * metadata readers do.
+ *
+ * <p>Encoded values are converted according to the return type of the
+ * corresponding annotation attribute. Annotations whose type cannot be loaded
+ * are skipped, consistent with regular class file parsing.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ */
+final class IndexedAnnotationParser {
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final Object source;
+
+	private final String content;
+
+	private int position;
+
+
+	private IndexedAnnotationParser(@Nullable ClassLoader classLoader, Object source, String content) {
+		this.classLoader = classLoader;
+		this.source = source;
+		this.content = content;
+	}
+
+
+	/**
+	 * Parse the given encoded annotations.
+	 * @param classLoader the class loader to use to resolve annotation types
+	 * @param source the source of the annotations
+	 * @param content the encoded annotations (may be empty)
+	 * @return the merged annotations, in declaration order
+	 * @throws IllegalArgumentException if the content is not valid
+	 */
+	static List<MergedAnnotation<?>> parse(@Nullable ClassLoader classLoader, Object source, String content) {
+		if (content.isEmpty()) {
+			return Collections.emptyList();
+		}
+		IndexedAnnotationParser parser = new IndexedAnnotationParser(classLoader, source, content);
+		List<MergedAnnotation<?>> annotations = new ArrayList<>(4);
+		while (parser.position < content.length()) {
+			MergedAnnotation<?> annotation = parser.createAnnotation(parser.parseAnnotation());
+			if (annotation != null) {
+				annotations.add(annotation);
+			}
+		}
+		return annotations;
+	}
+
+
+	private RawAnnotation parseAnnotation() {
+		expect('@');
+		int start = this.position;
+		while (this.position < this.content.length() && "(@,)}".indexOf(current()) == -1) {
+			this.position++;
+		}
+		RawAnnotation annotation = new RawAnnotation(this.content.substring(start, this.position));
+		if (this.position < this.content.length() && current() == '(') {
+			this.position++;
+			while (current() != ')') {
+				int nameStart = this.position;
+				while (current() != '=') {
+					this.position++;
+				}
+				String name = this.content.substring(nameStart, this.position);
+				this.position++;
+				annotation.attributes.put(name, parseValue());
+				if (current() == ',') {
+					this.position++;
+				}
+			}
+			this.position++;
+		}
+		return annotation;
+	}
+
+	private Object parseValue() {
+		char c = current();
+		if (c == '@') {
+			return parseAnnotation();
+		}
+		if (c == '{') {
+			this.position++;
+			List<Object> values = new ArrayList<>();
+			while (current() != '}') {
+				values.add(parseValue());
+				if (current() == ',') {
+					this.position++;
+				}
+			}
+			this.position++;
+			return values;
+		}
+		expect('"');
+		StringBuilder value = new StringBuilder();
+		while (current() != '"') {
+			if (current() == '\\') {
+				this.position++;
+			}
+			value.append(current());
+			this.position++;
+		}
+		this.position++;
+		return value.toString();
+	}
+
+	private char current() {
+		if (this.position >= this.content.length()) {
+			throw new IllegalArgumentException("Unexpected end of indexed annotations: " + this.content);
+		}
+		return this.content.charAt(this.position);
+	}
+
+	private void expect(char expected) {
+		if (current() != expected) {
+			throw new IllegalArgumentException("Expected '" + expected + "' at position " +
+					this.position + " of indexed annotations: " + this.content);
+		}
+		this.position++;
+	}
+
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private MergedAnnotation<?> createAnnotation(RawAnnotation raw) {
+		if (AnnotationFilter.PLAIN.matches(raw.typeName)) {
+			return null;
+		}
+		Class<? extends Annotation> annotationType;
+		try {
+			annotationType = (Class<? extends Annotation>) ClassUtils.forName(raw.typeName, this.classLoader);
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			return null;
+		}
+		return createAnnotation(annotationType, raw);
+	}
+
+	private <A extends Annotation> MergedAnnotation<A> createAnnotation(Class<A> annotationType, RawAnnotation raw) {
+		Map<String, Object> attributes = new LinkedHashMap<>(raw.attributes.size());
+		raw.attributes.forEach((name, value) -> {
+			Method attribute = ReflectionUtils.findMethod(annotationType, name);
+			if (attribute == null) {
+				throw new IllegalArgumentException("No attribute '" + name + "' on " + annotationType.getName());
+			}
+			attributes.put(name, convert(value, attribute.getReturnType()));
+		});
+		return MergedAnnotation.of(this.classLoader, this.source, annotationType, attributes);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object convert(Object value, Class<?> type) {
+		if (type.isArray()) {
+			List<?> values = (value instanceof List ? (List<?>) value : Collections.singletonList(value));
+			Class<?> componentType = type.getComponentType();
+			Class<?> arrayType = (componentType == Class.class ? String.class :
+					(componentType.isAnnotation() ? MergedAnnotation.class : componentType));
+			Object array = Array.newInstance(arrayType, values.size());
+			for (int i = 0; i < values.size(); i++) {
+				Array.set(array, i, convert(values.get(i), componentType));
+			}
+			return array;
+		}
+		if (type.isAnnotation()) {
+			return createAnnotation((Class<? extends Annotation>) type, (RawAnnotation) value);
+		}
+		String stringValue = (String) value;
+		if (type == String.class || type == Class.class) {
+			return stringValue;
+		}
+		if (type.isEnum()) {
+			return Enum.valueOf((Class<? extends Enum>) type, stringValue);
+		}
+		Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(type);
+		if (wrapperType == Boolean.class) {
+			return Boolean.valueOf(stringValue);
+		}
+		if (wrapperType == Character.class) {
+			return stringValue.charAt(0);
+		}
+		if (wrapperType == Byte.class) {
+			return Byte.valueOf(stringValue);
+		}
+		if (wrapperType == Short.class) {
+			return Short.valueOf(stringValue);
+		}
+		if (wrapperType == Integer.class) {
+			return Integer.valueOf(stringValue);
+		}
+		if (wrapperType == Long.class) {
+			return Long.valueOf(stringValue);
+		}
+		if (wrapperType == Float.class) {
+			return Float.valueOf(stringValue);
+		}
+		if (wrapperType == Double.class) {
+			return Double.valueOf(stringValue);
+		}
+		throw new IllegalArgumentException("Unsupported annotation attribute type: " + type.getName());
+	}
+
+
+	/**
+	 * An annotation as encoded in the index, before conversion.
+	 */
+	private static final class RawAnnotation {
+
+		final String typeName;
+
+		final Map<String, Object> attributes = new LinkedHashMap<>();
+
+		RawAnnotation(String typeName) {
+			this.typeName = typeName;
+		}
+	}
+
+}
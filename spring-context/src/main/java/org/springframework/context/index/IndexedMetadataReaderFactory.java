@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.IOException;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link CachingMetadataReaderFactory} that serves the metadata of indexed
+ * candidates from a {@link CandidateComponentsMetadataIndex}, only falling back
+ * to parsing the class file for types that are not part of the index.
+ *
+ * <p>Used by configuration class processing and component scanning when a
+ * {@code META-INF/spring.components.metadata} index is available.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see CandidateComponentsIndexLoader#loadMetadataIndex(ClassLoader)
+ */
+public class IndexedMetadataReaderFactory extends CachingMetadataReaderFactory {
+
+	private final CandidateComponentsMetadataIndex metadataIndex;
+
+	@Nullable
+	private final MetadataReaderFactory fallbackFactory;
+
+
+	/**
+	 * Create a new {@code IndexedMetadataReaderFactory} for the given
+	 * {@link ResourceLoader} and index.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 * @param metadataIndex the index to use
+	 */
+	public IndexedMetadataReaderFactory(@Nullable ResourceLoader resourceLoader,
+			CandidateComponentsMetadataIndex metadataIndex) {
+
+		this(resourceLoader, metadataIndex, null);
+	}
+
+	/**
+	 * Create a new {@code IndexedMetadataReaderFactory} for the given
+	 * {@link ResourceLoader} and index, reading class files that are not
+	 * covered by the index through the given factory.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 * @param metadataIndex the index to use
+	 * @param fallbackFactory the factory to use for class files, or {@code null}
+	 * to use this factory's local cache
+	 * @see org.springframework.core.type.classreading.SharedMetadataReaderFactory
+	 */
+	public IndexedMetadataReaderFactory(@Nullable ResourceLoader resourceLoader,
+			CandidateComponentsMetadataIndex metadataIndex, @Nullable MetadataReaderFactory fallbackFactory) {
+
+		super(resourceLoader);
+		this.metadataIndex = metadataIndex;
+		this.fallbackFactory = fallbackFactory;
+	}
+
+
+	/**
+	 * Return the index this factory uses.
+	 */
+	public CandidateComponentsMetadataIndex getMetadataIndex() {
+		return this.metadataIndex;
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(String className) throws IOException {
+		AnnotationMetadata metadata = this.metadataIndex.getAnnotationMetadata(className);
+		if (metadata != null) {
+			String resourcePath = ResourceLoader.CLASSPATH_URL_PREFIX +
+					ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX;
+			return new IndexedMetadataReader(getResourceLoader().getResource(resourcePath), metadata);
+		}
+		return super.getMetadataReader(className);
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		if (this.fallbackFactory != null) {
+			return this.fallbackFactory.getMetadataReader(resource);
+		}
+		return super.getMetadataReader(resource);
+	}
+
+
+	/**
+	 * {@link MetadataReader} for indexed metadata: the class file is not read.
+	 */
+	private static final class IndexedMetadataReader implements MetadataReader {
+
+		private final Resource resource;
+
+		private final AnnotationMetadata metadata;
+
+		IndexedMetadataReader(Resource resource, AnnotationMetadata metadata) {
+			this.resource = resource;
+			this.metadata = metadata;
+		}
+
+		@Override
+		public Resource getResource() {
+			return this.resource;
+		}
+
+		@Override
+		public ClassMetadata getClassMetadata() {
+			return this.metadata;
+		}
+
+		@Override
+		public AnnotationMetadata getAnnotationMetadata() {
+			return this.metadata;
+		}
+	}
+
+}
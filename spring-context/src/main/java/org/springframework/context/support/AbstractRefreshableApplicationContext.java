@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextException;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 
 /**
@@ -131,7 +132,9 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 			// 加载 bean 定义(读取 xml 配置文件中的信息)
 			// 这里将 工厂类 beanFactory 当作一个参数传入,最终要将 xml 配置文件当中的所有属性解析到 beanFactory 工厂类当中
 			// 因此就会涉及到很多的解析工作
+			StartupStep loadBeanDefinitions = getApplicationStartup().start("spring.context.beandefs.load");
 			loadBeanDefinitions(beanFactory);
+			loadBeanDefinitions.tag("beanDefinitionCount", () -> String.valueOf(beanFactory.getBeanDefinitionCount())).end();
 			this.beanFactory = beanFactory;
 		}
 		catch (IOException ex) {
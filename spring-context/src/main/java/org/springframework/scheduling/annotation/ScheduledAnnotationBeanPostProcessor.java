@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +31,7 @@ import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -58,9 +60,12 @@ import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.MethodIntrospector;
 import org.springframework.core.Ordered;
-import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.core.annotation.RepeatableContainers;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.Trigger;
@@ -73,6 +78,7 @@ import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.scheduling.support.ScheduledMethodRunnable;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.util.StringValueResolver;
 
@@ -139,6 +145,8 @@ public class ScheduledAnnotationBeanPostProcessor
 
 	private final Map<Object, Set<ScheduledTask>> scheduledTasks = new IdentityHashMap<>(16);
 
+	private final boolean synthesizeScheduled = isScheduledProcessorOverridden();
+
 
 	/**
 	 * Create a default {@code ScheduledAnnotationBeanPostProcessor}.
@@ -356,10 +364,9 @@ public class ScheduledAnnotationBeanPostProcessor
 		Class<?> targetClass = AopProxyUtils.ultimateTargetClass(bean);
 		if (!this.nonAnnotatedClasses.contains(targetClass) &&
 				AnnotationUtils.isCandidateClass(targetClass, Arrays.asList(Scheduled.class, Schedules.class))) {
-			Map<Method, Set<Scheduled>> annotatedMethods = MethodIntrospector.selectMethods(targetClass,
-					(MethodIntrospector.MetadataLookup<Set<Scheduled>>) method -> {
-						Set<Scheduled> scheduledMethods = AnnotatedElementUtils.getMergedRepeatableAnnotations(
-								method, Scheduled.class, Schedules.class);
+			Map<Method, Collection<MergedAnnotation<Scheduled>>> annotatedMethods = MethodIntrospector.selectMethods(
+					targetClass, (MethodIntrospector.MetadataLookup<Collection<MergedAnnotation<Scheduled>>>) method -> {
+						Collection<MergedAnnotation<Scheduled>> scheduledMethods = getScheduledAnnotations(method);
 						return (!scheduledMethods.isEmpty() ? scheduledMethods : null);
 					});
 			if (annotatedMethods.isEmpty()) {
@@ -371,24 +378,73 @@ public class ScheduledAnnotationBeanPostProcessor
 			else {
 				// Non-empty set of methods
 				annotatedMethods.forEach((method, scheduledMethods) ->
-						scheduledMethods.forEach(scheduled -> processScheduled(scheduled, method, bean)));
+						scheduledMethods.forEach(scheduled -> {
+							if (this.synthesizeScheduled) {
+								// Subclass expects the annotation itself
+								processScheduled(scheduled.synthesize(), method, bean);
+							}
+							else {
+								processScheduled(scheduled, method, bean);
+							}
+						}));
 				if (logger.isTraceEnabled()) {
 					logger.trace(annotatedMethods.size() + " @Scheduled methods processed on bean '" + beanName +
-							"': " + annotatedMethods);
+							"': " + annotatedMethods.keySet());
 				}
 			}
 		}
 		return bean;
 	}
 
+	/**
+	 * Find the {@code @Scheduled} annotations on the given method with the same
+	 * semantics as {@code AnnotatedElementUtils.getMergedRepeatableAnnotations},
+	 * without synthesizing them.
+	 */
+	private static Collection<MergedAnnotation<Scheduled>> getScheduledAnnotations(Method method) {
+		List<MergedAnnotation<Scheduled>> annotations = MergedAnnotations.from(method,
+				SearchStrategy.INHERITED_ANNOTATIONS, RepeatableContainers.of(Scheduled.class, Schedules.class))
+				.stream(Scheduled.class).collect(Collectors.toList());
+		if (annotations.size() <= 1) {
+			return annotations;
+		}
+		// Skip equal declarations, as a set of synthesized annotations would
+		Map<Map<String, Object>, MergedAnnotation<Scheduled>> distinctAnnotations = new LinkedHashMap<>();
+		for (MergedAnnotation<Scheduled> annotation : annotations) {
+			distinctAnnotations.putIfAbsent(annotation.asMap(), annotation);
+		}
+		return distinctAnnotations.values();
+	}
+
+	private boolean isScheduledProcessorOverridden() {
+		return ReflectionUtils.isOverridden(getClass(), ScheduledAnnotationBeanPostProcessor.class,
+				"processScheduled", Scheduled.class, Method.class, Object.class);
+	}
+
 	/**
 	 * Process the given {@code @Scheduled} method declaration on the given bean.
+	 * <p>If overridden, each annotation gets synthesized in order to call this
+	 * method. Consider overriding {@link #processScheduled(MergedAnnotation, Method, Object)}
+	 * instead.
 	 * @param scheduled the @Scheduled annotation
 	 * @param method the method that the annotation has been declared on
 	 * @param bean the target bean instance
 	 * @see #createRunnable(Object, Method)
 	 */
 	protected void processScheduled(Scheduled scheduled, Method method, Object bean) {
+		processScheduled(MergedAnnotation.from(scheduled), method, bean);
+	}
+
+	/**
+	 * Process the given merged {@code @Scheduled} method declaration on the
+	 * given bean, reading its attribute values without synthesizing it.
+	 * @param scheduled the merged @Scheduled annotation
+	 * @param method the method that the annotation has been declared on
+	 * @param bean the target bean instance
+	 * @since 5.2.26
+	 * @see #createRunnable(Object, Method)
+	 */
+	protected void processScheduled(MergedAnnotation<Scheduled> scheduled, Method method, Object bean) {
 		try {
 			Runnable runnable = createRunnable(bean, method);
 			boolean processedSchedule = false;
@@ -398,8 +454,8 @@ public class ScheduledAnnotationBeanPostProcessor
 			Set<ScheduledTask> tasks = new LinkedHashSet<>(4);
 
 			// Determine initial delay
-			long initialDelay = scheduled.initialDelay();
-			String initialDelayString = scheduled.initialDelayString();
+			long initialDelay = scheduled.getLong("initialDelay");
+			String initialDelayString = scheduled.getString("initialDelayString");
 			if (StringUtils.hasText(initialDelayString)) {
 				Assert.isTrue(initialDelay < 0, "Specify 'initialDelay' or 'initialDelayString', not both");
 				if (this.embeddedValueResolver != null) {
@@ -417,9 +473,9 @@ public class ScheduledAnnotationBeanPostProcessor
 			}
 
 			// Check cron expression
-			String cron = scheduled.cron();
+			String cron = scheduled.getString("cron");
 			if (StringUtils.hasText(cron)) {
-				String zone = scheduled.zone();
+				String zone = scheduled.getString("zone");
 				if (this.embeddedValueResolver != null) {
 					cron = this.embeddedValueResolver.resolveStringValue(cron);
 					zone = this.embeddedValueResolver.resolveStringValue(zone);
@@ -446,13 +502,13 @@ public class ScheduledAnnotationBeanPostProcessor
 			}
 
 			// Check fixed delay
-			long fixedDelay = scheduled.fixedDelay();
+			long fixedDelay = scheduled.getLong("fixedDelay");
 			if (fixedDelay >= 0) {
 				Assert.isTrue(!processedSchedule, errorMessage);
 				processedSchedule = true;
 				tasks.add(this.registrar.scheduleFixedDelayTask(new FixedDelayTask(runnable, fixedDelay, initialDelay)));
 			}
-			String fixedDelayString = scheduled.fixedDelayString();
+			String fixedDelayString = scheduled.getString("fixedDelayString");
 			if (StringUtils.hasText(fixedDelayString)) {
 				if (this.embeddedValueResolver != null) {
 					fixedDelayString = this.embeddedValueResolver.resolveStringValue(fixedDelayString);
@@ -472,13 +528,13 @@ public class ScheduledAnnotationBeanPostProcessor
 			}
 
 			// Check fixed rate
-			long fixedRate = scheduled.fixedRate();
+			long fixedRate = scheduled.getLong("fixedRate");
 			if (fixedRate >= 0) {
 				Assert.isTrue(!processedSchedule, errorMessage);
 				processedSchedule = true;
 				tasks.add(this.registrar.scheduleFixedRateTask(new FixedRateTask(runnable, fixedRate, initialDelay)));
 			}
-			String fixedRateString = scheduled.fixedRateString();
+			String fixedRateString = scheduled.getString("fixedRateString");
 			if (StringUtils.hasText(fixedRateString)) {
 				if (this.embeddedValueResolver != null) {
 					fixedRateString = this.embeddedValueResolver.resolveStringValue(fixedRateString);
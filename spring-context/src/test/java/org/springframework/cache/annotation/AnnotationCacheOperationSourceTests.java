@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -254,6 +254,14 @@ public class AnnotationCacheOperationSourceTests {
 		assertThat(cacheOperation instanceof CacheableOperation).isTrue();
 	}
 
+	@Test
+	public void equalAnnotationsInHierarchy() {
+		Collection<CacheOperation> ops = getOps(EqualDeclarations.class, "equalDeclarations", 1);
+		CacheOperation cacheOperation = ops.iterator().next();
+		assertThat(cacheOperation instanceof CacheableOperation).isTrue();
+		assertThat(cacheOperation.getCacheNames()).containsExactly("test");
+	}
+
 	@Test
 	public void partialClassLevelWithCustomCacheManager() {
 		Collection<CacheOperation> ops = getOps(AnnotatedClassWithSomeDefault.class, "methodLevelCacheManager", 1);
@@ -471,6 +479,29 @@ public class AnnotationCacheOperationSourceTests {
 	}
 
 
+	private interface EqualDeclarationsIfc {
+
+		@Cacheable("test")
+		void equalDeclarations();
+	}
+
+
+	private static class EqualDeclarationsBase {
+
+		@Cacheable(cacheNames = "test")
+		public void equalDeclarations() {
+		}
+	}
+
+
+	private static class EqualDeclarations extends EqualDeclarationsBase implements EqualDeclarationsIfc {
+
+		@Override
+		public void equalDeclarations() {
+		}
+	}
+
+
 	@Retention(RetentionPolicy.RUNTIME)
 	@Target(ElementType.METHOD)
 	@Cacheable("foo")
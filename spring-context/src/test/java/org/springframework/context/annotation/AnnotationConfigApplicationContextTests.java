@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,10 @@
 
 package org.springframework.context.annotation;
 
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
@@ -27,10 +29,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation6.ComponentForScanning;
 import org.springframework.context.annotation6.ConfigForScanning;
 import org.springframework.context.annotation6.Jsr330NamedForScanning;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.metrics.BufferingApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup.BufferedStartupStep;
 import org.springframework.util.ObjectUtils;
 
 import static java.lang.String.format;
@@ -59,6 +64,33 @@ class AnnotationConfigApplicationContextTests {
 		assertThat(beans).hasSize(1);
 	}
 
+	@Test
+	void scanAndRefreshWithApplicationStartup() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.scan("org.springframework.context.annotation6");
+		context.refresh();
+
+		assertThat(context.getBean(ConfigurableApplicationContext.APPLICATION_STARTUP_BEAN_NAME)).isSameAs(applicationStartup);
+		List<BufferedStartupStep> steps = applicationStartup.getBufferedSteps();
+		List<String> stepNames = steps.stream().map(BufferedStartupStep::getName).distinct().collect(Collectors.toList());
+		assertThat(stepNames).contains("spring.context.component-scan", "spring.context.refresh",
+				"spring.context.beans.post-process", "spring.context.beandef-registry.post-process",
+				"spring.context.config-classes.parse", "spring.context.config-classes.enhance",
+				"spring.beans.instantiate");
+		assertThat(steps).allSatisfy(step -> assertThat(step.isEnded()).isTrue());
+
+		BufferedStartupStep refresh = steps.get(steps.size() - 1);
+		assertThat(refresh.getName()).isEqualTo("spring.context.refresh");
+		assertThat(refresh.getParentId()).isNull();
+		assertThat(steps).filteredOn(step -> step.getName().equals("spring.context.beans.post-process"))
+				.allSatisfy(step -> assertThat(step.getParentId()).isEqualTo(refresh.getId()));
+		assertThat(steps).filteredOn(step -> step.getName().equals("spring.beans.instantiate"))
+				.extracting(step -> step.getTags().iterator().next().getValue())
+				.contains(uncapitalize(ComponentForScanning.class.getSimpleName()));
+	}
+
 	@Test
 	void registerAndRefresh() {
 		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.context.annotation6.ComponentForScanning;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.AnnotationMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BeanDefinitionSnapshot} and {@link BeanDefinitionSnapshotGenerator}.
+ *
+ * @author Peggy M
+ */
+class BeanDefinitionSnapshotTests {
+
+	@Test
+	void generateAndReadBack() throws Exception {
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshotGenerator().generate(SnapshotConfig.class);
+		StringWriter writer = new StringWriter();
+		snapshot.write(writer);
+
+		BeanDefinitionSnapshot readBack = BeanDefinitionSnapshot.read(new StringReader(writer.toString()));
+		assertThat(readBack.getVersion()).isEqualTo(BeanDefinitionSnapshot.FORMAT_VERSION);
+		assertThat(readBack.getClasspathHash()).isEqualTo(snapshot.getClasspathHash());
+		assertThat(readBack.getBeanDefinitionCount()).isEqualTo(snapshot.getBeanDefinitionCount());
+		StringWriter rewritten = new StringWriter();
+		readBack.write(rewritten);
+		assertThat(rewritten.toString()).isEqualTo(writer.toString());
+	}
+
+	@Test
+	void registerAndRefresh() throws Exception {
+		BeanDefinitionSnapshot snapshot = roundTrip(
+				new BeanDefinitionSnapshotGenerator().generate(SnapshotConfig.class));
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		snapshot.registerBeanDefinitions(context);
+		context.refresh();
+
+		BeanDefinition configDefinition = context.getBeanDefinition("beanDefinitionSnapshotTests.SnapshotConfig");
+		assertThat(configDefinition.getAttribute(BeanDefinitionSnapshot.SNAPSHOT_ATTRIBUTE)).isEqualTo(true);
+		assertThat(context.getBean(ComponentForScanning.class)).isNotNull();
+		assertThat(context.getBean("snapshotTestBean", TestBean.class).getName()).isEqualTo("p2TestBean");
+		assertThat(context.getAliases("snapshotTestBean")).containsExactly("aliasedTestBean");
+		assertThat(context.getEnvironment().getProperty("from.p2")).isEqualTo("p2Value");
+		assertThat(context.containsBean("devBean")).isFalse();
+		assertThat(context.getBean("importingClassName")).isEqualTo(SnapshotConfig.class.getName());
+		context.close();
+	}
+
+	@Test
+	void isApplicableTo() {
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshotGenerator().generate(SnapshotConfig.class);
+		StandardEnvironment environment = new StandardEnvironment();
+		assertThat(snapshot.isApplicableTo(new Class<?>[] {SnapshotConfig.class}, environment)).isTrue();
+		assertThat(snapshot.isApplicableTo(new Class<?>[] {ImportedConfig.class}, environment)).isFalse();
+		environment.setActiveProfiles("dev");
+		assertThat(snapshot.isApplicableTo(new Class<?>[] {SnapshotConfig.class}, environment)).isFalse();
+	}
+
+	@Test
+	void generateWithUnsupportedDefinition() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				new BeanDefinitionSnapshotGenerator().generate(SupplierConfig.class))
+			.withMessageContaining("supplierBean")
+			.withMessageContaining("instance supplier");
+	}
+
+	@Test
+	void generateWithEnvironmentDependentCondition() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				new BeanDefinitionSnapshotGenerator().generate(ConditionalConfig.class))
+			.withMessageContaining(PropertyCondition.class.getName());
+	}
+
+	@Test
+	void classpathHashReflectsContent(@TempDir Path tempDir) throws Exception {
+		Path classes = Files.createDirectories(tempDir.resolve("classes/com/example"));
+		Files.write(classes.resolve("Foo.class"), "foo".getBytes(StandardCharsets.UTF_8));
+		Files.write(classes.resolve("Foo.txt"), "foo".getBytes(StandardCharsets.UTF_8));
+		String hash = classpathHash(tempDir.resolve("classes").toFile());
+
+		Files.write(classes.resolve("Foo.txt"), "bar".getBytes(StandardCharsets.UTF_8));
+		assertThat(classpathHash(tempDir.resolve("classes").toFile())).isEqualTo(hash);
+		Files.write(classes.resolve("Foo.class"), "bar".getBytes(StandardCharsets.UTF_8));
+		String changedHash = classpathHash(tempDir.resolve("classes").toFile());
+		assertThat(changedHash).isNotEqualTo(hash);
+
+		File jar = tempDir.resolve("classes.jar").toFile();
+		try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+			zip.putNextEntry(new ZipEntry("com/example/Foo.class"));
+			zip.write("bar".getBytes(StandardCharsets.UTF_8));
+			zip.putNextEntry(new ZipEntry(BeanDefinitionSnapshot.SNAPSHOT_LOCATION));
+			zip.write("version=1".getBytes(StandardCharsets.UTF_8));
+		}
+		assertThat(classpathHash(jar)).isEqualTo(changedHash);
+	}
+
+
+	@Test
+	void loadVerifiesClasspathOnlyIfRequested(@TempDir Path tempDir) throws Exception {
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshotGenerator().generate(SnapshotConfig.class);
+		StringWriter writer = new StringWriter();
+		snapshot.write(writer);
+		Path root = tempDir.resolve("classes");
+		Path location = root.resolve(BeanDefinitionSnapshot.SNAPSHOT_LOCATION);
+		Files.createDirectories(location.getParent());
+		Files.write(location, writer.toString().replace(snapshot.getClasspathHash(), "stale")
+				.getBytes(StandardCharsets.UTF_8));
+		Files.createDirectories(root.resolve("com/example"));
+		Files.write(root.resolve("com/example/Foo.class"), "foo".getBytes(StandardCharsets.UTF_8));
+
+		AtomicInteger rootLookups = new AtomicInteger();
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {root.toUri().toURL()}, null) {
+			@Override
+			public URL[] getURLs() {
+				rootLookups.incrementAndGet();
+				return super.getURLs();
+			}
+		}) {
+			assertThat(BeanDefinitionSnapshot.load(classLoader)).isNotNull();
+			assertThat(rootLookups.get()).isEqualTo(0);
+
+			SpringProperties.setFlag(BeanDefinitionSnapshot.VERIFY_SNAPSHOT);
+			try {
+				assertThat(BeanDefinitionSnapshot.load(classLoader)).isNull();
+				assertThat(rootLookups.get()).isGreaterThan(0);
+			}
+			finally {
+				SpringProperties.setProperty(BeanDefinitionSnapshot.VERIFY_SNAPSHOT, null);
+			}
+		}
+	}
+
+
+	private static String classpathHash(File root) throws Exception {
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {root.toURI().toURL()}, null)) {
+			return BeanDefinitionSnapshot.computeClasspathHash(classLoader);
+		}
+	}
+
+	private static BeanDefinitionSnapshot roundTrip(BeanDefinitionSnapshot snapshot) throws Exception {
+		StringWriter writer = new StringWriter();
+		snapshot.write(writer);
+		return BeanDefinitionSnapshot.read(new StringReader(writer.toString()));
+	}
+
+
+	@Configuration
+	@ComponentScan("org.springframework.context.annotation6")
+	@PropertySource("classpath:org/springframework/context/annotation/p2.properties")
+	@Import(ImportedConfig.class)
+	static class SnapshotConfig {
+
+		@Bean({"snapshotTestBean", "aliasedTestBean"})
+		TestBean snapshotTestBean(Environment environment) {
+			return new TestBean(environment.getProperty("testbean.name"));
+		}
+
+		@Bean
+		@Profile("dev")
+		TestBean devBean() {
+			return new TestBean("dev");
+		}
+	}
+
+
+	@Configuration
+	static class ImportedConfig implements ImportAware {
+
+		private AnnotationMetadata importMetadata;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+
+		@Bean
+		String importingClassName() {
+			return this.importMetadata.getClassName();
+		}
+	}
+
+
+	@Configuration
+	@Import(SupplierRegistrar.class)
+	static class SupplierConfig {
+	}
+
+
+	@Configuration
+	static class ConditionalConfig {
+
+		@Bean
+		@Conditional(PropertyCondition.class)
+		TestBean conditionalBean() {
+			return new TestBean();
+		}
+	}
+
+
+	static class PropertyCondition implements Condition {
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			return context.getEnvironment().containsProperty("conditional");
+		}
+	}
+
+
+	static class SupplierRegistrar implements ImportBeanDefinitionRegistrar {
+
+		@Override
+		public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+			registry.registerBeanDefinition("supplierBean", new RootBeanDefinition(TestBean.class, TestBean::new));
+		}
+	}
+
+}
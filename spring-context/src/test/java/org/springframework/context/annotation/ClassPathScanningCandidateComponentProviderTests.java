@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,12 @@ package org.springframework.context.annotation;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import example.gh24375.AnnotatedComponent;
 import example.profilescan.DevComponent;
@@ -41,6 +45,7 @@ import example.scannable.sub.BarComponent;
 import org.aspectj.lang.annotation.Aspect;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.testfixture.index.CandidateComponentsTestClassLoader;
 import org.springframework.core.env.ConfigurableEnvironment;
@@ -50,12 +55,14 @@ import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Controller;
 import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * @author Mark Fisher
@@ -502,6 +509,53 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertThat(components.iterator().next().getBeanClassName()).isEqualTo(AnnotatedComponent.class.getName());
 	}
 
+	@Test
+	public void parallelScanPreservesOrder() {
+		String basePackage = getClass().getPackage().getName();
+		TypeFilter unconditional = (metadataReader, metadataReaderFactory) ->
+				!metadataReader.getAnnotationMetadata().isAnnotated(Conditional.class.getName());
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+		provider.addIncludeFilter(unconditional);
+		List<String> sequential = beanClassNames(provider.findCandidateComponents(basePackage));
+		assertThat(sequential.size()).isGreaterThan(64);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ClassPathScanningCandidateComponentProvider parallelProvider =
+					new ClassPathScanningCandidateComponentProvider(false);
+			parallelProvider.addIncludeFilter(unconditional);
+			parallelProvider.setScanExecutor(executor);
+			List<String> parallel = beanClassNames(parallelProvider.findCandidateComponents(basePackage));
+			assertThat(parallel).containsExactlyElementsOf(sequential);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelScanPropagatesFailure() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+			provider.addIncludeFilter((metadataReader, metadataReaderFactory) -> {
+				throw new IllegalStateException("Filter failure");
+			});
+			provider.setScanExecutor(executor);
+			assertThatExceptionOfType(BeanDefinitionStoreException.class).isThrownBy(() ->
+					provider.findCandidateComponents(getClass().getPackage().getName()))
+				.withMessageStartingWith("Failed to read candidate component class")
+				.withCauseInstanceOf(IllegalStateException.class);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+
+	private List<String> beanClassNames(Set<BeanDefinition> candidates) {
+		return candidates.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList());
+	}
 
 	private boolean containsBeanClass(Set<BeanDefinition> candidates, Class<?> beanClass) {
 		for (BeanDefinition candidate : candidates) {
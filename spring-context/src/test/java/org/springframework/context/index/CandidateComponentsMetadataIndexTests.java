@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CandidateComponentsMetadataIndex}.
+ *
+ * @author Peggy M
+ */
+class CandidateComponentsMetadataIndexTests {
+
+	@Test
+	void getAnnotationMetadata() {
+		CandidateComponentsMetadataIndex index = createIndex();
+		AnnotationMetadata metadata = index.getAnnotationMetadata("com.example.AppConfig");
+		assertThat(metadata).isNotNull();
+		assertThat(metadata.getClassName()).isEqualTo("com.example.AppConfig");
+		assertThat(metadata.isConcrete()).isTrue();
+		assertThat(metadata.isIndependent()).isTrue();
+		assertThat(metadata.getSuperClassName()).isEqualTo("java.lang.Object");
+		assertThat(metadata.getMemberClassNames()).containsExactly("com.example.AppConfig$Nested");
+		assertThat(metadata.getAnnotationTypes()).containsExactly(
+				Configuration.class.getName(), ComponentScan.class.getName());
+		assertThat(metadata.getAnnotationAttributes(Configuration.class.getName()))
+				.containsEntry("proxyBeanMethods", false);
+	}
+
+	@Test
+	void getAnnotationMetadataWithNestedAnnotations() {
+		AnnotationMetadata metadata = createIndex().getAnnotationMetadata("com.example.AppConfig");
+		AnnotationAttributes attributes = AnnotationAttributes.fromMap(
+				metadata.getAnnotationAttributes(ComponentScan.class.getName(), true));
+		assertThat(attributes.getStringArray("basePackages")).containsExactly("com.example.one", "com.example.two");
+		AnnotationAttributes[] filters = attributes.getAnnotationArray("excludeFilters");
+		assertThat(filters).hasSize(1);
+		assertThat(filters[0].<FilterType>getEnum("type")).isEqualTo(FilterType.ASSIGNABLE_TYPE);
+		assertThat(filters[0].getStringArray("classes")).containsExactly("java.lang.String", "int[]");
+	}
+
+	@Test
+	void getAnnotatedMethods() {
+		AnnotationMetadata metadata = createIndex().getAnnotationMetadata("com.example.AppConfig");
+		Set<MethodMetadata> beanMethods = metadata.getAnnotatedMethods(Bean.class.getName());
+		assertThat(beanMethods).hasSize(2);
+		MethodMetadata first = beanMethods.iterator().next();
+		assertThat(first.getMethodName()).isEqualTo("one");
+		assertThat(first.getReturnTypeName()).isEqualTo("java.lang.String");
+		assertThat(first.isStatic()).isTrue();
+		assertThat(first.isOverridable()).isFalse();
+		assertThat(first.getAllAnnotationAttributes(Conditional.class.getName(), true).get("value"))
+				.containsExactly((Object) new String[] {"org.springframework.context.annotation.ProfileCondition"});
+		assertThat(metadata.getAnnotatedMethods(Autowired.class.getName()))
+				.singleElement().extracting(MethodMetadata::getMethodName).isEqualTo("<init>");
+	}
+
+	@Test
+	void unknownAnnotationIsSkipped() {
+		Properties properties = new Properties();
+		properties.put("com.example.Unknown", "independent");
+		properties.put("com.example.Unknown#annotations", "@com.example.DoesNotExist(value=\"x\")" +
+				"@org.springframework.context.annotation.Configuration");
+		CandidateComponentsMetadataIndex index = new CandidateComponentsMetadataIndex(
+				Collections.singletonList(properties), getClass().getClassLoader());
+		assertThat(index.getAnnotationMetadata("com.example.Unknown").getAnnotationTypes())
+				.containsExactly(Configuration.class.getName());
+	}
+
+	@Test
+	void incompleteEntryIsIgnored() {
+		Properties properties = new Properties();
+		properties.put("com.example.Incomplete#super", "java.lang.Object");
+		CandidateComponentsMetadataIndex index = new CandidateComponentsMetadataIndex(
+				Collections.singletonList(properties), getClass().getClassLoader());
+		assertThat(index.hasMetadata("com.example.Incomplete")).isFalse();
+		assertThat(index.getAnnotationMetadata("com.example.Incomplete")).isNull();
+	}
+
+
+	private CandidateComponentsMetadataIndex createIndex() {
+		Properties properties = new Properties();
+		properties.put("com.example.AppConfig", "independent");
+		properties.put("com.example.AppConfig#super", "java.lang.Object");
+		properties.put("com.example.AppConfig#members", "com.example.AppConfig$Nested");
+		properties.put("com.example.AppConfig#annotations",
+				"@org.springframework.context.annotation.Configuration(proxyBeanMethods=\"false\")" +
+				"@org.springframework.context.annotation.ComponentScan(basePackages={\"com.example.one\",\"com.example.two\"}," +
+				"excludeFilters={@org.springframework.context.annotation.ComponentScan$Filter(" +
+				"type=\"ASSIGNABLE_TYPE\",classes={\"java.lang.String\",\"int[]\"})})");
+		properties.put("com.example.AppConfig#method.0", "<init>:void::@org.springframework.beans.factory.annotation.Autowired");
+		properties.put("com.example.AppConfig#method.1", "one:java.lang.String:static:" +
+				"@org.springframework.context.annotation.Bean@org.springframework.context.annotation.Profile(value={\"dev\"})");
+		properties.put("com.example.AppConfig#method.2", "two:java.lang.Integer::@org.springframework.context.annotation.Bean");
+		return new CandidateComponentsMetadataIndex(Collections.singletonList(properties), getClass().getClassLoader());
+	}
+
+}
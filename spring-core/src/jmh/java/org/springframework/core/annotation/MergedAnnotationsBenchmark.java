@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+
+/**
+ * Benchmarks for {@link MergedAnnotations#from(java.lang.reflect.AnnotatedElement, SearchStrategy)}
+ * lookups on classes and methods with meta-annotations and a type hierarchy.
+ *
+ * @since 5.2.26
+ */
+@BenchmarkMode(Mode.Throughput)
+public class MergedAnnotationsBenchmark {
+
+	@Benchmark
+	public void classIsPresent(BenchmarkData data, Blackhole bh) {
+		bh.consume(MergedAnnotations.from(data.type, data.searchStrategy).isPresent(Stereotype.class));
+	}
+
+	@Benchmark
+	public void classGetAttribute(BenchmarkData data, Blackhole bh) {
+		bh.consume(MergedAnnotations.from(data.type, data.searchStrategy)
+				.get(Stereotype.class).getValue("value", String.class));
+	}
+
+	@Benchmark
+	public void methodIsPresent(BenchmarkData data, Blackhole bh) {
+		bh.consume(MergedAnnotations.from(data.method, data.searchStrategy).isPresent(Mapping.class));
+	}
+
+	@Benchmark
+	public void methodSynthesize(BenchmarkData data, Blackhole bh) {
+		bh.consume(MergedAnnotations.from(data.method, data.searchStrategy).get(Mapping.class).synthesize());
+	}
+
+	@Benchmark
+	public void unannotatedClass(BenchmarkData data, Blackhole bh) {
+		bh.consume(MergedAnnotations.from(Object.class, data.searchStrategy).isPresent(Stereotype.class));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"DIRECT", "INHERITED_ANNOTATIONS", "TYPE_HIERARCHY"})
+		public SearchStrategy searchStrategy;
+
+		public Class<?> type;
+
+		public Method method;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.type = AnnotatedController.class;
+			this.method = AnnotatedController.class.getMethod("handle", String.class);
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+	@Inherited
+	@interface Stereotype {
+
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	@Stereotype
+	@Inherited
+	@interface Controller {
+
+		@AliasFor(annotation = Stereotype.class)
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+	@interface Mapping {
+
+		@AliasFor("path")
+		String[] value() default {};
+
+		@AliasFor("value")
+		String[] path() default {};
+
+		String[] produces() default {};
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.METHOD)
+	@Mapping
+	@interface GetMapping {
+
+		@AliasFor(annotation = Mapping.class)
+		String[] value() default {};
+
+		@AliasFor(annotation = Mapping.class)
+		String[] produces() default {};
+	}
+
+
+	interface ControllerContract {
+
+		@GetMapping(value = "/items/{id}", produces = "application/json")
+		String handle(String id);
+	}
+
+
+	@Controller("baseController")
+	static abstract class AbstractController implements ControllerContract {
+	}
+
+
+	public static class AnnotatedController extends AbstractController {
+
+		@Override
+		public String handle(String id) {
+			return id;
+		}
+	}
+
+}
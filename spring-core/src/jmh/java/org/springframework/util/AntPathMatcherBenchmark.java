@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link AntPathMatcher#match(String, String)}, matching a set
+ * of typical request paths against a set of typical handler mapping patterns.
+ *
+ * @since 5.2.26
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AntPathMatcherBenchmark {
+
+	@Benchmark
+	public void matchAllRoutes(RouteMatchData data, Blackhole bh) {
+		for (String path : data.paths) {
+			for (String pattern : data.patterns) {
+				bh.consume(data.matcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchAllRoutesWithoutCache(RouteMatchData data, Blackhole bh) {
+		for (String path : data.paths) {
+			for (String pattern : data.patterns) {
+				bh.consume(data.uncachedMatcher.match(pattern, path));
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class RouteMatchData {
+
+		static final String[] PATTERNS = {
+				"/", "/about", "/about/team", "/static/**", "/static/*.css", "/images/*.{png,jpg}",
+				"/api/users", "/api/users/{id}", "/api/users/{id}/orders", "/api/users/{id}/orders/{orderId}",
+				"/api/projects/{project}/releases/{version:[\\d.]+}", "/admin/**/settings"};
+
+		static final String[] PATHS = {
+				"/", "/about/team", "/static/css/main.css", "/static/app.css", "/images/logo.png",
+				"/api/users/42", "/api/users/42/orders/1337", "/api/projects/spring/releases/5.2.26",
+				"/admin/tenant/acme/settings", "/not/found"};
+
+		public AntPathMatcher matcher;
+
+		public AntPathMatcher uncachedMatcher;
+
+		public List<String> patterns;
+
+		public List<String> paths;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.matcher = new AntPathMatcher();
+			this.uncachedMatcher = new AntPathMatcher();
+			this.uncachedMatcher.setCachePatterns(false);
+			this.patterns = Arrays.asList(PATTERNS);
+			this.paths = Arrays.asList(PATHS);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,10 +35,13 @@ import java.util.StringJoiner;
 import org.springframework.core.SerializableTypeWrapper.FieldTypeProvider;
 import org.springframework.core.SerializableTypeWrapper.MethodParameterTypeProvider;
 import org.springframework.core.SerializableTypeWrapper.TypeProvider;
+import org.springframework.core.metrics.CacheMetrics;
+import org.springframework.core.metrics.CacheRegistry;
+import org.springframework.core.metrics.MapCacheMetrics;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
-import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.LockFreeReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
@@ -91,8 +94,12 @@ public class ResolvableType implements Serializable {
 
 	private static final ResolvableType[] EMPTY_TYPES_ARRAY = new ResolvableType[0];
 
-	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
-			new ConcurrentReferenceHashMap<>(256);
+	private static final LockFreeReferenceHashMap<ResolvableType, ResolvableType> cache =
+			new LockFreeReferenceHashMap<>(256);
+
+	// Held for the lifetime of the cache, see CacheRegistry
+	private static final CacheMetrics cacheMetrics =
+			CacheRegistry.register(ResolvableType.class.getName() + ".cache", new MapCacheMetrics(cache));
 
 
 	/**
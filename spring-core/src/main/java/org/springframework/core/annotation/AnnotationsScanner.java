@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,8 +28,11 @@ import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.Ordered;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.core.metrics.CacheMetrics;
+import org.springframework.core.metrics.CacheRegistry;
+import org.springframework.core.metrics.MapCacheMetrics;
 import org.springframework.lang.Nullable;
-import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.LockFreeReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 
@@ -50,10 +53,17 @@ abstract class AnnotationsScanner {
 
 
 	private static final Map<AnnotatedElement, Annotation[]> declaredAnnotationCache =
-			new ConcurrentReferenceHashMap<>(256);
+			new LockFreeReferenceHashMap<>(256);
 
 	private static final Map<Class<?>, Method[]> baseTypeMethodsCache =
-			new ConcurrentReferenceHashMap<>(256);
+			new LockFreeReferenceHashMap<>(256);
+
+	// Held for the lifetime of the caches, see CacheRegistry
+	private static final CacheMetrics declaredAnnotationCacheMetrics = CacheRegistry.register(
+			AnnotationsScanner.class.getName() + ".declaredAnnotationCache", new MapCacheMetrics(declaredAnnotationCache));
+
+	private static final CacheMetrics baseTypeMethodsCacheMetrics = CacheRegistry.register(
+			AnnotationsScanner.class.getName() + ".baseTypeMethodsCache", new MapCacheMetrics(baseTypeMethodsCache));
 
 
 	private AnnotationsScanner() {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -50,6 +50,9 @@ import org.springframework.lang.Nullable;
  *
  * <p>If necessary, a {@code MergedAnnotation} can be {@linkplain #synthesize()
  * synthesized} back into an actual {@link java.lang.annotation.Annotation}.
+ * Callers that only need a few attribute values should rather read them via
+ * the {@code get} methods or {@linkplain #map(Function) map} the annotation to
+ * a value object of their own, avoiding the cost of a synthesized proxy.
  *
  * @author Phillip Webb
  * @author Juergen Hoeller
@@ -515,6 +518,28 @@ public interface MergedAnnotation<A extends Annotation> {
 	 */
 	Optional<A> synthesize(Predicate<? super MergedAnnotation<A>> condition) throws NoSuchElementException;
 
+	/**
+	 * Map this merged annotation to a value of the caller's choice, typically a
+	 * simple holder for just the attributes that the caller needs.
+	 * <p>The given function is expected to read attribute values through the
+	 * {@code get} accessors of this merged annotation, avoiding the JDK
+	 * {@link Proxy} and invocation handler that {@link #synthesize()} creates.
+	 * For example:
+	 * <pre class="code">
+	 * Optional&lt;String[]&gt; paths = annotations.get(RequestMapping.class)
+	 *     .map(mapping -&gt; mapping.getStringArray("path"));
+	 * </pre>
+	 * @param mapper the function to apply to this merged annotation if present
+	 * @return an optional containing the result of the mapping function, or an
+	 * empty optional if this annotation is not present or the function returned
+	 * {@code null}
+	 * @since 5.2.26
+	 * @see #synthesize()
+	 */
+	default <R> Optional<R> map(Function<? super MergedAnnotation<A>, ? extends R> mapper) {
+		return (isPresent() ? Optional.ofNullable(mapper.apply(this)) : Optional.empty());
+	}
+
 
 	/**
 	 * Create a {@link MergedAnnotation} that represents a missing annotation
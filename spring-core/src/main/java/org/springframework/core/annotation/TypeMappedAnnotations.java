@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,13 @@ package org.springframework.core.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.function.Consumer;
@@ -29,13 +32,25 @@ import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import org.springframework.core.metrics.CacheMetrics;
+import org.springframework.core.metrics.CacheRegistry;
+import org.springframework.core.metrics.MapCacheMetrics;
 import org.springframework.lang.Nullable;
+import org.springframework.util.LockFreeReferenceHashMap;
 
 /**
  * {@link MergedAnnotations} implementation that searches for and adapts
  * annotations and meta-annotations using {@link AnnotationTypeMappings}.
  *
+ * <p>Instances for classes and methods with the {@link AnnotationFilter#PLAIN}
+ * filter and {@linkplain RepeatableContainers#standardRepeatables() standard}
+ * or {@linkplain RepeatableContainers#none() no} repeatable containers are
+ * shared per element and search strategy. Such instances build an index of
+ * all merged annotations on first use, turning subsequent {@code isPresent}
+ * and {@code get} calls into hash lookups.
+ *
  * @author Phillip Webb
+ * @author Juergen Hoeller
  * @since 5.2
  */
 final class TypeMappedAnnotations implements MergedAnnotations {
@@ -46,6 +61,19 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	static final MergedAnnotations NONE = new TypeMappedAnnotations(
 			null, new Annotation[0], RepeatableContainers.none(), AnnotationFilter.ALL);
 
+	private static final int SHARED_INSTANCE_SLOTS = SearchStrategy.values().length * 2;
+
+	/**
+	 * Shared instances per element, with a slot per search strategy and
+	 * repeatable containers, see {@link #getSharedInstanceSlot}.
+	 */
+	private static final Map<AnnotatedElement, TypeMappedAnnotations[]> sharedInstanceCache =
+			new LockFreeReferenceHashMap<>(256);
+
+	// Held for the lifetime of the cache, see CacheRegistry
+	private static final CacheMetrics sharedInstanceCacheMetrics = CacheRegistry.register(
+			TypeMappedAnnotations.class.getName() + ".sharedInstanceCache", new SharedInstanceCacheMetrics());
+
 
 	@Nullable
 	private final Object source;
@@ -63,12 +91,17 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 
 	private final AnnotationFilter annotationFilter;
 
+	private final boolean indexed;
+
 	@Nullable
 	private volatile List<Aggregate> aggregates;
 
+	@Nullable
+	private volatile Index index;
+
 
 	private TypeMappedAnnotations(AnnotatedElement element, SearchStrategy searchStrategy,
-			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
+			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter, boolean indexed) {
 
 		this.source = element;
 		this.element = element;
@@ -76,6 +109,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		this.annotations = null;
 		this.repeatableContainers = repeatableContainers;
 		this.annotationFilter = annotationFilter;
+		this.indexed = indexed;
 	}
 
 	private TypeMappedAnnotations(@Nullable Object source, Annotation[] annotations,
@@ -87,6 +121,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		this.annotations = annotations;
 		this.repeatableContainers = repeatableContainers;
 		this.annotationFilter = annotationFilter;
+		this.indexed = false;
 	}
 
 
@@ -95,6 +130,10 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
+		Index index = getIndex();
+		if (index != null) {
+			return (index.presentTypes.get(annotationType.getName()) == annotationType);
+		}
 		return Boolean.TRUE.equals(scan(annotationType,
 				IsPresent.get(this.repeatableContainers, this.annotationFilter, false)));
 	}
@@ -104,6 +143,10 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
+		Index index = getIndex();
+		if (index != null) {
+			return index.presentTypes.containsKey(annotationType);
+		}
 		return Boolean.TRUE.equals(scan(annotationType,
 				IsPresent.get(this.repeatableContainers, this.annotationFilter, false)));
 	}
@@ -113,6 +156,10 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
+		Index index = getIndex();
+		if (index != null) {
+			return (index.directlyPresentTypes.get(annotationType.getName()) == annotationType);
+		}
 		return Boolean.TRUE.equals(scan(annotationType,
 				IsPresent.get(this.repeatableContainers, this.annotationFilter, true)));
 	}
@@ -122,6 +169,10 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
+		Index index = getIndex();
+		if (index != null) {
+			return index.directlyPresentTypes.containsKey(annotationType);
+		}
 		return Boolean.TRUE.equals(scan(annotationType,
 				IsPresent.get(this.repeatableContainers, this.annotationFilter, true)));
 	}
@@ -146,6 +197,11 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return MergedAnnotation.missing();
 		}
+		Index index = getIndex(predicate, selector);
+		if (index != null) {
+			MergedAnnotation<A> result = index.getAnnotation(annotationType.getName(), selector);
+			return (result != null && result.getType() == annotationType ? result : MergedAnnotation.missing());
+		}
 		MergedAnnotation<A> result = scan(annotationType,
 				new MergedAnnotationFinder<>(annotationType, predicate, selector));
 		return (result != null ? result : MergedAnnotation.missing());
@@ -171,6 +227,11 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return MergedAnnotation.missing();
 		}
+		Index index = getIndex(predicate, selector);
+		if (index != null) {
+			MergedAnnotation<A> result = index.getAnnotation(annotationType, selector);
+			return (result != null ? result : MergedAnnotation.missing());
+		}
 		MergedAnnotation<A> result = scan(annotationType,
 				new MergedAnnotationFinder<>(annotationType, predicate, selector));
 		return (result != null ? result : MergedAnnotation.missing());
@@ -232,6 +293,57 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		return aggregates;
 	}
 
+	/**
+	 * Return the index for a {@code get} call with the given predicate and
+	 * selector, or {@code null} if the index cannot answer that call.
+	 */
+	@Nullable
+	private Index getIndex(@Nullable Predicate<?> predicate, @Nullable MergedAnnotationSelector<?> selector) {
+		if (predicate != null || (selector != null && selector != MergedAnnotationSelectors.nearest() &&
+				selector != MergedAnnotationSelectors.firstDirectlyDeclared())) {
+			return null;
+		}
+		return getIndex();
+	}
+
+	/**
+	 * Return the index of this shared instance, building it on first access,
+	 * or {@code null} if this instance is not indexed.
+	 */
+	@Nullable
+	private Index getIndex() {
+		if (!this.indexed) {
+			return null;
+		}
+		Index index = this.index;
+		if (index == null) {
+			index = scan(this, new IndexBuilder());
+			if (index == null) {
+				index = Index.UNUSABLE;
+			}
+			this.index = index;
+		}
+		return (index != Index.UNUSABLE ? index : null);
+	}
+
+	/**
+	 * Return the approximate memory retained by this instance, in bytes.
+	 */
+	long getEstimatedSize() {
+		long size = 64;
+		List<Aggregate> aggregates = this.aggregates;
+		if (aggregates != null) {
+			for (Aggregate aggregate : aggregates) {
+				size += 48 + aggregate.size() * 24L;
+			}
+		}
+		Index index = this.index;
+		if (index != null) {
+			size += index.getEstimatedSize();
+		}
+		return size;
+	}
+
 	@Nullable
 	private <C, R> R scan(C criteria, AnnotationsProcessor<C, R> processor) {
 		if (this.annotations != null) {
@@ -248,10 +360,51 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	static MergedAnnotations from(AnnotatedElement element, SearchStrategy searchStrategy,
 			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
 
+		int slot = getSharedInstanceSlot(element, searchStrategy, repeatableContainers, annotationFilter);
+		if (slot != -1) {
+			TypeMappedAnnotations[] sharedInstances = sharedInstanceCache.get(element);
+			if (sharedInstances != null && sharedInstances[slot] != null) {
+				return sharedInstances[slot];
+			}
+		}
 		if (AnnotationsScanner.isKnownEmpty(element, searchStrategy)) {
 			return NONE;
 		}
-		return new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter);
+		if (slot == -1) {
+			return new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter, false);
+		}
+		TypeMappedAnnotations[] sharedInstances = sharedInstanceCache.get(element);
+		if (sharedInstances == null) {
+			sharedInstances = new TypeMappedAnnotations[SHARED_INSTANCE_SLOTS];
+			TypeMappedAnnotations[] existing = sharedInstanceCache.putIfAbsent(element, sharedInstances);
+			if (existing != null) {
+				sharedInstances = existing;
+			}
+		}
+		// Racing threads may create equivalent instances: the last one wins
+		TypeMappedAnnotations instance =
+				new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter, true);
+		sharedInstances[slot] = instance;
+		return instance;
+	}
+
+	/**
+	 * Determine the slot of the shared instance for the given arguments,
+	 * or {@code -1} if instances for those arguments are not shared.
+	 */
+	private static int getSharedInstanceSlot(AnnotatedElement element, SearchStrategy searchStrategy,
+			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
+
+		if (annotationFilter != AnnotationFilter.PLAIN || !(element instanceof Class || element instanceof Method)) {
+			return -1;
+		}
+		if (repeatableContainers == RepeatableContainers.standardRepeatables()) {
+			return searchStrategy.ordinal() * 2;
+		}
+		if (repeatableContainers == RepeatableContainers.none()) {
+			return searchStrategy.ordinal() * 2 + 1;
+		}
+		return -1;
 	}
 
 	static MergedAnnotations from(@Nullable Object source, Annotation[] annotations,
@@ -263,6 +416,10 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		return new TypeMappedAnnotations(source, annotations, repeatableContainers, annotationFilter);
 	}
 
+	static void clearCache() {
+		sharedInstanceCache.clear();
+	}
+
 	private static boolean isMappingForType(AnnotationTypeMapping mapping,
 			AnnotationFilter annotationFilter, @Nullable Object requiredType) {
 
@@ -491,6 +648,226 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	}
 
 
+	/**
+	 * {@link AnnotationsProcessor} that builds the {@link Index} of a shared
+	 * instance, visiting all aggregates with the same rules as {@link IsPresent}
+	 * and {@link MergedAnnotationFinder} with the {@code nearest} and
+	 * {@code firstDirectlyDeclared} selectors.
+	 */
+	private class IndexBuilder implements AnnotationsProcessor<Object, Index> {
+
+		private final Map<String, Class<?>> types = new HashMap<>();
+
+		private final Map<String, Class<?>> directlyPresentTypes = new HashMap<>();
+
+		private final Map<String, Class<?>> presentTypes = new HashMap<>();
+
+		private final Map<String, MergedAnnotation<?>> nearestAnnotations = new HashMap<>();
+
+		private final Map<String, MergedAnnotation<?>> firstDirectlyDeclaredAnnotations = new HashMap<>();
+
+		private final Map<String, MergedAnnotation<?>> aggregateAnnotations = new HashMap<>();
+
+		private final Map<String, MergedAnnotation<?>> aggregateFirstAnnotations = new HashMap<>();
+
+		private boolean ambiguous;
+
+		@Override
+		@Nullable
+		public Index doWithAggregate(Object context, int aggregateIndex) {
+			finishAggregate();
+			return null;
+		}
+
+		@Override
+		@Nullable
+		public Index doWithAnnotations(Object context, int aggregateIndex,
+				@Nullable Object source, Annotation[] annotations) {
+
+			addPresentTypes(annotations);
+			addNearestAnnotations(aggregateIndex, source, annotations);
+			return null;
+		}
+
+		private void addPresentTypes(Annotation[] annotations) {
+			for (Annotation annotation : annotations) {
+				if (annotation != null) {
+					Class<? extends Annotation> type = annotation.annotationType();
+					if (type != null && !annotationFilter.matches(type)) {
+						addType(this.directlyPresentTypes, type);
+						addType(this.presentTypes, type);
+						Annotation[] repeatedAnnotations = repeatableContainers.findRepeatedAnnotations(annotation);
+						if (repeatedAnnotations != null) {
+							addPresentTypes(repeatedAnnotations);
+						}
+						AnnotationTypeMappings mappings = AnnotationTypeMappings.forAnnotationType(type);
+						for (int i = 0; i < mappings.size(); i++) {
+							Class<? extends Annotation> mappingType = mappings.get(i).getAnnotationType();
+							if (!annotationFilter.matches(mappingType)) {
+								addType(this.presentTypes, mappingType);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private void addType(Map<String, Class<?>> types, Class<?> type) {
+			Class<?> existing = this.types.putIfAbsent(type.getName(), type);
+			if (existing != null && existing != type) {
+				// Same name from different class loaders: name-based lookups would be ambiguous
+				this.ambiguous = true;
+			}
+			types.put(type.getName(), type);
+		}
+
+		private void addNearestAnnotations(int aggregateIndex, @Nullable Object source, Annotation[] annotations) {
+			for (Annotation annotation : annotations) {
+				if (annotation != null && !annotationFilter.matches(annotation)) {
+					Annotation[] repeatedAnnotations = repeatableContainers.findRepeatedAnnotations(annotation);
+					if (repeatedAnnotations != null) {
+						addNearestAnnotations(aggregateIndex, source, repeatedAnnotations);
+						continue;
+					}
+					AnnotationTypeMappings mappings = AnnotationTypeMappings.forAnnotationType(
+							annotation.annotationType(), repeatableContainers, annotationFilter);
+					for (int i = 0; i < mappings.size(); i++) {
+						AnnotationTypeMapping mapping = mappings.get(i);
+						Class<? extends Annotation> type = mapping.getAnnotationType();
+						if (annotationFilter.matches(type)) {
+							continue;
+						}
+						addType(this.types, type);
+						if (this.nearestAnnotations.containsKey(type.getName())) {
+							continue;
+						}
+						MergedAnnotation<?> nearest = this.aggregateAnnotations.get(type.getName());
+						MergedAnnotation<?> first = this.aggregateFirstAnnotations.get(type.getName());
+						boolean updateNearest = (nearest == null || mapping.getDistance() < nearest.getDistance());
+						boolean updateFirst = (first == null || (first.getDistance() > 0 && mapping.getDistance() == 0));
+						if (updateNearest || updateFirst) {
+							MergedAnnotation<?> candidate = TypeMappedAnnotation.createIfPossible(
+									mapping, source, annotation, aggregateIndex, IntrospectionFailureLogger.INFO);
+							if (candidate != null) {
+								if (updateNearest) {
+									this.aggregateAnnotations.put(type.getName(), candidate);
+								}
+								if (updateFirst) {
+									this.aggregateFirstAnnotations.put(type.getName(), candidate);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private void finishAggregate() {
+			// Annotations from earlier aggregates take precedence
+			this.aggregateAnnotations.forEach(this.nearestAnnotations::putIfAbsent);
+			this.aggregateAnnotations.clear();
+			this.aggregateFirstAnnotations.forEach((type, annotation) -> {
+				// Only keep entries where the selectors disagree, falling back to the nearest otherwise
+				if (this.nearestAnnotations.get(type) != annotation) {
+					this.firstDirectlyDeclaredAnnotations.putIfAbsent(type, annotation);
+				}
+			});
+			this.aggregateFirstAnnotations.clear();
+		}
+
+		@Override
+		public Index finish(@Nullable Index result) {
+			finishAggregate();
+			if (this.ambiguous) {
+				return Index.UNUSABLE;
+			}
+			return new Index(this.directlyPresentTypes, this.presentTypes,
+					this.nearestAnnotations, this.firstDirectlyDeclaredAnnotations);
+		}
+	}
+
+
+	/**
+	 * Index of the merged annotations of a shared instance, keyed by
+	 * annotation type name.
+	 */
+	private static final class Index {
+
+		static final Index UNUSABLE = new Index(
+				Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+		final Map<String, Class<?>> directlyPresentTypes;
+
+		final Map<String, Class<?>> presentTypes;
+
+		private final Map<String, MergedAnnotation<?>> nearestAnnotations;
+
+		private final Map<String, MergedAnnotation<?>> firstDirectlyDeclaredAnnotations;
+
+		Index(Map<String, Class<?>> directlyPresentTypes, Map<String, Class<?>> presentTypes,
+				Map<String, MergedAnnotation<?>> nearestAnnotations,
+				Map<String, MergedAnnotation<?>> firstDirectlyDeclaredAnnotations) {
+
+			this.directlyPresentTypes = directlyPresentTypes;
+			this.presentTypes = presentTypes;
+			this.nearestAnnotations = nearestAnnotations;
+			this.firstDirectlyDeclaredAnnotations = firstDirectlyDeclaredAnnotations;
+		}
+
+		/**
+		 * Return the annotation that a scan with the given selector would
+		 * find: {@code null} for the {@code nearest} one, or else the
+		 * {@code firstDirectlyDeclared} one.
+		 */
+		@SuppressWarnings("unchecked")
+		@Nullable
+		<A extends Annotation> MergedAnnotation<A> getAnnotation(
+				String annotationType, @Nullable MergedAnnotationSelector<?> selector) {
+
+			if (selector == MergedAnnotationSelectors.firstDirectlyDeclared()) {
+				MergedAnnotation<?> annotation = this.firstDirectlyDeclaredAnnotations.get(annotationType);
+				if (annotation != null) {
+					return (MergedAnnotation<A>) annotation;
+				}
+			}
+			return (MergedAnnotation<A>) this.nearestAnnotations.get(annotationType);
+		}
+
+		long getEstimatedSize() {
+			// Map entries of about 40 bytes, merged annotations of about 96 bytes
+			int annotations = this.nearestAnnotations.size() + this.firstDirectlyDeclaredAnnotations.size();
+			int entries = this.directlyPresentTypes.size() + this.presentTypes.size() + annotations;
+			return 4 * 64 + entries * 40L + annotations * 96L;
+		}
+	}
+
+
+	/**
+	 * {@link MapCacheMetrics} for the shared instance cache, including the
+	 * estimated size of the shared instances and their indexes.
+	 */
+	private static final class SharedInstanceCacheMetrics extends MapCacheMetrics {
+
+		SharedInstanceCacheMetrics() {
+			super(sharedInstanceCache);
+		}
+
+		@Override
+		public long getEstimatedSize() {
+			long size = 0;
+			for (TypeMappedAnnotations[] sharedInstances : sharedInstanceCache.values()) {
+				size += 16 + SHARED_INSTANCE_SLOTS * 4;
+				for (TypeMappedAnnotations instance : sharedInstances) {
+					if (instance != null) {
+						size += instance.getEstimatedSize();
+					}
+				}
+			}
+			return size;
+		}
+	}
+
+
 	private static class Aggregate {
 
 		private final int aggregateIndex;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.LimitedDataBufferList;
@@ -123,7 +124,7 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 					if (chunks.isEmpty()) {
 						return Mono.empty();
 					}
-					DataBuffer lastBuffer = chunks.get(0).factory().join(chunks);
+					DataBuffer lastBuffer = DataBufferUtils.compose(chunks);
 					chunks.clear();
 					return Mono.just(lastBuffer);
 				}))
@@ -166,7 +167,7 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 				}
 				else {
 					chunks.add(slice);
-					DataBuffer joined = buffer.factory().join(chunks);
+					DataBuffer joined = DataBufferUtils.compose(chunks);
 					if (this.stripDelimiter) {
 						joined.writePosition(joined.writePosition() - matcher.delimiter().length);
 					}
@@ -188,9 +189,16 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		Charset charset = getCharset(mimeType);
-		CharBuffer charBuffer = charset.decode(dataBuffer.asByteBuffer());
+		String value;
+		if (dataBuffer instanceof CompositeDataBuffer) {
+			// Decode component by component instead of gathering a copy first
+			value = dataBuffer.toString(charset);
+		}
+		else {
+			CharBuffer charBuffer = charset.decode(dataBuffer.asByteBuffer());
+			value = charBuffer.toString();
+		}
 		DataBufferUtils.release(dataBuffer);
-		String value = charBuffer.toString();
 		LogFormatUtils.traceDebug(logger, traceOn -> {
 			String formatted = LogFormatUtils.formatValue(value, !traceOn);
 			return Hints.getLogPrefix(hints) + "Decoded " + formatted;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,7 +23,6 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -33,6 +32,7 @@ import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.LockFreeReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -54,18 +54,11 @@ public class TypeDescriptor implements Serializable {
 
 	private static final Annotation[] EMPTY_ANNOTATION_ARRAY = new Annotation[0];
 
-	private static final Map<Class<?>, TypeDescriptor> commonTypesCache = new HashMap<>(32);
-
-	private static final Class<?>[] CACHED_COMMON_TYPES = {
-			boolean.class, Boolean.class, byte.class, Byte.class, char.class, Character.class,
-			double.class, Double.class, float.class, Float.class, int.class, Integer.class,
-			long.class, Long.class, short.class, Short.class, String.class, Object.class};
-
-	static {
-		for (Class<?> preCachedClass : CACHED_COMMON_TYPES) {
-			commonTypesCache.put(preCachedClass, valueOf(preCachedClass));
-		}
-	}
+	/**
+	 * Shared descriptors for plain classes without annotations, as returned
+	 * from {@link #valueOf(Class)}.
+	 */
+	private static final Map<Class<?>, TypeDescriptor> typeDescriptorCache = new LockFreeReferenceHashMap<>(256);
 
 
 	private final Class<?> type;
@@ -548,8 +541,15 @@ public class TypeDescriptor implements Serializable {
 		if (type == null) {
 			type = Object.class;
 		}
-		TypeDescriptor desc = commonTypesCache.get(type);
-		return (desc != null ? desc : new TypeDescriptor(ResolvableType.forClass(type), null, null));
+		TypeDescriptor desc = typeDescriptorCache.get(type);
+		if (desc == null) {
+			desc = new TypeDescriptor(ResolvableType.forClass(type), null, null);
+			TypeDescriptor existing = typeDescriptorCache.putIfAbsent(type, desc);
+			if (existing != null) {
+				desc = existing;
+			}
+		}
+		return desc;
 	}
 
 	/**
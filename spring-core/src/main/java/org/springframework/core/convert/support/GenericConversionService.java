@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -46,7 +46,7 @@ import org.springframework.core.convert.converter.GenericConverter.ConvertiblePa
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
-import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.LockFreeReferenceHashMap;
 import org.springframework.util.StringUtils;
 
 /**
@@ -77,7 +77,14 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private final Converters converters = new Converters();
 
-	private final Map<ConverterCacheKey, GenericConverter> converterCache = new ConcurrentReferenceHashMap<>(64);
+	private final Map<ConverterCacheKey, GenericConverter> converterCache = new LockFreeReferenceHashMap<>(64);
+
+	/**
+	 * Converters for plain {@link TypeDescriptor#valueOf(Class) class descriptors},
+	 * keyed by source type and then by target type: no cache key allocation needed.
+	 */
+	private final Map<Class<?>, Map<Class<?>, GenericConverter>> plainConverterCache =
+			new LockFreeReferenceHashMap<>(64);
 
 
 	// ConverterRegistry implementation
@@ -252,24 +259,35 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 */
 	@Nullable
 	protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
-		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
-		GenericConverter converter = this.converterCache.get(key);
-		if (converter != null) {
-			return (converter != NO_MATCH ? converter : null);
+		boolean plain = (isPlain(sourceType) && isPlain(targetType));
+		if (plain) {
+			Map<Class<?>, GenericConverter> convertersByTarget = this.plainConverterCache.get(sourceType.getType());
+			if (convertersByTarget != null) {
+				GenericConverter converter = convertersByTarget.get(targetType.getType());
+				if (converter != null) {
+					return (converter != NO_MATCH ? converter : null);
+				}
+			}
 		}
 
-		converter = this.converters.find(sourceType, targetType);
+		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
+		GenericConverter converter = this.converterCache.get(key);
 		if (converter == null) {
-			converter = getDefaultConverter(sourceType, targetType);
-		}
-
-		if (converter != null) {
+			converter = this.converters.find(sourceType, targetType);
+			if (converter == null) {
+				converter = getDefaultConverter(sourceType, targetType);
+			}
+			if (converter == null) {
+				converter = NO_MATCH;
+			}
 			this.converterCache.put(key, converter);
-			return converter;
 		}
 
-		this.converterCache.put(key, NO_MATCH);
-		return null;
+		if (plain) {
+			this.plainConverterCache.computeIfAbsent(sourceType.getType(), type -> new LockFreeReferenceHashMap<>(8))
+					.put(targetType.getType(), converter);
+		}
+		return (converter != NO_MATCH ? converter : null);
 	}
 
 	/**
@@ -305,6 +323,15 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.plainConverterCache.clear();
+	}
+
+	/**
+	 * Determine whether the given descriptor is the shared descriptor for its
+	 * class, i.e. carries no generics or annotations beyond the class itself.
+	 */
+	private static boolean isPlain(TypeDescriptor typeDescriptor) {
+		return (typeDescriptor == TypeDescriptor.valueOf(typeDescriptor.getType()));
 	}
 
 	@Nullable
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -66,6 +66,19 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 	 */
 	public static final String IGNORE_GETENV_PROPERTY_NAME = "spring.getenv.ignore";
 
+	/**
+	 * System property that instructs Spring to resolve environment properties
+	 * against a flattened index of the property sources: {@value}.
+	 * <p>The default is "false", searching all property sources in order for
+	 * every lookup. Consider switching this flag to "true" for applications
+	 * with many property sources and frequent property lookups at runtime,
+	 * as long as the contents of their property sources do not change.
+	 * @since 5.2.26
+	 * @see #createPropertyResolver(MutablePropertySources)
+	 * @see IndexedPropertySourcesPropertyResolver
+	 */
+	public static final String INDEXED_PROPERTY_SOURCES_PROPERTY_NAME = "spring.propertysources.indexed";
+
 	/**
 	 * Name of property to set to specify active profiles: {@value}. Value may be comma
 	 * delimited.
@@ -109,8 +122,7 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 
 	private final MutablePropertySources propertySources = new MutablePropertySources();
 
-	private final ConfigurablePropertyResolver propertyResolver =
-			new PropertySourcesPropertyResolver(this.propertySources);
+	private final ConfigurablePropertyResolver propertyResolver = createPropertyResolver(this.propertySources);
 
 
 	/**
@@ -438,6 +450,25 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 		}
 	}
 
+	/**
+	 * Factory method used to create the {@link ConfigurablePropertyResolver}
+	 * instance used by the Environment.
+	 * <p>The default implementation creates an {@link IndexedPropertySourcesPropertyResolver}
+	 * if the "spring.propertysources.indexed" system property is set to "true",
+	 * and a {@link PropertySourcesPropertyResolver} otherwise.
+	 * <p>Note that this method is called during construction, before subclass
+	 * fields have been initialized.
+	 * @param propertySources the property sources to resolve against
+	 * @since 5.2.26
+	 * @see #INDEXED_PROPERTY_SOURCES_PROPERTY_NAME
+	 */
+	protected ConfigurablePropertyResolver createPropertyResolver(MutablePropertySources propertySources) {
+		if (SpringProperties.getFlag(INDEXED_PROPERTY_SOURCES_PROPERTY_NAME)) {
+			return new IndexedPropertySourcesPropertyResolver(propertySources);
+		}
+		return new PropertySourcesPropertyResolver(propertySources);
+	}
+
 	/**
 	 * Determine whether to suppress {@link System#getenv()}/{@link System#getenv(String)}
 	 * access for the purposes of {@link #getSystemEnvironment()}.
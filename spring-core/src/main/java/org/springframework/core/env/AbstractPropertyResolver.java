@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -239,6 +239,19 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 				this.valueSeparator, ignoreUnresolvablePlaceholders);
 	}
 
+	/**
+	 * Discard the placeholder helpers created so far, so that the next
+	 * resolution picks up changed placeholder settings.
+	 * @since 5.2.26
+	 * @see #setPlaceholderPrefix
+	 * @see #setPlaceholderSuffix
+	 * @see #setValueSeparator
+	 */
+	protected void resetPlaceholderHelpers() {
+		this.nonStrictHelper = null;
+		this.strictHelper = null;
+	}
+
 	private String doResolvePlaceholders(String text, PropertyPlaceholderHelper helper) {
 		return helper.replacePlaceholders(text, this::getPropertyAsRawString);
 	}
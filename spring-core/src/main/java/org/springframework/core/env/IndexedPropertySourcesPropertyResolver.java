@@ -0,0 +1,305 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.convert.support.ConfigurableConversionService;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link PropertySourcesPropertyResolver} variant that resolves properties
+ * against a flattened index of the underlying {@link PropertySources}, instead
+ * of searching every property source for every lookup.
+ *
+ * <p>The index maps each property name of the {@link #isIndexable indexable}
+ * property sources to the property source with the highest precedence that
+ * contains it, along with its value. Property sources that are not indexable
+ * are still searched on every lookup, but only those with a higher precedence
+ * than the indexed property source. Converted values of indexed properties
+ * are cached per target type, as long as they are immutable and do not
+ * contain placeholders.
+ *
+ * <p>The index is rebuilt when a {@link MutablePropertySources} instance is
+ * modified, and when any placeholder or conversion setting of this resolver
+ * changes. Changes to the <em>content</em> of an indexed property source are
+ * not detected though: call {@link #clearIndex()} after modifying the contents
+ * of an indexed property source, or after registering further converters with
+ * the {@link #setConversionService ConversionService}.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see AbstractEnvironment#INDEXED_PROPERTY_SOURCES_PROPERTY_NAME
+ */
+public class IndexedPropertySourcesPropertyResolver extends PropertySourcesPropertyResolver {
+
+	@Nullable
+	private final PropertySources propertySources;
+
+	@Nullable
+	private volatile PropertyIndex index;
+
+
+	/**
+	 * Create a new resolver against the given property sources.
+	 * @param propertySources the set of {@link PropertySource} objects to use
+	 */
+	public IndexedPropertySourcesPropertyResolver(@Nullable PropertySources propertySources) {
+		super(propertySources);
+		this.propertySources = propertySources;
+	}
+
+
+	@Override
+	public void setConversionService(ConfigurableConversionService conversionService) {
+		super.setConversionService(conversionService);
+		clearIndex();
+	}
+
+	@Override
+	public void setPlaceholderPrefix(String placeholderPrefix) {
+		super.setPlaceholderPrefix(placeholderPrefix);
+		resetPlaceholderHelpers();
+		clearIndex();
+	}
+
+	@Override
+	public void setPlaceholderSuffix(String placeholderSuffix) {
+		super.setPlaceholderSuffix(placeholderSuffix);
+		resetPlaceholderHelpers();
+		clearIndex();
+	}
+
+	@Override
+	public void setValueSeparator(@Nullable String valueSeparator) {
+		super.setValueSeparator(valueSeparator);
+		resetPlaceholderHelpers();
+		clearIndex();
+	}
+
+	@Override
+	public void setIgnoreUnresolvableNestedPlaceholders(boolean ignoreUnresolvableNestedPlaceholders) {
+		super.setIgnoreUnresolvableNestedPlaceholders(ignoreUnresolvableNestedPlaceholders);
+		clearIndex();
+	}
+
+	/**
+	 * Discard the current index along with all cached values,
+	 * rebuilding it on the next lookup.
+	 */
+	public void clearIndex() {
+		this.index = null;
+	}
+
+	/**
+	 * Determine whether the given property source can be indexed, i.e. whether
+	 * its property names are known upfront and its content is not expected to
+	 * change.
+	 * <p>The default implementation accepts {@link MapPropertySource} instances,
+	 * except for {@link SystemEnvironmentPropertySource} (which resolves variants
+	 * of the given property name) and for the source of the JVM system properties
+	 * (which may be modified at any time).
+	 * @param propertySource the property source to check
+	 */
+	protected boolean isIndexable(PropertySource<?> propertySource) {
+		if (!(propertySource instanceof MapPropertySource) ||
+				propertySource instanceof SystemEnvironmentPropertySource) {
+			return false;
+		}
+		try {
+			return (propertySource.getSource() != System.getProperties());
+		}
+		catch (SecurityException ex) {
+			return true;
+		}
+	}
+
+	@Override
+	public boolean containsProperty(String key) {
+		PropertyIndex index = obtainIndex();
+		if (index == null) {
+			return false;
+		}
+		if (index.properties.containsKey(key)) {
+			return true;
+		}
+		for (PropertySource<?> propertySource : index.searchedSources) {
+			if (propertySource.containsProperty(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
+		PropertyIndex index = obtainIndex();
+		if (index == null) {
+			return null;
+		}
+		IndexedProperty property = index.properties.get(key);
+		int precedence = (property != null ? property.precedence : Integer.MAX_VALUE);
+		for (int i = 0; i < index.searchedSources.size() && index.searchedPrecedences[i] < precedence; i++) {
+			PropertySource<?> propertySource = index.searchedSources.get(i);
+			Object value = propertySource.getProperty(key);
+			if (value != null) {
+				if (resolveNestedPlaceholders && value instanceof String) {
+					value = resolveNestedPlaceholders((String) value);
+				}
+				logKeyFound(key, propertySource, value);
+				return convertValueIfNecessary(value, targetValueType);
+			}
+		}
+		if (property == null) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Could not find key '" + key + "' in any property source");
+			}
+			return null;
+		}
+
+		if (resolveNestedPlaceholders) {
+			Object cachedValue = property.getResolvedValue(targetValueType);
+			if (cachedValue != null) {
+				logKeyFound(key, property.propertySource, cachedValue);
+				return (T) cachedValue;
+			}
+		}
+		Object value = property.value;
+		if (resolveNestedPlaceholders && value instanceof String) {
+			value = resolveNestedPlaceholders((String) value);
+		}
+		logKeyFound(key, property.propertySource, value);
+		T result = convertValueIfNecessary(value, targetValueType);
+		// Values with placeholders may depend on non-indexed property sources
+		if (resolveNestedPlaceholders && value.equals(property.value) && isImmutable(result)) {
+			property.putResolvedValue(targetValueType, result);
+		}
+		return result;
+	}
+
+	@Nullable
+	private PropertyIndex obtainIndex() {
+		PropertySources propertySources = this.propertySources;
+		if (propertySources == null) {
+			return null;
+		}
+		int modificationCount = (propertySources instanceof MutablePropertySources ?
+				((MutablePropertySources) propertySources).getModificationCount() : 0);
+		PropertyIndex index = this.index;
+		if (index == null || index.modificationCount != modificationCount) {
+			index = new PropertyIndex(modificationCount);
+			int precedence = 0;
+			for (PropertySource<?> propertySource : propertySources) {
+				if (isIndexable(propertySource)) {
+					for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+						if (!index.properties.containsKey(name)) {
+							Object value = propertySource.getProperty(name);
+							if (value != null) {
+								index.properties.put(name, new IndexedProperty(precedence, propertySource, value));
+							}
+						}
+					}
+				}
+				else {
+					index.addSearchedSource(propertySource, precedence);
+				}
+				precedence++;
+			}
+			this.index = index;
+		}
+		return index;
+	}
+
+	private static boolean isImmutable(@Nullable Object value) {
+		return (value instanceof String || value instanceof Enum || value instanceof Class ||
+				(value != null && ClassUtils.isPrimitiveWrapper(value.getClass())));
+	}
+
+
+	/**
+	 * Flattened index of the property sources, built for a specific
+	 * modification count of the underlying {@link MutablePropertySources}.
+	 */
+	private static final class PropertyIndex {
+
+		final int modificationCount;
+
+		final Map<String, IndexedProperty> properties = new HashMap<>(256);
+
+		final List<PropertySource<?>> searchedSources = new ArrayList<>();
+
+		int[] searchedPrecedences = new int[0];
+
+		PropertyIndex(int modificationCount) {
+			this.modificationCount = modificationCount;
+		}
+
+		void addSearchedSource(PropertySource<?> propertySource, int precedence) {
+			this.searchedSources.add(propertySource);
+			int[] precedences = new int[this.searchedPrecedences.length + 1];
+			System.arraycopy(this.searchedPrecedences, 0, precedences, 0, this.searchedPrecedences.length);
+			precedences[this.searchedPrecedences.length] = precedence;
+			this.searchedPrecedences = precedences;
+		}
+	}
+
+
+	/**
+	 * An indexed property: the property source with the highest precedence
+	 * that contains the property, its value, and its resolved values by type.
+	 */
+	private static final class IndexedProperty {
+
+		final int precedence;
+
+		final PropertySource<?> propertySource;
+
+		final Object value;
+
+		@Nullable
+		private volatile Map<Class<?>, Object> resolvedValues;
+
+		IndexedProperty(int precedence, PropertySource<?> propertySource, Object value) {
+			this.precedence = precedence;
+			this.propertySource = propertySource;
+			this.value = value;
+		}
+
+		@Nullable
+		Object getResolvedValue(Class<?> targetType) {
+			Map<Class<?>, Object> resolvedValues = this.resolvedValues;
+			return (resolvedValues != null ? resolvedValues.get(targetType) : null);
+		}
+
+		void putResolvedValue(Class<?> targetType, Object resolvedValue) {
+			Map<Class<?>, Object> resolvedValues = this.resolvedValues;
+			if (resolvedValues == null) {
+				resolvedValues = new ConcurrentHashMap<>(4);
+				this.resolvedValues = resolvedValues;
+			}
+			resolvedValues.put(targetType, resolvedValue);
+		}
+	}
+
+}
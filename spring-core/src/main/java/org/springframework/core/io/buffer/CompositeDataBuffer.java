@@ -0,0 +1,777 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataBuffer} that exposes the readable bytes of a sequence of
+ * buffers as one buffer, without copying them.
+ *
+ * <p>Reading operations, {@link #indexOf}, {@link #slice}, {@link #asInputStream()}
+ * and {@link #toString(int, int, Charset)} operate on the component buffers
+ * directly. {@link #asByteBuffer(int, int)} returns a view as long as the
+ * requested range lies within a single component, and a copy gathered from
+ * several components otherwise; {@link #asByteBuffers()} returns views on all
+ * components instead.
+ *
+ * <p>Any operation that writes to this buffer or changes its capacity first
+ * copies its content into a single buffer allocated from the {@link #factory()
+ * factory} of the first component, with all further operations delegating to
+ * that buffer.
+ *
+ * <p>The component buffers are owned by this buffer. If any of them is a
+ * {@link PooledDataBuffer}, the buffer returned from {@link #of(List)} is a
+ * {@code PooledDataBuffer} as well, releasing its components once it is
+ * {@linkplain DataBufferUtils#release(DataBuffer) released} itself.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see DataBufferUtils#compose(List)
+ */
+public class CompositeDataBuffer implements DataBuffer {
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final DataBuffer[] buffers;
+
+	/** Read position of each component at creation time. */
+	private final int[] starts;
+
+	/** Offset of each component within this buffer, plus the total capacity. */
+	private final int[] offsets;
+
+	@Nullable
+	private final CompositeDataBuffer parent;
+
+	private int readPosition;
+
+	private int writePosition;
+
+	@Nullable
+	private DataBuffer consolidated;
+
+
+	private CompositeDataBuffer(DataBuffer[] buffers, @Nullable CompositeDataBuffer parent) {
+		Assert.notEmpty(buffers, "DataBuffer List must not be empty");
+		this.dataBufferFactory = buffers[0].factory();
+		this.buffers = buffers;
+		this.starts = new int[buffers.length];
+		this.offsets = new int[buffers.length + 1];
+		for (int i = 0; i < buffers.length; i++) {
+			this.starts[i] = buffers[i].readPosition();
+			this.offsets[i + 1] = this.offsets[i] + buffers[i].readableByteCount();
+		}
+		this.parent = parent;
+		this.writePosition = this.offsets[buffers.length];
+	}
+
+
+	/**
+	 * Create a new {@code CompositeDataBuffer} for the readable bytes of the
+	 * given buffers: a {@link PooledDataBuffer} if any of the given buffers is
+	 * pooled, or a plain {@code CompositeDataBuffer} otherwise.
+	 * @param dataBuffers the buffers to compose, owned by the new buffer
+	 * from now on
+	 */
+	public static CompositeDataBuffer of(List<? extends DataBuffer> dataBuffers) {
+		DataBuffer[] buffers = dataBuffers.toArray(new DataBuffer[0]);
+		for (DataBuffer buffer : buffers) {
+			if (buffer instanceof PooledDataBuffer) {
+				return new PooledCompositeDataBuffer(buffers, null);
+			}
+		}
+		return new CompositeDataBuffer(buffers, null);
+	}
+
+
+	/**
+	 * Return the number of component buffers.
+	 */
+	public int getComponentCount() {
+		return this.buffers.length;
+	}
+
+	/**
+	 * Expose the readable bytes of this buffer as one {@link ByteBuffer} view
+	 * per component, e.g. for a gathering write. Changes to the returned
+	 * buffers' content are reflected in this buffer, but changes to their
+	 * positions or limits are not.
+	 */
+	public ByteBuffer[] asByteBuffers() {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return new ByteBuffer[] {consolidated.asByteBuffer()};
+		}
+		return byteBuffers(this.readPosition, readableByteCount()).toArray(new ByteBuffer[0]);
+	}
+
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return consolidated.indexOf(predicate, fromIndex);
+		}
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int i = componentIndex(fromIndex); i < this.buffers.length; i++) {
+			int start = Math.max(fromIndex, this.offsets[i]);
+			if (start >= this.writePosition) {
+				break;
+			}
+			if (start < this.offsets[i + 1]) {
+				int index = this.buffers[i].indexOf(predicate, this.starts[i] + start - this.offsets[i]);
+				if (index != -1) {
+					index = this.offsets[i] + index - this.starts[i];
+					if (index < this.offsets[i + 1]) {
+						return (index < this.writePosition ? index : -1);
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return consolidated.lastIndexOf(predicate, fromIndex);
+		}
+		int end = Math.min(fromIndex, this.writePosition - 1);
+		if (end < 0) {
+			return -1;
+		}
+		for (int i = componentIndex(end); i >= 0; i--) {
+			int last = Math.min(end, this.offsets[i + 1] - 1);
+			if (last >= this.offsets[i]) {
+				int index = this.buffers[i].lastIndexOf(predicate, this.starts[i] + last - this.offsets[i]);
+				if (index >= this.starts[i]) {
+					return this.offsets[i] + index - this.starts[i];
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		DataBuffer consolidated = this.consolidated;
+		return (consolidated != null ? consolidated.readableByteCount() : this.writePosition - this.readPosition);
+	}
+
+	@Override
+	public int writableByteCount() {
+		DataBuffer consolidated = this.consolidated;
+		return (consolidated != null ? consolidated.writableByteCount() : capacity() - this.writePosition);
+	}
+
+	@Override
+	public int capacity() {
+		DataBuffer consolidated = this.consolidated;
+		return (consolidated != null ? consolidated.capacity() : this.offsets[this.buffers.length]);
+	}
+
+	@Override
+	public DataBuffer capacity(int capacity) {
+		consolidate().capacity(capacity);
+		return this;
+	}
+
+	@Override
+	public DataBuffer ensureCapacity(int capacity) {
+		if (capacity > writableByteCount()) {
+			consolidate().ensureCapacity(capacity);
+		}
+		return this;
+	}
+
+	@Override
+	public int readPosition() {
+		DataBuffer consolidated = this.consolidated;
+		return (consolidated != null ? consolidated.readPosition() : this.readPosition);
+	}
+
+	@Override
+	public DataBuffer readPosition(int readPosition) {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			consolidated.readPosition(readPosition);
+			return this;
+		}
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		DataBuffer consolidated = this.consolidated;
+		return (consolidated != null ? consolidated.writePosition() : this.writePosition);
+	}
+
+	@Override
+	public DataBuffer writePosition(int writePosition) {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			consolidated.writePosition(writePosition);
+			return this;
+		}
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= capacity(), "'writePosition' %d must be <= %d",
+				writePosition, capacity());
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return consolidated.getByte(index);
+		}
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d", index, this.writePosition - 1);
+		int i = componentIndex(index);
+		return this.buffers[i].getByte(this.starts[i] + index - this.offsets[i]);
+	}
+
+	@Override
+	public byte read() {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return consolidated.read();
+		}
+		byte b = getByte(this.readPosition);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public DataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "Byte array must not be null");
+		return read(destination, 0, destination.length);
+	}
+
+	@Override
+	public DataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "Byte array must not be null");
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			consolidated.read(destination, offset, length);
+			return this;
+		}
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+		for (ByteBuffer byteBuffer : byteBuffers(this.readPosition, length)) {
+			int count = byteBuffer.remaining();
+			byteBuffer.get(destination, offset, count);
+			offset += count;
+		}
+		this.readPosition += length;
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(byte b) {
+		consolidate().write(b);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(byte[] source) {
+		consolidate().write(source);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(byte[] source, int offset, int length) {
+		consolidate().write(source, offset, length);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(DataBuffer... buffers) {
+		consolidate().write(buffers);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(ByteBuffer... buffers) {
+		consolidate().write(buffers);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(CharSequence charSequence, Charset charset) {
+		consolidate().write(charSequence, charset);
+		return this;
+	}
+
+	@Override
+	public DataBuffer slice(int index, int length) {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return consolidated.slice(index, length);
+		}
+		checkIndex(index, length);
+		int first = componentIndex(index);
+		if (length == 0 || index + length <= this.offsets[first + 1]) {
+			return this.buffers[first].slice(this.starts[first] + index - this.offsets[first], length);
+		}
+		List<DataBuffer> slices = new ArrayList<>();
+		for (int i = first; i < this.buffers.length && this.offsets[i] < index + length; i++) {
+			int start = Math.max(index, this.offsets[i]);
+			int end = Math.min(index + length, this.offsets[i + 1]);
+			slices.add(this.buffers[i].slice(this.starts[i] + start - this.offsets[i], end - start));
+		}
+		return createSlice(slices.toArray(new DataBuffer[0]), (this.parent != null ? this.parent : this));
+	}
+
+	/**
+	 * Create a composite slice on the given component slices.
+	 */
+	CompositeDataBuffer createSlice(DataBuffer[] slices, CompositeDataBuffer parent) {
+		return new CompositeDataBuffer(slices, parent);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p><strong>Note</strong> that the returned buffer is a copy rather than a
+	 * shared view if the readable bytes span several components. Use
+	 * {@link #asByteBuffers()} to access the content without copying.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(readPosition(), readableByteCount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p><strong>Note</strong> that the returned buffer is a copy rather than a
+	 * shared view if the given range spans several components, in which case
+	 * changes to its content are not reflected in this buffer.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return consolidated.asByteBuffer(index, length);
+		}
+		checkIndex(index, length);
+		List<ByteBuffer> byteBuffers = byteBuffers(index, length);
+		if (byteBuffers.size() == 1) {
+			return byteBuffers.get(0);
+		}
+		ByteBuffer result = ByteBuffer.allocate(length);
+		for (ByteBuffer byteBuffer : byteBuffers) {
+			result.put(byteBuffer);
+		}
+		result.flip();
+		return result;
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return consolidate().asOutputStream();
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		Assert.notNull(charset, "Charset must not be null");
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return consolidated.toString(index, length, charset);
+		}
+		checkIndex(index, length);
+		int first = componentIndex(index);
+		if (length == 0 || index + length <= this.offsets[first + 1]) {
+			return this.buffers[first].toString(this.starts[first] + index - this.offsets[first], length, charset);
+		}
+		try {
+			return decode(byteBuffers(index, length), length, charset);
+		}
+		catch (CharacterCodingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Release the component buffers and the consolidated buffer, if any.
+	 */
+	void releaseComponents() {
+		for (DataBuffer buffer : this.buffers) {
+			DataBufferUtils.release(buffer);
+		}
+		DataBufferUtils.release(this.consolidated);
+	}
+
+
+	/**
+	 * Copy the content of this buffer into a single buffer, if not done yet,
+	 * for subsequent operations to delegate to. The component buffers are kept
+	 * until this buffer is released, since slices may still refer to them.
+	 */
+	private DataBuffer consolidate() {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated == null) {
+			if (this.parent != null) {
+				throw new UnsupportedOperationException("Changing a sliced buffer is not supported");
+			}
+			int capacity = capacity();
+			consolidated = this.dataBufferFactory.allocateBuffer(capacity);
+			consolidated.write(byteBuffers(0, capacity).toArray(new ByteBuffer[0]));
+			consolidated.writePosition(this.writePosition);
+			consolidated.readPosition(this.readPosition);
+			this.consolidated = consolidated;
+		}
+		return consolidated;
+	}
+
+	/**
+	 * Return the index of the component that contains the given index.
+	 */
+	private int componentIndex(int index) {
+		int low = 0;
+		int high = this.buffers.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (this.offsets[mid] <= index) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Return views on the component buffers for the given range.
+	 */
+	private List<ByteBuffer> byteBuffers(int index, int length) {
+		List<ByteBuffer> result = new ArrayList<>(4);
+		int end = index + length;
+		for (int i = componentIndex(index); i < this.buffers.length && this.offsets[i] < end; i++) {
+			int start = Math.max(index, this.offsets[i]);
+			int count = Math.min(end, this.offsets[i + 1]) - start;
+			if (count > 0) {
+				result.add(this.buffers[i].asByteBuffer(this.starts[i] + start - this.offsets[i], count));
+			}
+		}
+		if (result.isEmpty()) {
+			result.add(ByteBuffer.allocate(0));
+		}
+		return result;
+	}
+
+	/**
+	 * Decode the given byte buffers in sequence, carrying characters that
+	 * span two buffers over to the next one.
+	 */
+	private static String decode(List<ByteBuffer> byteBuffers, int length, Charset charset)
+			throws CharacterCodingException {
+
+		CharsetDecoder decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer out = CharBuffer.allocate((int) (length * (double) decoder.averageCharsPerByte()) + 1);
+		ByteBuffer carry = ByteBuffer.allocate(16);
+		carry.flip();
+		for (ByteBuffer in : byteBuffers) {
+			while (carry.hasRemaining() && in.hasRemaining()) {
+				carry.compact();
+				carry.put(in.get());
+				carry.flip();
+				out = decode(decoder, carry, out, false);
+			}
+			out = decode(decoder, in, out, false);
+			if (in.hasRemaining()) {
+				carry.compact();
+				carry.put(in);
+				carry.flip();
+			}
+		}
+		out = decode(decoder, carry, out, true);
+		for (;;) {
+			CoderResult result = decoder.flush(out);
+			if (result.isUnderflow()) {
+				break;
+			}
+			out = grow(out);
+		}
+		out.flip();
+		return out.toString();
+	}
+
+	private static CharBuffer decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out, boolean endOfInput)
+			throws CharacterCodingException {
+
+		for (;;) {
+			CoderResult result = decoder.decode(in, out, endOfInput);
+			if (result.isUnderflow()) {
+				return out;
+			}
+			if (result.isOverflow()) {
+				out = grow(out);
+			}
+			else {
+				result.throwException();
+			}
+		}
+	}
+
+	private static CharBuffer grow(CharBuffer out) {
+		CharBuffer result = CharBuffer.allocate(out.capacity() * 2 + 1);
+		out.flip();
+		result.put(out);
+		return result;
+	}
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index + length <= capacity(), "index %d and length %d must be <= %d", index, length, capacity());
+	}
+
+	private static void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof CompositeDataBuffer)) {
+			return false;
+		}
+		CompositeDataBuffer otherBuffer = (CompositeDataBuffer) other;
+		if (readPosition() != otherBuffer.readPosition() || writePosition() != otherBuffer.writePosition() ||
+				capacity() != otherBuffer.capacity()) {
+			return false;
+		}
+		Iterator<ByteBuffer> otherContent = otherBuffer.content().iterator();
+		ByteBuffer otherByteBuffer = otherContent.next();
+		for (ByteBuffer byteBuffer : content()) {
+			while (byteBuffer.hasRemaining()) {
+				while (!otherByteBuffer.hasRemaining()) {
+					otherByteBuffer = otherContent.next();
+				}
+				if (byteBuffer.get() != otherByteBuffer.get()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return a hash code over the entire content of this buffer, consistent
+	 * with {@link ByteBuffer#hashCode()} for the same bytes.
+	 */
+	@Override
+	public int hashCode() {
+		int hashCode = 1;
+		List<ByteBuffer> content = content();
+		for (int i = content.size() - 1; i >= 0; i--) {
+			ByteBuffer byteBuffer = content.get(i);
+			for (int j = byteBuffer.limit() - 1; j >= byteBuffer.position(); j--) {
+				hashCode = 31 * hashCode + byteBuffer.get(j);
+			}
+		}
+		return hashCode;
+	}
+
+	/**
+	 * Return views on the entire content of this buffer, up to its capacity.
+	 */
+	private List<ByteBuffer> content() {
+		DataBuffer consolidated = this.consolidated;
+		if (consolidated != null) {
+			return Collections.singletonList(consolidated.asByteBuffer(0, consolidated.capacity()));
+		}
+		return byteBuffers(0, capacity());
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				readPosition(), writePosition(), capacity(), this.buffers.length);
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		private boolean closed;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return (available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				CompositeDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return -1;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (this.releaseOnClose && !this.closed) {
+				this.closed = true;
+				DataBufferUtils.release(CompositeDataBuffer.this);
+			}
+		}
+	}
+
+
+	/**
+	 * {@code CompositeDataBuffer} for pooled components, releasing them once
+	 * its reference count drops to zero. Slices share the reference count of
+	 * the buffer they were created from.
+	 */
+	private static final class PooledCompositeDataBuffer extends CompositeDataBuffer implements PooledDataBuffer {
+
+		private static final AtomicIntegerFieldUpdater<PooledCompositeDataBuffer> refCountUpdater =
+				AtomicIntegerFieldUpdater.newUpdater(PooledCompositeDataBuffer.class, "refCount");
+
+		@Nullable
+		private final PooledCompositeDataBuffer root;
+
+		private volatile int refCount = 1;
+
+		PooledCompositeDataBuffer(DataBuffer[] buffers, @Nullable PooledCompositeDataBuffer root) {
+			super(buffers, root);
+			this.root = root;
+		}
+
+		@Override
+		CompositeDataBuffer createSlice(DataBuffer[] slices, CompositeDataBuffer parent) {
+			return new PooledCompositeDataBuffer(slices, (PooledCompositeDataBuffer) parent);
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return (this.root != null ? this.root.isAllocated() : this.refCount > 0);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			if (this.root != null) {
+				this.root.retain();
+				return this;
+			}
+			for (;;) {
+				int refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("Cannot retain released " + this);
+				}
+				if (refCountUpdater.compareAndSet(this, refCount, refCount + 1)) {
+					return this;
+				}
+			}
+		}
+
+		@Override
+		public boolean release() {
+			if (this.root != null) {
+				return this.root.release();
+			}
+			for (;;) {
+				int refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("Cannot release already released " + this);
+				}
+				if (refCountUpdater.compareAndSet(this, refCount, refCount - 1)) {
+					if (refCount > 1) {
+						return false;
+					}
+					releaseComponents();
+					return true;
+				}
+			}
+		}
+	}
+
+}
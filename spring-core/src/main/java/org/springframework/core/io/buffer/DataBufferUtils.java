@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,22 +21,28 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -47,10 +53,12 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.core.io.Resource;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 
 /**
  * Utility class for working with {@link DataBuffer DataBuffers}.
@@ -232,6 +240,70 @@ public abstract class DataBufferUtils {
 		return position == 0 ? result : skipUntilByteCount(result, position);
 	}
 
+	/**
+	 * Read a region of the given file {@code Path} into a {@code Flux} of
+	 * memory-mapped {@code DataBuffer}s, each mapping at most {@code regionSize}
+	 * bytes of the file. No bytes are copied into heap memory; the returned
+	 * buffers are read-only views of the file, obtained via
+	 * {@link DataBufferFactory#wrap(ByteBuffer)}.
+	 * <p>Regions are mapped lazily, on demand. The file channel is closed when
+	 * the flux is terminated, whereas the mapped regions remain valid until
+	 * they are garbage collected.
+	 * @param path the path to read bytes from
+	 * @param position the position to start reading from
+	 * @param count the number of bytes to read, or {@code -1} to read up to the
+	 * end of the file
+	 * @param bufferFactory the factory to wrap the mapped regions with
+	 * @param regionSize the maximum size of each mapped region
+	 * @return a Flux of memory-mapped data buffers
+	 * @since 5.2.26
+	 * @see FileChannel#map(FileChannel.MapMode, long, long)
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Path path, long position, long count, DataBufferFactory bufferFactory, int regionSize) {
+
+		Assert.notNull(path, "Path must not be null");
+		Assert.notNull(bufferFactory, "BufferFactory must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be > 0");
+
+		return Flux.using(() -> FileChannel.open(path, StandardOpenOption.READ),
+				channel -> Flux.generate(new MappedRegionGenerator(channel, position, count, bufferFactory, regionSize)),
+				DataBufferUtils::closeChannel);
+	}
+
+	/**
+	 * Read a region of the given {@code Resource} into a {@code Flux} of
+	 * memory-mapped {@code DataBuffer}s, as with
+	 * {@link #readMapped(Path, long, long, DataBufferFactory, int)}.
+	 * <p>If the resource is not a file, e.g. for a class path resource within a
+	 * jar, this method falls back on {@link #read(Resource, long, DataBufferFactory, int)}
+	 * with {@code regionSize} as buffer size.
+	 * @param resource the resource to read from
+	 * @param position the position to start reading from
+	 * @param count the number of bytes to read, or {@code -1} to read up to the
+	 * end of the resource
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param regionSize the maximum size of each mapped region
+	 * @return a Flux of data buffers read from the given resource
+	 * @since 5.2.26
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Resource resource, long position, long count, DataBufferFactory bufferFactory, int regionSize) {
+
+		Assert.notNull(resource, "Resource must not be null");
+		try {
+			if (resource.isFile()) {
+				return readMapped(resource.getFile().toPath(), position, count, bufferFactory, regionSize);
+			}
+		}
+		catch (IOException ignore) {
+			// fallback to regular read, below
+		}
+		Flux<DataBuffer> result = read(resource, position, bufferFactory, regionSize);
+		return (count < 0 ? result : takeUntilByteCount(result, count));
+	}
+
 
 	//---------------------------------------------------------------------
 	// Writing
@@ -373,6 +445,103 @@ public abstract class DataBufferUtils {
 		});
 	}
 
+	/**
+	 * Write a region of the given file {@code Path} to the given
+	 * {@code WritableByteChannel} via {@link FileChannel#transferTo}, in steps
+	 * of at most {@code regionSize} bytes. Where supported by the operating
+	 * system and the target channel, e.g. for socket and file channels, the
+	 * bytes are transferred without being copied into user space.
+	 * <p>Does <strong>not</strong> close the target channel. The target channel
+	 * must be in blocking mode: the transfer fails with an {@link IOException}
+	 * if the channel does not accept any bytes. Since the transfer blocks, it is
+	 * performed on the {@linkplain Schedulers#boundedElastic() bounded elastic}
+	 * scheduler.
+	 * @param source the path to read bytes from
+	 * @param position the position to start reading from
+	 * @param count the number of bytes to transfer, or {@code -1} to transfer up
+	 * to the end of the file
+	 * @param channel the channel to write to
+	 * @param regionSize the maximum number of bytes per transfer
+	 * @return a Mono that starts the transfer when subscribed to, and that
+	 * publishes any transfer errors and the completion signal
+	 * @since 5.2.26
+	 */
+	public static Mono<Void> transferTo(
+			Path source, long position, long count, WritableByteChannel channel, long regionSize) {
+
+		Assert.notNull(source, "Source must not be null");
+		Assert.notNull(channel, "WritableByteChannel must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be > 0");
+
+		return Mono.using(() -> FileChannel.open(source, StandardOpenOption.READ),
+				fileChannel -> Mono.fromCallable(() -> transferTo(fileChannel, position, count, channel, regionSize)),
+				DataBufferUtils::closeChannel)
+				.subscribeOn(Schedulers.boundedElastic())
+				.then();
+	}
+
+	/**
+	 * Write a region of the given {@code Resource} to the given
+	 * {@code WritableByteChannel}, as with
+	 * {@link #transferTo(Path, long, long, WritableByteChannel, long)}.
+	 * <p>If the resource is not a file, e.g. for a class path resource within a
+	 * jar, this method falls back on reading the resource into data buffers and
+	 * {@linkplain #write(Publisher, WritableByteChannel) writing} those. Since
+	 * both reading and writing block, the fallback is also performed on the
+	 * {@linkplain Schedulers#boundedElastic() bounded elastic} scheduler.
+	 * @param resource the resource to read from
+	 * @param position the position to start reading from
+	 * @param count the number of bytes to transfer, or {@code -1} to transfer up
+	 * to the end of the resource
+	 * @param channel the channel to write to
+	 * @param regionSize the maximum number of bytes per transfer
+	 * @return a Mono that starts the transfer when subscribed to, and that
+	 * publishes any transfer errors and the completion signal
+	 * @since 5.2.26
+	 */
+	public static Mono<Void> transferTo(
+			Resource resource, long position, long count, WritableByteChannel channel, long regionSize) {
+
+		Assert.notNull(resource, "Resource must not be null");
+		try {
+			if (resource.isFile()) {
+				return transferTo(resource.getFile().toPath(), position, count, channel, regionSize);
+			}
+		}
+		catch (IOException ignore) {
+			// fallback to regular read and write, below
+		}
+		int bufferSize = (int) Math.min(regionSize, StreamUtils.BUFFER_SIZE);
+		Flux<DataBuffer> buffers = read(resource, position, new DefaultDataBufferFactory(), bufferSize);
+		if (count >= 0) {
+			buffers = takeUntilByteCount(buffers, count);
+		}
+		return write(buffers, channel).doOnNext(RELEASE_CONSUMER).then()
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private static long transferTo(FileChannel fileChannel, long position, long count,
+			WritableByteChannel channel, long regionSize) throws IOException {
+
+		long size = fileChannel.size();
+		long end = (count < 0 ? size : Math.min(size, position + count));
+		long current = position;
+		while (current < end) {
+			long transferred = fileChannel.transferTo(current, Math.min(regionSize, end - current), channel);
+			if (transferred <= 0) {
+				if (current >= fileChannel.size()) {
+					// file truncated concurrently
+					break;
+				}
+				throw new IOException("No bytes transferred to " + channel +
+						" at position " + current + ": is the channel in non-blocking mode?");
+			}
+			current += transferred;
+		}
+		return current - position;
+	}
+
 	private static Set<OpenOption> checkWriteOptions(OpenOption[] options) {
 		int length = options.length;
 		Set<OpenOption> result = new HashSet<>(length + 3);
@@ -534,6 +703,7 @@ public abstract class DataBufferUtils {
 	 * @param dataBuffers the data buffers that are to be composed
 	 * @return a buffer that is composed from the {@code dataBuffers} argument
 	 * @since 5.0.3
+	 * @see #compose(List)
 	 */
 	public static Mono<DataBuffer> join(Publisher<? extends DataBuffer> dataBuffers) {
 		return join(dataBuffers, -1);
@@ -565,6 +735,32 @@ public abstract class DataBufferUtils {
 				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 	}
 
+	/**
+	 * Return a new {@code DataBuffer} composed of the given {@code dataBuffers}
+	 * elements, without copying their content: a {@link CompositeDataBuffer},
+	 * unless the buffers come from a {@link NettyDataBufferFactory} whose
+	 * {@linkplain DataBufferFactory#join join} is a zero-copy composite already.
+	 * <p>Note that the given data buffers do <strong>not</strong> have to be
+	 * released. They will be released as part of the returned composite.
+	 * <p>As opposed to {@link #join(Publisher)}, the returned buffer is not
+	 * necessarily of the type that the buffers' factory creates.
+	 * @param dataBuffers the data buffers to be composed
+	 * @return a buffer that is composed from the {@code dataBuffers} argument
+	 * @since 5.2.26
+	 * @see CompositeDataBuffer#of(List)
+	 */
+	public static DataBuffer compose(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		if (dataBuffers.size() == 1) {
+			return dataBuffers.get(0);
+		}
+		DataBufferFactory bufferFactory = dataBuffers.get(0).factory();
+		if (bufferFactory instanceof NettyDataBufferFactory) {
+			return bufferFactory.join(dataBuffers);
+		}
+		return CompositeDataBuffer.of(dataBuffers);
+	}
+
 	/**
 	 * Return a {@link Matcher} for the given delimiter.
 	 * The matcher can be used to find the delimiters in a stream of data buffers.
@@ -638,10 +834,13 @@ public abstract class DataBufferUtils {
 
 		private final NestedMatcher[] matchers;
 
+		private final FirstByteScanner scanner;
+
 		byte[] longestDelimiter = NO_DELIMITER;
 
 		CompositeMatcher(byte[][] delimiters) {
 			this.matchers = initMatchers(delimiters);
+			this.scanner = new FirstByteScanner(delimiters);
 		}
 
 		private static NestedMatcher[] initMatchers(byte[][] delimiters) {
@@ -657,6 +856,13 @@ public abstract class DataBufferUtils {
 			this.longestDelimiter = NO_DELIMITER;
 
 			for (int pos = dataBuffer.readPosition(); pos < dataBuffer.writePosition(); pos++) {
+				if (!isMatching()) {
+					// Skip ahead to the next byte that may start one of the delimiters
+					pos = this.scanner.indexOf(dataBuffer, pos);
+					if (pos == -1) {
+						return -1;
+					}
+				}
 				byte b = dataBuffer.getByte(pos);
 
 				for (NestedMatcher matcher : this.matchers) {
@@ -673,6 +879,15 @@ public abstract class DataBufferUtils {
 			return -1;
 		}
 
+		private boolean isMatching() {
+			for (NestedMatcher matcher : this.matchers) {
+				if (matcher.isMatching()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
 		@Override
 		public byte[] delimiter() {
 			Assert.state(this.longestDelimiter != NO_DELIMITER, "Illegal state!");
@@ -700,6 +915,12 @@ public abstract class DataBufferUtils {
 		 */
 		boolean match(byte b);
 
+		/**
+		 * Whether a partial match is in progress, i.e. whether the next byte
+		 * may complete or continue a delimiter without being its first byte.
+		 */
+		boolean isMatching();
+
 	}
 
 
@@ -712,20 +933,17 @@ public abstract class DataBufferUtils {
 
 		private final byte[] delimiter;
 
+		private final FirstByteScanner scanner;
+
 		SingleByteMatcher(byte[] delimiter) {
 			Assert.isTrue(delimiter.length == 1, "Expected a 1 byte delimiter");
 			this.delimiter = delimiter;
+			this.scanner = new FirstByteScanner(new byte[][] {delimiter});
 		}
 
 		@Override
 		public int match(DataBuffer dataBuffer) {
-			for (int pos = dataBuffer.readPosition(); pos < dataBuffer.writePosition(); pos++) {
-				byte b = dataBuffer.getByte(pos);
-				if (match(b)) {
-					return pos;
-				}
-			}
-			return -1;
+			return this.scanner.indexOf(dataBuffer, dataBuffer.readPosition());
 		}
 
 		@Override
@@ -733,6 +951,11 @@ public abstract class DataBufferUtils {
 			return this.delimiter[0] == b;
 		}
 
+		@Override
+		public boolean isMatching() {
+			return false;
+		}
+
 		@Override
 		public byte[] delimiter() {
 			return this.delimiter;
@@ -751,11 +974,14 @@ public abstract class DataBufferUtils {
 
 		private final byte[] delimiter;
 
+		private final FirstByteScanner scanner;
+
 		private int matches = 0;
 
 
 		protected AbstractNestedMatcher(byte[] delimiter) {
 			this.delimiter = delimiter;
+			this.scanner = new FirstByteScanner(new byte[][] {delimiter});
 		}
 
 		protected void setMatches(int index) {
@@ -769,6 +995,13 @@ public abstract class DataBufferUtils {
 		@Override
 		public int match(DataBuffer dataBuffer) {
 			for (int pos = dataBuffer.readPosition(); pos < dataBuffer.writePosition(); pos++) {
+				if (this.matches == 0) {
+					// Skip ahead to the next occurrence of the first delimiter byte
+					pos = this.scanner.indexOf(dataBuffer, pos);
+					if (pos == -1) {
+						return -1;
+					}
+				}
 				byte b = dataBuffer.getByte(pos);
 				if (match(b)) {
 					reset();
@@ -784,9 +1017,16 @@ public abstract class DataBufferUtils {
 				this.matches++;
 				return (this.matches == delimiter().length);
 			}
+			// Start over, possibly with the current byte as first delimiter byte
+			this.matches = (b == this.delimiter[0] ? 1 : 0);
 			return false;
 		}
 
+		@Override
+		public boolean isMatching() {
+			return (this.matches > 0);
+		}
+
 		@Override
 		public byte[] delimiter() {
 			return this.delimiter;
@@ -851,6 +1091,98 @@ public abstract class DataBufferUtils {
 	}
 
 
+	/**
+	 * Scanner for the first bytes of a set of delimiters, used by matchers to
+	 * skip over bytes that cannot start a delimiter. For {@link DefaultDataBuffer}s,
+	 * eight bytes are compared at a time within a {@code long} ("SIMD within a
+	 * register"); other buffers are searched via {@link DataBuffer#indexOf}.
+	 */
+	private static final class FirstByteScanner implements IntPredicate {
+
+		private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+		private final byte[] bytes;
+
+		private final long[] patterns;
+
+		FirstByteScanner(byte[][] delimiters) {
+			byte[] bytes = new byte[delimiters.length];
+			int count = 0;
+			for (byte[] delimiter : delimiters) {
+				if (!contains(bytes, count, delimiter[0])) {
+					bytes[count++] = delimiter[0];
+				}
+			}
+			this.bytes = Arrays.copyOf(bytes, count);
+			this.patterns = new long[count];
+			for (int i = 0; i < count; i++) {
+				this.patterns[i] = (this.bytes[i] & 0xFFL) * 0x0101010101010101L;
+			}
+		}
+
+		private static boolean contains(byte[] bytes, int count, byte b) {
+			for (int i = 0; i < count; i++) {
+				if (bytes[i] == b) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Return the index of the first byte at or after {@code fromIndex} and
+		 * before the write position that is one of the scanned bytes, or
+		 * {@code -1} if there is none.
+		 */
+		public int indexOf(DataBuffer dataBuffer, int fromIndex) {
+			if (!(dataBuffer instanceof DefaultDataBuffer)) {
+				return dataBuffer.indexOf(this, fromIndex);
+			}
+			ByteBuffer byteBuffer = ((DefaultDataBuffer) dataBuffer).getByteBuffer();
+			int toIndex = dataBuffer.writePosition();
+			int wordLimit = Math.min(toIndex, byteBuffer.limit()) - Long.BYTES;
+			boolean bigEndian = (byteBuffer.order() == ByteOrder.BIG_ENDIAN);
+			int index = fromIndex;
+			for (; index <= wordLimit; index += Long.BYTES) {
+				long word = byteBuffer.getLong(index);
+				long found = 0;
+				for (long pattern : this.patterns) {
+					found |= zeroBytes(word ^ pattern);
+				}
+				if (found != 0) {
+					int offset = (bigEndian ? Long.numberOfLeadingZeros(found) : Long.numberOfTrailingZeros(found));
+					return index + (offset >>> 3);
+				}
+			}
+			for (; index < toIndex; index++) {
+				if (test(dataBuffer.getByte(index))) {
+					return index;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Return a word with the high bit set in each byte that is zero in the
+		 * given word, and all other bits cleared.
+		 */
+		private static long zeroBytes(long word) {
+			long tmp = (word & LOW_BITS) + LOW_BITS;
+			return ~(tmp | word | LOW_BITS);
+		}
+
+		@Override
+		public boolean test(int value) {
+			for (byte b : this.bytes) {
+				if (b == (byte) value) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+
 	private static class ReadableByteChannelGenerator implements Consumer<SynchronousSink<DataBuffer>> {
 
 		private final ReadableByteChannel channel;
@@ -895,6 +1227,53 @@ public abstract class DataBufferUtils {
 	}
 
 
+	private static class MappedRegionGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final FileChannel channel;
+
+		private final long count;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int regionSize;
+
+		private long position;
+
+		private long end = -1;
+
+		public MappedRegionGenerator(FileChannel channel, long position, long count,
+				DataBufferFactory dataBufferFactory, int regionSize) {
+
+			this.channel = channel;
+			this.position = position;
+			this.count = count;
+			this.dataBufferFactory = dataBufferFactory;
+			this.regionSize = regionSize;
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			try {
+				if (this.end < 0) {
+					long size = this.channel.size();
+					this.end = (this.count < 0 ? size : Math.min(size, this.position + this.count));
+				}
+				if (this.position >= this.end) {
+					sink.complete();
+					return;
+				}
+				long length = Math.min(this.regionSize, this.end - this.position);
+				MappedByteBuffer region = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length);
+				this.position += length;
+				sink.next(this.dataBufferFactory.wrap(region));
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+		}
+	}
+
+
 	private static class ReadCompletionHandler implements CompletionHandler<Integer, DataBuffer> {
 
 		private final AsynchronousFileChannel channel;
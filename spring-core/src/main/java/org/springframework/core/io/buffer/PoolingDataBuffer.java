@@ -0,0 +1,221 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Reference-counted {@link DefaultDataBuffer} whose memory is returned to its
+ * {@link PoolingDataBufferFactory} once the count reaches zero.
+ *
+ * <p>Slices share the reference count of the buffer they were created from,
+ * analogous to Netty's derived buffers: {@link #retainedSlice} retains this
+ * buffer, and releasing a slice releases this buffer.
+ *
+ * <p>A released buffer must not be used anymore, and neither must its slices
+ * and {@linkplain #asByteBuffer() ByteBuffer views}, since its memory may
+ * already have been handed out to another buffer. Memory that is given up
+ * when changing the capacity is not recycled but left to the garbage
+ * collector, since slices and views created before may still refer to it.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see PoolingDataBufferFactory
+ */
+public class PoolingDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+	private static final AtomicIntegerFieldUpdater<PoolingDataBuffer> refCountUpdater =
+			AtomicIntegerFieldUpdater.newUpdater(PoolingDataBuffer.class, "refCount");
+
+
+	private final PoolingDataBufferFactory dataBufferFactory;
+
+	private ByteBuffer chunk;
+
+	/** The thread that acquired the current chunk. */
+	private Thread chunkOwner;
+
+	@Nullable
+	private ByteBuffer allocatedChunk;
+
+	@Nullable
+	private PoolingDataBufferFactory.BufferTracker tracker;
+
+	private volatile int refCount = 1;
+
+
+	PoolingDataBuffer(PoolingDataBufferFactory dataBufferFactory, ByteBuffer chunk) {
+		super(dataBufferFactory, chunk);
+		this.dataBufferFactory = dataBufferFactory;
+		this.chunk = chunk;
+		this.chunkOwner = Thread.currentThread();
+	}
+
+
+	void setTracker(PoolingDataBufferFactory.BufferTracker tracker) {
+		this.tracker = tracker;
+	}
+
+	@Nullable
+	PoolingDataBufferFactory.BufferTracker getTracker() {
+		return this.tracker;
+	}
+
+	@Override
+	ByteBuffer allocate(int capacity, boolean direct) {
+		ByteBuffer chunk = this.dataBufferFactory.acquireChunk(capacity, direct);
+		this.allocatedChunk = chunk;
+		chunk.limit(capacity);
+		return chunk.slice();
+	}
+
+	@Override
+	void setNativeBuffer(ByteBuffer byteBuffer) {
+		ByteBuffer newChunk = this.allocatedChunk;
+		Assert.state(newChunk != null, "No chunk allocated");
+		super.setNativeBuffer(byteBuffer);
+		// The previous chunk is not recycled: slices and ByteBuffer views
+		// of this buffer may still refer to it, so leave it to the GC.
+		this.chunk = newChunk;
+		this.chunkOwner = Thread.currentThread();
+		this.allocatedChunk = null;
+	}
+
+
+	@Override
+	public PoolingDataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return (this.refCount > 0);
+	}
+
+	@Override
+	public PoolingDataBuffer retain() {
+		for (;;) {
+			int refCount = this.refCount;
+			if (refCount <= 0) {
+				throw new IllegalStateException("Cannot retain released " + this);
+			}
+			if (refCountUpdater.compareAndSet(this, refCount, refCount + 1)) {
+				return this;
+			}
+		}
+	}
+
+	@Override
+	public boolean release() {
+		for (;;) {
+			int refCount = this.refCount;
+			if (refCount <= 0) {
+				throw new IllegalStateException("Cannot release already released " + this);
+			}
+			if (refCountUpdater.compareAndSet(this, refCount, refCount - 1)) {
+				if (refCount > 1) {
+					return false;
+				}
+				this.dataBufferFactory.bufferReleased(this.tracker);
+				this.dataBufferFactory.releaseChunk(this.chunk, this.chunkOwner);
+				return true;
+			}
+		}
+	}
+
+	@Override
+	public DefaultDataBuffer slice(int index, int length) {
+		return new SlicedPoolingDataBuffer(this, asByteBuffer(index, length));
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		InputStream inputStream = asInputStream();
+		return (releaseOnClose ? new ReleasingInputStream(inputStream) : inputStream);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("PoolingDataBuffer (r: %d, w: %d, c: %d, refCount: %d)",
+				readPosition(), writePosition(), capacity(), this.refCount);
+	}
+
+
+	/**
+	 * Releases this buffer once closed.
+	 */
+	private class ReleasingInputStream extends FilterInputStream {
+
+		private boolean closed;
+
+		ReleasingInputStream(InputStream inputStream) {
+			super(inputStream);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				this.closed = true;
+				DataBufferUtils.release(PoolingDataBuffer.this);
+			}
+		}
+	}
+
+
+	/**
+	 * Slice sharing the memory and the reference count of its parent buffer.
+	 */
+	private static class SlicedPoolingDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PoolingDataBuffer parent;
+
+		SlicedPoolingDataBuffer(PoolingDataBuffer parent, ByteBuffer byteBuffer) {
+			super(parent.factory(), byteBuffer);
+			this.parent = parent;
+			writePosition(byteBuffer.remaining());
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+	}
+
+}
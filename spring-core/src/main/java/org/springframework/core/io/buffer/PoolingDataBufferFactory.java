@@ -0,0 +1,456 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataBufferFactory} that recycles the memory of released buffers,
+ * for runtimes without Netty's pooled allocator (i.e. Servlet and Undertow).
+ * Allocated buffers are {@link PoolingDataBuffer PoolingDataBuffers} which
+ * need to be {@linkplain DataBufferUtils#release released} once consumed.
+ *
+ * <p>Requested capacities are rounded up to power-of-two size classes,
+ * starting at {@value #MIN_CHUNK_SIZE} bytes. The chunks of each size class
+ * are carved out of larger slabs, recycled through a small per-thread cache
+ * first and a bounded shared pool second. Capacities beyond the
+ * {@linkplain #PoolingDataBufferFactory(boolean, int, int) maximum pooled
+ * capacity} are allocated individually and left to the garbage collector.
+ *
+ * <p>A per-thread cache holds at most 64 KB. It only takes back chunks that
+ * are released by the thread that allocated them; chunks released by other
+ * threads go to the shared pool. Chunks that have stayed unused in a
+ * per-thread cache over a number of allocations are moved to the shared pool
+ * as well, so that a thread does not hold on to memory it no longer needs.
+ *
+ * <p>Buffers that are not released are not lost: their memory is reclaimed
+ * by the garbage collector, just not recycled, and they no longer count as
+ * {@linkplain #getAllocatedBufferCount() allocated}. The same applies to
+ * memory given up when a buffer's capacity changes. For tracking down
+ * unreleased buffers during development, {@linkplain #setLeakDetection
+ * enable leak detection}.
+ *
+ * <p>Note that per-thread caches are held per factory instance: this factory
+ * is meant to be shared, not to be created per request.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see DefaultDataBufferFactory
+ */
+public class PoolingDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default maximum capacity of pooled buffers.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The size of the smallest size class.
+	 */
+	public static final int MIN_CHUNK_SIZE = 256;
+
+	private static final int MIN_CHUNK_SHIFT = Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+
+	private static final int SLAB_SIZE = 128 * 1024;
+
+	private static final int THREAD_CACHE_SIZE = 64 * 1024;
+
+	private static final int THREAD_CACHE_CHUNKS = 16;
+
+	/**
+	 * The number of allocations from a per-thread cache between two trims.
+	 */
+	private static final int THREAD_CACHE_TRIM_INTERVAL = 256;
+
+	private static final int SHARED_POOL_SIZE = 4 * 1024 * 1024;
+
+	private static final Log logger = LogFactory.getLog(PoolingDataBufferFactory.class);
+
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private final Queue<ByteBuffer>[] sharedChunks;
+
+	private final ThreadLocal<ThreadCache> threadCaches =
+			new NamedThreadLocal<ThreadCache>("PoolingDataBufferFactory chunk caches") {
+				@Override
+				protected ThreadCache initialValue() {
+					return new ThreadCache();
+				}
+			};
+
+	private volatile boolean leakDetection;
+
+	/** Trackers of the buffers that have been allocated and not released yet. */
+	private final Set<BufferTracker> bufferTrackers = ConcurrentHashMap.newKeySet();
+
+	private final ReferenceQueue<PoolingDataBuffer> collectedBuffers = new ReferenceQueue<>();
+
+
+	/**
+	 * Create a new {@code PoolingDataBufferFactory} with default settings.
+	 */
+	public PoolingDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PoolingDataBufferFactory}, indicating whether
+	 * direct buffers should be pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PoolingDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_POOLED_CAPACITY);
+	}
+
+	/**
+	 * Create a new {@code PoolingDataBufferFactory}, indicating whether
+	 * direct buffers should be pooled, what the capacity is to be used for
+	 * {@link #allocateBuffer()}, and up to which capacity buffers are pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param defaultInitialCapacity the capacity for {@link #allocateBuffer()}
+	 * @param maxPooledCapacity the maximum capacity of pooled buffers,
+	 * rounded up to the next power of two
+	 */
+	@SuppressWarnings("unchecked")
+	public PoolingDataBufferFactory(boolean preferDirect, int defaultInitialCapacity, int maxPooledCapacity) {
+		super(preferDirect, defaultInitialCapacity);
+		Assert.isTrue(maxPooledCapacity >= MIN_CHUNK_SIZE,
+				() -> "'maxPooledCapacity' should be at least " + MIN_CHUNK_SIZE);
+		Assert.isTrue(maxPooledCapacity <= SLAB_SIZE,
+				() -> "'maxPooledCapacity' should be at most " + SLAB_SIZE);
+		this.preferDirect = preferDirect;
+		int sizeClasses = sizeClass(maxPooledCapacity) + 1;
+		this.maxPooledCapacity = chunkSize(sizeClasses - 1);
+		this.sharedChunks = (Queue<ByteBuffer>[]) new Queue<?>[sizeClasses];
+		for (int i = 0; i < sizeClasses; i++) {
+			this.sharedChunks[i] = new ArrayBlockingQueue<>(SHARED_POOL_SIZE / chunkSize(i));
+		}
+	}
+
+
+	/**
+	 * Set whether to track allocated buffers that get garbage-collected without
+	 * having been released, logging a warning with the stack trace of their
+	 * allocation. Default is "false".
+	 * <p>This is meant for development and testing only: it records a stack
+	 * trace for every allocation.
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return whether leak detection is enabled.
+	 */
+	public boolean isLeakDetection() {
+		return this.leakDetection;
+	}
+
+	/**
+	 * Return the maximum capacity of pooled buffers.
+	 */
+	public int getMaxPooledCapacity() {
+		return this.maxPooledCapacity;
+	}
+
+	/**
+	 * Return the number of buffers allocated by this factory that have neither
+	 * been released nor garbage-collected yet.
+	 */
+	public long getAllocatedBufferCount() {
+		expungeCollectedBuffers();
+		return this.bufferTrackers.size();
+	}
+
+
+	/**
+	 * Return the number of bytes held in the cache of the current thread.
+	 * For testing purposes only.
+	 */
+	int getThreadCachedBytes() {
+		return this.threadCaches.get().cachedBytes;
+	}
+
+
+	@Override
+	public PoolingDataBuffer allocateBuffer() {
+		return (PoolingDataBuffer) super.allocateBuffer();
+	}
+
+	@Override
+	public PoolingDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must be >= 0");
+		expungeCollectedBuffers();
+		ByteBuffer chunk = acquireChunk(initialCapacity, this.preferDirect);
+		chunk.limit(initialCapacity);
+		PoolingDataBuffer dataBuffer = new PoolingDataBuffer(this, chunk);
+		BufferTracker tracker = new BufferTracker(dataBuffer, this.collectedBuffers, this.leakDetection);
+		this.bufferTrackers.add(tracker);
+		dataBuffer.setTracker(tracker);
+		return dataBuffer;
+	}
+
+	@Override
+	public PoolingDataBuffer join(List<? extends DataBuffer> dataBuffers) {
+		return (PoolingDataBuffer) super.join(dataBuffers);
+	}
+
+
+	/**
+	 * Obtain a chunk of at least the given capacity, cleared for writing.
+	 */
+	ByteBuffer acquireChunk(int capacity, boolean direct) {
+		if (capacity > this.maxPooledCapacity || direct != this.preferDirect) {
+			return (direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+		}
+		int sizeClass = sizeClass(capacity);
+		ByteBuffer chunk = this.threadCaches.get().poll(sizeClass);
+		if (chunk == null) {
+			chunk = this.sharedChunks[sizeClass].poll();
+			if (chunk == null) {
+				chunk = allocateSlab(sizeClass);
+			}
+		}
+		chunk.clear();
+		return chunk;
+	}
+
+	/**
+	 * Return the given chunk to the pool, if it has been pooled in the first place:
+	 * to the cache of the current thread if that thread acquired the chunk, or
+	 * to the shared pool otherwise.
+	 * @param chunk the chunk to return
+	 * @param owner the thread that acquired the chunk
+	 */
+	void releaseChunk(ByteBuffer chunk, Thread owner) {
+		int capacity = chunk.capacity();
+		if (capacity > this.maxPooledCapacity || chunk.isDirect() != this.preferDirect) {
+			return;
+		}
+		int sizeClass = sizeClass(capacity);
+		if (chunkSize(sizeClass) != capacity) {
+			return;
+		}
+		if (owner != Thread.currentThread() || !this.threadCaches.get().offer(sizeClass, chunk)) {
+			this.sharedChunks[sizeClass].offer(chunk);
+		}
+	}
+
+	/**
+	 * Called by {@link PoolingDataBuffer} once it has been deallocated.
+	 */
+	void bufferReleased(@Nullable BufferTracker tracker) {
+		if (tracker != null) {
+			this.bufferTrackers.remove(tracker);
+			tracker.clear();
+		}
+	}
+
+	private ByteBuffer allocateSlab(int sizeClass) {
+		int chunkSize = chunkSize(sizeClass);
+		int chunkCount = SLAB_SIZE / chunkSize;
+		ByteBuffer slab = (this.preferDirect ? ByteBuffer.allocateDirect(SLAB_SIZE) : ByteBuffer.allocate(SLAB_SIZE));
+		Queue<ByteBuffer> sharedChunks = this.sharedChunks[sizeClass];
+		for (int i = 1; i < chunkCount; i++) {
+			slab.limit((i + 1) * chunkSize).position(i * chunkSize);
+			if (!sharedChunks.offer(slab.slice())) {
+				break;
+			}
+		}
+		slab.limit(chunkSize).position(0);
+		return slab.slice();
+	}
+
+	/**
+	 * Stop tracking buffers that have been garbage-collected without having
+	 * been released, logging a warning for each if leak detection is enabled.
+	 */
+	private void expungeCollectedBuffers() {
+		Reference<? extends PoolingDataBuffer> ref = this.collectedBuffers.poll();
+		while (ref != null) {
+			BufferTracker tracker = (BufferTracker) ref;
+			// The chunk is not recycled: ByteBuffer views of the buffer may still refer to it.
+			if (this.bufferTrackers.remove(tracker) && tracker.allocationTrace != null) {
+				logger.warn("PoolingDataBuffer was garbage-collected without having been released; " +
+						"make sure to call DataBufferUtils.release() once consumed", tracker.allocationTrace);
+			}
+			ref = this.collectedBuffers.poll();
+		}
+	}
+
+	private static int sizeClass(int capacity) {
+		if (capacity <= MIN_CHUNK_SIZE) {
+			return 0;
+		}
+		return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_CHUNK_SHIFT;
+	}
+
+	private static int chunkSize(int sizeClass) {
+		return MIN_CHUNK_SIZE << sizeClass;
+	}
+
+
+	@Override
+	public String toString() {
+		return "PoolingDataBufferFactory (preferDirect=" + this.preferDirect +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	/**
+	 * Per-thread cache of free chunks, holding at most {@code THREAD_CACHE_SIZE}
+	 * bytes. Every {@code THREAD_CACHE_TRIM_INTERVAL} allocations, the chunks
+	 * that have not been used since the previous trim are moved to the shared pool.
+	 */
+	private final class ThreadCache {
+
+		private final ChunkCache[] caches = new ChunkCache[sharedChunks.length];
+
+		private int cachedBytes;
+
+		private int allocations;
+
+		ThreadCache() {
+			for (int i = 0; i < this.caches.length; i++) {
+				int capacity = Math.min(THREAD_CACHE_CHUNKS, THREAD_CACHE_SIZE / chunkSize(i));
+				this.caches[i] = new ChunkCache(Math.max(1, capacity));
+			}
+		}
+
+		@Nullable
+		ByteBuffer poll(int sizeClass) {
+			if (++this.allocations >= THREAD_CACHE_TRIM_INTERVAL) {
+				trim();
+			}
+			ByteBuffer chunk = this.caches[sizeClass].poll();
+			if (chunk != null) {
+				this.cachedBytes -= chunk.capacity();
+			}
+			return chunk;
+		}
+
+		boolean offer(int sizeClass, ByteBuffer chunk) {
+			if (this.cachedBytes + chunk.capacity() > THREAD_CACHE_SIZE || !this.caches[sizeClass].offer(chunk)) {
+				return false;
+			}
+			this.cachedBytes += chunk.capacity();
+			return true;
+		}
+
+		private void trim() {
+			this.allocations = 0;
+			for (int i = 0; i < this.caches.length; i++) {
+				int trimmed = this.caches[i].trim(sharedChunks[i]);
+				this.cachedBytes -= trimmed * chunkSize(i);
+			}
+		}
+	}
+
+
+	/**
+	 * Per-thread stack of free chunks for a given size class, keeping track of
+	 * the lowest number of chunks held since the last trim.
+	 */
+	private static final class ChunkCache {
+
+		private final ByteBuffer[] chunks;
+
+		private int size;
+
+		private int lowWaterMark;
+
+		ChunkCache(int capacity) {
+			this.chunks = new ByteBuffer[capacity];
+		}
+
+		@Nullable
+		ByteBuffer poll() {
+			if (this.size == 0) {
+				return null;
+			}
+			ByteBuffer chunk = this.chunks[--this.size];
+			this.chunks[this.size] = null;
+			this.lowWaterMark = Math.min(this.lowWaterMark, this.size);
+			return chunk;
+		}
+
+		boolean offer(ByteBuffer chunk) {
+			if (this.size == this.chunks.length) {
+				return false;
+			}
+			this.chunks[this.size++] = chunk;
+			return true;
+		}
+
+		/**
+		 * Move the chunks that have not been used since the last trim, i.e. the
+		 * bottom of the stack up to the low-water mark, to the given pool.
+		 * @return the number of chunks removed from this cache
+		 */
+		int trim(Queue<ByteBuffer> pool) {
+			int unused = this.lowWaterMark;
+			if (unused > 0) {
+				for (int i = 0; i < unused; i++) {
+					pool.offer(this.chunks[i]);
+				}
+				System.arraycopy(this.chunks, unused, this.chunks, 0, this.size - unused);
+				Arrays.fill(this.chunks, this.size - unused, this.size, null);
+				this.size -= unused;
+			}
+			this.lowWaterMark = this.size;
+			return unused;
+		}
+	}
+
+
+	/**
+	 * Weak reference to an allocated buffer, keeping track of the stack trace
+	 * of its allocation if leak detection is enabled.
+	 */
+	static final class BufferTracker extends WeakReference<PoolingDataBuffer> {
+
+		@Nullable
+		final Throwable allocationTrace;
+
+		BufferTracker(PoolingDataBuffer dataBuffer, ReferenceQueue<PoolingDataBuffer> queue, boolean leakDetection) {
+			super(dataBuffer, queue);
+			this.allocationTrace = (leakDetection ? new Throwable("PoolingDataBuffer allocation") : null);
+		}
+	}
+
+}
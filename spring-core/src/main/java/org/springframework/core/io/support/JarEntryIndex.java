@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Sorted index of the entry names of a jar file, supporting prefix lookups
+ * without reopening the jar file.
+ *
+ * <p>Indexes are built once per jar file and kept in a JVM-wide cache keyed
+ * by the absolute path of the jar file; an index is rebuilt when the size or
+ * the last-modified timestamp of the jar file changes. The cache retains the
+ * indexes of the {@value #CACHE_LIMIT} most recently used jar files. Entry names are stored
+ * in a single concatenated {@code String} with an offset table, which is
+ * considerably more compact than a {@code String} instance per entry.
+ * Lookups return entries in their original jar file order, exactly as
+ * iterating over {@link JarFile#entries()} would.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see PathMatchingResourcePatternResolver#doFindPathMatchingJarResources
+ */
+final class JarEntryIndex {
+
+	/** Maximum number of jar file indexes kept in the cache. */
+	static final int CACHE_LIMIT = 256;
+
+	/** Cache of jar file path to index, in access order. */
+	@SuppressWarnings("serial")
+	private static final Map<String, JarEntryIndex> cache =
+			new LinkedHashMap<String, JarEntryIndex>(64, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, JarEntryIndex> eldest) {
+					return size() > CACHE_LIMIT;
+				}
+			};
+
+
+	private final long length;
+
+	private final long lastModified;
+
+	/** All entry names in sorted order, concatenated. */
+	private final String names;
+
+	/** Start offset of each entry name in {@link #names}, plus the total length. */
+	private final int[] offsets;
+
+	/** Position of each entry in the jar file, for restoring the original order. */
+	private final int[] positions;
+
+
+	private JarEntryIndex(long length, long lastModified, List<String> entryNames) {
+		this.length = length;
+		this.lastModified = lastModified;
+		Integer[] sorted = new Integer[entryNames.size()];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, Comparator.comparing(entryNames::get));
+		this.offsets = new int[sorted.length + 1];
+		this.positions = new int[sorted.length];
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < sorted.length; i++) {
+			this.offsets[i] = sb.length();
+			this.positions[i] = sorted[i];
+			sb.append(entryNames.get(sorted[i]));
+		}
+		this.offsets[sorted.length] = sb.length();
+		this.names = sb.toString();
+	}
+
+
+	/**
+	 * Return the number of entries in this index.
+	 */
+	int size() {
+		return this.offsets.length - 1;
+	}
+
+	/**
+	 * Return the names of all entries starting with the given prefix,
+	 * in the order of the entries in the jar file.
+	 * @param prefix the entry name prefix (may be empty)
+	 */
+	List<String> getEntryNames(String prefix) {
+		int from = lowerBound(prefix);
+		int to = from;
+		while (to < size() && startsWith(to, prefix)) {
+			to++;
+		}
+		Integer[] matches = new Integer[to - from];
+		for (int i = 0; i < matches.length; i++) {
+			matches[i] = from + i;
+		}
+		Arrays.sort(matches, Comparator.comparingInt(index -> this.positions[index]));
+		List<String> result = new ArrayList<>(matches.length);
+		for (int index : matches) {
+			result.add(this.names.substring(this.offsets[index], this.offsets[index + 1]));
+		}
+		return result;
+	}
+
+	/**
+	 * Find the first entry that is not lexicographically smaller than the given prefix.
+	 */
+	private int lowerBound(String prefix) {
+		int low = 0;
+		int high = size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compare(mid, prefix) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int compare(int index, String other) {
+		int start = this.offsets[index];
+		int length = this.offsets[index + 1] - start;
+		int limit = Math.min(length, other.length());
+		for (int i = 0; i < limit; i++) {
+			char c1 = this.names.charAt(start + i);
+			char c2 = other.charAt(i);
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return length - other.length();
+	}
+
+	private boolean startsWith(int index, String prefix) {
+		int start = this.offsets[index];
+		return (this.offsets[index + 1] - start >= prefix.length() &&
+				this.names.regionMatches(start, prefix, 0, prefix.length()));
+	}
+
+
+	/**
+	 * Obtain the index for the given jar file, building it if necessary.
+	 * @param jarFile the jar file in the file system
+	 * @return the index of the jar file's entries
+	 * @throws IOException if the jar file cannot be read
+	 */
+	static JarEntryIndex forJarFile(File jarFile) throws IOException {
+		String key = jarFile.getAbsolutePath();
+		long length = jarFile.length();
+		long lastModified = jarFile.lastModified();
+		JarEntryIndex index;
+		synchronized (cache) {
+			index = cache.get(key);
+		}
+		if (index == null || index.length != length || index.lastModified != lastModified) {
+			index = build(jarFile, length, lastModified);
+			synchronized (cache) {
+				cache.put(key, index);
+			}
+		}
+		return index;
+	}
+
+	private static JarEntryIndex build(File file, long length, long lastModified) throws IOException {
+		List<String> names = new ArrayList<>();
+		try (JarFile jarFile = new JarFile(file)) {
+			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+				names.add(entries.nextElement().getName());
+			}
+		}
+		return new JarEntryIndex(length, lastModified, names);
+	}
+
+	/**
+	 * Clear the JVM-wide cache of jar file indexes.
+	 */
+	static void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+}
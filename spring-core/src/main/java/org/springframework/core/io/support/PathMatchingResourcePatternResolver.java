@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,6 +40,7 @@ import java.util.zip.ZipException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -182,6 +183,19 @@ import org.springframework.util.StringUtils;
  */
 public class PathMatchingResourcePatternResolver implements ResourcePatternResolver {
 
+	/**
+	 * System property that instructs Spring to ignore the JVM-wide index of jar
+	 * file entries, i.e. to always iterate over the entries of a jar file when
+	 * resolving a pattern: {@code "spring.jarindex.ignore"}.
+	 * <p>The default is "false", indexing the entries of each jar file in the
+	 * file system once (per jar file size and last-modified timestamp).
+	 * @since 5.2.26
+	 * @see #clearJarIndexCache()
+	 */
+	public static final String IGNORE_JAR_INDEX_PROPERTY_NAME = "spring.jarindex.ignore";
+
+	private static final boolean shouldIgnoreJarIndex = SpringProperties.getFlag(IGNORE_JAR_INDEX_PROPERTY_NAME);
+
 	private static final Log logger = LogFactory.getLog(PathMatchingResourcePatternResolver.class);
 
 	@Nullable
@@ -269,6 +283,16 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Clear the JVM-wide index of jar file entries, e.g. to release its memory
+	 * once all pattern lookups are done. Indexes are rebuilt on demand.
+	 * @since 5.2.26
+	 * @see #IGNORE_JAR_INDEX_PROPERTY_NAME
+	 */
+	public static void clearJarIndexCache() {
+		JarEntryIndex.clearCache();
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -592,6 +616,13 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	protected Set<Resource> doFindPathMatchingJarResources(Resource rootDirResource, URL rootDirURL, String subPattern)
 			throws IOException {
 
+		if (!shouldIgnoreJarIndex) {
+			Set<Resource> result = findPathMatchingJarResourcesInIndex(rootDirResource, rootDirURL, subPattern);
+			if (result != null) {
+				return result;
+			}
+		}
+
 		URLConnection con = rootDirURL.openConnection();
 		JarFile jarFile;
 		String jarFileUrl;
@@ -668,6 +699,70 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		}
 	}
 
+	/**
+	 * Find all resources in a jar file in the file system that match the given
+	 * location pattern, using the JVM-wide index of its entries rather than
+	 * reopening and iterating over the jar file.
+	 * @return a mutable Set of matching Resource instances, or {@code null} if the
+	 * given URL does not point into a plain jar file in the file system (e.g. for
+	 * nested jars), in which case the jar file needs to be read directly
+	 * @since 5.2.26
+	 * @see #IGNORE_JAR_INDEX_PROPERTY_NAME
+	 */
+	@Nullable
+	private Set<Resource> findPathMatchingJarResourcesInIndex(Resource rootDirResource, URL rootDirURL,
+			String subPattern) throws IOException {
+
+		if (!ResourceUtils.URL_PROTOCOL_JAR.equals(rootDirURL.getProtocol())) {
+			return null;
+		}
+		String urlFile = rootDirURL.getFile();
+		int separatorIndex = urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+		if (separatorIndex == -1 || !urlFile.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
+			return null;
+		}
+		String rootEntryPath = urlFile.substring(separatorIndex + ResourceUtils.JAR_URL_SEPARATOR.length());
+		if (rootEntryPath.contains(ResourceUtils.JAR_URL_SEPARATOR) || rootEntryPath.indexOf('%') != -1) {
+			// Nested jar or encoded entry path -> let the JarURLConnection handle it.
+			return null;
+		}
+		File jarFile;
+		try {
+			jarFile = new File(ResourceUtils.toURI(urlFile.substring(0, separatorIndex)).getSchemeSpecificPart());
+		}
+		catch (URISyntaxException ex) {
+			return null;
+		}
+		if (!jarFile.isFile()) {
+			return null;
+		}
+
+		JarEntryIndex index;
+		try {
+			index = JarEntryIndex.forJarFile(jarFile);
+		}
+		catch (ZipException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Skipping invalid jar classpath entry [" + jarFile + "]");
+			}
+			return Collections.emptySet();
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Looking for matching resources in index of jar file [" + jarFile + "]");
+		}
+		if (StringUtils.hasLength(rootEntryPath) && !rootEntryPath.endsWith("/")) {
+			rootEntryPath = rootEntryPath + "/";
+		}
+		Set<Resource> result = new LinkedHashSet<>(8);
+		for (String entryPath : index.getEntryNames(rootEntryPath)) {
+			String relativePath = entryPath.substring(rootEntryPath.length());
+			if (getPathMatcher().match(subPattern, relativePath)) {
+				result.add(rootDirResource.createRelative(relativePath));
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Resolve the given jar file URL into a JarFile object.
 	 */
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that keeps ended steps in memory,
+ * for example to be logged or exposed once the application context has started.
+ *
+ * <p>The buffer is bounded by the given capacity: once it is full, additional
+ * steps are still timed but silently dropped. Steps may be started and ended
+ * concurrently from several threads; each thread tracks its own parent step.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see #getBufferedSteps()
+ * @see #drainBufferedSteps()
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	private final int capacity;
+
+	private final AtomicLong idSeq = new AtomicLong();
+
+	private final ThreadLocal<BufferedStartupStep> currentStep = new ThreadLocal<>();
+
+	private final List<BufferedStartupStep> bufferedSteps = new ArrayList<>();
+
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity.
+	 * @param capacity the maximum number of ended steps to keep
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	@Override
+	public StartupStep start(String name) {
+		BufferedStartupStep parent = this.currentStep.get();
+		BufferedStartupStep step = new BufferedStartupStep(name, this.idSeq.getAndIncrement(), parent);
+		this.currentStep.set(step);
+		return step;
+	}
+
+	/**
+	 * Return a snapshot of the steps recorded so far, in the order they ended.
+	 */
+	public List<BufferedStartupStep> getBufferedSteps() {
+		synchronized (this.bufferedSteps) {
+			return new ArrayList<>(this.bufferedSteps);
+		}
+	}
+
+	/**
+	 * Return the steps recorded so far and clear the buffer, making room
+	 * for further steps.
+	 */
+	public List<BufferedStartupStep> drainBufferedSteps() {
+		synchronized (this.bufferedSteps) {
+			List<BufferedStartupStep> steps = new ArrayList<>(this.bufferedSteps);
+			this.bufferedSteps.clear();
+			return steps;
+		}
+	}
+
+	private void record(BufferedStartupStep step) {
+		if (this.currentStep.get() == step) {
+			if (step.parent != null) {
+				this.currentStep.set(step.parent);
+			}
+			else {
+				this.currentStep.remove();
+			}
+		}
+		synchronized (this.bufferedSteps) {
+			if (this.bufferedSteps.size() < this.capacity) {
+				this.bufferedSteps.add(step);
+			}
+		}
+	}
+
+
+	/**
+	 * {@link StartupStep} recorded by a {@link BufferingApplicationStartup},
+	 * exposing its start time and duration once ended.
+	 */
+	public final class BufferedStartupStep implements StartupStep {
+
+		private final String name;
+
+		private final long id;
+
+		@Nullable
+		private final BufferedStartupStep parent;
+
+		private final Instant startTime;
+
+		private final long startNanos;
+
+		private final List<Tag> tags = new ArrayList<>();
+
+		private volatile long durationNanos = -1;
+
+		BufferedStartupStep(String name, long id, @Nullable BufferedStartupStep parent) {
+			this.name = name;
+			this.id = id;
+			this.parent = parent;
+			this.startTime = Instant.now();
+			this.startNanos = System.nanoTime();
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		@Nullable
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.id : null);
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(!isEnded(), "StartupStep has already ended.");
+			this.tags.add(new BufferedTag(key, value));
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public Tags getTags() {
+			List<Tag> tags = Collections.unmodifiableList(this.tags);
+			return tags::iterator;
+		}
+
+		/**
+		 * Return the time at which this step started.
+		 */
+		public Instant getStartTime() {
+			return this.startTime;
+		}
+
+		/**
+		 * Return the duration of this step, or {@code null} if not ended yet.
+		 */
+		@Nullable
+		public Duration getDuration() {
+			long duration = this.durationNanos;
+			return (duration >= 0 ? Duration.ofNanos(duration) : null);
+		}
+
+		/**
+		 * Return whether this step has ended.
+		 */
+		public boolean isEnded() {
+			return (this.durationNanos >= 0);
+		}
+
+		@Override
+		public void end() {
+			Assert.state(!isEnded(), "StartupStep has already ended.");
+			this.durationNanos = System.nanoTime() - this.startNanos;
+			record(this);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(this.name);
+			sb.append(" [id=").append(this.id);
+			if (this.parent != null) {
+				sb.append(", parentId=").append(this.parent.id);
+			}
+			Duration duration = getDuration();
+			if (duration != null) {
+				sb.append(", duration=").append(duration.toMillis()).append("ms");
+			}
+			for (Tag tag : this.tags) {
+				sb.append(", ").append(tag.getKey()).append('=').append(tag.getValue());
+			}
+			return sb.append(']').toString();
+		}
+	}
+
+
+	private static final class BufferedTag implements StartupStep.Tag {
+
+		private final String key;
+
+		private final String value;
+
+		BufferedTag(String key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public String getValue() {
+			return this.value;
+		}
+
+		@Override
+		public String toString() {
+			return this.key + '=' + this.value;
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+/**
+ * Statistics of an internal framework cache, typically registered with the
+ * {@link CacheRegistry} for introspection at runtime.
+ *
+ * <p>All values are snapshots and may be approximate for caches that are
+ * accessed concurrently. Metrics that a cache does not track are reported
+ * as {@code -1}. Hits and misses may only be tracked once
+ * {@link #enableStatistics()} has been called, which the {@link CacheRegistry}
+ * does when the metrics are first read.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see CacheRegistry
+ * @see MapCacheMetrics
+ */
+public interface CacheMetrics {
+
+	/**
+	 * Start tracking hits, misses and evictions, if the cache only does so
+	 * on demand. Calling this method more than once has no further effect.
+	 * <p>The default implementation is empty.
+	 */
+	default void enableStatistics() {
+	}
+
+	/**
+	 * Return the current number of entries in the cache.
+	 */
+	long getSize();
+
+	/**
+	 * Return the number of lookups that have been served from the cache,
+	 * or {@code -1} if not tracked.
+	 */
+	default long getHitCount() {
+		return -1;
+	}
+
+	/**
+	 * Return the number of lookups that have not been served from the cache,
+	 * or {@code -1} if not tracked.
+	 */
+	default long getMissCount() {
+		return -1;
+	}
+
+	/**
+	 * Return the number of entries evicted or purged from the cache,
+	 * or {@code -1} if not tracked.
+	 */
+	default long getEvictionCount() {
+		return -1;
+	}
+
+	/**
+	 * Return the approximate memory retained by the cached entries, in bytes,
+	 * or {@code -1} if not known.
+	 */
+	default long getEstimatedSize() {
+		return -1;
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * JVM-wide registry of the {@link CacheMetrics} of internal framework caches,
+ * for example to find a cache that grows without bound or one with a poor
+ * hit rate.
+ *
+ * <p>Registrations are held through weak references, so that registering a
+ * cache never prevents its owner from being garbage collected: the owner is
+ * expected to keep a reference to the registered {@code CacheMetrics}, and the
+ * registration disappears once the owner is no longer in use. Caches owned by
+ * individual instances should therefore include an instance-specific suffix in
+ * their name. A registration replaces any previous registration of the same name.
+ *
+ * <p>Registered caches do not pay for hit and miss tracking until their metrics
+ * are first read: {@link #getCacheMetrics} and {@link #getAllCacheMetrics}
+ * {@linkplain CacheMetrics#enableStatistics() enable the statistics} of the
+ * returned metrics, so counts start from the first read.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see MapCacheMetrics
+ */
+public final class CacheRegistry {
+
+	private static final Map<String, Registration> registrations = new ConcurrentHashMap<>(64);
+
+	private static final ReferenceQueue<CacheMetrics> queue = new ReferenceQueue<>();
+
+
+	private CacheRegistry() {
+	}
+
+
+	/**
+	 * Register the given cache metrics under the given name.
+	 * @param name the name of the cache
+	 * @param cacheMetrics the metrics of the cache (to be held by the owner of the cache)
+	 * @return the given metrics, for use in field initializers
+	 */
+	public static <T extends CacheMetrics> T register(String name, T cacheMetrics) {
+		Assert.hasText(name, "Cache name must not be empty");
+		Assert.notNull(cacheMetrics, "CacheMetrics must not be null");
+		removeClearedRegistrations();
+		registrations.put(name, new Registration(name, cacheMetrics, queue));
+		return cacheMetrics;
+	}
+
+	/**
+	 * Remove the registration for the given name, if any.
+	 * @param name the name of the cache
+	 */
+	public static void unregister(String name) {
+		registrations.remove(name);
+	}
+
+	/**
+	 * Return the metrics registered under the given name, enabling their
+	 * statistics if not done yet.
+	 * @param name the name of the cache
+	 * @return the cache metrics, or {@code null} if none registered
+	 */
+	@Nullable
+	public static CacheMetrics getCacheMetrics(String name) {
+		Registration registration = registrations.get(name);
+		CacheMetrics cacheMetrics = (registration != null ? registration.get() : null);
+		if (cacheMetrics != null) {
+			cacheMetrics.enableStatistics();
+		}
+		return cacheMetrics;
+	}
+
+	/**
+	 * Return a snapshot of all registered cache metrics, sorted by cache name,
+	 * enabling their statistics if not done yet.
+	 */
+	public static Map<String, CacheMetrics> getAllCacheMetrics() {
+		removeClearedRegistrations();
+		Map<String, CacheMetrics> result = new TreeMap<>();
+		registrations.forEach((name, registration) -> {
+			CacheMetrics cacheMetrics = registration.get();
+			if (cacheMetrics != null) {
+				cacheMetrics.enableStatistics();
+				result.put(name, cacheMetrics);
+			}
+		});
+		return result;
+	}
+
+	private static void removeClearedRegistrations() {
+		Registration registration;
+		while ((registration = (Registration) queue.poll()) != null) {
+			registrations.remove(registration.name, registration);
+		}
+	}
+
+
+	/**
+	 * Weak reference to registered cache metrics.
+	 */
+	private static final class Registration extends WeakReference<CacheMetrics> {
+
+		private final String name;
+
+		Registration(String name, CacheMetrics cacheMetrics, ReferenceQueue<CacheMetrics> queue) {
+			super(cacheMetrics, queue);
+			this.name = name;
+		}
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.Assert;
+import org.springframework.util.LockFreeReferenceHashMap;
+
+/**
+ * {@link CacheMetrics} implementation for a cache backed by a {@link Map}.
+ *
+ * <p>The size is taken from the map itself. Hits and misses are recorded by
+ * the owner of the cache through {@link #recordHit()} and {@link #recordMiss()},
+ * unless the map is a {@link LockFreeReferenceHashMap}: in that case, the
+ * {@linkplain LockFreeReferenceHashMap#enableStatistics() statistics of the map}
+ * are reported, including purged entries as evictions.
+ *
+ * <p>Hits and misses are only counted once {@link #enableStatistics()} has been
+ * called, typically by the {@link CacheRegistry} on the first read of the metrics,
+ * so that registering a cache does not slow down its lookups.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ */
+public class MapCacheMetrics implements CacheMetrics {
+
+	private final Map<?, ?> cache;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private volatile boolean statisticsEnabled;
+
+
+	/**
+	 * Create a new {@code MapCacheMetrics} instance for the given map.
+	 * @param cache the map holding the cached entries
+	 */
+	public MapCacheMetrics(Map<?, ?> cache) {
+		Assert.notNull(cache, "Cache map must not be null");
+		this.cache = cache;
+	}
+
+
+	/**
+	 * Start counting hits and misses, including the statistics of a
+	 * {@link LockFreeReferenceHashMap}.
+	 */
+	@Override
+	public void enableStatistics() {
+		if (!this.statisticsEnabled) {
+			if (this.cache instanceof LockFreeReferenceHashMap) {
+				((LockFreeReferenceHashMap<?, ?>) this.cache).enableStatistics();
+			}
+			this.statisticsEnabled = true;
+		}
+	}
+
+	/**
+	 * Return whether hits and misses are being counted.
+	 * @see #enableStatistics()
+	 */
+	public boolean isStatisticsEnabled() {
+		return this.statisticsEnabled;
+	}
+
+	/**
+	 * Record a lookup that has been served from the cache.
+	 * Ignored unless {@linkplain #enableStatistics() statistics are enabled}.
+	 */
+	public void recordHit() {
+		if (this.statisticsEnabled) {
+			this.hitCount.increment();
+		}
+	}
+
+	/**
+	 * Record a lookup that has not been served from the cache.
+	 * Ignored unless {@linkplain #enableStatistics() statistics are enabled}.
+	 */
+	public void recordMiss() {
+		if (this.statisticsEnabled) {
+			this.missCount.increment();
+		}
+	}
+
+	@Override
+	public long getSize() {
+		return this.cache.size();
+	}
+
+	@Override
+	public long getHitCount() {
+		if (this.cache instanceof LockFreeReferenceHashMap) {
+			return ((LockFreeReferenceHashMap<?, ?>) this.cache).getHitCount();
+		}
+		return this.hitCount.sum();
+	}
+
+	@Override
+	public long getMissCount() {
+		if (this.cache instanceof LockFreeReferenceHashMap) {
+			return ((LockFreeReferenceHashMap<?, ?>) this.cache).getMissCount();
+		}
+		return this.missCount.sum();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		if (this.cache instanceof LockFreeReferenceHashMap) {
+			return ((LockFreeReferenceHashMap<?, ?>) this.cache).getPurgeCount();
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return "MapCacheMetrics: size = " + getSize() + ", hits = " + getHitCount() +
+				", misses = " + getMissCount() + ", evictions = " + getEvictionCount();
+	}
+
+}
@@ -0,0 +1,10 @@
+/**
+ * Support package for recording metrics during application startup
+ * and for introspecting internal framework caches.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.core.metrics;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
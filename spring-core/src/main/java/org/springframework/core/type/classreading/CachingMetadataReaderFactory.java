@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -126,13 +126,18 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 			return metadataReader;
 		}
 		else if (this.metadataReaderCache != null) {
-			synchronized (this.metadataReaderCache) {
-				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
-					this.metadataReaderCache.put(resource, metadataReader);
+			Map<Resource, MetadataReader> cache = this.metadataReaderCache;
+			synchronized (cache) {
+				MetadataReader metadataReader = cache.get(resource);
+				if (metadataReader != null) {
+					return metadataReader;
 				}
-				return metadataReader;
+			}
+			// Read the class file outside of the lock, allowing for concurrent scanning
+			MetadataReader metadataReader = super.getMetadataReader(resource);
+			synchronized (cache) {
+				MetadataReader existing = cache.putIfAbsent(resource, metadataReader);
+				return (existing != null ? existing : metadataReader);
 			}
 		}
 		else {
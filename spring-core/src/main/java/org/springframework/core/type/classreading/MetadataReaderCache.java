@@ -0,0 +1,422 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotation.Adapt;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.io.Resource;
+import org.springframework.core.metrics.CacheMetrics;
+import org.springframework.core.metrics.CacheRegistry;
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Concurrent, size-bounded cache of {@link MetadataReader} instances that can
+ * be shared across {@link MetadataReaderFactory} instances, e.g. across all
+ * application contexts created in the same JVM.
+ *
+ * <p>Entries are keyed by the URL of the {@code .class} resource and the
+ * {@link ClassLoader} used to resolve annotation types, and are only reused
+ * as long as the last-modified timestamp of the resource has not changed.
+ * Resources that do not expose a URL are read without caching. The entries
+ * of each ClassLoader are held through a soft reference, so that the cache
+ * does not prevent a ClassLoader that is no longer in use (e.g. after a
+ * redeployment) from being garbage collected.
+ *
+ * <p>The cache is bounded by the estimated memory footprint of the cached
+ * metadata rather than by its number of entries: when the configured maximum
+ * size is exceeded, the least recently used entries are evicted. Hit, miss
+ * and eviction counts are tracked for monitoring purposes, and the
+ * {@linkplain #getSharedInstance() shared instance} is registered with the
+ * {@link CacheRegistry}.
+ *
+ * <p>This class is safe for concurrent use, including parallel classpath
+ * scanning. Concurrent misses for the same resource may parse the class file
+ * more than once; only the first result is retained.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see SharedMetadataReaderFactory
+ */
+public class MetadataReaderCache implements CacheMetrics {
+
+	/** Default maximum estimated size of the cached metadata: 32 MB. */
+	public static final long DEFAULT_MAX_SIZE = 32 * 1024 * 1024;
+
+	private static final MetadataReaderCache sharedInstance = CacheRegistry.register(
+			MetadataReaderCache.class.getName() + ".sharedInstance", new MetadataReaderCache());
+
+	private static final int OBJECT_OVERHEAD = 16;
+
+	private static final int REFERENCE_SIZE = 8;
+
+
+	private final ConcurrentMap<ClassLoader, ClassLoaderEntries> entries = new ConcurrentReferenceHashMap<>(16);
+
+	private final long maxSize;
+
+	private final AtomicLong accessCounter = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final Object evictionMonitor = new Object();
+
+
+	/**
+	 * Create a new {@code MetadataReaderCache} with the
+	 * {@linkplain #DEFAULT_MAX_SIZE default maximum size}.
+	 */
+	public MetadataReaderCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Create a new {@code MetadataReaderCache} with the given maximum size.
+	 * @param maxSize the maximum estimated size of the cached metadata, in bytes
+	 */
+	public MetadataReaderCache(long maxSize) {
+		Assert.isTrue(maxSize > 0, "Maximum size must be positive");
+		this.maxSize = maxSize;
+	}
+
+
+	/**
+	 * Return the JVM-wide {@code MetadataReaderCache} used by default by
+	 * {@link SharedMetadataReaderFactory} instances.
+	 */
+	public static MetadataReaderCache getSharedInstance() {
+		return sharedInstance;
+	}
+
+
+	/**
+	 * Obtain a {@link MetadataReader} for the given resource, reading the
+	 * class file only if no up-to-date entry is cached.
+	 * @param resource the resource (pointing to a ".class" file)
+	 * @param classLoader the ClassLoader to use for resolving annotation types
+	 * @return the MetadataReader instance (never {@code null})
+	 * @throws IOException in case of I/O failure
+	 */
+	public MetadataReader getMetadataReader(Resource resource, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		String url;
+		long lastModified;
+		try {
+			url = resource.getURL().toString();
+			lastModified = resource.lastModified();
+		}
+		catch (IOException ex) {
+			// No URL or timestamp available (e.g. in-memory resource) -> not cacheable.
+			return new SimpleMetadataReader(resource, classLoader);
+		}
+
+		ClassLoaderEntries loaderEntries = this.entries.computeIfAbsent(classLoader, key -> new ClassLoaderEntries());
+		CacheEntry entry = loaderEntries.entries.get(url);
+		if (entry != null && entry.lastModified == lastModified) {
+			entry.lastAccess = this.accessCounter.incrementAndGet();
+			this.hitCount.incrementAndGet();
+			return entry.metadataReader;
+		}
+
+		this.missCount.incrementAndGet();
+		MetadataReader metadataReader = new SimpleMetadataReader(resource, classLoader);
+		CacheEntry newEntry = new CacheEntry(loaderEntries, url, metadataReader, lastModified, this.accessCounter.incrementAndGet());
+		if (entry != null) {
+			if (loaderEntries.entries.replace(url, entry, newEntry)) {
+				loaderEntries.estimatedSize.addAndGet(newEntry.getSize() - entry.getSize());
+			}
+		}
+		else {
+			CacheEntry existing = loaderEntries.entries.putIfAbsent(url, newEntry);
+			if (existing != null && existing.lastModified == lastModified) {
+				// Lost the race against a concurrent reader for the same resource.
+				return existing.metadataReader;
+			}
+			if (existing == null) {
+				loaderEntries.estimatedSize.addAndGet(newEntry.getSize());
+			}
+		}
+		if (getEstimatedSize() > this.maxSize) {
+			evict();
+		}
+		return metadataReader;
+	}
+
+	/**
+	 * Evict the least recently used entries until the estimated size drops
+	 * to 75% of the maximum size, leaving room for subsequent additions.
+	 */
+	private void evict() {
+		synchronized (this.evictionMonitor) {
+			long estimatedSize = getEstimatedSize();
+			if (estimatedSize <= this.maxSize) {
+				return;
+			}
+			List<CacheEntry> candidates = new ArrayList<>();
+			for (ClassLoaderEntries loaderEntries : this.entries.values()) {
+				candidates.addAll(loaderEntries.entries.values());
+			}
+			candidates.sort((e1, e2) -> Long.compare(e1.lastAccess, e2.lastAccess));
+			long targetSize = this.maxSize / 4 * 3;
+			for (CacheEntry entry : candidates) {
+				if (estimatedSize <= targetSize) {
+					break;
+				}
+				if (entry.owner.entries.remove(entry.url, entry)) {
+					entry.owner.estimatedSize.addAndGet(-entry.getSize());
+					estimatedSize -= entry.getSize();
+					this.evictionCount.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all entries from this cache and reset its statistics.
+	 */
+	public void clear() {
+		synchronized (this.evictionMonitor) {
+			this.entries.clear();
+			this.hitCount.set(0);
+			this.missCount.set(0);
+			this.evictionCount.set(0);
+		}
+	}
+
+
+	/**
+	 * Return the maximum estimated size of the cached metadata, in bytes.
+	 */
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Return the number of entries currently held in this cache.
+	 */
+	public int size() {
+		int size = 0;
+		for (ClassLoaderEntries loaderEntries : this.entries.values()) {
+			size += loaderEntries.entries.size();
+		}
+		return size;
+	}
+
+	@Override
+	public long getSize() {
+		return size();
+	}
+
+	/**
+	 * Return the estimated memory footprint of the cached metadata, in bytes.
+	 */
+	@Override
+	public long getEstimatedSize() {
+		long estimatedSize = 0;
+		for (ClassLoaderEntries loaderEntries : this.entries.values()) {
+			estimatedSize += loaderEntries.estimatedSize.get();
+		}
+		return estimatedSize;
+	}
+
+	/**
+	 * Return the number of lookups served from this cache.
+	 */
+	@Override
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of lookups that required the class file to be read,
+	 * including lookups for stale entries.
+	 */
+	@Override
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the number of entries evicted in order to stay within the
+	 * {@linkplain #getMaxSize() maximum size}.
+	 */
+	@Override
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this)
+				.append("size", size())
+				.append("estimatedSize", getEstimatedSize())
+				.append("maxSize", getMaxSize())
+				.append("hitCount", getHitCount())
+				.append("missCount", getMissCount())
+				.append("evictionCount", getEvictionCount())
+				.toString();
+	}
+
+
+	/**
+	 * Estimate the memory footprint of the given metadata: a rough
+	 * approximation based on the retained strings, methods and annotation
+	 * attribute values, not an exact measurement.
+	 */
+	private static long estimateSize(String url, AnnotationMetadata metadata) {
+		long size = 4 * OBJECT_OVERHEAD + estimateSize(url);
+		size += estimateSize(metadata.getClassName());
+		size += estimateSize(metadata.getSuperClassName());
+		size += estimateSize(metadata.getEnclosingClassName());
+		size += estimateSize(metadata.getInterfaceNames());
+		size += estimateSize(metadata.getMemberClassNames());
+		size += estimateAnnotationsSize(metadata.getAnnotations());
+		if (metadata instanceof SimpleAnnotationMetadata) {
+			for (MethodMetadata method : ((SimpleAnnotationMetadata) metadata).getDeclaredAnnotatedMethods()) {
+				size += 2 * OBJECT_OVERHEAD + estimateSize(method.getMethodName()) +
+						estimateSize(method.getReturnTypeName()) +
+						estimateAnnotationsSize(method.getAnnotations());
+			}
+		}
+		return size;
+	}
+
+	private static long estimateAnnotationsSize(MergedAnnotations annotations) {
+		return annotations.stream().filter(MergedAnnotation::isDirectlyPresent)
+				.mapToLong(MetadataReaderCache::estimateAnnotationSize).sum();
+	}
+
+	private static long estimateAnnotationSize(MergedAnnotation<?> annotation) {
+		try {
+			return 2 * OBJECT_OVERHEAD + estimateSize(annotation.asMap(Adapt.CLASS_TO_STRING, Adapt.ANNOTATION_TO_MAP));
+		}
+		catch (RuntimeException ex) {
+			// Attribute values not resolvable -> count the annotation itself only.
+			return 2 * OBJECT_OVERHEAD;
+		}
+	}
+
+	private static long estimateSize(@Nullable Object value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof String) {
+			return OBJECT_OVERHEAD + 24 + 2L * ((String) value).length();
+		}
+		if (value instanceof Map) {
+			long size = 3 * OBJECT_OVERHEAD;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				size += OBJECT_OVERHEAD + 2 * REFERENCE_SIZE + estimateSize(entry.getValue());
+			}
+			return size;
+		}
+		if (value instanceof Collection) {
+			long size = OBJECT_OVERHEAD;
+			for (Object element : (Collection<?>) value) {
+				size += REFERENCE_SIZE + estimateSize(element);
+			}
+			return size;
+		}
+		if (value instanceof Object[]) {
+			long size = OBJECT_OVERHEAD;
+			for (Object element : (Object[]) value) {
+				size += REFERENCE_SIZE + estimateSize(element);
+			}
+			return size;
+		}
+		if (value.getClass().isArray()) {
+			return OBJECT_OVERHEAD + 8L * Array.getLength(value);
+		}
+		return OBJECT_OVERHEAD;
+	}
+
+
+	/**
+	 * The entries cached for a given ClassLoader, keyed by resource URL.
+	 */
+	private static final class ClassLoaderEntries {
+
+		final ConcurrentHashMap<String, CacheEntry> entries = new ConcurrentHashMap<>(256);
+
+		final AtomicLong estimatedSize = new AtomicLong();
+	}
+
+
+	private static final class CacheEntry {
+
+		final ClassLoaderEntries owner;
+
+		final String url;
+
+		final MetadataReader metadataReader;
+
+		final long lastModified;
+
+		volatile long lastAccess;
+
+		private volatile long size = -1;
+
+		CacheEntry(ClassLoaderEntries owner, String url, MetadataReader metadataReader,
+				long lastModified, long lastAccess) {
+
+			this.owner = owner;
+			this.url = url;
+			this.metadataReader = metadataReader;
+			this.lastModified = lastModified;
+			this.lastAccess = lastAccess;
+		}
+
+		/**
+		 * Return the estimated size of this entry, computed on first access
+		 * once the entry has been added to the cache.
+		 */
+		long getSize() {
+			long size = this.size;
+			if (size < 0) {
+				synchronized (this) {
+					size = this.size;
+					if (size < 0) {
+						size = estimateSize(this.url, this.metadataReader.getAnnotationMetadata());
+						this.size = size;
+					}
+				}
+			}
+			return size;
+		}
+	}
+
+}
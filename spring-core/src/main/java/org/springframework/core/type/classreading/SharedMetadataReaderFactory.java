@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link MetadataReaderFactory} backed by a {@link MetadataReaderCache} that
+ * may be shared with other factories, by default the JVM-wide
+ * {@linkplain MetadataReaderCache#getSharedInstance() shared instance}.
+ *
+ * <p>In contrast to {@link CachingMetadataReaderFactory}, whose cache is local
+ * to a single factory (and therefore typically to a single application context),
+ * class files parsed by one factory are reused by all others, which pays off
+ * when many contexts scan the same jars, e.g. in test suites or for
+ * multi-tenant child contexts. This factory is safe for concurrent use.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see MetadataReaderCache
+ */
+public class SharedMetadataReaderFactory extends SimpleMetadataReaderFactory {
+
+	private final MetadataReaderCache metadataReaderCache;
+
+
+	/**
+	 * Create a new SharedMetadataReaderFactory for the default class loader,
+	 * using the shared cache.
+	 */
+	public SharedMetadataReaderFactory() {
+		this((ResourceLoader) null);
+	}
+
+	/**
+	 * Create a new SharedMetadataReaderFactory for the given {@link ClassLoader},
+	 * using the shared cache.
+	 * @param classLoader the ClassLoader to use
+	 */
+	public SharedMetadataReaderFactory(@Nullable ClassLoader classLoader) {
+		super(classLoader);
+		this.metadataReaderCache = MetadataReaderCache.getSharedInstance();
+	}
+
+	/**
+	 * Create a new SharedMetadataReaderFactory for the given {@link ResourceLoader},
+	 * using the shared cache.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 */
+	public SharedMetadataReaderFactory(@Nullable ResourceLoader resourceLoader) {
+		this(resourceLoader, MetadataReaderCache.getSharedInstance());
+	}
+
+	/**
+	 * Create a new SharedMetadataReaderFactory for the given {@link ResourceLoader},
+	 * using the given cache.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 * @param metadataReaderCache the cache to use
+	 */
+	public SharedMetadataReaderFactory(@Nullable ResourceLoader resourceLoader,
+			MetadataReaderCache metadataReaderCache) {
+
+		super(resourceLoader);
+		Assert.notNull(metadataReaderCache, "MetadataReaderCache must not be null");
+		this.metadataReaderCache = metadataReaderCache;
+	}
+
+
+	/**
+	 * Return the cache that this MetadataReaderFactory uses.
+	 */
+	public final MetadataReaderCache getMetadataReaderCache() {
+		return this.metadataReaderCache;
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		return this.metadataReaderCache.getMetadataReader(resource, getResourceLoader().getClassLoader());
+	}
+
+}
@@ -0,0 +1,1044 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+
+/**
+ * A {@link ConcurrentMap} that uses {@link ReferenceType#SOFT soft} or
+ * {@linkplain ReferenceType#WEAK weak} references for both {@code keys} and
+ * {@code values}, with non-blocking reads and writes.
+ *
+ * <p>This class is a drop-in alternative to {@link ConcurrentReferenceHashMap},
+ * offering the same constructors and the same support for {@code null} keys
+ * and {@code null} values, but without any locking: lookups never block and
+ * never restructure the map, insertions are performed through compare-and-set
+ * on the head of a hash bin, and removals first mark the entry as removed and
+ * then unlink it from its bin. Growing the table is performed by a single
+ * writer while other threads continue to read and write; operations on bins
+ * that have already been transferred are forwarded to the new table.
+ *
+ * <p>Entries whose references have been cleared by the garbage collector are
+ * purged incrementally: every write operation drains a small, bounded number
+ * of references from the reference queue, so that no single caller pays for
+ * a full restructuring after a garbage collection. Use
+ * {@link #purgeUnreferencedEntries()} to drain the queue completely.
+ *
+ * <p>Once {@linkplain #enableStatistics() enabled}, hit, miss and purge counts
+ * are recorded for {@link #get} and {@link #getOrDefault} lookups and for
+ * purged entries, respectively, and are exposed via {@link #getHitCount()},
+ * {@link #getMissCount()} and {@link #getPurgeCount()}. Statistics are not
+ * recorded by default, so that lookups do not pay for counters that nobody
+ * reads.
+ *
+ * <p><b>NOTE:</b> The use of references means that there is no guarantee that
+ * items placed into the map will be subsequently available. The garbage
+ * collector may discard references at any time, so it may appear that an
+ * unknown thread is silently removing entries.
+ *
+ * <p>If not explicitly specified, this implementation will use
+ * {@linkplain SoftReference soft entry references}.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see ConcurrentReferenceHashMap
+ */
+public class LockFreeReferenceHashMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+	private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	private static final ReferenceType DEFAULT_REFERENCE_TYPE = ReferenceType.SOFT;
+
+	private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+
+	/**
+	 * The maximum number of cleared references to purge per write operation.
+	 */
+	private static final int PURGE_BATCH_SIZE = 16;
+
+	/**
+	 * Marker value for entries that have been removed from the map.
+	 */
+	private static final Object REMOVED = new Object();
+
+
+	private final float loadFactor;
+
+	private final ReferenceType referenceType;
+
+	private final ReferenceQueue<Entry<K, V>> queue = new ReferenceQueue<>();
+
+	/**
+	 * The current table. Bins that have been transferred to a larger table
+	 * contain a {@link ForwardingNode} pointing to that table.
+	 */
+	private volatile Table<K, V> table;
+
+	private final AtomicBoolean resizing = new AtomicBoolean();
+
+	/**
+	 * The number of nodes linked into the current table. This includes nodes
+	 * whose references have been garbage collected but not purged yet.
+	 */
+	private final AtomicInteger count = new AtomicInteger();
+
+	@Nullable
+	private volatile Statistics statistics;
+
+	/**
+	 * Late binding entry set.
+	 */
+	@Nullable
+	private volatile Set<Map.Entry<K, V>> entrySet;
+
+
+	/**
+	 * Create a new {@code LockFreeReferenceHashMap} instance.
+	 */
+	public LockFreeReferenceHashMap() {
+		this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL, DEFAULT_REFERENCE_TYPE);
+	}
+
+	/**
+	 * Create a new {@code LockFreeReferenceHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 */
+	public LockFreeReferenceHashMap(int initialCapacity) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL, DEFAULT_REFERENCE_TYPE);
+	}
+
+	/**
+	 * Create a new {@code LockFreeReferenceHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param loadFactor the load factor. When the average number of references per
+	 * bin exceeds this value, resize will be attempted.
+	 */
+	public LockFreeReferenceHashMap(int initialCapacity, float loadFactor) {
+		this(initialCapacity, loadFactor, DEFAULT_CONCURRENCY_LEVEL, DEFAULT_REFERENCE_TYPE);
+	}
+
+	/**
+	 * Create a new {@code LockFreeReferenceHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param concurrencyLevel the expected number of threads that will concurrently
+	 * write to the map (only validated, for compatibility with {@link ConcurrentReferenceHashMap})
+	 */
+	public LockFreeReferenceHashMap(int initialCapacity, int concurrencyLevel) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, concurrencyLevel, DEFAULT_REFERENCE_TYPE);
+	}
+
+	/**
+	 * Create a new {@code LockFreeReferenceHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param referenceType the reference type used for entries (soft or weak)
+	 */
+	public LockFreeReferenceHashMap(int initialCapacity, ReferenceType referenceType) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL, referenceType);
+	}
+
+	/**
+	 * Create a new {@code LockFreeReferenceHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param loadFactor the load factor. When the average number of references per
+	 * bin exceeds this value, resize will be attempted.
+	 * @param concurrencyLevel the expected number of threads that will concurrently
+	 * write to the map (only validated, for compatibility with {@link ConcurrentReferenceHashMap})
+	 */
+	public LockFreeReferenceHashMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
+		this(initialCapacity, loadFactor, concurrencyLevel, DEFAULT_REFERENCE_TYPE);
+	}
+
+	/**
+	 * Create a new {@code LockFreeReferenceHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param loadFactor the load factor. When the average number of references per
+	 * bin exceeds this value, resize will be attempted.
+	 * @param concurrencyLevel the expected number of threads that will concurrently
+	 * write to the map (only validated, for compatibility with {@link ConcurrentReferenceHashMap})
+	 * @param referenceType the reference type used for entries (soft or weak)
+	 */
+	public LockFreeReferenceHashMap(
+			int initialCapacity, float loadFactor, int concurrencyLevel, ReferenceType referenceType) {
+
+		Assert.isTrue(initialCapacity >= 0, "Initial capacity must not be negative");
+		Assert.isTrue(loadFactor > 0f, "Load factor must be positive");
+		Assert.isTrue(concurrencyLevel > 0, "Concurrency level must be positive");
+		Assert.notNull(referenceType, "Reference type must not be null");
+		this.loadFactor = loadFactor;
+		this.referenceType = referenceType;
+		long requiredSize = (long) Math.ceil(initialCapacity / (double) loadFactor);
+		int size = 1;
+		while (size < requiredSize && size < MAXIMUM_TABLE_SIZE) {
+			size <<= 1;
+		}
+		this.table = new Table<>(size, loadFactor);
+	}
+
+
+	protected final float getLoadFactor() {
+		return this.loadFactor;
+	}
+
+	/**
+	 * Return the reference type used for entries (soft or weak).
+	 */
+	public final ReferenceType getReferenceType() {
+		return this.referenceType;
+	}
+
+	/**
+	 * Get the hash for a given object, apply an additional hash function to reduce
+	 * collisions. This implementation uses the same Wang/Jenkins algorithm as
+	 * {@link ConcurrentReferenceHashMap}. Subclasses can override to provide
+	 * alternative hashing.
+	 * @param o the object to hash (may be null)
+	 * @return the resulting hash code
+	 */
+	protected int getHash(@Nullable Object o) {
+		int hash = (o != null ? o.hashCode() : 0);
+		hash += (hash << 15) ^ 0xffffcd7d;
+		hash ^= (hash >>> 10);
+		hash += (hash << 3);
+		hash ^= (hash >>> 6);
+		hash += (hash << 2) + (hash << 14);
+		hash ^= (hash >>> 16);
+		return hash;
+	}
+
+	@Override
+	@Nullable
+	public V get(@Nullable Object key) {
+		return getOrDefault(key, null);
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V getOrDefault(@Nullable Object key, @Nullable V defaultValue) {
+		Entry<K, V> entry = findEntry(key, getHash(key));
+		Statistics statistics = this.statistics;
+		if (entry != null) {
+			Object value = entry.value;
+			if (value != REMOVED) {
+				if (statistics != null) {
+					statistics.hitCount.increment();
+				}
+				return (V) value;
+			}
+		}
+		if (statistics != null) {
+			statistics.missCount.increment();
+		}
+		return defaultValue;
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key) {
+		return (findEntry(key, getHash(key)) != null);
+	}
+
+	@Override
+	@Nullable
+	public V put(@Nullable K key, @Nullable V value) {
+		return put(key, value, true);
+	}
+
+	@Override
+	@Nullable
+	public V putIfAbsent(@Nullable K key, @Nullable V value) {
+		return put(key, value, false);
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private V put(@Nullable K key, @Nullable V value, boolean overwriteExisting) {
+		purgeUnreferencedEntries(PURGE_BATCH_SIZE);
+		int hash = getHash(key);
+		Table<K, V> table = this.table;
+		while (true) {
+			int index = table.indexFor(hash);
+			Node<K, V> head = table.bins.get(index);
+			if (head instanceof ForwardingNode) {
+				table = ((ForwardingNode<K, V>) head).nextTable;
+				continue;
+			}
+			Entry<K, V> existing = findInChain(head, key, hash);
+			if (existing != null) {
+				Object oldValue = (overwriteExisting ? existing.setValueIfPresent(value) : existing.value);
+				if (oldValue != REMOVED) {
+					return (V) oldValue;
+				}
+				// Removed concurrently: start over, inserting a new entry
+				continue;
+			}
+			Entry<K, V> entry = new Entry<>(key, value);
+			if (table.bins.compareAndSet(index, head, createNode(entry, hash, head))) {
+				int newCount = this.count.incrementAndGet();
+				if (newCount > table.threshold) {
+					resize(table);
+				}
+				return null;
+			}
+		}
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V remove(@Nullable Object key) {
+		purgeUnreferencedEntries(PURGE_BATCH_SIZE);
+		int hash = getHash(key);
+		Entry<K, V> entry = findEntry(key, hash);
+		if (entry == null) {
+			return null;
+		}
+		Object oldValue = entry.markRemoved();
+		if (oldValue == REMOVED) {
+			return null;
+		}
+		unlinkDeadNodes(hash);
+		return (V) oldValue;
+	}
+
+	@Override
+	public boolean remove(@Nullable Object key, @Nullable Object value) {
+		purgeUnreferencedEntries(PURGE_BATCH_SIZE);
+		int hash = getHash(key);
+		Entry<K, V> entry = findEntry(key, hash);
+		while (entry != null) {
+			Object currentValue = entry.value;
+			if (currentValue == REMOVED || !ObjectUtils.nullSafeEquals(currentValue, value)) {
+				return false;
+			}
+			if (entry.compareAndSetValue(currentValue, REMOVED)) {
+				unlinkDeadNodes(hash);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean replace(@Nullable K key, @Nullable V oldValue, @Nullable V newValue) {
+		purgeUnreferencedEntries(PURGE_BATCH_SIZE);
+		Entry<K, V> entry = findEntry(key, getHash(key));
+		while (entry != null) {
+			Object currentValue = entry.value;
+			if (currentValue == REMOVED || !ObjectUtils.nullSafeEquals(currentValue, oldValue)) {
+				return false;
+			}
+			if (entry.compareAndSetValue(currentValue, newValue)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V replace(@Nullable K key, @Nullable V value) {
+		purgeUnreferencedEntries(PURGE_BATCH_SIZE);
+		Entry<K, V> entry = findEntry(key, getHash(key));
+		if (entry == null) {
+			return null;
+		}
+		Object oldValue = entry.setValueIfPresent(value);
+		return (oldValue != REMOVED ? (V) oldValue : null);
+	}
+
+	@Override
+	public void clear() {
+		for (Iterator<Map.Entry<K, V>> it = entrySet().iterator(); it.hasNext();) {
+			it.next();
+			it.remove();
+		}
+		purgeUnreferencedEntries();
+	}
+
+	/**
+	 * Remove any entries that have been garbage collected and are no longer referenced.
+	 * Under normal circumstances garbage collected entries are purged incrementally as
+	 * items are added or removed from the Map. This method can be used to force a purge,
+	 * and is useful when the Map is read frequently but updated less often.
+	 */
+	public void purgeUnreferencedEntries() {
+		purgeUnreferencedEntries(Integer.MAX_VALUE);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void purgeUnreferencedEntries(int maxReferences) {
+		for (int i = 0; i < maxReferences; i++) {
+			Node<K, V> node = (Node<K, V>) this.queue.poll();
+			if (node == null) {
+				return;
+			}
+			unlinkDeadNodes(node.getHash());
+		}
+	}
+
+	@Override
+	public int size() {
+		return Math.max(this.count.get(), 0);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		Set<Map.Entry<K, V>> entrySet = this.entrySet;
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+			this.entrySet = entrySet;
+		}
+		return entrySet;
+	}
+
+	/**
+	 * Start recording hit, miss and purge counts, if not recorded already.
+	 * @see org.springframework.core.metrics.MapCacheMetrics
+	 */
+	public synchronized void enableStatistics() {
+		if (this.statistics == null) {
+			this.statistics = new Statistics();
+		}
+	}
+
+	/**
+	 * Return whether hit, miss and purge counts are recorded.
+	 * @see #enableStatistics()
+	 */
+	public boolean isStatisticsEnabled() {
+		return (this.statistics != null);
+	}
+
+	/**
+	 * Return the number of lookups that found a value, or {@code 0} if
+	 * statistics are not enabled.
+	 * @see #get
+	 * @see #getOrDefault
+	 */
+	public long getHitCount() {
+		Statistics statistics = this.statistics;
+		return (statistics != null ? statistics.hitCount.sum() : 0);
+	}
+
+	/**
+	 * Return the number of lookups that did not find a value, or {@code 0} if
+	 * statistics are not enabled.
+	 * @see #get
+	 * @see #getOrDefault
+	 */
+	public long getMissCount() {
+		Statistics statistics = this.statistics;
+		return (statistics != null ? statistics.missCount.sum() : 0);
+	}
+
+	/**
+	 * Return the number of entries that have been purged from the map since
+	 * their references had been cleared by the garbage collector, or {@code 0}
+	 * if statistics are not enabled.
+	 */
+	public long getPurgeCount() {
+		Statistics statistics = this.statistics;
+		return (statistics != null ? statistics.purgeCount.sum() : 0);
+	}
+
+	/**
+	 * Reset the hit, miss and purge counts.
+	 */
+	public void resetStatistics() {
+		Statistics statistics = this.statistics;
+		if (statistics != null) {
+			statistics.hitCount.reset();
+			statistics.missCount.reset();
+			statistics.purgeCount.reset();
+		}
+	}
+
+	private void recordPurges(int purged) {
+		Statistics statistics = this.statistics;
+		if (statistics != null && purged > 0) {
+			statistics.purgeCount.add(purged);
+		}
+	}
+
+	/**
+	 * Clear and enqueue the references of the entries with matching keys,
+	 * just like the garbage collector would. For testing purposes only.
+	 * @param keyFilter the keys of the entries to clear
+	 */
+	@SuppressWarnings("unchecked")
+	void clearReferences(Predicate<? super K> keyFilter) {
+		Table<K, V> table = this.table;
+		for (int i = 0; i < table.length(); i++) {
+			for (Node<K, V> node = table.bins.get(i); node instanceof Reference; node = node.getNext()) {
+				Entry<K, V> entry = node.getEntry();
+				if (entry != null && keyFilter.test(entry.getKey())) {
+					((Reference<Entry<K, V>>) node).clear();
+					((Reference<Entry<K, V>>) node).enqueue();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Factory method used to create a new {@link Node} for the given entry.
+	 * @param entry the entry to reference
+	 * @param hash the hash of the entry's key
+	 * @param next the next node in the chain, or {@code null} if none
+	 * @return a new node
+	 */
+	private Node<K, V> createNode(Entry<K, V> entry, int hash, @Nullable Node<K, V> next) {
+		if (this.referenceType == ReferenceType.WEAK) {
+			return new WeakEntryNode<>(entry, hash, next, this.queue);
+		}
+		return new SoftEntryNode<>(entry, hash, next, this.queue);
+	}
+
+	/**
+	 * Lock-free lookup of the live entry for the given key.
+	 */
+	@Nullable
+	private Entry<K, V> findEntry(@Nullable Object key, int hash) {
+		Table<K, V> table = this.table;
+		while (true) {
+			Node<K, V> head = table.bins.get(table.indexFor(hash));
+			if (head instanceof ForwardingNode) {
+				table = ((ForwardingNode<K, V>) head).nextTable;
+				continue;
+			}
+			return findInChain(head, key, hash);
+		}
+	}
+
+	@Nullable
+	private Entry<K, V> findInChain(@Nullable Node<K, V> node, @Nullable Object key, int hash) {
+		while (node != null) {
+			if (node.getHash() == hash) {
+				Entry<K, V> entry = node.getEntry();
+				if (entry != null && entry.value != REMOVED && ObjectUtils.nullSafeEquals(entry.key, key)) {
+					return entry;
+				}
+			}
+			node = node.getNext();
+		}
+		return null;
+	}
+
+	/**
+	 * Unlink all removed and garbage collected nodes from the bin for the given hash.
+	 */
+	private void unlinkDeadNodes(int hash) {
+		Table<K, V> table = this.table;
+		while (true) {
+			int index = table.indexFor(hash);
+			Node<K, V> head = table.bins.get(index);
+			if (head instanceof ForwardingNode) {
+				table = ((ForwardingNode<K, V>) head).nextTable;
+				continue;
+			}
+			int dead = 0;
+			int purged = 0;
+			Node<K, V> rebuilt = null;
+			for (Node<K, V> node = head; node != null; node = node.getNext()) {
+				Entry<K, V> entry = node.getEntry();
+				if (entry == null) {
+					dead++;
+					purged++;
+				}
+				else if (entry.value == REMOVED) {
+					dead++;
+				}
+				else {
+					rebuilt = createNode(entry, node.getHash(), rebuilt);
+				}
+			}
+			if (dead == 0) {
+				return;
+			}
+			if (table.bins.compareAndSet(index, head, rebuilt)) {
+				this.count.addAndGet(-dead);
+				recordPurges(purged);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Transfer all bins of the given table to a table of twice the size.
+	 * Only one thread resizes at any time; other threads keep reading from and
+	 * writing to the bins of the old table until these have been forwarded.
+	 */
+	private void resize(Table<K, V> current) {
+		if (current.length() >= MAXIMUM_TABLE_SIZE || !this.resizing.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			if (this.table != current) {
+				return;
+			}
+			int length = current.length();
+			Table<K, V> next = new Table<>(length << 1, this.loadFactor);
+			ForwardingNode<K, V> forwardingNode = new ForwardingNode<>(next);
+			for (int i = 0; i < length; i++) {
+				while (true) {
+					Node<K, V> head = current.bins.get(i);
+					Node<K, V> low = null;
+					Node<K, V> high = null;
+					int dead = 0;
+					int purged = 0;
+					for (Node<K, V> node = head; node != null; node = node.getNext()) {
+						Entry<K, V> entry = node.getEntry();
+						if (entry == null) {
+							dead++;
+							purged++;
+						}
+						else if (entry.value == REMOVED) {
+							dead++;
+						}
+						else if ((node.getHash() & length) == 0) {
+							low = createNode(entry, node.getHash(), low);
+						}
+						else {
+							high = createNode(entry, node.getHash(), high);
+						}
+					}
+					// Not visible to other threads before the old bin has been forwarded
+					next.bins.set(i, low);
+					next.bins.set(i + length, high);
+					if (current.bins.compareAndSet(i, head, forwardingNode)) {
+						this.count.addAndGet(-dead);
+						recordPurges(purged);
+						break;
+					}
+				}
+			}
+			this.table = next;
+		}
+		finally {
+			this.resizing.set(false);
+		}
+		Table<K, V> table = this.table;
+		if (this.count.get() > table.threshold) {
+			resize(table);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ": size = " + size() + ", hits = " + getHitCount() +
+				", misses = " + getMissCount() + ", purged = " + getPurgeCount();
+	}
+
+
+	/**
+	 * A table of bins, each containing a chain of {@link Node Nodes}.
+	 */
+	private static final class Table<K, V> {
+
+		final AtomicReferenceArray<Node<K, V>> bins;
+
+		final int threshold;
+
+		Table(int length, float loadFactor) {
+			this.bins = new AtomicReferenceArray<>(length);
+			this.threshold = (int) Math.min(length * (double) loadFactor, Integer.MAX_VALUE);
+		}
+
+		int length() {
+			return this.bins.length();
+		}
+
+		int indexFor(int hash) {
+			return (hash & (this.bins.length() - 1));
+		}
+	}
+
+
+	/**
+	 * An immutable node in the chain of a bin, referencing an {@link Entry}.
+	 * @param <K> the key type
+	 * @param <V> the value type
+	 */
+	private interface Node<K, V> {
+
+		/**
+		 * Return the referenced entry or {@code null} if not available.
+		 */
+		@Nullable
+		Entry<K, V> getEntry();
+
+		/**
+		 * Return the hash for the reference.
+		 */
+		int getHash();
+
+		/**
+		 * Return the next node in the chain, or {@code null} if none.
+		 */
+		@Nullable
+		Node<K, V> getNext();
+	}
+
+
+	/**
+	 * Hit, miss and purge counts, once statistics are enabled.
+	 */
+	private static final class Statistics {
+
+		final LongAdder hitCount = new LongAdder();
+
+		final LongAdder missCount = new LongAdder();
+
+		final LongAdder purgeCount = new LongAdder();
+	}
+
+
+	/**
+	 * Marker node for a bin that has been transferred to a larger table.
+	 */
+	private static final class ForwardingNode<K, V> implements Node<K, V> {
+
+		final Table<K, V> nextTable;
+
+		ForwardingNode(Table<K, V> nextTable) {
+			this.nextTable = nextTable;
+		}
+
+		@Override
+		@Nullable
+		public Entry<K, V> getEntry() {
+			return null;
+		}
+
+		@Override
+		public int getHash() {
+			return 0;
+		}
+
+		@Override
+		@Nullable
+		public Node<K, V> getNext() {
+			return null;
+		}
+	}
+
+
+	/**
+	 * Internal {@link Node} implementation for {@link SoftReference SoftReferences}.
+	 */
+	private static final class SoftEntryNode<K, V> extends SoftReference<Entry<K, V>> implements Node<K, V> {
+
+		private final int hash;
+
+		@Nullable
+		private final Node<K, V> nextNode;
+
+		SoftEntryNode(Entry<K, V> entry, int hash, @Nullable Node<K, V> next, ReferenceQueue<Entry<K, V>> queue) {
+			super(entry, queue);
+			this.hash = hash;
+			this.nextNode = next;
+		}
+
+		@Override
+		@Nullable
+		public Entry<K, V> getEntry() {
+			return get();
+		}
+
+		@Override
+		public int getHash() {
+			return this.hash;
+		}
+
+		@Override
+		@Nullable
+		public Node<K, V> getNext() {
+			return this.nextNode;
+		}
+	}
+
+
+	/**
+	 * Internal {@link Node} implementation for {@link WeakReference WeakReferences}.
+	 */
+	private static final class WeakEntryNode<K, V> extends WeakReference<Entry<K, V>> implements Node<K, V> {
+
+		private final int hash;
+
+		@Nullable
+		private final Node<K, V> nextNode;
+
+		WeakEntryNode(Entry<K, V> entry, int hash, @Nullable Node<K, V> next, ReferenceQueue<Entry<K, V>> queue) {
+			super(entry, queue);
+			this.hash = hash;
+			this.nextNode = next;
+		}
+
+		@Override
+		@Nullable
+		public Entry<K, V> getEntry() {
+			return get();
+		}
+
+		@Override
+		public int getHash() {
+			return this.hash;
+		}
+
+		@Override
+		@Nullable
+		public Node<K, V> getNext() {
+			return this.nextNode;
+		}
+	}
+
+
+	/**
+	 * A single map entry. The value is updated through compare-and-set and
+	 * set to a marker once the entry has been removed from the map.
+	 * @param <K> the key type
+	 * @param <V> the value type
+	 */
+	protected static final class Entry<K, V> implements Map.Entry<K, V> {
+
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<Entry, Object> valueUpdater =
+				AtomicReferenceFieldUpdater.newUpdater(Entry.class, Object.class, "value");
+
+		@Nullable
+		private final K key;
+
+		@Nullable
+		private volatile Object value;
+
+		Entry(@Nullable K key, @Nullable V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		@Nullable
+		public K getKey() {
+			return this.key;
+		}
+
+		@Override
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public V getValue() {
+			Object value = this.value;
+			return (value != REMOVED ? (V) value : null);
+		}
+
+		/**
+		 * Set the value of this entry, unless it has been removed from the map
+		 * in the meantime (in which case the value remains unchanged).
+		 */
+		@Override
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public V setValue(@Nullable V value) {
+			Object previous = setValueIfPresent(value);
+			return (previous != REMOVED ? (V) previous : null);
+		}
+
+		boolean compareAndSetValue(@Nullable Object expect, @Nullable Object update) {
+			return valueUpdater.compareAndSet(this, expect, update);
+		}
+
+		@Nullable
+		Object setValueIfPresent(@Nullable Object value) {
+			while (true) {
+				Object previous = this.value;
+				if (previous == REMOVED || compareAndSetValue(previous, value)) {
+					return previous;
+				}
+			}
+		}
+
+		@Nullable
+		Object markRemoved() {
+			return valueUpdater.getAndSet(this, REMOVED);
+		}
+
+		@Override
+		public String toString() {
+			return (this.key + "=" + getValue());
+		}
+
+		@Override
+		@SuppressWarnings("rawtypes")
+		public final boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry otherEntry = (Map.Entry) other;
+			return (ObjectUtils.nullSafeEquals(getKey(), otherEntry.getKey()) &&
+					ObjectUtils.nullSafeEquals(getValue(), otherEntry.getValue()));
+		}
+
+		@Override
+		public final int hashCode() {
+			return (ObjectUtils.nullSafeHashCode(this.key) ^ ObjectUtils.nullSafeHashCode(getValue()));
+		}
+	}
+
+
+	/**
+	 * Internal entry-set implementation.
+	 */
+	private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+		@Override
+		public Iterator<Map.Entry<K, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public boolean contains(@Nullable Object o) {
+			if (o instanceof Map.Entry<?, ?>) {
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+				Entry<K, V> otherEntry = findEntry(entry.getKey(), getHash(entry.getKey()));
+				if (otherEntry != null) {
+					return ObjectUtils.nullSafeEquals(entry.getValue(), otherEntry.getValue());
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (o instanceof Map.Entry<?, ?>) {
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+				return LockFreeReferenceHashMap.this.remove(entry.getKey(), entry.getValue());
+			}
+			return false;
+		}
+
+		@Override
+		public int size() {
+			return LockFreeReferenceHashMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			LockFreeReferenceHashMap.this.clear();
+		}
+	}
+
+
+	/**
+	 * Internal entry iterator implementation, weakly consistent: it reflects
+	 * the state of each bin at the time the bin is visited.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+		private final Table<K, V> table = LockFreeReferenceHashMap.this.table;
+
+		private final List<Entry<K, V>> binEntries = new ArrayList<>();
+
+		private int binIndex;
+
+		private int entryIndex;
+
+		@Nullable
+		private Entry<K, V> last;
+
+		@Override
+		public boolean hasNext() {
+			while (this.entryIndex >= this.binEntries.size()) {
+				if (this.binIndex >= this.table.length()) {
+					return false;
+				}
+				this.binEntries.clear();
+				this.entryIndex = 0;
+				collectEntries(this.table, this.binIndex++, this.binEntries);
+			}
+			return true;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.binEntries.get(this.entryIndex++);
+			return this.last;
+		}
+
+		private void collectEntries(Table<K, V> table, int index, List<Entry<K, V>> result) {
+			Node<K, V> head = table.bins.get(index);
+			if (head instanceof ForwardingNode) {
+				Table<K, V> nextTable = ((ForwardingNode<K, V>) head).nextTable;
+				collectEntries(nextTable, index, result);
+				collectEntries(nextTable, index + table.length(), result);
+				return;
+			}
+			for (Node<K, V> node = head; node != null; node = node.getNext()) {
+				Entry<K, V> entry = node.getEntry();
+				if (entry != null && entry.value != REMOVED) {
+					result.add(entry);
+				}
+			}
+		}
+
+		@Override
+		public void remove() {
+			Assert.state(this.last != null, "No element to remove");
+			if (this.last.markRemoved() != REMOVED) {
+				unlinkDeadNodes(getHash(this.last.getKey()));
+			}
+			this.last = null;
+		}
+	}
+
+}
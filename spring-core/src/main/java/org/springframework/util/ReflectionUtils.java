@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -79,12 +79,12 @@ public abstract class ReflectionUtils {
 	 * Cache for {@link Class#getDeclaredMethods()} plus equivalent default methods
 	 * from Java 8 based interfaces, allowing for fast iteration.
 	 */
-	private static final Map<Class<?>, Method[]> declaredMethodsCache = new ConcurrentReferenceHashMap<>(256);
+	private static final Map<Class<?>, Method[]> declaredMethodsCache = new LockFreeReferenceHashMap<>(256);
 
 	/**
 	 * Cache for {@link Class#getDeclaredFields()}, allowing for fast iteration.
 	 */
-	private static final Map<Class<?>, Field[]> declaredFieldsCache = new ConcurrentReferenceHashMap<>(256);
+	private static final Map<Class<?>, Field[]> declaredFieldsCache = new LockFreeReferenceHashMap<>(256);
 
 
 	// Exception handling
@@ -247,6 +247,24 @@ public abstract class ReflectionUtils {
 		return null;
 	}
 
+	/**
+	 * Determine whether the specified method of the given base class is
+	 * overridden within the hierarchy of the supplied class, e.g. in order
+	 * to keep invoking a deprecated template method that a subclass overrides.
+	 * @param clazz the class to introspect
+	 * @param baseClass the class that declares the original method
+	 * @param name the name of the method
+	 * @param paramTypes the parameter types of the method
+	 * @return {@code true} if the most specific declaration of the method in
+	 * the hierarchy of {@code clazz} is not the one in {@code baseClass}
+	 * @since 5.2.26
+	 * @see #findMethod(Class, String, Class[])
+	 */
+	public static boolean isOverridden(Class<?> clazz, Class<?> baseClass, String name, Class<?>... paramTypes) {
+		Method method = findMethod(clazz, name, paramTypes);
+		return (method != null && method.getDeclaringClass() != baseClass);
+	}
+
 	private static boolean hasSameParams(Method method, Class<?>[] paramTypes) {
 		return (paramTypes.length == method.getParameterCount() &&
 				Arrays.equals(paramTypes, method.getParameterTypes()));
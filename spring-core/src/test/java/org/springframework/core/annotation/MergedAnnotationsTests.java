@@ -32,6 +32,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -172,6 +173,51 @@ class MergedAnnotationsTests {
 		assertThat(annotations.isPresent(ComposedTransactionalComponent.class)).isTrue();
 	}
 
+	@Test
+	void fromClassWithDefaultsIsShared() {
+		MergedAnnotations annotations = MergedAnnotations.from(
+				SubTransactionalComponentClass.class, SearchStrategy.TYPE_HIERARCHY);
+		assertThat(MergedAnnotations.from(SubTransactionalComponentClass.class, SearchStrategy.TYPE_HIERARCHY))
+				.isSameAs(annotations);
+		assertThat(MergedAnnotations.from(SubTransactionalComponentClass.class, SearchStrategy.DIRECT))
+				.isNotSameAs(annotations);
+		assertThat(MergedAnnotations.from(SubTransactionalComponentClass.class, SearchStrategy.TYPE_HIERARCHY,
+				RepeatableContainers.none())).isNotSameAs(annotations);
+	}
+
+	@Test
+	void sharedInstanceLookupsMatchScan() {
+		AnnotationFilter unsharedFilter = typeName -> AnnotationFilter.PLAIN.matches(typeName);
+		MergedAnnotations shared = MergedAnnotations.from(
+				SubTransactionalComponentClass.class, SearchStrategy.TYPE_HIERARCHY);
+		MergedAnnotations scanned = MergedAnnotations.from(SubTransactionalComponentClass.class,
+				SearchStrategy.TYPE_HIERARCHY, RepeatableContainers.standardRepeatables(), unsharedFilter);
+		for (Class<? extends Annotation> type : Arrays.asList(TransactionalComponent.class,
+				Transactional.class, Component.class, Indexed.class, Order.class)) {
+			assertThat(shared.isPresent(type)).isEqualTo(scanned.isPresent(type));
+			assertThat(shared.isPresent(type.getName())).isEqualTo(scanned.isPresent(type.getName()));
+			assertThat(shared.isDirectlyPresent(type)).isEqualTo(scanned.isDirectlyPresent(type));
+			MergedAnnotation<?> sharedAnnotation = shared.get(type);
+			MergedAnnotation<?> scannedAnnotation = scanned.get(type);
+			assertThat(sharedAnnotation.isPresent()).isEqualTo(scannedAnnotation.isPresent());
+			if (sharedAnnotation.isPresent()) {
+				assertThat(sharedAnnotation.getDistance()).isEqualTo(scannedAnnotation.getDistance());
+				assertThat(sharedAnnotation.getAggregateIndex()).isEqualTo(scannedAnnotation.getAggregateIndex());
+				assertThat(sharedAnnotation.synthesize()).isEqualTo(scannedAnnotation.synthesize());
+			}
+			MergedAnnotation<?> sharedFirst = shared.get(type.getName(), null,
+					MergedAnnotationSelectors.firstDirectlyDeclared());
+			MergedAnnotation<?> scannedFirst = scanned.get(type.getName(), null,
+					MergedAnnotationSelectors.firstDirectlyDeclared());
+			assertThat(sharedFirst.isPresent()).isEqualTo(scannedFirst.isPresent());
+			if (sharedFirst.isPresent()) {
+				assertThat(sharedFirst.getDistance()).isEqualTo(scannedFirst.getDistance());
+				assertThat(sharedFirst.synthesize()).isEqualTo(scannedFirst.synthesize());
+			}
+		}
+		assertThat(shared.get(Transactional.class)).isSameAs(shared.get(Transactional.class));
+	}
+
 	@Test
 	void getParent() {
 		MergedAnnotations annotations = MergedAnnotations.from(ComposedTransactionalComponentClass.class);
@@ -1227,6 +1273,24 @@ class MergedAnnotationsTests {
 		assertThat(annotation.getInt("value")).isEqualTo(1);
 	}
 
+	@Test
+	void mapReadsAttributesWithoutSynthesizing() throws Exception {
+		Method method = WebController.class.getMethod("getMappedWithPathAttribute");
+		MergedAnnotation<RequestMapping> annotation =
+				MergedAnnotations.from(method, SearchStrategy.TYPE_HIERARCHY).get(RequestMapping.class);
+		Optional<String> mapped = annotation.map(mapping -> mapping.getStringArray("path")[0] + " " +
+				mapping.getEnumArray("method", RequestMethod.class)[0]);
+		assertThat(mapped).contains("/test GET");
+	}
+
+	@Test
+	void mapWhenMissingReturnsEmpty() {
+		MergedAnnotation<Order> annotation = MergedAnnotations.from(WebController.class).get(Order.class);
+		assertThat(annotation.map(order -> order.getInt("value"))).isEmpty();
+		assertThat(MergedAnnotation.from(WebController.class.getAnnotation(Component.class))
+				.map(component -> null)).isEmpty();
+	}
+
 	@Test
 	void getValueFromNonPublicAnnotation() throws Exception {
 		Annotation[] declaredAnnotations = NonPublicAnnotatedClass.class.getDeclaredAnnotations();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -361,6 +361,13 @@ class TypeDescriptorTests {
 		assertThat(typeDescriptor.getObjectType()).isEqualTo(Integer.class);
 	}
 
+	@Test
+	void valueOfIsShared() {
+		assertThat(TypeDescriptor.valueOf(Date.class)).isSameAs(TypeDescriptor.valueOf(Date.class));
+		assertThat(TypeDescriptor.forObject(new Date())).isSameAs(TypeDescriptor.valueOf(Date.class));
+		assertThat(TypeDescriptor.valueOf(null)).isSameAs(TypeDescriptor.valueOf(Object.class));
+	}
+
 	@Test
 	void valueOfArray() throws Exception {
 		TypeDescriptor typeDescriptor = TypeDescriptor.valueOf(int[].class);
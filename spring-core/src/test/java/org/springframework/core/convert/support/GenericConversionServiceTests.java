@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -473,6 +473,18 @@ class GenericConversionServiceTests {
 		assertThat(conversionService.canConvert(String.class, Color.class)).isFalse();
 	}
 
+	@Test
+	void plainConverterLookupIsInvalidatedOnRegistration() {
+		assertThat(conversionService.canConvert(String.class, Color.class)).isFalse();
+		conversionService.addConverter(new ColorConverter());
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+		conversionService.addConverter(String.class, Color.class, source -> Color.WHITE);
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.WHITE);
+		conversionService.removeConvertible(String.class, Color.class);
+		assertThat(conversionService.canConvert(String.class, Color.class)).isFalse();
+	}
+
 	@Test
 	void conditionalConverter() {
 		MyConditionalConverter converter = new MyConditionalConverter();
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.HashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.testfixture.env.MockPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link IndexedPropertySourcesPropertyResolver}.
+ *
+ * @author Peggy M
+ */
+class IndexedPropertySourcesPropertyResolverTests {
+
+	private final MutablePropertySources propertySources = new MutablePropertySources();
+
+	private final IndexedPropertySourcesPropertyResolver propertyResolver =
+			new IndexedPropertySourcesPropertyResolver(this.propertySources);
+
+	private final MockPropertySource first = new MockPropertySource("first");
+
+	private final MockPropertySource second = new MockPropertySource("second");
+
+
+	@BeforeEach
+	void setUp() {
+		this.propertySources.addLast(this.first);
+		this.propertySources.addLast(this.second);
+	}
+
+
+	@Test
+	void propertySourcePrecedence() {
+		this.first.setProperty("foo", "first");
+		this.second.setProperty("foo", "second");
+		this.second.setProperty("bar", "second");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("first");
+		assertThat(this.propertyResolver.getProperty("bar")).isEqualTo("second");
+		assertThat(this.propertyResolver.getProperty("baz")).isNull();
+		assertThat(this.propertyResolver.containsProperty("bar")).isTrue();
+		assertThat(this.propertyResolver.containsProperty("baz")).isFalse();
+	}
+
+	@Test
+	void nonIndexablePropertySourceWithHigherPrecedence() {
+		this.second.setProperty("foo", "indexed");
+		this.propertySources.addBefore("second", new PropertySource<Object>("dynamic") {
+			@Override
+			public Object getProperty(String name) {
+				return ("foo".equals(name) ? "dynamic" : null);
+			}
+		});
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("dynamic");
+		this.propertySources.remove("dynamic");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("indexed");
+	}
+
+	@Test
+	void indexIsRebuiltOnPropertySourcesModification() {
+		this.second.setProperty("foo", "second");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("second");
+		this.propertySources.addFirst(new MockPropertySource("third").withProperty("foo", "third"));
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("third");
+		this.propertySources.replace("third", new MockPropertySource("third").withProperty("foo", "replaced"));
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("replaced");
+	}
+
+	@Test
+	void contentChangesRequireClearIndex() {
+		this.first.setProperty("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("bar");
+		this.first.setProperty("foo", "baz");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("bar");
+		this.propertyResolver.clearIndex();
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("baz");
+	}
+
+	@Test
+	void convertedValuesAreCachedPerTargetType() {
+		this.first.setProperty("num", "42");
+		assertThat(this.propertyResolver.getProperty("num", Integer.class)).isEqualTo(42);
+		assertThat(this.propertyResolver.getProperty("num", Long.class)).isEqualTo(42L);
+		assertThat(this.propertyResolver.getProperty("num", Integer.class)).isEqualTo(42);
+		assertThat(this.propertyResolver.getProperty("num")).isEqualTo("42");
+	}
+
+	@Test
+	void nestedPlaceholders() {
+		this.first.setProperty("greeting", "hello ${name}");
+		this.second.setProperty("name", "world");
+		assertThat(this.propertyResolver.getProperty("greeting")).isEqualTo("hello world");
+		assertThat(this.propertyResolver.resolvePlaceholders("${greeting}!")).isEqualTo("hello world!");
+		this.propertyResolver.setPlaceholderPrefix("#{");
+		this.propertyResolver.setPlaceholderSuffix("}");
+		this.first.setProperty("greeting", "hello #{name}");
+		this.propertyResolver.clearIndex();
+		assertThat(this.propertyResolver.getProperty("greeting")).isEqualTo("hello world");
+		assertThat(this.propertyResolver.resolvePlaceholders("#{greeting}!")).isEqualTo("hello world!");
+	}
+
+	@Test
+	void systemPropertiesAreNotIndexed() {
+		assertThat(this.propertyResolver.isIndexable(new PropertiesPropertySource(
+				StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, System.getProperties()))).isFalse();
+		assertThat(this.propertyResolver.isIndexable(new SystemEnvironmentPropertySource(
+				StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME, new HashMap<>()))).isFalse();
+		assertThat(this.propertyResolver.isIndexable(this.first)).isTrue();
+	}
+
+	@Test
+	void environmentWithIndexedPropertySources() {
+		System.setProperty(AbstractEnvironment.INDEXED_PROPERTY_SOURCES_PROPERTY_NAME, "true");
+		try {
+			StandardEnvironment environment = new StandardEnvironment();
+			environment.getPropertySources().addLast(new MockPropertySource().withProperty("foo", "bar"));
+			assertThat(environment.getProperty("foo")).isEqualTo("bar");
+			System.setProperty("foo", "sys");
+			assertThat(environment.getProperty("foo")).isEqualTo("sys");
+		}
+		finally {
+			System.clearProperty(AbstractEnvironment.INDEXED_PROPERTY_SOURCES_PROPERTY_NAME);
+			System.clearProperty("foo");
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.util.StreamUtils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link CompositeDataBuffer}.
+ *
+ * @author Peggy M
+ */
+class CompositeDataBufferTests {
+
+	private final PoolingDataBufferFactory bufferFactory = new PoolingDataBufferFactory();
+
+
+	@Test
+	void readAcrossComponents() throws Exception {
+		CompositeDataBuffer buffer = compose("foo", "bar", "", "baz");
+		assertThat(buffer.getComponentCount()).isEqualTo(4);
+		assertThat(buffer.readableByteCount()).isEqualTo(9);
+		assertThat(buffer.writableByteCount()).isEqualTo(0);
+		assertThat(buffer.getByte(3)).isEqualTo((byte) 'b');
+		assertThat(buffer.toString(UTF_8)).isEqualTo("foobarbaz");
+		assertThat(buffer.toString(2, 5, UTF_8)).isEqualTo("obarb");
+
+		byte[] bytes = new byte[4];
+		buffer.readPosition(1).read(bytes);
+		assertThat(bytes).isEqualTo("ooba".getBytes(UTF_8));
+		try (InputStream inputStream = buffer.asInputStream()) {
+			assertThat(StreamUtils.copyToString(inputStream, UTF_8)).isEqualTo("rbaz");
+		}
+		DataBufferUtils.release(buffer);
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void indexOfAcrossComponents() {
+		CompositeDataBuffer buffer = compose("foo", "bar", "baz");
+		assertThat(buffer.indexOf(b -> b == 'b', 0)).isEqualTo(3);
+		assertThat(buffer.indexOf(b -> b == 'b', 4)).isEqualTo(6);
+		assertThat(buffer.indexOf(b -> b == 'x', 0)).isEqualTo(-1);
+		assertThat(buffer.lastIndexOf(b -> b == 'a', 8)).isEqualTo(7);
+		assertThat(buffer.lastIndexOf(b -> b == 'a', 6)).isEqualTo(4);
+		assertThat(buffer.lastIndexOf(b -> b == 'f', 8)).isEqualTo(0);
+		buffer.writePosition(7);
+		assertThat(buffer.indexOf(b -> b == 'z', 0)).isEqualTo(-1);
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	void multiByteCharacterAcrossComponents() {
+		byte[] bytes = "café €".getBytes(UTF_8);
+		CompositeDataBuffer buffer = CompositeDataBuffer.of(Arrays.asList(
+				this.bufferFactory.wrap(Arrays.copyOfRange(bytes, 0, 4)),
+				this.bufferFactory.wrap(Arrays.copyOfRange(bytes, 4, 7)),
+				this.bufferFactory.wrap(Arrays.copyOfRange(bytes, 7, bytes.length))));
+		assertThat(buffer.toString(UTF_8)).isEqualTo("café €");
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	void byteBuffers() {
+		CompositeDataBuffer buffer = compose("foo", "bar");
+		assertThat(buffer.asByteBuffer(0, 3).remaining()).isEqualTo(3);
+		assertThat(UTF_8.decode(buffer.asByteBuffer(1, 4)).toString()).isEqualTo("ooba");
+		buffer.readPosition(2);
+		ByteBuffer[] byteBuffers = buffer.asByteBuffers();
+		assertThat(byteBuffers).hasSize(2);
+		assertThat(UTF_8.decode(byteBuffers[0]).toString()).isEqualTo("o");
+		assertThat(UTF_8.decode(byteBuffers[1]).toString()).isEqualTo("bar");
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	void sliceSharesReferenceCount() {
+		CompositeDataBuffer buffer = compose("foo", "bar");
+		DataBuffer slice = buffer.retainedSlice(2, 3);
+		assertThat(slice.toString(UTF_8)).isEqualTo("oba");
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> slice.write((byte) 'x'));
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void writeConsolidatesComponents() {
+		CompositeDataBuffer buffer = compose("foo", "bar");
+		buffer.readPosition(1);
+		buffer.write("baz", UTF_8);
+		assertThat(buffer.capacity()).isGreaterThanOrEqualTo(9);
+		assertThat(buffer.toString(UTF_8)).isEqualTo("oobarbaz");
+		assertThat(buffer.indexOf(b -> b == 'z', 0)).isEqualTo(8);
+		DataBufferUtils.release(buffer);
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void equalsAndHashCode() {
+		CompositeDataBuffer buffer = compose("foo", "bar");
+		CompositeDataBuffer other = compose("fo", "obar");
+		assertThat(buffer).isEqualTo(other);
+		assertThat(buffer.hashCode()).isEqualTo(other.hashCode());
+		assertThat(buffer.hashCode()).isEqualTo(ByteBuffer.wrap("foobar".getBytes(UTF_8)).hashCode());
+		other.readPosition(1);
+		assertThat(buffer).isNotEqualTo(other);
+		CompositeDataBuffer different = compose("foo", "baz");
+		assertThat(buffer).isNotEqualTo(different);
+		DataBufferUtils.release(buffer);
+		DataBufferUtils.release(other);
+		DataBufferUtils.release(different);
+	}
+
+	@Test
+	void composeWithoutPooledComponents() {
+		DefaultDataBufferFactory defaultFactory = new DefaultDataBufferFactory();
+		CompositeDataBuffer buffer = CompositeDataBuffer.of(Arrays.asList(
+				defaultFactory.wrap("foo".getBytes(UTF_8)), defaultFactory.wrap("bar".getBytes(UTF_8))));
+		assertThat(buffer).isNotInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.slice(2, 3)).isNotInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.toString(UTF_8)).isEqualTo("foobar");
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+	}
+
+	@Test
+	void joinUsesFactory() {
+		DataBuffer result = DataBufferUtils.join(Flux.just(stringBuffer("foo"), stringBuffer("bar"))).block();
+		assertThat(result).isInstanceOf(PoolingDataBuffer.class);
+		assertThat(result.toString(UTF_8)).isEqualTo("foobar");
+		DataBufferUtils.release(result);
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+
+	private CompositeDataBuffer compose(String... values) {
+		return (CompositeDataBuffer) DataBufferUtils.compose(
+				Arrays.stream(values).map(this::stringBuffer).collect(Collectors.toList()));
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(UTF_8);
+		return this.bufferFactory.allocateBuffer(bytes.length).write(bytes);
+	}
+
+}
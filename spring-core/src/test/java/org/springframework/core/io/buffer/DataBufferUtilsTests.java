@@ -33,6 +33,7 @@ import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
@@ -42,6 +43,7 @@ import org.reactivestreams.Subscription;
 import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.io.ByteArrayResource;
@@ -295,6 +297,42 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedPath(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource.getFile().toPath(), 0, -1, super.bufferFactory, 3);
+
+		verifyReadData(flux);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedResourcePositionAndCount(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource, 3, 5, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("ba"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedByteArrayResourcePositionAndCount(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Resource resource = new ByteArrayResource("foobarbazqux".getBytes());
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(resource, 3, 5, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("ba"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
 	@ParameterizedDataBufferAllocatingTest
 	void writeOutputStream(String displayName, DataBufferFactory bufferFactory) throws Exception {
 		super.bufferFactory = bufferFactory;
@@ -545,6 +583,63 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 		assertThat(written).contains("foobar");
 	}
 
+	@Test
+	void transferToPath() throws Exception {
+		try (WritableByteChannel channel = Files.newByteChannel(this.tempFile, StandardOpenOption.WRITE)) {
+			Mono<Void> result = DataBufferUtils.transferTo(this.resource.getFile().toPath(), 3, 7, channel, 2);
+			StepVerifier.create(result).verifyComplete();
+		}
+		assertThat(Files.readAllLines(this.tempFile)).containsExactly("barbazq");
+	}
+
+	@Test
+	void transferToChannelWithoutProgress() throws Exception {
+		WritableByteChannel channel = mock(WritableByteChannel.class);
+		given(channel.isOpen()).willReturn(true);
+		given(channel.write(any())).willReturn(0);
+		Mono<Void> result = DataBufferUtils.transferTo(this.resource.getFile().toPath(), 0, -1, channel, 4);
+		StepVerifier.create(result).expectError(IOException.class).verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void transferToByteArrayResource() throws Exception {
+		Resource resource = new ByteArrayResource("foobarbazqux".getBytes());
+		try (WritableByteChannel channel = Files.newByteChannel(this.tempFile, StandardOpenOption.WRITE)) {
+			Mono<Void> result = DataBufferUtils.transferTo(resource, 6, -1, channel, 4);
+			StepVerifier.create(result).verifyComplete();
+		}
+		assertThat(Files.readAllLines(this.tempFile)).containsExactly("bazqux");
+	}
+
+	@Test
+	void transferToByteArrayResourceFromNonBlockingThread() throws Exception {
+		Resource resource = new ByteArrayResource("foobarbazqux".getBytes());
+		AtomicBoolean writtenOnNonBlockingThread = new AtomicBoolean();
+		try (FileChannel fileChannel = FileChannel.open(this.tempFile, StandardOpenOption.WRITE)) {
+			WritableByteChannel channel = new WritableByteChannel() {
+				@Override
+				public int write(ByteBuffer src) throws IOException {
+					if (Schedulers.isInNonBlockingThread()) {
+						writtenOnNonBlockingThread.set(true);
+					}
+					return fileChannel.write(src);
+				}
+				@Override
+				public boolean isOpen() {
+					return fileChannel.isOpen();
+				}
+				@Override
+				public void close() {
+				}
+			};
+			Mono<Void> result = DataBufferUtils.transferTo(resource, 0, -1, channel, 4)
+					.subscribeOn(Schedulers.parallel());
+			StepVerifier.create(result).verifyComplete();
+		}
+		assertThat(writtenOnNonBlockingThread).isFalse();
+		assertThat(Files.readAllLines(this.tempFile)).containsExactly("foobarbazqux");
+	}
+
 	@ParameterizedDataBufferAllocatingTest
 	void readAndWriteByteChannel(String displayName, DataBufferFactory bufferFactory) throws Exception {
 		super.bufferFactory = bufferFactory;
@@ -940,6 +1035,59 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 		release(foo);
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void matcherSingleByteAcrossWords(String displayName, DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer buffer = stringBuffer("0123456789abcdefghij\nklmnopqrstuvwxyz\n0123");
+
+		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher("\n".getBytes(StandardCharsets.UTF_8));
+		int endIndex = matcher.match(buffer);
+		assertThat(endIndex).isEqualTo(20);
+		buffer.readPosition(endIndex + 1);
+		endIndex = matcher.match(buffer);
+		assertThat(endIndex).isEqualTo(37);
+		buffer.readPosition(endIndex + 1);
+		assertThat(matcher.match(buffer)).isEqualTo(-1);
+
+		release(buffer);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void matcherMultipleDelimiters(String displayName, DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer foo = stringBuffer("data:foo\r");
+		DataBuffer bar = stringBuffer("\ndata:bar\nbaz");
+
+		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher(
+				"\r\n".getBytes(StandardCharsets.UTF_8), "\n".getBytes(StandardCharsets.UTF_8));
+		assertThat(matcher.match(foo)).isEqualTo(-1);
+		int endIndex = matcher.match(bar);
+		assertThat(endIndex).isEqualTo(0);
+		assertThat(matcher.delimiter()).isEqualTo("\r\n".getBytes(StandardCharsets.UTF_8));
+		bar.readPosition(endIndex + 1);
+		endIndex = matcher.match(bar);
+		assertThat(endIndex).isEqualTo(9);
+		assertThat(matcher.delimiter()).isEqualTo("\n".getBytes(StandardCharsets.UTF_8));
+		bar.readPosition(endIndex + 1);
+		assertThat(matcher.match(bar)).isEqualTo(-1);
+
+		release(foo, bar);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void matcherTwoByteDelimiterRestart(String displayName, DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer buffer = stringBuffer("foo\rbar\r\n");
+
+		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher("\r\n".getBytes(StandardCharsets.UTF_8));
+		assertThat(matcher.match(buffer)).isEqualTo(8);
+
+		release(buffer);
+	}
+
 
 	private static class ZeroDemandSubscriber extends BaseSubscriber<DataBuffer> {
 
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link PoolingDataBufferFactory}.
+ *
+ * @author Peggy M
+ */
+class PoolingDataBufferFactoryTests {
+
+	private final PoolingDataBufferFactory bufferFactory = new PoolingDataBufferFactory();
+
+
+	@Test
+	void maxPooledCapacity() {
+		assertThat(this.bufferFactory.getMaxPooledCapacity()).isEqualTo(PoolingDataBufferFactory.DEFAULT_MAX_POOLED_CAPACITY);
+		assertThat(new PoolingDataBufferFactory(false, 256, 1000).getMaxPooledCapacity()).isEqualTo(1024);
+		assertThatIllegalArgumentException().isThrownBy(() -> new PoolingDataBufferFactory(false, 256, 16));
+	}
+
+	@Test
+	void capacityIsNotRoundedUp() {
+		PoolingDataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		assertThat(buffer.capacity()).isEqualTo(100);
+		buffer.write(new byte[150]);
+		assertThat(buffer.capacity()).isGreaterThanOrEqualTo(150);
+		buffer.release();
+
+		PoolingDataBuffer large = this.bufferFactory.allocateBuffer(1024 * 1024);
+		assertThat(large.capacity()).isEqualTo(1024 * 1024);
+		large.release();
+	}
+
+	@Test
+	void releasedMemoryIsRecycled() {
+		PoolingDataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		buffer.write("foo", UTF_8);
+		assertThat(buffer.release()).isTrue();
+		assertThat(buffer.isAllocated()).isFalse();
+
+		PoolingDataBuffer recycled = this.bufferFactory.allocateBuffer(200);
+		assertThat(recycled.getNativeBuffer().isDirect()).isFalse();
+		assertThat(recycled.readableByteCount()).isEqualTo(0);
+		assertThat(recycled.capacity()).isEqualTo(200);
+		recycled.release();
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void sliceSharesReferenceCount() {
+		PoolingDataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write("foobar", UTF_8);
+		DataBuffer slice = buffer.retainedSlice(3, 3);
+		assertThat(slice).isInstanceOf(PooledDataBuffer.class);
+		assertThat(slice.toString(UTF_8)).isEqualTo("bar");
+		assertThat(buffer.release()).isFalse();
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(buffer.isAllocated()).isFalse();
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void capacityChangeKeepsSlicesIntact() {
+		PoolingDataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write("foobar", UTF_8);
+		DataBuffer slice = buffer.slice(0, 6);
+		ByteBuffer view = buffer.asByteBuffer(0, 6);
+
+		buffer.write(new byte[PoolingDataBufferFactory.MIN_CHUNK_SIZE]);
+		for (int i = 0; i < 10; i++) {
+			PoolingDataBuffer other = this.bufferFactory.allocateBuffer(10);
+			other.write("xxxxxx", UTF_8);
+			other.release();
+		}
+
+		assertThat(slice.toString(UTF_8)).isEqualTo("foobar");
+		assertThat(UTF_8.decode(view).toString()).isEqualTo("foobar");
+		assertThat(buffer.toString(0, 6, UTF_8)).isEqualTo("foobar");
+		buffer.release();
+	}
+
+	@Test
+	void joinReleasesJoinedBuffers() {
+		PoolingDataBuffer foo = this.bufferFactory.allocateBuffer(3);
+		foo.write("foo", UTF_8);
+		PoolingDataBuffer result = this.bufferFactory.join(Arrays.asList(foo, this.bufferFactory.wrap("bar".getBytes(UTF_8))));
+		assertThat(result.toString(UTF_8)).isEqualTo("foobar");
+		assertThat(foo.isAllocated()).isFalse();
+		result.release();
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void inputStreamReleasesOnClose() throws Exception {
+		PoolingDataBuffer buffer = this.bufferFactory.allocateBuffer(3);
+		buffer.write("foo", UTF_8);
+		try (InputStream inputStream = buffer.asInputStream(true)) {
+			assertThat(inputStream.read()).isEqualTo('f');
+		}
+		assertThat(buffer.isAllocated()).isFalse();
+	}
+
+	@Test
+	void releaseByAllocatingThreadGoesToThreadCache() {
+		PoolingDataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		int offset = buffer.getNativeBuffer().arrayOffset();
+		buffer.release();
+		assertThat(this.bufferFactory.getThreadCachedBytes()).isEqualTo(PoolingDataBufferFactory.MIN_CHUNK_SIZE);
+
+		PoolingDataBuffer recycled = this.bufferFactory.allocateBuffer(100);
+		assertThat(recycled.getNativeBuffer().arrayOffset()).isEqualTo(offset);
+		recycled.release();
+	}
+
+	@Test
+	void releaseByOtherThreadGoesToSharedPool() throws Exception {
+		PoolingDataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		int offset = buffer.getNativeBuffer().arrayOffset();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			int otherOffset = executor.submit(() -> {
+				buffer.release();
+				assertThat(this.bufferFactory.getThreadCachedBytes()).isEqualTo(0);
+				PoolingDataBuffer other = this.bufferFactory.allocateBuffer(100);
+				other.release();
+				return other.getNativeBuffer().arrayOffset();
+			}).get();
+			assertThat(otherOffset).isNotEqualTo(offset);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void threadCacheIsBounded() {
+		List<PoolingDataBuffer> buffers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			buffers.add(this.bufferFactory.allocateBuffer(PoolingDataBufferFactory.DEFAULT_MAX_POOLED_CAPACITY));
+			buffers.add(this.bufferFactory.allocateBuffer(PoolingDataBufferFactory.MIN_CHUNK_SIZE));
+		}
+		buffers.forEach(DataBufferUtils::release);
+		assertThat(this.bufferFactory.getThreadCachedBytes()).isLessThanOrEqualTo(64 * 1024);
+	}
+
+	@Test
+	void unusedChunksAreTrimmedFromThreadCache() {
+		List<PoolingDataBuffer> buffers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			buffers.add(this.bufferFactory.allocateBuffer(PoolingDataBufferFactory.MIN_CHUNK_SIZE));
+		}
+		buffers.forEach(DataBufferUtils::release);
+		assertThat(this.bufferFactory.getThreadCachedBytes()).isEqualTo(4 * PoolingDataBufferFactory.MIN_CHUNK_SIZE);
+
+		// Only ever use one chunk of another size class from now on
+		for (int i = 0; i < 1000; i++) {
+			this.bufferFactory.allocateBuffer(1024).release();
+		}
+		assertThat(this.bufferFactory.getThreadCachedBytes()).isEqualTo(1024);
+	}
+
+	@Test
+	void garbageCollectedBuffersAreNotCounted() {
+		PoolingDataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(1);
+		simulateGarbageCollection(buffer);
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void leakDetectionReclaimsUnreleasedBuffers() {
+		this.bufferFactory.setLeakDetection(true);
+		List<PoolingDataBuffer> buffers = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			buffers.add(this.bufferFactory.allocateBuffer(10));
+		}
+		buffers.get(0).release();
+		buffers.forEach(this::simulateGarbageCollection);
+		this.bufferFactory.allocateBuffer(10).release();
+		assertThat(this.bufferFactory.getAllocatedBufferCount()).isEqualTo(0);
+	}
+
+
+	private void simulateGarbageCollection(PoolingDataBuffer buffer) {
+		PoolingDataBufferFactory.BufferTracker tracker = buffer.getTracker();
+		assertThat(tracker).isNotNull();
+		tracker.enqueue();
+	}
+
+}
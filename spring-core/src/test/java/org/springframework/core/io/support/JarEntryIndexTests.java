@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JarEntryIndex} and its use in
+ * {@link PathMatchingResourcePatternResolver}.
+ *
+ * @author Peggy M
+ */
+class JarEntryIndexTests {
+
+	@TempDir
+	Path tempDir;
+
+
+	@AfterEach
+	void clearCache() {
+		JarEntryIndex.clearCache();
+	}
+
+
+	@Test
+	void entryNamesWithPrefixInJarOrder() throws IOException {
+		File jar = createJar("jar1.jar", "com/example/b/Two.class", "com/example/", "com/example/a/One.class",
+				"com/examples/Other.class", "com/example/b/", "META-INF/MANIFEST.MF");
+		JarEntryIndex index = JarEntryIndex.forJarFile(jar);
+		assertThat(index.size()).isEqualTo(6);
+		assertThat(index.getEntryNames("com/example/")).containsExactly(
+				"com/example/b/Two.class", "com/example/", "com/example/a/One.class", "com/example/b/");
+		assertThat(index.getEntryNames("com/example/b/")).containsExactly("com/example/b/Two.class", "com/example/b/");
+		assertThat(index.getEntryNames("com/examples/")).containsExactly("com/examples/Other.class");
+		assertThat(index.getEntryNames("org/")).isEmpty();
+		assertThat(index.getEntryNames("")).hasSize(6);
+	}
+
+	@Test
+	void indexIsReusedUntilJarChanges() throws IOException {
+		File jar = createJar("jar2.jar", "com/example/One.class");
+		JarEntryIndex index = JarEntryIndex.forJarFile(jar);
+		assertThat(JarEntryIndex.forJarFile(jar)).isSameAs(index);
+
+		createJar("jar2.jar", "com/example/One.class", "com/example/Two.class");
+		assertThat(jar.setLastModified(jar.lastModified() + 2000)).isTrue();
+		JarEntryIndex updated = JarEntryIndex.forJarFile(jar);
+		assertThat(updated).isNotSameAs(index);
+		assertThat(updated.getEntryNames("com/example/")).containsExactly(
+				"com/example/One.class", "com/example/Two.class");
+	}
+
+	@Test
+	void leastRecentlyUsedIndexIsEvicted() throws IOException {
+		File first = createJar("first.jar", "com/example/One.class");
+		JarEntryIndex index = JarEntryIndex.forJarFile(first);
+		for (int i = 0; i < JarEntryIndex.CACHE_LIMIT; i++) {
+			JarEntryIndex.forJarFile(createJar("other" + i + ".jar", "com/example/One.class"));
+		}
+		assertThat(JarEntryIndex.forJarFile(first)).isNotSameAs(index);
+	}
+
+	@Test
+	void resolverMatchesIndexedEntries() throws IOException {
+		File jar = createJar("jar3.jar", "com/example/", "com/example/b/Two.class",
+				"com/example/a/One.class", "com/example/a/One.txt");
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null)) {
+			PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+			Resource[] resources = resolver.getResources("classpath*:com/example/**/*.class");
+			assertThat(resources).extracting(Resource::getFilename).containsExactly("Two.class", "One.class");
+			assertThat(resources[0].getURL().getProtocol()).isEqualTo("jar");
+			assertThat(resources[0].exists()).isTrue();
+		}
+	}
+
+
+	private File createJar(String name, String... entryNames) throws IOException {
+		File jar = this.tempDir.resolve(name).toFile();
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			for (String entryName : entryNames) {
+				out.putNextEntry(new JarEntry(entryName));
+				if (!entryName.endsWith("/")) {
+					out.write(entryName.getBytes());
+				}
+				out.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+}
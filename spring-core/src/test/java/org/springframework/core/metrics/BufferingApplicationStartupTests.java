@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.metrics.BufferingApplicationStartup.BufferedStartupStep;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BufferingApplicationStartup}.
+ *
+ * @author Peggy M
+ */
+class BufferingApplicationStartupTests {
+
+	@Test
+	void recordEndedStepsWithParents() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		StartupStep outer = applicationStartup.start("spring.outer");
+		StartupStep inner = applicationStartup.start("spring.inner").tag("beanName", "test");
+		inner.end();
+		StartupStep sibling = applicationStartup.start("spring.sibling");
+		sibling.end();
+		outer.end();
+
+		List<BufferedStartupStep> steps = applicationStartup.getBufferedSteps();
+		assertThat(steps).extracting(BufferedStartupStep::getName)
+				.containsExactly("spring.inner", "spring.sibling", "spring.outer");
+		assertThat(steps.get(0).getParentId()).isEqualTo(outer.getId());
+		assertThat(steps.get(1).getParentId()).isEqualTo(outer.getId());
+		assertThat(steps.get(2).getParentId()).isNull();
+		assertThat(steps.get(0).getTags()).singleElement()
+				.satisfies(tag -> assertThat(tag.getKey() + "=" + tag.getValue()).isEqualTo("beanName=test"));
+		assertThat(steps.get(2).getDuration()).isNotNull();
+	}
+
+	@Test
+	void dropStepsWhenBufferIsFull() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2);
+		for (int i = 0; i < 5; i++) {
+			applicationStartup.start("spring.step" + i).end();
+		}
+		assertThat(applicationStartup.drainBufferedSteps()).extracting(BufferedStartupStep::getName)
+				.containsExactly("spring.step0", "spring.step1");
+		assertThat(applicationStartup.getBufferedSteps()).isEmpty();
+
+		applicationStartup.start("spring.step5").end();
+		assertThat(applicationStartup.getBufferedSteps()).extracting(BufferedStartupStep::getName)
+				.containsExactly("spring.step5");
+	}
+
+	@Test
+	void rejectTagsOnEndedStep() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		StartupStep step = applicationStartup.start("spring.step");
+		step.end();
+		assertThatIllegalStateException().isThrownBy(() -> step.tag("key", "value"));
+		assertThatIllegalStateException().isThrownBy(step::end);
+	}
+
+	@Test
+	void trackParentStepPerThread() throws Exception {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		StartupStep outer = applicationStartup.start("spring.outer");
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Long> parentId = executor.submit(() -> {
+				StartupStep step = applicationStartup.start("spring.other-thread");
+				step.end();
+				return step.getParentId();
+			});
+			assertThat(parentId.get()).isNull();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		outer.end();
+		assertThat(applicationStartup.getBufferedSteps()).hasSize(2);
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.util.LockFreeReferenceHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CacheRegistry} and {@link MapCacheMetrics}.
+ *
+ * @author Peggy M
+ */
+class CacheRegistryTests {
+
+	private static final String CACHE_NAME = CacheRegistryTests.class.getName() + ".cache";
+
+
+	@AfterEach
+	void unregisterCache() {
+		CacheRegistry.unregister(CACHE_NAME);
+	}
+
+
+	@Test
+	void registerMapCache() {
+		Map<String, String> cache = new HashMap<>();
+		MapCacheMetrics cacheMetrics = CacheRegistry.register(CACHE_NAME, new MapCacheMetrics(cache));
+		CacheMetrics registered = CacheRegistry.getCacheMetrics(CACHE_NAME);
+		assertThat(registered).isSameAs(cacheMetrics);
+
+		cache.put("key", "value");
+		cacheMetrics.recordHit();
+		cacheMetrics.recordHit();
+		cacheMetrics.recordMiss();
+		assertThat(registered.getSize()).isEqualTo(1);
+		assertThat(registered.getHitCount()).isEqualTo(2);
+		assertThat(registered.getMissCount()).isEqualTo(1);
+		assertThat(registered.getEvictionCount()).isEqualTo(-1);
+		assertThat(registered.getEstimatedSize()).isEqualTo(-1);
+		assertThat(CacheRegistry.getAllCacheMetrics()).containsEntry(CACHE_NAME, cacheMetrics);
+	}
+
+	@Test
+	void registerLockFreeReferenceHashMap() {
+		LockFreeReferenceHashMap<String, String> cache = new LockFreeReferenceHashMap<>();
+		MapCacheMetrics cacheMetrics = CacheRegistry.register(CACHE_NAME, new MapCacheMetrics(cache));
+		assertThat(CacheRegistry.getAllCacheMetrics()).containsEntry(CACHE_NAME, cacheMetrics);
+		cache.put("key", "value");
+		cache.get("key");
+		cache.get("other");
+		assertThat(cacheMetrics.getHitCount()).isEqualTo(1);
+		assertThat(cacheMetrics.getMissCount()).isEqualTo(1);
+		assertThat(cacheMetrics.getEvictionCount()).isEqualTo(0);
+	}
+
+	@Test
+	void statisticsAreEnabledOnFirstRead() {
+		LockFreeReferenceHashMap<String, String> cache = new LockFreeReferenceHashMap<>();
+		MapCacheMetrics cacheMetrics = CacheRegistry.register(CACHE_NAME, new MapCacheMetrics(cache));
+		cacheMetrics.recordHit();
+		cacheMetrics.recordMiss();
+		assertThat(cacheMetrics.isStatisticsEnabled()).isFalse();
+		assertThat(cache.isStatisticsEnabled()).isFalse();
+
+		CacheRegistry.getCacheMetrics(CACHE_NAME);
+		assertThat(cacheMetrics.isStatisticsEnabled()).isTrue();
+		assertThat(cache.isStatisticsEnabled()).isTrue();
+		assertThat(cacheMetrics.getHitCount()).isEqualTo(0);
+		assertThat(cacheMetrics.getMissCount()).isEqualTo(0);
+	}
+
+	@Test
+	void recordingIsIgnoredUntilStatisticsAreEnabled() {
+		MapCacheMetrics cacheMetrics = new MapCacheMetrics(new HashMap<>());
+		cacheMetrics.recordHit();
+		cacheMetrics.recordMiss();
+		cacheMetrics.enableStatistics();
+		cacheMetrics.recordHit();
+		assertThat(cacheMetrics.getHitCount()).isEqualTo(1);
+		assertThat(cacheMetrics.getMissCount()).isEqualTo(0);
+	}
+
+	@Test
+	void unregisterRemovesRegistration() {
+		CacheRegistry.register(CACHE_NAME, new MapCacheMetrics(new HashMap<>()));
+		CacheRegistry.unregister(CACHE_NAME);
+		assertThat(CacheRegistry.getCacheMetrics(CACHE_NAME)).isNull();
+		assertThat(CacheRegistry.getAllCacheMetrics()).doesNotContainKey(CACHE_NAME);
+	}
+
+	@Test
+	void frameworkCachesAreRegistered() {
+		ResolvableType.forClass(String.class);
+		assertThat(CacheRegistry.getAllCacheMetrics()).containsKey(ResolvableType.class.getName() + ".cache");
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MetadataReaderCache} and {@link SharedMetadataReaderFactory}.
+ *
+ * @author Peggy M
+ */
+class MetadataReaderCacheTests {
+
+	private final MetadataReaderCache cache = new MetadataReaderCache();
+
+
+	@Test
+	void sharedAcrossFactories() throws Exception {
+		MetadataReaderFactory factory1 = new SharedMetadataReaderFactory(new DefaultResourceLoader(), this.cache);
+		MetadataReaderFactory factory2 = new SharedMetadataReaderFactory(new DefaultResourceLoader(), this.cache);
+		MetadataReader reader1 = factory1.getMetadataReader(getClass().getName());
+		MetadataReader reader2 = factory2.getMetadataReader(getClass().getName());
+		assertThat(reader2).isSameAs(reader1);
+		assertThat(reader1.getClassMetadata().getClassName()).isEqualTo(getClass().getName());
+		assertThat(this.cache.size()).isEqualTo(1);
+		assertThat(this.cache.getMissCount()).isEqualTo(1);
+		assertThat(this.cache.getHitCount()).isEqualTo(1);
+		assertThat(this.cache.getEstimatedSize()).isGreaterThan(0);
+	}
+
+	@Test
+	void separateEntriesPerClassLoader() throws Exception {
+		Resource resource = classResource(getClass());
+		MetadataReader reader1 = this.cache.getMetadataReader(resource, getClass().getClassLoader());
+		MetadataReader reader2 = this.cache.getMetadataReader(resource, new ClassLoader(getClass().getClassLoader()) {});
+		assertThat(reader2).isNotSameAs(reader1);
+		assertThat(this.cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	void staleEntryIsReplaced(@TempDir Path tempDir) throws Exception {
+		File classFile = tempDir.resolve("MetadataReaderCacheTests.class").toFile();
+		try (InputStream is = classResource(getClass()).getInputStream()) {
+			FileCopyUtils.copy(is, Files.newOutputStream(classFile.toPath()));
+		}
+		assertThat(classFile.setLastModified(1000)).isTrue();
+		Resource resource = new FileSystemResource(classFile);
+		MetadataReader reader1 = this.cache.getMetadataReader(resource, getClass().getClassLoader());
+		assertThat(this.cache.getMetadataReader(resource, getClass().getClassLoader())).isSameAs(reader1);
+
+		assertThat(classFile.setLastModified(2000)).isTrue();
+		MetadataReader reader2 = this.cache.getMetadataReader(resource, getClass().getClassLoader());
+		assertThat(reader2).isNotSameAs(reader1);
+		assertThat(this.cache.size()).isEqualTo(1);
+		assertThat(this.cache.getMissCount()).isEqualTo(2);
+		assertThat(this.cache.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void resourceWithoutUrlIsNotCached() throws Exception {
+		byte[] content;
+		try (InputStream is = classResource(getClass()).getInputStream()) {
+			content = FileCopyUtils.copyToByteArray(is);
+		}
+		Resource resource = new ByteArrayResource(content);
+		MetadataReader reader = this.cache.getMetadataReader(resource, getClass().getClassLoader());
+		assertThat(reader.getClassMetadata().getClassName()).isEqualTo(getClass().getName());
+		assertThat(this.cache.size()).isEqualTo(0);
+		assertThat(this.cache.getMissCount()).isEqualTo(0);
+	}
+
+	@Test
+	void leastRecentlyUsedEntriesAreEvicted() throws Exception {
+		ClassLoader classLoader = getClass().getClassLoader();
+		long singleSize = estimatedSizeOf(classResource(String.class));
+		MetadataReaderCache cache = new MetadataReaderCache(singleSize * 2 + singleSize / 2);
+
+		cache.getMetadataReader(classResource(String.class), classLoader);
+		cache.getMetadataReader(classResource(Integer.class), classLoader);
+		cache.getMetadataReader(classResource(String.class), classLoader);
+		cache.getMetadataReader(classResource(Long.class), classLoader);
+		assertThat(cache.getEvictionCount()).isGreaterThan(0);
+		assertThat(cache.getEstimatedSize()).isLessThanOrEqualTo(cache.getMaxSize());
+
+		long hits = cache.getHitCount();
+		cache.getMetadataReader(classResource(Integer.class), classLoader);
+		assertThat(cache.getHitCount()).isEqualTo(hits);
+	}
+
+	@Test
+	void concurrentAccess() throws Exception {
+		MetadataReaderFactory factory = new SharedMetadataReaderFactory(new DefaultResourceLoader(), this.cache);
+		Class<?>[] types = {String.class, Integer.class, Long.class, getClass(), MetadataReaderCache.class};
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<MetadataReader>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				Class<?> type = types[i % types.length];
+				futures.add(executor.submit(() -> factory.getMetadataReader(type.getName())));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				assertThat(futures.get(i).get().getClassMetadata().getClassName())
+						.isEqualTo(types[i % types.length].getName());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(this.cache.size()).isEqualTo(types.length);
+		assertThat(this.cache.getHitCount() + this.cache.getMissCount()).isEqualTo(200);
+	}
+
+	@Test
+	void clear() throws Exception {
+		this.cache.getMetadataReader(classResource(getClass()), getClass().getClassLoader());
+		this.cache.clear();
+		assertThat(this.cache.size()).isEqualTo(0);
+		assertThat(this.cache.getEstimatedSize()).isEqualTo(0);
+		assertThat(this.cache.getMissCount()).isEqualTo(0);
+	}
+
+
+	private long estimatedSizeOf(Resource resource) throws Exception {
+		MetadataReaderCache cache = new MetadataReaderCache();
+		cache.getMetadataReader(resource, getClass().getClassLoader());
+		return cache.getEstimatedSize();
+	}
+
+	private static Resource classResource(Class<?> type) {
+		return new ClassPathResource(type.getName().replace('.', '/') + ".class");
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link LockFreeReferenceHashMap}.
+ *
+ * @author Peggy M
+ */
+class LockFreeReferenceHashMapTests {
+
+	private final LockFreeReferenceHashMap<Integer, String> map = new LockFreeReferenceHashMap<>(2);
+
+
+	@Test
+	void shouldValidateArguments() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new LockFreeReferenceHashMap<>(-1))
+				.withMessageContaining("Initial capacity must not be negative");
+		assertThatIllegalArgumentException().isThrownBy(() -> new LockFreeReferenceHashMap<>(1, 0f))
+				.withMessageContaining("Load factor must be positive");
+		assertThatIllegalArgumentException().isThrownBy(() -> new LockFreeReferenceHashMap<>(1, 0))
+				.withMessageContaining("Concurrency level must be positive");
+	}
+
+	@Test
+	void shouldPutAndGet() {
+		assertThat(this.map.put(123, "123")).isNull();
+		assertThat(this.map.put(123, "abc")).isEqualTo("123");
+		assertThat(this.map.get(123)).isEqualTo("abc");
+		assertThat(this.map.get(456)).isNull();
+		assertThat(this.map.size()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldSupportNullKeysAndValues() {
+		this.map.put(null, "nullKey");
+		this.map.put(123, null);
+		assertThat(this.map.get(null)).isEqualTo("nullKey");
+		assertThat(this.map.containsKey(123)).isTrue();
+		assertThat(this.map.get(123)).isNull();
+		assertThat(this.map.getOrDefault(123, "default")).isNull();
+		assertThat(this.map.getOrDefault(456, "default")).isEqualTo("default");
+		assertThat(this.map.putIfAbsent(123, "123")).isNull();
+		assertThat(this.map.get(123)).isNull();
+	}
+
+	@Test
+	void shouldRemoveAndReplace() {
+		this.map.put(123, "123");
+		assertThat(this.map.replace(123, "abc", "def")).isFalse();
+		assertThat(this.map.replace(123, "123", "abc")).isTrue();
+		assertThat(this.map.replace(123, "def")).isEqualTo("abc");
+		assertThat(this.map.replace(456, "def")).isNull();
+		assertThat(this.map.remove(123, "abc")).isFalse();
+		assertThat(this.map.remove(123, "def")).isTrue();
+		assertThat(this.map.containsKey(123)).isFalse();
+		this.map.put(123, "123");
+		assertThat(this.map.remove(123)).isEqualTo("123");
+		assertThat(this.map.remove(123)).isNull();
+		assertThat(this.map.isEmpty()).isTrue();
+	}
+
+	@Test
+	void shouldGrowAndIterate() {
+		Map<Integer, String> expected = new HashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			this.map.put(i, String.valueOf(i));
+			expected.put(i, String.valueOf(i));
+		}
+		assertThat(this.map).hasSize(1000);
+		assertThat(new HashMap<>(this.map)).isEqualTo(expected);
+		for (Iterator<Map.Entry<Integer, String>> it = this.map.entrySet().iterator(); it.hasNext();) {
+			if (it.next().getKey() % 2 == 0) {
+				it.remove();
+			}
+		}
+		assertThat(this.map).hasSize(500);
+		assertThat(this.map.get(2)).isNull();
+		assertThat(this.map.get(3)).isEqualTo("3");
+		this.map.clear();
+		assertThat(this.map).isEmpty();
+	}
+
+	@Test
+	void shouldNotRecordStatisticsByDefault() {
+		this.map.put(123, "123");
+		this.map.get(123);
+		this.map.get(456);
+		assertThat(this.map.isStatisticsEnabled()).isFalse();
+		assertThat(this.map.getHitCount()).isEqualTo(0);
+		assertThat(this.map.getMissCount()).isEqualTo(0);
+	}
+
+	@Test
+	void shouldRecordStatistics() {
+		this.map.enableStatistics();
+		this.map.put(123, "123");
+		this.map.get(123);
+		this.map.get(123);
+		this.map.get(456);
+		assertThat(this.map.getHitCount()).isEqualTo(2);
+		assertThat(this.map.getMissCount()).isEqualTo(1);
+		this.map.resetStatistics();
+		assertThat(this.map.getHitCount()).isEqualTo(0);
+		assertThat(this.map.getMissCount()).isEqualTo(0);
+	}
+
+	@Test
+	void shouldPurgeGarbageCollectedEntries() {
+		LockFreeReferenceHashMap<Integer, String> weakMap = new LockFreeReferenceHashMap<>(16, ReferenceType.WEAK);
+		weakMap.enableStatistics();
+		for (int i = 0; i < 100; i++) {
+			weakMap.put(i, String.valueOf(i));
+		}
+		weakMap.clearReferences(key -> key % 2 == 0);
+		assertThat(weakMap.get(2)).isNull();
+		assertThat(weakMap.getPurgeCount()).isEqualTo(0);
+
+		weakMap.purgeUnreferencedEntries();
+		assertThat(weakMap.getPurgeCount()).isEqualTo(50);
+		assertThat(weakMap).hasSize(50);
+		assertThat(weakMap.get(3)).isEqualTo("3");
+	}
+
+	@Test
+	void shouldPurgeGarbageCollectedEntriesOnWrite() {
+		LockFreeReferenceHashMap<Integer, String> weakMap = new LockFreeReferenceHashMap<>(16, ReferenceType.WEAK);
+		for (int i = 0; i < 10; i++) {
+			weakMap.put(i, String.valueOf(i));
+		}
+		weakMap.clearReferences(key -> key < 5);
+		weakMap.put(10, "10");
+		assertThat(weakMap).hasSize(6);
+	}
+
+	@Test
+	void shouldSupportConcurrentWrites() throws Exception {
+		LockFreeReferenceHashMap<Integer, Integer> counts = new LockFreeReferenceHashMap<>(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < 10000; j++) {
+						counts.merge(j % 100, 1, Integer::sum);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(counts).hasSize(100);
+		assertThat(counts.values()).allMatch(count -> count == 400);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -221,6 +221,14 @@ class ReflectionUtilsTests {
 		assertThat(ReflectionUtils.findMethod(B.class, "getClass")).isNotNull();
 	}
 
+	@Test
+	void isOverridden() {
+		assertThat(ReflectionUtils.isOverridden(B.class, A.class, "foo", Integer.class)).isFalse();
+		assertThat(ReflectionUtils.isOverridden(B.class, Object.class, "toString")).isFalse();
+		assertThat(ReflectionUtils.isOverridden(B.class, B.class, "bar", String.class)).isFalse();
+		assertThat(ReflectionUtils.isOverridden(String.class, Object.class, "toString")).isTrue();
+	}
+
 	@Disabled("[SPR-8644] findMethod() does not currently support var-args")
 	@Test
 	void findMethodWithVarArgs() throws Exception {
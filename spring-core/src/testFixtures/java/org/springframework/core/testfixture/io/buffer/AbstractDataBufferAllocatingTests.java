@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,6 +45,7 @@ import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.core.io.buffer.PoolingDataBufferFactory;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -139,6 +140,10 @@ public abstract class AbstractDataBufferAllocatingTests {
 				}
 			}
 		}
+		else if (this.bufferFactory instanceof PoolingDataBufferFactory) {
+			long total = ((PoolingDataBufferFactory) this.bufferFactory).getAllocatedBufferCount();
+			assertThat(total).as("DataBuffer Leak: " + total + " unreleased allocations").isEqualTo(0);
+		}
 	}
 
 	private static long getAllocations(List<PoolArenaMetric> metrics) {
@@ -168,7 +173,11 @@ public abstract class AbstractDataBufferAllocatingTests {
 			arguments("DefaultDataBufferFactory - preferDirect = true",
 					new DefaultDataBufferFactory(true)),
 			arguments("DefaultDataBufferFactory - preferDirect = false",
-					new DefaultDataBufferFactory(false))
+					new DefaultDataBufferFactory(false)),
+			arguments("PoolingDataBufferFactory - preferDirect = true",
+					new PoolingDataBufferFactory(true)),
+			arguments("PoolingDataBufferFactory - preferDirect = false",
+					new PoolingDataBufferFactory(false))
 		);
 	}
 
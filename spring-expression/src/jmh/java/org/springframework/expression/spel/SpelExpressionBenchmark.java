@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmarks for {@link org.springframework.expression.spel.standard.SpelExpression#getValue}
+ * in interpreted ({@link SpelCompilerMode#OFF}) and compiled
+ * ({@link SpelCompilerMode#IMMEDIATE}) mode.
+ *
+ * @since 5.2.26
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelExpressionBenchmark {
+
+	@Benchmark
+	public void propertyAccess(ExpressionData data, Blackhole bh) {
+		bh.consume(data.propertyAccess.getValue(data.context, data.root));
+	}
+
+	@Benchmark
+	public void methodInvocation(ExpressionData data, Blackhole bh) {
+		bh.consume(data.methodInvocation.getValue(data.context, data.root));
+	}
+
+	@Benchmark
+	public void booleanOperators(ExpressionData data, Blackhole bh) {
+		bh.consume(data.booleanOperators.getValue(data.context, data.root, Boolean.class));
+	}
+
+	@Benchmark
+	public void mapIndexing(ExpressionData data, Blackhole bh) {
+		bh.consume(data.mapIndexing.getValue(data.context, data.root));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ExpressionData {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		public StandardEvaluationContext context;
+
+		public Order root;
+
+		public Expression propertyAccess;
+
+		public Expression methodInvocation;
+
+		public Expression booleanOperators;
+
+		public Expression mapIndexing;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			SpelExpressionParser parser = new SpelExpressionParser(
+					new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader()));
+			this.context = new StandardEvaluationContext();
+			this.root = new Order();
+			this.propertyAccess = parser.parseExpression("customer.name");
+			this.methodInvocation = parser.parseExpression("customer.name.toUpperCase().length()");
+			this.booleanOperators = parser.parseExpression("quantity > 10 and customer.premium or total < 100.0");
+			this.mapIndexing = parser.parseExpression("attributes['channel']");
+			// Warm up once so that IMMEDIATE mode compiles before measurement starts
+			this.propertyAccess.getValue(this.context, this.root);
+			this.methodInvocation.getValue(this.context, this.root);
+			this.booleanOperators.getValue(this.context, this.root, Boolean.class);
+			this.mapIndexing.getValue(this.context, this.root);
+		}
+	}
+
+
+	public static class Order {
+
+		private final Customer customer = new Customer();
+
+		private final Map<String, String> attributes = new HashMap<>();
+
+		public Order() {
+			this.attributes.put("channel", "web");
+		}
+
+		public Customer getCustomer() {
+			return this.customer;
+		}
+
+		public int getQuantity() {
+			return 12;
+		}
+
+		public double getTotal() {
+			return 87.5d;
+		}
+
+		public Map<String, String> getAttributes() {
+			return this.attributes;
+		}
+	}
+
+
+	public static class Customer {
+
+		public String getName() {
+			return "Spring";
+		}
+
+		public boolean isPremium() {
+			return true;
+		}
+	}
+
+}
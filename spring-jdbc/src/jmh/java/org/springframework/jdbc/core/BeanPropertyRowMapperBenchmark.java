@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Benchmarks for {@link BeanPropertyRowMapper} against an embedded H2 database.
+ * The {@code handWrittenRowMapper} benchmark provides the baseline for the same
+ * query, so that the difference isolates the cost of the row mapping itself.
+ *
+ * @since 5.2.26
+ */
+@BenchmarkMode(Mode.Throughput)
+public class BeanPropertyRowMapperBenchmark {
+
+	private static final String SELECT = "SELECT id, first_name, last_name, email, balance, created_at FROM customer";
+
+
+	@Benchmark
+	public void beanPropertyRowMapper(DatabaseData data, Blackhole bh) {
+		bh.consume(data.jdbcTemplate.query(SELECT, data.rowMapper));
+	}
+
+	@Benchmark
+	public void beanPropertyRowMapperPerQuery(DatabaseData data, Blackhole bh) {
+		bh.consume(data.jdbcTemplate.query(SELECT, new BeanPropertyRowMapper<>(Customer.class)));
+	}
+
+	@Benchmark
+	public void handWrittenRowMapper(DatabaseData data, Blackhole bh) {
+		bh.consume(data.jdbcTemplate.query(SELECT, (rs, rowNum) -> {
+			Customer customer = new Customer();
+			customer.setId(rs.getLong(1));
+			customer.setFirstName(rs.getString(2));
+			customer.setLastName(rs.getString(3));
+			customer.setEmail(rs.getString(4));
+			customer.setBalance(rs.getBigDecimal(5));
+			customer.setCreatedAt(rs.getTimestamp(6));
+			return customer;
+		}));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DatabaseData {
+
+		@Param({"1", "100"})
+		public int rowCount;
+
+		public EmbeddedDatabase database;
+
+		public JdbcTemplate jdbcTemplate;
+
+		public BeanPropertyRowMapper<Customer> rowMapper;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.database = new EmbeddedDatabaseBuilder()
+					.setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+			this.jdbcTemplate = new JdbcTemplate(this.database);
+			this.jdbcTemplate.execute("CREATE TABLE customer (id BIGINT PRIMARY KEY, first_name VARCHAR(50), " +
+					"last_name VARCHAR(50), email VARCHAR(100), balance DECIMAL(10,2), created_at TIMESTAMP)");
+			List<Object[]> rows = new ArrayList<>(this.rowCount);
+			for (int i = 0; i < this.rowCount; i++) {
+				rows.add(new Object[] {i, "First" + i, "Last" + i, "customer" + i + "@example.org",
+						new BigDecimal("100.50"), new Timestamp(System.currentTimeMillis())});
+			}
+			this.jdbcTemplate.batchUpdate("INSERT INTO customer VALUES (?, ?, ?, ?, ?, ?)", rows);
+			this.rowMapper = new BeanPropertyRowMapper<>(Customer.class);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.database.shutdown();
+		}
+	}
+
+
+	public static class Customer {
+
+		private long id;
+
+		private String firstName;
+
+		private String lastName;
+
+		private String email;
+
+		private BigDecimal balance;
+
+		private Date createdAt;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getFirstName() {
+			return this.firstName;
+		}
+
+		public void setFirstName(String firstName) {
+			this.firstName = firstName;
+		}
+
+		public String getLastName() {
+			return this.lastName;
+		}
+
+		public void setLastName(String lastName) {
+			this.lastName = lastName;
+		}
+
+		public String getEmail() {
+			return this.email;
+		}
+
+		public void setEmail(String email) {
+			this.email = email;
+		}
+
+		public BigDecimal getBalance() {
+			return this.balance;
+		}
+
+		public void setBalance(BigDecimal balance) {
+			this.balance = balance;
+		}
+
+		public Date getCreatedAt() {
+			return this.createdAt;
+		}
+
+		public void setCreatedAt(Date createdAt) {
+			this.createdAt = createdAt;
+		}
+	}
+
+}
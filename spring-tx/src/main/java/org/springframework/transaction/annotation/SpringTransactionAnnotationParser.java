@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,14 +21,19 @@ import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotationSelectors;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.core.annotation.RepeatableContainers;
 import org.springframework.lang.Nullable;
 import org.springframework.transaction.interceptor.NoRollbackRuleAttribute;
 import org.springframework.transaction.interceptor.RollbackRuleAttribute;
 import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
 import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Strategy implementation for parsing Spring's {@link Transactional} annotation.
@@ -39,6 +44,9 @@ import org.springframework.transaction.interceptor.TransactionAttribute;
 @SuppressWarnings("serial")
 public class SpringTransactionAnnotationParser implements TransactionAnnotationParser, Serializable {
 
+	private final boolean useAnnotationAttributes = isAttributesParserOverridden();
+
+
 	@Override
 	public boolean isCandidateClass(Class<?> targetClass) {
 		return AnnotationUtils.isCandidateClass(targetClass, Transactional.class);
@@ -47,42 +55,60 @@ public class SpringTransactionAnnotationParser implements TransactionAnnotationP
 	@Override
 	@Nullable
 	public TransactionAttribute parseTransactionAnnotation(AnnotatedElement element) {
-		AnnotationAttributes attributes = AnnotatedElementUtils.findMergedAnnotationAttributes(
-				element, Transactional.class, false, false);
-		if (attributes != null) {
-			return parseTransactionAnnotation(attributes);
-		}
-		else {
+		MergedAnnotation<Transactional> annotation =
+				MergedAnnotations.from(element, SearchStrategy.TYPE_HIERARCHY, RepeatableContainers.none())
+						.get(Transactional.class, null, MergedAnnotationSelectors.firstDirectlyDeclared());
+		if (!annotation.isPresent()) {
 			return null;
 		}
+		if (this.useAnnotationAttributes) {
+			// Subclass expects an AnnotationAttributes map
+			return parseTransactionAnnotation(annotation.asAnnotationAttributes());
+		}
+		return parseTransactionAnnotation(annotation);
 	}
 
 	public TransactionAttribute parseTransactionAnnotation(Transactional ann) {
 		return parseTransactionAnnotation(AnnotationUtils.getAnnotationAttributes(ann, false, false));
 	}
 
+	/**
+	 * Parse the given {@code @Transactional} attributes, delegating to
+	 * {@link #parseTransactionAnnotation(MergedAnnotation)}.
+	 * <p>If overridden, the attributes of each annotated element are copied
+	 * into an {@link AnnotationAttributes} map in order to call this method.
+	 * Consider overriding {@link #parseTransactionAnnotation(MergedAnnotation)}
+	 * instead.
+	 */
 	protected TransactionAttribute parseTransactionAnnotation(AnnotationAttributes attributes) {
+		return parseTransactionAnnotation(MergedAnnotation.of(Transactional.class, attributes));
+	}
+
+	/**
+	 * Parse the given merged {@code @Transactional} annotation, reading its
+	 * attribute values directly rather than through an attributes map.
+	 * @since 5.2.26
+	 */
+	protected TransactionAttribute parseTransactionAnnotation(MergedAnnotation<Transactional> annotation) {
 		RuleBasedTransactionAttribute rbta = new RuleBasedTransactionAttribute();
 
-		Propagation propagation = attributes.getEnum("propagation");
-		rbta.setPropagationBehavior(propagation.value());
-		Isolation isolation = attributes.getEnum("isolation");
-		rbta.setIsolationLevel(isolation.value());
-		rbta.setTimeout(attributes.getNumber("timeout").intValue());
-		rbta.setReadOnly(attributes.getBoolean("readOnly"));
-		rbta.setQualifier(attributes.getString("value"));
+		rbta.setPropagationBehavior(annotation.getEnum("propagation", Propagation.class).value());
+		rbta.setIsolationLevel(annotation.getEnum("isolation", Isolation.class).value());
+		rbta.setTimeout(annotation.getInt("timeout"));
+		rbta.setReadOnly(annotation.getBoolean("readOnly"));
+		rbta.setQualifier(annotation.getString("value"));
 
 		List<RollbackRuleAttribute> rollbackRules = new ArrayList<>();
-		for (Class<?> rbRule : attributes.getClassArray("rollbackFor")) {
+		for (Class<?> rbRule : annotation.getClassArray("rollbackFor")) {
 			rollbackRules.add(new RollbackRuleAttribute(rbRule));
 		}
-		for (String rbRule : attributes.getStringArray("rollbackForClassName")) {
+		for (String rbRule : annotation.getStringArray("rollbackForClassName")) {
 			rollbackRules.add(new RollbackRuleAttribute(rbRule));
 		}
-		for (Class<?> rbRule : attributes.getClassArray("noRollbackFor")) {
+		for (Class<?> rbRule : annotation.getClassArray("noRollbackFor")) {
 			rollbackRules.add(new NoRollbackRuleAttribute(rbRule));
 		}
-		for (String rbRule : attributes.getStringArray("noRollbackForClassName")) {
+		for (String rbRule : annotation.getStringArray("noRollbackForClassName")) {
 			rollbackRules.add(new NoRollbackRuleAttribute(rbRule));
 		}
 		rbta.setRollbackRules(rollbackRules);
@@ -90,6 +116,11 @@ public class SpringTransactionAnnotationParser implements TransactionAnnotationP
 		return rbta;
 	}
 
+	private boolean isAttributesParserOverridden() {
+		return ReflectionUtils.isOverridden(getClass(), SpringTransactionAnnotationParser.class,
+				"parseTransactionAnnotation", AnnotationAttributes.class);
+	}
+
 
 	@Override
 	public boolean equals(@Nullable Object other) {
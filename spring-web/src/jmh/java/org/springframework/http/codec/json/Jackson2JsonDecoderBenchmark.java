@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+/**
+ * Benchmarks for {@link Jackson2JsonDecoder}, decoding a JSON array of small
+ * objects that arrives split into fixed-size chunks, as it would from a
+ * network connection.
+ *
+ * @since 5.2.26
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonDecoderBenchmark {
+
+	private static final ResolvableType ELEMENT_TYPE = ResolvableType.forClass(Item.class);
+
+	private static final ResolvableType LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, Item.class);
+
+
+	@Benchmark
+	public void decodeElementStream(DecoderData data, Blackhole bh) {
+		bh.consume(data.decoder.decode(data.chunks(), ELEMENT_TYPE, MediaType.APPLICATION_JSON,
+				Collections.emptyMap()).collectList().block());
+	}
+
+	@Benchmark
+	public void decodeToList(DecoderData data, Blackhole bh) {
+		bh.consume(data.decoder.decodeToMono(data.chunks(), LIST_TYPE, MediaType.APPLICATION_JSON,
+				Collections.emptyMap()).block());
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DecoderData {
+
+		@Param({"10", "1000"})
+		public int elementCount;
+
+		@Param({"8192"})
+		public int chunkSize;
+
+		public Jackson2JsonDecoder decoder;
+
+		private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		private byte[] content;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.decoder = new Jackson2JsonDecoder();
+			this.decoder.setMaxInMemorySize(-1);
+			StringBuilder json = new StringBuilder("[");
+			for (int i = 0; i < this.elementCount; i++) {
+				if (i > 0) {
+					json.append(',');
+				}
+				json.append("{\"id\":").append(i)
+						.append(",\"name\":\"item-").append(i)
+						.append("\",\"description\":\"An item used to benchmark JSON decoding\"")
+						.append(",\"price\":").append(i * 1.5d)
+						.append(",\"available\":").append(i % 2 == 0).append('}');
+			}
+			json.append(']');
+			this.content = json.toString().getBytes(StandardCharsets.UTF_8);
+		}
+
+		public Flux<DataBuffer> chunks() {
+			List<DataBuffer> buffers = new ArrayList<>(this.content.length / this.chunkSize + 1);
+			for (int offset = 0; offset < this.content.length; offset += this.chunkSize) {
+				int length = Math.min(this.chunkSize, this.content.length - offset);
+				DataBuffer buffer = this.bufferFactory.allocateBuffer(length);
+				buffer.write(this.content, offset, length);
+				buffers.add(buffer);
+			}
+			return Flux.fromIterable(buffers);
+		}
+	}
+
+
+	public static class Item {
+
+		private long id;
+
+		private String name;
+
+		private String description;
+
+		private double price;
+
+		private boolean available;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getDescription() {
+			return this.description;
+		}
+
+		public void setDescription(String description) {
+			this.description = description;
+		}
+
+		public double getPrice() {
+			return this.price;
+		}
+
+		public void setPrice(double price) {
+			this.price = price;
+		}
+
+		public boolean isAvailable() {
+			return this.available;
+		}
+
+		public void setAvailable(boolean available) {
+			this.available = available;
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.server.PathContainer;
+
+/**
+ * Benchmarks for {@link PathPattern#matches(PathContainer)}, using the same
+ * patterns and paths as the {@code AntPathMatcherBenchmark} in spring-core so
+ * that results can be compared side by side.
+ *
+ * @since 5.2.26
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PathPatternBenchmark {
+
+	@Benchmark
+	public void matchAllRoutes(RouteMatchData data, Blackhole bh) {
+		for (PathContainer path : data.paths) {
+			for (PathPattern pattern : data.patterns) {
+				bh.consume(pattern.matches(path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void parseAndMatchAllRoutes(RouteMatchData data, Blackhole bh) {
+		for (String path : RouteMatchData.PATHS) {
+			PathContainer pathContainer = PathContainer.parsePath(path);
+			for (PathPattern pattern : data.patterns) {
+				bh.consume(pattern.matches(pathContainer));
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class RouteMatchData {
+
+		static final String[] PATTERNS = {
+				"/", "/about", "/about/team", "/static/**", "/static/*.css", "/images/*.png",
+				"/api/users", "/api/users/{id}", "/api/users/{id}/orders", "/api/users/{id}/orders/{orderId}",
+				"/api/projects/{project}/releases/{version:[\\d.]+}", "/admin/{tenant}/**"};
+
+		static final String[] PATHS = {
+				"/", "/about/team", "/static/css/main.css", "/static/app.css", "/images/logo.png",
+				"/api/users/42", "/api/users/42/orders/1337", "/api/projects/spring/releases/5.2.26",
+				"/admin/tenant/acme/settings", "/not/found"};
+
+		public List<PathPattern> patterns;
+
+		public List<PathContainer> paths;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			PathPatternParser parser = new PathPatternParser();
+			this.patterns = new ArrayList<>(PATTERNS.length);
+			for (String pattern : PATTERNS) {
+				this.patterns.add(parser.parse(pattern));
+			}
+			this.paths = new ArrayList<>(PATHS.length);
+			for (String path : PATHS) {
+				this.paths.add(PathContainer.parsePath(path));
+			}
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -34,6 +35,7 @@ import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 
 import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
@@ -90,13 +92,20 @@ final class Jackson2Tokenizer {
 
 	private List<TokenBuffer> tokenize(DataBuffer dataBuffer) {
 		int bufferSize = dataBuffer.readableByteCount();
-		byte[] bytes = new byte[bufferSize];
-		dataBuffer.read(bytes);
-		DataBufferUtils.release(dataBuffer);
-
 		try {
-			this.inputFeeder.feedInput(bytes, 0, bytes.length);
-			List<TokenBuffer> result = parseTokenBufferFlux();
+			List<TokenBuffer> result;
+			if (dataBuffer instanceof CompositeDataBuffer) {
+				// Feed component by component instead of gathering a copy first
+				result = new ArrayList<>();
+				for (ByteBuffer byteBuffer : ((CompositeDataBuffer) dataBuffer).asByteBuffers()) {
+					feedInput(byteBuffer);
+					result.addAll(parseTokenBufferFlux());
+				}
+			}
+			else {
+				feedInput(dataBuffer.asByteBuffer());
+				result = parseTokenBufferFlux();
+			}
 			assertInMemorySize(bufferSize, result);
 			return result;
 		}
@@ -106,6 +115,22 @@ final class Jackson2Tokenizer {
 		catch (IOException ex) {
 			throw Exceptions.propagate(ex);
 		}
+		finally {
+			// Released only once parsed, since the parser may refer to the buffer's array
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+	private void feedInput(ByteBuffer byteBuffer) throws IOException {
+		if (byteBuffer.hasArray()) {
+			int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+			this.inputFeeder.feedInput(byteBuffer.array(), offset, offset + byteBuffer.remaining());
+		}
+		else {
+			byte[] bytes = new byte[byteBuffer.remaining()];
+			byteBuffer.get(bytes);
+			this.inputFeeder.feedInput(bytes, 0, bytes.length);
+		}
 	}
 
 	private Flux<TokenBuffer> endOfInput() {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,7 +38,11 @@ class DefaultRequestPath implements RequestPath {
 
 
 	DefaultRequestPath(URI uri, @Nullable String contextPath) {
-		this.fullPath = PathContainer.parsePath(uri.getRawPath());
+		this(uri.getRawPath(), contextPath);
+	}
+
+	DefaultRequestPath(String rawPath, @Nullable String contextPath) {
+		this.fullPath = PathContainer.parsePath(rawPath);
 		this.contextPath = initContextPath(this.fullPath, contextPath);
 		this.pathWithinApplication = extractPathWithinApplication(this.fullPath, this.contextPath);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -60,4 +60,16 @@ public interface RequestPath extends PathContainer {
 		return new DefaultRequestPath(uri, contextPath);
 	}
 
+	/**
+	 * Variant of {@link #parse(URI, String)} with the encoded
+	 * {@link URI#getRawPath() raw path}, e.g. as returned from
+	 * {@code HttpServletRequest#getRequestURI()}.
+	 * @param rawPath the path to parse
+	 * @param contextPath the contextPath prefix, if present
+	 * @since 5.2.26
+	 */
+	static RequestPath parse(String rawPath, @Nullable String contextPath) {
+		return new DefaultRequestPath(rawPath, contextPath);
+	}
+
 }
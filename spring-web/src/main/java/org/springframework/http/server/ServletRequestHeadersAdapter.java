@@ -0,0 +1,436 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server;
+
+import java.nio.charset.Charset;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@code MultiValueMap} implementation for wrapping the headers of an
+ * {@link HttpServletRequest}, reading header values on demand rather than
+ * copying all of them upfront.
+ *
+ * <p>The "Content-Type" and "Content-Length" headers are complemented with
+ * the {@link HttpServletRequest#getContentType() content type},
+ * {@link HttpServletRequest#getCharacterEncoding() character encoding} and
+ * {@link HttpServletRequest#getContentLength() content length} exposed as
+ * properties of the Servlet request, if not present as headers.
+ *
+ * <p>The first modification copies all headers into a writable map which
+ * is then used for all further access.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ * @see ServletServerHttpRequest#getHeaders()
+ * @see org.springframework.http.server.reactive.ServletHttpHandlerAdapter
+ */
+public class ServletRequestHeadersAdapter implements MultiValueMap<String, String> {
+
+	private final HttpServletRequest request;
+
+	@Nullable
+	private List<String> headerNames;
+
+	@Nullable
+	private String contentType;
+
+	private boolean contentTypeResolved;
+
+	@Nullable
+	private String contentLength;
+
+	private boolean contentLengthResolved;
+
+	@Nullable
+	private MultiValueMap<String, String> writableHeaders;
+
+
+	public ServletRequestHeadersAdapter(HttpServletRequest request) {
+		this.request = request;
+	}
+
+
+	@Override
+	@Nullable
+	public String getFirst(String key) {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.getFirst(key);
+		}
+		if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(key)) {
+			return getContentType();
+		}
+		if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(key)) {
+			return getContentLength();
+		}
+		return this.request.getHeader(key);
+	}
+
+	@Override
+	@Nullable
+	public List<String> get(Object key) {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.get(key);
+		}
+		if (!(key instanceof String)) {
+			return null;
+		}
+		String name = (String) key;
+		if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			String value = getFirst(name);
+			return (value != null ? new ArrayList<>(Collections.singletonList(value)) : null);
+		}
+		Enumeration<String> values = this.request.getHeaders(name);
+		return (values != null && values.hasMoreElements() ? Collections.list(values) : null);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.containsKey(key);
+		}
+		return (key instanceof String && getFirst((String) key) != null);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.containsValue(value);
+		}
+		for (String name : getHeaderNames()) {
+			List<String> values = get(name);
+			if (values != null && values.contains(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return (this.writableHeaders != null ? this.writableHeaders.size() : getHeaderNames().size());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+
+	@Override
+	public Set<String> keySet() {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.keySet();
+		}
+		return new AbstractSet<String>() {
+			@Override
+			public Iterator<String> iterator() {
+				return Collections.unmodifiableList(getHeaderNames()).iterator();
+			}
+			@Override
+			public boolean contains(Object key) {
+				return containsKey(key);
+			}
+			@Override
+			public int size() {
+				return getHeaderNames().size();
+			}
+		};
+	}
+
+	@Override
+	public Collection<List<String>> values() {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.values();
+		}
+		List<List<String>> values = new ArrayList<>(getHeaderNames().size());
+		for (String name : getHeaderNames()) {
+			values.add(get(name));
+		}
+		return values;
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.entrySet();
+		}
+		return new AbstractSet<Entry<String, List<String>>>() {
+			@Override
+			public Iterator<Entry<String, List<String>>> iterator() {
+				return new EntryIterator(getHeaderNames().iterator());
+			}
+			@Override
+			public int size() {
+				return getHeaderNames().size();
+			}
+		};
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.toSingleValueMap();
+		}
+		Map<String, String> singleValueMap = new LinkedHashMap<>(getHeaderNames().size());
+		for (String name : getHeaderNames()) {
+			singleValueMap.put(name, getFirst(name));
+		}
+		return singleValueMap;
+	}
+
+	@Override
+	public void add(String key, @Nullable String value) {
+		getWritableHeaders().add(key, value);
+	}
+
+	@Override
+	public void addAll(String key, List<? extends String> values) {
+		getWritableHeaders().addAll(key, values);
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		getWritableHeaders().addAll(values);
+	}
+
+	@Override
+	public void set(String key, @Nullable String value) {
+		getWritableHeaders().set(key, value);
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		getWritableHeaders().setAll(values);
+	}
+
+	@Override
+	@Nullable
+	public List<String> put(String key, List<String> value) {
+		return getWritableHeaders().put(key, value);
+	}
+
+	@Override
+	@Nullable
+	public List<String> remove(Object key) {
+		return getWritableHeaders().remove(key);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends List<String>> map) {
+		getWritableHeaders().putAll(map);
+	}
+
+	@Override
+	public void clear() {
+		getWritableHeaders().clear();
+	}
+
+
+	/**
+	 * Return the header names of the request, followed by "Content-Type"
+	 * and "Content-Length" if only available as request properties.
+	 */
+	private List<String> getHeaderNames() {
+		List<String> names = this.headerNames;
+		if (names == null) {
+			names = new ArrayList<>();
+			boolean hasContentType = false;
+			boolean hasContentLength = false;
+			for (Enumeration<String> e = this.request.getHeaderNames(); e != null && e.hasMoreElements();) {
+				String name = e.nextElement();
+				hasContentType |= HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name);
+				hasContentLength |= HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+				names.add(name);
+			}
+			if (!hasContentType && getContentType() != null) {
+				names.add(HttpHeaders.CONTENT_TYPE);
+			}
+			if (!hasContentLength && getContentLength() != null) {
+				names.add(HttpHeaders.CONTENT_LENGTH);
+			}
+			this.headerNames = names;
+		}
+		return names;
+	}
+
+	@Nullable
+	private String getContentType() {
+		if (!this.contentTypeResolved) {
+			this.contentType = initContentType();
+			this.contentTypeResolved = true;
+		}
+		return this.contentType;
+	}
+
+	@Nullable
+	private String initContentType() {
+		String value = this.request.getHeader(HttpHeaders.CONTENT_TYPE);
+		try {
+			MediaType contentType = null;
+			if (StringUtils.hasLength(value)) {
+				contentType = MediaType.parseMediaType(value);
+			}
+			else {
+				String requestContentType = this.request.getContentType();
+				if (StringUtils.hasLength(requestContentType)) {
+					contentType = MediaType.parseMediaType(requestContentType);
+					value = contentType.toString();
+				}
+			}
+			if (contentType != null && contentType.getCharset() == null) {
+				String requestEncoding = this.request.getCharacterEncoding();
+				if (StringUtils.hasLength(requestEncoding)) {
+					Charset charSet = Charset.forName(requestEncoding);
+					Map<String, String> params = new LinkedCaseInsensitiveMap<>();
+					params.putAll(contentType.getParameters());
+					params.put("charset", charSet.toString());
+					value = new MediaType(contentType.getType(), contentType.getSubtype(), params).toString();
+				}
+			}
+		}
+		catch (InvalidMediaTypeException ex) {
+			// Ignore: simply not adding an invalid content type from the request properties...
+		}
+		return value;
+	}
+
+	@Nullable
+	private String getContentLength() {
+		if (!this.contentLengthResolved) {
+			String value = this.request.getHeader(HttpHeaders.CONTENT_LENGTH);
+			if (value == null) {
+				int requestContentLength = this.request.getContentLength();
+				if (requestContentLength != -1) {
+					value = Integer.toString(requestContentLength);
+				}
+			}
+			this.contentLength = value;
+			this.contentLengthResolved = true;
+		}
+		return this.contentLength;
+	}
+
+	private MultiValueMap<String, String> getWritableHeaders() {
+		MultiValueMap<String, String> headers = this.writableHeaders;
+		if (headers == null) {
+			headers = CollectionUtils.toMultiValueMap(new LinkedCaseInsensitiveMap<>(8, Locale.ENGLISH));
+			for (String name : getHeaderNames()) {
+				List<String> values = get(name);
+				if (values != null) {
+					headers.put(name, values);
+				}
+			}
+			this.writableHeaders = headers;
+		}
+		return headers;
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		return (this.writableHeaders != null ? this.writableHeaders.equals(other) : toMap().equals(other));
+	}
+
+	@Override
+	public int hashCode() {
+		return (this.writableHeaders != null ? this.writableHeaders.hashCode() : toMap().hashCode());
+	}
+
+	private Map<String, List<String>> toMap() {
+		Map<String, List<String>> map = new LinkedCaseInsensitiveMap<>(8, Locale.ENGLISH);
+		for (String name : getHeaderNames()) {
+			map.put(name, get(name));
+		}
+		return map;
+	}
+
+	@Override
+	public String toString() {
+		return HttpHeaders.formatHeaders(this);
+	}
+
+
+	private class EntryIterator implements Iterator<Entry<String, List<String>>> {
+
+		private final Iterator<String> names;
+
+		EntryIterator(Iterator<String> names) {
+			this.names = names;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.names.hasNext();
+		}
+
+		@Override
+		public Entry<String, List<String>> next() {
+			return new HeaderEntry(this.names.next());
+		}
+	}
+
+
+	private final class HeaderEntry implements Entry<String, List<String>> {
+
+		private final String key;
+
+		HeaderEntry(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Nullable
+		@Override
+		public List<String> getValue() {
+			return get(this.key);
+		}
+
+		@Nullable
+		@Override
+		public List<String> setValue(List<String> value) {
+			return put(this.key, value);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,7 +22,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.security.cert.X509Certificate;
-import java.util.Enumeration;
 import java.util.Map;
 
 import javax.servlet.AsyncContext;
@@ -42,6 +41,7 @@ import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletRequestHeadersAdapter;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -101,14 +101,10 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 
 
 	private static HttpHeaders createDefaultHttpHeaders(HttpServletRequest request) {
-		HttpHeaders headers = new HttpHeaders();
-		for (Enumeration<?> names = request.getHeaderNames(); names.hasMoreElements(); ) {
-			String name = (String) names.nextElement();
-			for (Enumeration<?> values = request.getHeaders(name); values.hasMoreElements(); ) {
-				headers.add(name, (String) values.nextElement());
-			}
-		}
-		return headers;
+		// Headers are read on demand. Like initHeaders, the adapter complements
+		// Content-Type and Content-Length with the Servlet request properties,
+		// so the resulting headers are the same as with a full copy.
+		return new HttpHeaders(new ServletRequestHeadersAdapter(request));
 	}
 
 	private static URI initUri(HttpServletRequest request) throws URISyntaxException {
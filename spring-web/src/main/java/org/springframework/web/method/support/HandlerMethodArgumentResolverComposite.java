@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -121,6 +121,24 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 		return resolver.resolveArgument(parameter, mavContainer, webRequest, binderFactory);
 	}
 
+	/**
+	 * Find the registered {@link HandlerMethodArgumentResolver} for each of the
+	 * given method parameters, e.g. to select the resolvers for a handler method
+	 * once and {@link InvocableHandlerMethod#setParameterArgumentResolvers reuse}
+	 * them for every invocation.
+	 * @param parameters the method parameters to find resolvers for
+	 * @return the resolvers by parameter index, with {@code null} for any
+	 * parameter not supported by the registered resolvers
+	 * @since 5.2.26
+	 */
+	public HandlerMethodArgumentResolver[] getArgumentResolvers(MethodParameter[] parameters) {
+		HandlerMethodArgumentResolver[] result = new HandlerMethodArgumentResolver[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			result[i] = getArgumentResolver(parameters[i]);
+		}
+		return result;
+	}
+
 	/**
 	 * Find a registered {@link HandlerMethodArgumentResolver} that supports
 	 * the given method parameter.
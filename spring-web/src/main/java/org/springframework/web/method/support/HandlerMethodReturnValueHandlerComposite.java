@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,6 +40,8 @@ public class HandlerMethodReturnValueHandlerComposite implements HandlerMethodRe
 
 	private final List<HandlerMethodReturnValueHandler> returnValueHandlers = new ArrayList<>();
 
+	private boolean hasAsyncHandlers;
+
 
 	/**
 	 * Return a read-only list with the registered handlers, or an empty list.
@@ -84,7 +86,7 @@ public class HandlerMethodReturnValueHandlerComposite implements HandlerMethodRe
 
 	@Nullable
 	private HandlerMethodReturnValueHandler selectHandler(@Nullable Object value, MethodParameter returnType) {
-		boolean isAsyncValue = isAsyncReturnValue(value, returnType);
+		boolean isAsyncValue = (this.hasAsyncHandlers && isAsyncReturnValue(value, returnType));
 		for (HandlerMethodReturnValueHandler handler : this.returnValueHandlers) {
 			if (isAsyncValue && !(handler instanceof AsyncHandlerMethodReturnValueHandler)) {
 				continue;
@@ -111,6 +113,7 @@ public class HandlerMethodReturnValueHandlerComposite implements HandlerMethodRe
 	 */
 	public HandlerMethodReturnValueHandlerComposite addHandler(HandlerMethodReturnValueHandler handler) {
 		this.returnValueHandlers.add(handler);
+		this.hasAsyncHandlers |= (handler instanceof AsyncHandlerMethodReturnValueHandler);
 		return this;
 	}
 
@@ -121,7 +124,9 @@ public class HandlerMethodReturnValueHandlerComposite implements HandlerMethodRe
 			@Nullable List<? extends HandlerMethodReturnValueHandler> handlers) {
 
 		if (handlers != null) {
-			this.returnValueHandlers.addAll(handlers);
+			for (HandlerMethodReturnValueHandler handler : handlers) {
+				addHandler(handler);
+			}
 		}
 		return this;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.WebDataBinder;
@@ -48,6 +49,9 @@ public class InvocableHandlerMethod extends HandlerMethod {
 
 	private HandlerMethodArgumentResolverComposite resolvers = new HandlerMethodArgumentResolverComposite();
 
+	@Nullable
+	private HandlerMethodArgumentResolver[] parameterResolvers;
+
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
 	@Nullable
@@ -90,6 +94,23 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		this.resolvers = argumentResolvers;
 	}
 
+	/**
+	 * Set the resolvers to use for each of the {@link #getMethodParameters()
+	 * method parameters}, as selected in advance through
+	 * {@link HandlerMethodArgumentResolverComposite#getArgumentResolvers} from
+	 * the configured {@link #setHandlerMethodArgumentResolvers resolvers}.
+	 * This allows a pre-selection per handler method to be shared by all
+	 * invocations, avoiding a resolver lookup per parameter and invocation.
+	 * <p>Parameters without a pre-selected resolver fall back on the lookup.
+	 * @param parameterResolvers the resolvers by parameter index
+	 * @since 5.2.26
+	 */
+	public void setParameterArgumentResolvers(@Nullable HandlerMethodArgumentResolver[] parameterResolvers) {
+		Assert.isTrue(parameterResolvers == null || parameterResolvers.length == getMethodParameters().length,
+				"Expected a resolver per method parameter");
+		this.parameterResolvers = parameterResolvers;
+	}
+
 	/**
 	 * Set the ParameterNameDiscoverer for resolving parameter names when needed
 	 * (e.g. default request attribute name).
@@ -160,11 +181,16 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			if (args[i] != null) {
 				continue;
 			}
-			if (!this.resolvers.supportsParameter(parameter)) {
-				throw new IllegalStateException(formatArgumentError(parameter, "No suitable resolver"));
+			HandlerMethodArgumentResolver resolver =
+					(this.parameterResolvers != null ? this.parameterResolvers[i] : null);
+			if (resolver == null) {
+				if (!this.resolvers.supportsParameter(parameter)) {
+					throw new IllegalStateException(formatArgumentError(parameter, "No suitable resolver"));
+				}
+				resolver = this.resolvers;
 			}
 			try {
-				args[i] = this.resolvers.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
+				args[i] = resolver.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
 			}
 			catch (Exception ex) {
 				// Leave stack trace for later, exception may actually be resolved and handled...
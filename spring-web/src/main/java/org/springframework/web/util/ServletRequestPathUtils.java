@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Utility class to parse the path of an {@link HttpServletRequest} into a
+ * {@link RequestPath} and cache it in a request attribute for further access,
+ * e.g. for matching against parsed
+ * {@link org.springframework.web.util.pattern.PathPattern PathPatterns}.
+ *
+ * <p>The {@link RequestPath#contextPath() contextPath} of the parsed path
+ * includes the Servlet path for a prefix-mapped Servlet, so that
+ * {@link RequestPath#pathWithinApplication()} corresponds to the path that
+ * {@link UrlPathHelper} would use for lookups with default settings.
+ *
+ * @author Peggy M
+ * @since 5.2.26
+ */
+public abstract class ServletRequestPathUtils {
+
+	/** Name of Servlet request attribute that holds the parsed {@link RequestPath}. */
+	public static final String PATH_ATTRIBUTE = ServletRequestPathUtils.class.getName() + ".PATH";
+
+
+	/**
+	 * Parse the {@link HttpServletRequest#getRequestURI() requestURI} to a
+	 * {@link RequestPath} and save it in the request attribute
+	 * {@link #PATH_ATTRIBUTE} for subsequent use with
+	 * {@link org.springframework.web.util.pattern.PathPattern parsed patterns}.
+	 * <p>For an include dispatch, the include request attributes are used.
+	 * @param request the current request
+	 * @return the parsed path
+	 */
+	public static RequestPath parseAndCache(HttpServletRequest request) {
+		RequestPath requestPath = parse(request);
+		request.setAttribute(PATH_ATTRIBUTE, requestPath);
+		return requestPath;
+	}
+
+	/**
+	 * Return a {@link #parseAndCache previously} parsed and cached {@code RequestPath}.
+	 * @param request the current request
+	 * @throws IllegalArgumentException if not found
+	 */
+	public static RequestPath getParsedRequestPath(ServletRequest request) {
+		RequestPath path = (RequestPath) request.getAttribute(PATH_ATTRIBUTE);
+		Assert.notNull(path, "Expected parsed RequestPath in request attribute \"" + PATH_ATTRIBUTE + "\".");
+		return path;
+	}
+
+	/**
+	 * Set the cached, parsed {@code RequestPath} to the given value.
+	 * @param requestPath the value to set to, or if {@code null} the cache
+	 * value is cleared
+	 * @param request the current request
+	 */
+	public static void setParsedRequestPath(@Nullable RequestPath requestPath, ServletRequest request) {
+		if (requestPath != null) {
+			request.setAttribute(PATH_ATTRIBUTE, requestPath);
+		}
+		else {
+			request.removeAttribute(PATH_ATTRIBUTE);
+		}
+	}
+
+	/**
+	 * Check for a {@link #parseAndCache previously} parsed and cached {@code RequestPath}.
+	 * @param request the current request
+	 */
+	public static boolean hasParsedRequestPath(ServletRequest request) {
+		return (request.getAttribute(PATH_ATTRIBUTE) != null);
+	}
+
+	/**
+	 * Remove the request attribute {@link #PATH_ATTRIBUTE} that holds a
+	 * {@link #parseAndCache previously} parsed and cached {@code RequestPath}.
+	 * @param request the current request
+	 */
+	public static void clearParsedRequestPath(ServletRequest request) {
+		request.removeAttribute(PATH_ATTRIBUTE);
+	}
+
+	/**
+	 * Return the decoded value of the given path with path parameters removed,
+	 * i.e. the concatenation of separators and
+	 * {@link PathContainer.PathSegment#valueToMatch() values to match}.
+	 * @param path the path to obtain the value of
+	 * @return the decoded value, e.g. for use as a String lookup path
+	 */
+	public static String getValueToMatch(PathContainer path) {
+		List<PathContainer.Element> elements = path.elements();
+		if (elements.size() == 1 && elements.get(0) instanceof PathContainer.Separator) {
+			return elements.get(0).value();
+		}
+		StringBuilder sb = new StringBuilder(path.value().length());
+		for (PathContainer.Element element : elements) {
+			if (element instanceof PathContainer.PathSegment) {
+				sb.append(((PathContainer.PathSegment) element).valueToMatch());
+			}
+			else {
+				sb.append(element.value());
+			}
+		}
+		return sb.toString();
+	}
+
+
+	private static RequestPath parse(HttpServletRequest request) {
+		String requestUri = (String) request.getAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE);
+		String contextPath;
+		String servletPath;
+		String pathInfo;
+		if (requestUri != null) {
+			contextPath = (String) request.getAttribute(WebUtils.INCLUDE_CONTEXT_PATH_ATTRIBUTE);
+			servletPath = (String) request.getAttribute(WebUtils.INCLUDE_SERVLET_PATH_ATTRIBUTE);
+			pathInfo = (String) request.getAttribute(WebUtils.INCLUDE_PATH_INFO_ATTRIBUTE);
+		}
+		else {
+			requestUri = request.getRequestURI();
+			contextPath = request.getContextPath();
+			servletPath = request.getServletPath();
+			pathInfo = request.getPathInfo();
+		}
+		return RequestPath.parse(requestUri, getPathPrefix(requestUri, contextPath, servletPath, pathInfo));
+	}
+
+	/**
+	 * Determine the raw prefix of the request URI to treat as context path:
+	 * the context path plus, for a prefix-mapped Servlet, the encoded form
+	 * of the Servlet path, as far as it can be aligned with full path
+	 * segments of the request URI.
+	 */
+	private static String getPathPrefix(String requestUri, @Nullable String contextPath,
+			@Nullable String servletPath, @Nullable String pathInfo) {
+
+		if (!StringUtils.hasLength(contextPath) || !isSegmentPrefix(requestUri, contextPath.length()) ||
+				!requestUri.startsWith(contextPath)) {
+			contextPath = "";
+		}
+		if (!StringUtils.hasLength(servletPath) || pathInfo == null || servletPath.charAt(0) != '/') {
+			return contextPath;
+		}
+		int segmentCount = StringUtils.countOccurrencesOf(servletPath, "/");
+		int end = contextPath.length();
+		for (int i = 0; i < segmentCount; i++) {
+			if (end >= requestUri.length() || requestUri.charAt(end) != '/') {
+				return contextPath;
+			}
+			int next = requestUri.indexOf('/', end + 1);
+			end = (next != -1 ? next : requestUri.length());
+		}
+		String prefix = requestUri.substring(contextPath.length(), end);
+		if (prefix.endsWith("/")) {
+			return contextPath;
+		}
+		String decodedPrefix = StringUtils.uriDecode(removeSemicolonContent(prefix), StandardCharsets.UTF_8);
+		return (decodedPrefix.equals(servletPath) ? contextPath + prefix : contextPath);
+	}
+
+	private static boolean isSegmentPrefix(String requestUri, int length) {
+		return (requestUri.length() == length || (requestUri.length() > length && requestUri.charAt(length) == '/'));
+	}
+
+	private static String removeSemicolonContent(String path) {
+		int semicolonIndex = path.indexOf(';');
+		if (semicolonIndex == -1) {
+			return path;
+		}
+		StringBuilder sb = new StringBuilder(path.length());
+		int start = 0;
+		while (semicolonIndex != -1) {
+			sb.append(path, start, semicolonIndex);
+			int slashIndex = path.indexOf('/', semicolonIndex + 1);
+			if (slashIndex == -1) {
+				return sb.toString();
+			}
+			start = slashIndex;
+			semicolonIndex = path.indexOf(';', start);
+		}
+		sb.append(path, start, path.length());
+		return sb.toString();
+	}
+
+}
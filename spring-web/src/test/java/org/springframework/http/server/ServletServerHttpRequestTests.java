@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -151,6 +152,24 @@ public class ServletServerHttpRequestTests {
 		assertThat(headers.getContentType()).isNull();
 	}
 
+	@Test
+	public void getHeadersWithContentLengthAndModification() {
+		mockRequest.addHeader("MyHeader", "value1");
+		mockRequest.setContent("Hello World".getBytes(StandardCharsets.UTF_8));
+
+		HttpHeaders headers = request.getHeaders();
+		assertThat(headers.keySet()).containsExactly("MyHeader", HttpHeaders.CONTENT_LENGTH);
+		assertThat(headers.getContentLength()).isEqualTo(11);
+		assertThat(headers.containsKey("myheader")).isTrue();
+
+		headers.add("MyHeader", "value2");
+		headers.setContentType(MediaType.TEXT_PLAIN);
+		assertThat(headers.get("MyHeader")).containsExactly("value1", "value2");
+		assertThat(headers.getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+		assertThat(headers.getContentLength()).isEqualTo(11);
+		assertThat(Collections.list(mockRequest.getHeaders("MyHeader"))).containsExactly("value1");
+	}
+
 	@Test
 	public void getBody() throws IOException {
 		byte[] content = "Hello World".getBytes("UTF-8");
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.http.server.reactive;
 
 import java.io.ByteArrayInputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -28,7 +29,9 @@ import javax.servlet.ServletInputStream;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.testfixture.servlet.DelegatingServletInputStream;
 import org.springframework.web.testfixture.servlet.MockAsyncContext;
@@ -188,6 +191,41 @@ public class ServerHttpRequestTests {
 				.hasMessage("Invalid contextPath '/context': must match the start of requestPath: '/fail'");
 	}
 
+	@Test
+	void headersFromServletRequest() throws Exception {
+		MockHttpServletRequest servletRequest = new TestHttpServletRequest(URI.create("/path"));
+		servletRequest.addHeader("Accept", "text/plain");
+		servletRequest.addHeader("X-Custom", "a");
+		servletRequest.addHeader("X-Custom", "b");
+
+		HttpHeaders headers = createHttpRequest(servletRequest).getHeaders();
+		assertThat(headers.getAccept()).containsExactly(MediaType.TEXT_PLAIN);
+		assertThat(headers.get("x-custom")).containsExactly("a", "b");
+		assertThat(headers.keySet()).containsExactly("Accept", "X-Custom");
+		assertThat(headers.getContentType()).isNull();
+		assertThat(headers.getContentLength()).isEqualTo(-1);
+	}
+
+	@Test
+	void contentHeadersComplementedFromServletRequestProperties() throws Exception {
+		MockHttpServletRequest servletRequest = new TestHttpServletRequest(URI.create("/path")) {
+			@Override
+			public String getCharacterEncoding() {
+				return "UTF-8";
+			}
+			@Override
+			public int getContentLength() {
+				return 3;
+			}
+		};
+		servletRequest.addHeader("Content-Type", "text/plain");
+
+		HttpHeaders headers = createHttpRequest(servletRequest).getHeaders();
+		assertThat(headers.getContentType()).isEqualTo(new MediaType("text", "plain", StandardCharsets.UTF_8));
+		assertThat(headers.getContentLength()).isEqualTo(3);
+		assertThat(headers.keySet()).containsExactly("Content-Type", "Content-Length");
+	}
+
 	private ServerHttpRequest createHttpRequest(String uriString) throws Exception {
 		return createHttpRequest(uriString, "");
 	}
@@ -196,6 +234,10 @@ public class ServerHttpRequestTests {
 		URI uri = URI.create(uriString);
 		MockHttpServletRequest request = new TestHttpServletRequest(uri);
 		request.setContextPath(contextPath);
+		return createHttpRequest(request);
+	}
+
+	private ServerHttpRequest createHttpRequest(MockHttpServletRequest request) throws Exception {
 		AsyncContext asyncContext = new MockAsyncContext(request, new MockHttpServletResponse());
 		return new ServletServerHttpRequest(request, asyncContext, "", new DefaultDataBufferFactory(), 1024);
 	}
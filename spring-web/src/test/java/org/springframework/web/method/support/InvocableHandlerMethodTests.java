@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -78,6 +78,37 @@ public class InvocableHandlerMethodTests {
 		assertThat(returnValue).isEqualTo("null-null");
 	}
 
+	@Test
+	public void resolveArgWithParameterArgumentResolvers() throws Exception {
+		this.composite.addResolver(new StubArgumentResolver(99));
+		this.composite.addResolver(new StubArgumentResolver("value"));
+
+		InvocableHandlerMethod handlerMethod = getInvocable(Integer.class, String.class);
+		HandlerMethodArgumentResolver[] resolvers =
+				this.composite.getArgumentResolvers(handlerMethod.getMethodParameters());
+		assertThat(resolvers).containsExactly(getStubResolver(0), getStubResolver(1));
+
+		handlerMethod.setParameterArgumentResolvers(resolvers);
+		assertThat(handlerMethod.invokeForRequest(request, null)).isEqualTo("99-value");
+		assertThat(handlerMethod.invokeForRequest(request, null, 98)).isEqualTo("98-value");
+		assertThat(getStubResolver(0).getResolvedParameters().size()).isEqualTo(1);
+		assertThat(getStubResolver(1).getResolvedParameters().size()).isEqualTo(2);
+	}
+
+	@Test
+	public void cannotResolveArgWithParameterArgumentResolvers() throws Exception {
+		this.composite.addResolver(new StubArgumentResolver(99));
+
+		InvocableHandlerMethod handlerMethod = getInvocable(Integer.class, String.class);
+		HandlerMethodArgumentResolver[] resolvers =
+				this.composite.getArgumentResolvers(handlerMethod.getMethodParameters());
+		assertThat(resolvers).containsExactly(getStubResolver(0), null);
+
+		handlerMethod.setParameterArgumentResolvers(resolvers);
+		assertThatIllegalStateException().isThrownBy(() -> handlerMethod.invokeForRequest(request, null))
+			.withMessageContaining("Could not resolve parameter [1]");
+	}
+
 	@Test
 	public void cannotResolveArg() throws Exception {
 		assertThatIllegalStateException().isThrownBy(() ->
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.server.RequestPath;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ServletRequestPathUtils}.
+ *
+ * @author Peggy M
+ */
+public class ServletRequestPathUtilsTests {
+
+	@Test
+	public void parseAndCache() {
+		// basic
+		testParseAndCache("/app/servlet/a/b/c", "/app", "/servlet", "/a/b/c", "/app/servlet", "/a/b/c");
+
+		// contextPath only, servletPath only, contextPath and servletPath only
+		testParseAndCache("/app/a/b/c", "/app", "", "/a/b/c", "/app", "/a/b/c");
+		testParseAndCache("/servlet/a/b/c", "", "/servlet", "/a/b/c", "/servlet", "/a/b/c");
+		testParseAndCache("/app1/app2/servlet1/servlet2", "/app1/app2", "/servlet1/servlet2", "", "/app1/app2/servlet1/servlet2", "");
+
+		// default Servlet mapping
+		testParseAndCache("/app/a/b/c", "/app", "/a/b/c", null, "/app", "/a/b/c");
+
+		// encoded Servlet path
+		testParseAndCache("/app/serv%20let/a/b/c", "/app", "/serv let", "/a/b/c", "/app/serv%20let", "/a/b/c");
+
+		// Servlet path not aligned with the request URI
+		testParseAndCache("/app/other/a/b/c", "/app", "/servlet", "/a/b/c", "/app", "/other/a/b/c");
+	}
+
+	@Test
+	public void parseAndCacheForInclude() {
+		MockHttpServletRequest request = createRequest("/app/servlet/original", "/app", "/servlet", "/original");
+		request.setAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE, "/app/servlet/include");
+		request.setAttribute(WebUtils.INCLUDE_CONTEXT_PATH_ATTRIBUTE, "/app");
+		request.setAttribute(WebUtils.INCLUDE_SERVLET_PATH_ATTRIBUTE, "/servlet");
+		request.setAttribute(WebUtils.INCLUDE_PATH_INFO_ATTRIBUTE, "/include");
+
+		RequestPath requestPath = ServletRequestPathUtils.parseAndCache(request);
+		assertThat(requestPath.pathWithinApplication().value()).isEqualTo("/include");
+	}
+
+	@Test
+	public void setAndClearParsedRequestPath() {
+		MockHttpServletRequest request = createRequest("/app/a/b", "/app", "", "/a/b");
+		assertThat(ServletRequestPathUtils.hasParsedRequestPath(request)).isFalse();
+
+		RequestPath requestPath = ServletRequestPathUtils.parseAndCache(request);
+		assertThat(ServletRequestPathUtils.getParsedRequestPath(request)).isSameAs(requestPath);
+
+		ServletRequestPathUtils.setParsedRequestPath(null, request);
+		assertThat(ServletRequestPathUtils.hasParsedRequestPath(request)).isFalse();
+
+		ServletRequestPathUtils.setParsedRequestPath(requestPath, request);
+		ServletRequestPathUtils.clearParsedRequestPath(request);
+		assertThat(ServletRequestPathUtils.hasParsedRequestPath(request)).isFalse();
+	}
+
+	@Test
+	public void getValueToMatch() {
+		RequestPath requestPath = RequestPath.parse("/app/a%20b;c=d/e%2Ff", "/app");
+		assertThat(ServletRequestPathUtils.getValueToMatch(requestPath.pathWithinApplication())).isEqualTo("/a b/e/f");
+		assertThat(ServletRequestPathUtils.getValueToMatch(RequestPath.parse("/", null))).isEqualTo("/");
+	}
+
+
+	private void testParseAndCache(String requestUri, String contextPath, String servletPath, String pathInfo,
+			String expectedContextPath, String expectedPathWithinApplication) {
+
+		MockHttpServletRequest request = createRequest(requestUri, contextPath, servletPath, pathInfo);
+		RequestPath requestPath = ServletRequestPathUtils.parseAndCache(request);
+
+		assertThat(requestPath.contextPath().value()).isEqualTo(expectedContextPath);
+		assertThat(requestPath.pathWithinApplication().value()).isEqualTo(expectedPathWithinApplication);
+		assertThat(ServletRequestPathUtils.getParsedRequestPath(request)).isSameAs(requestPath);
+	}
+
+	private MockHttpServletRequest createRequest(String requestUri, String contextPath, String servletPath, String pathInfo) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUri);
+		request.setContextPath(contextPath);
+		request.setServletPath(servletPath);
+		request.setPathInfo(pathInfo);
+		return request;
+	}
+
+}
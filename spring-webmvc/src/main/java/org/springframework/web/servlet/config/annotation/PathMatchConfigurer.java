@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,8 +22,11 @@ import java.util.function.Predicate;
 
 import org.springframework.lang.Nullable;
 import org.springframework.util.PathMatcher;
+import org.springframework.web.servlet.handler.AbstractHandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * Helps with configuring HandlerMappings path matching options such as trailing
@@ -58,6 +61,9 @@ public class PathMatchConfigurer {
 	@Nullable
 	private PathMatcher pathMatcher;
 
+	@Nullable
+	private PathPatternParser patternParser;
+
 	@Nullable
 	private Map<String, Predicate<Class<?>>> pathPrefixes;
 
@@ -128,6 +134,26 @@ public class PathMatchConfigurer {
 		return this;
 	}
 
+	/**
+	 * Enable use of parsed {@link PathPattern}s as described in
+	 * {@link AbstractHandlerMapping#setPatternParser(PathPatternParser)}
+	 * for the {@link RequestMappingHandlerMapping} and the handler mappings for
+	 * {@link ViewControllerRegistry view controllers} and
+	 * {@link ResourceHandlerRegistry static resources}.
+	 * <p>In this mode, the {@link #setUrlPathHelper UrlPathHelper} and
+	 * {@link #setPathMatcher PathMatcher} are not used for request mapping,
+	 * suffix pattern matching is not supported, and trailing slash matching
+	 * is configured on the parser via
+	 * {@link PathPatternParser#setMatchOptionalTrailingSeparator(boolean)}.
+	 * <p>By default this is not set.
+	 * @param patternParser the parser to pre-parse patterns with
+	 * @since 5.2.26
+	 */
+	public PathMatchConfigurer setPatternParser(PathPatternParser patternParser) {
+		this.patternParser = patternParser;
+		return this;
+	}
+
 	/**
 	 * Configure a path prefix to apply to matching controller methods.
 	 * <p>Prefixes are used to enrich the mappings of every {@code @RequestMapping}
@@ -187,6 +213,15 @@ public class PathMatchConfigurer {
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Return the {@link PathPatternParser} to use, if configured.
+	 * @since 5.2.26
+	 */
+	@Nullable
+	public PathPatternParser getPatternParser() {
+		return this.patternParser;
+	}
+
 	@Nullable
 	protected Map<String, Predicate<Class<?>>> getPathPrefixes() {
 		return this.pathPrefixes;
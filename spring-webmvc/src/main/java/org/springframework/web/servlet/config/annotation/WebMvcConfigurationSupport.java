@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -101,6 +101,7 @@ import org.springframework.web.servlet.resource.ResourceUrlProviderExposingInter
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import org.springframework.web.servlet.view.ViewResolverComposite;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * This is the main class providing the configuration behind the MVC Java config.
@@ -310,6 +311,10 @@ public class WebMvcConfigurationSupport implements ApplicationContextAware, Serv
 		if (pathMatcher != null) {
 			mapping.setPathMatcher(pathMatcher);
 		}
+		PathPatternParser patternParser = configurer.getPatternParser();
+		if (patternParser != null) {
+			mapping.setPatternParser(patternParser);
+		}
 		Map<String, Predicate<Class<?>>> pathPrefixes = configurer.getPathPrefixes();
 		if (pathPrefixes != null) {
 			mapping.setPathPrefixes(pathPrefixes);
@@ -464,6 +469,7 @@ public class WebMvcConfigurationSupport implements ApplicationContextAware, Serv
 		}
 		handlerMapping.setPathMatcher(pathMatcher);
 		handlerMapping.setUrlPathHelper(urlPathHelper);
+		handlerMapping.setPatternParser(getPathMatchConfigurer().getPatternParser());
 		handlerMapping.setInterceptors(getInterceptors(conversionService, resourceUrlProvider));
 		handlerMapping.setCorsConfigurations(getCorsConfigurations());
 		return handlerMapping;
@@ -543,6 +549,7 @@ public class WebMvcConfigurationSupport implements ApplicationContextAware, Serv
 		}
 		handlerMapping.setPathMatcher(pathMatcher);
 		handlerMapping.setUrlPathHelper(urlPathHelper);
+		handlerMapping.setPatternParser(getPathMatchConfigurer().getPatternParser());
 		handlerMapping.setInterceptors(getInterceptors(conversionService, resourceUrlProvider));
 		handlerMapping.setCorsConfigurations(getCorsConfigurations());
 		return handlerMapping;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.core.Ordered;
+import org.springframework.http.server.RequestPath;
 import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
@@ -48,7 +49,10 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * Abstract base class for {@link org.springframework.web.servlet.HandlerMapping}
@@ -80,6 +84,9 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	@Nullable
+	private PathPatternParser patternParser;
+
 	private final List<Object> interceptors = new ArrayList<>();
 
 	private final List<HandlerInterceptor> adaptedInterceptors = new ArrayList<>();
@@ -188,6 +195,43 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Enable the use of parsed {@link PathPattern}s, matched against a
+	 * {@link RequestPath} that is parsed once per request, as an alternative
+	 * to String path matching with a {@link #setPathMatcher PathMatcher}.
+	 * <p>In this mode, the lookup path is the decoded path within the
+	 * application (or within the Servlet mapping for a prefix-mapped Servlet)
+	 * with path parameters removed, and {@link UrlPathHelper} settings do
+	 * not apply to request mapping.
+	 * <p>By default this is not set.
+	 * @param patternParser the parser to use
+	 * @since 5.2.26
+	 * @see org.springframework.web.util.ServletRequestPathUtils
+	 */
+	public void setPatternParser(@Nullable PathPatternParser patternParser) {
+		this.patternParser = patternParser;
+	}
+
+	/**
+	 * Return the {@link #setPatternParser configured} {@code PathPatternParser},
+	 * or {@code null}.
+	 * @since 5.2.26
+	 */
+	@Nullable
+	public PathPatternParser getPatternParser() {
+		return this.patternParser;
+	}
+
+	/**
+	 * Return "true" if this {@code HandlerMapping} has been
+	 * {@link #setPatternParser enabled} to use parsed {@code PathPattern}s.
+	 * @since 5.2.26
+	 */
+	@Override
+	public boolean usesPathPatterns() {
+		return (getPatternParser() != null);
+	}
+
 	/**
 	 * Set the interceptors to apply for all handlers mapped by this handler mapping.
 	 * <p>Supported interceptor types are HandlerInterceptor, WebRequestInterceptor, and MappedInterceptor.
@@ -444,6 +488,33 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 	@Nullable
 	protected abstract Object getHandlerInternal(HttpServletRequest request) throws Exception;
 
+	/**
+	 * Initialize the path to use for request mapping and expose it in the
+	 * {@link #LOOKUP_PATH} request attribute.
+	 * <p>When {@link #usesPathPatterns() parsed patterns} are enabled, a
+	 * {@link ServletRequestPathUtils#parseAndCache parsed} {@code RequestPath}
+	 * is expected (or otherwise parsed on demand), and the lookup path is its
+	 * decoded {@link RequestPath#pathWithinApplication() pathWithinApplication}.
+	 * Otherwise the lookup path is resolved through the {@link UrlPathHelper}.
+	 * @param request current HTTP request
+	 * @return the lookup path
+	 * @since 5.2.26
+	 */
+	protected String initLookupPath(HttpServletRequest request) {
+		String lookupPath;
+		if (usesPathPatterns()) {
+			RequestPath requestPath = (ServletRequestPathUtils.hasParsedRequestPath(request) ?
+					ServletRequestPathUtils.getParsedRequestPath(request) :
+					ServletRequestPathUtils.parseAndCache(request));
+			lookupPath = ServletRequestPathUtils.getValueToMatch(requestPath.pathWithinApplication());
+		}
+		else {
+			lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
+		}
+		request.setAttribute(LOOKUP_PATH, lookupPath);
+		return lookupPath;
+	}
+
 	/**
 	 * Build a {@link HandlerExecutionChain} for the given handler, including
 	 * applicable interceptors.
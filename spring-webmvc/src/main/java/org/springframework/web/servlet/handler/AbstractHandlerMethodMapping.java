@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,8 +27,6 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -48,6 +46,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
@@ -137,15 +136,12 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 	/**
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
+	 * <p>As of 5.2.26, the returned map is a point-in-time copy rather than a
+	 * live view: mappings that are registered or unregistered afterwards are
+	 * not reflected in it.
 	 */
 	public Map<T, HandlerMethod> getHandlerMethods() {
-		this.mappingRegistry.acquireReadLock();
-		try {
-			return Collections.unmodifiableMap(this.mappingRegistry.getMappings());
-		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
-		}
+		return this.mappingRegistry.getMappings();
 	}
 
 	/**
@@ -202,7 +198,13 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Override
 	public void afterPropertiesSet() {
-		initHandlerMethods();
+		this.mappingRegistry.beginDetection();
+		try {
+			initHandlerMethods();
+		}
+		finally {
+			this.mappingRegistry.endDetection();
+		}
 	}
 
 	/**
@@ -361,16 +363,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Override
 	@Nullable
 	protected HandlerMethod getHandlerInternal(HttpServletRequest request) throws Exception {
-		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
-		request.setAttribute(LOOKUP_PATH, lookupPath);
-		this.mappingRegistry.acquireReadLock();
-		try {
-			HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
-			return (handlerMethod != null ? handlerMethod.createWithResolvedBean() : null);
-		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
-		}
+		String lookupPath = initLookupPath(request);
+		HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
+		return (handlerMethod != null ? handlerMethod.createWithResolvedBean() : null);
 	}
 
 	/**
@@ -384,14 +379,15 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(String lookupPath, HttpServletRequest request) throws Exception {
+		MappingSnapshot<T> snapshot = this.mappingRegistry.getSnapshot();
 		List<Match> matches = new ArrayList<>();
-		List<T> directPathMatches = this.mappingRegistry.getMappingsByUrl(lookupPath);
+		List<T> directPathMatches = snapshot.getMappingsByUrl(lookupPath);
 		if (directPathMatches != null) {
-			addMatchingMappings(directPathMatches, matches, request);
+			addMatchingMappings(directPathMatches, snapshot.getMappings(), matches, request);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			// Go through all mappings that may match the lookup path...
+			addMatchingMappings(snapshot.getMappingsByPath(lookupPath), snapshot.getMappings(), matches, request);
 		}
 
 		if (!matches.isEmpty()) {
@@ -420,15 +416,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return bestMatch.handlerMethod;
 		}
 		else {
-			return handleNoMatch(this.mappingRegistry.getMappings().keySet(), lookupPath, request);
+			return handleNoMatch(snapshot.getMappings().keySet(), lookupPath, request);
 		}
 	}
 
-	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, HttpServletRequest request) {
+	private void addMatchingMappings(Collection<T> mappings, Map<T, HandlerMethod> handlerMethods,
+			List<Match> matches, HttpServletRequest request) {
+
 		for (T mapping : mappings) {
 			T match = getMatchingMapping(mapping, request);
 			if (match != null) {
-				matches.add(new Match(match, this.mappingRegistry.getMappings().get(mapping)));
+				matches.add(new Match(match, handlerMethods.get(mapping)));
 			}
 		}
 	}
@@ -505,6 +503,23 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	protected abstract Set<String> getMappingPathPatterns(T mapping);
 
+	/**
+	 * Whether mappings may be indexed by the leading literal segments of their
+	 * {@link #getMappingPathPatterns path patterns}, so that a lookup without a
+	 * direct URL match only evaluates mappings sharing the leading segments of
+	 * the lookup path, rather than all registered mappings.
+	 * <p>This requires that a mapping can only match if one of its patterns
+	 * matches the lookup path, with "/" separated segments and with segments
+	 * without wildcards or URI variables matched literally, or ignoring case.
+	 * Mappings without patterns are always evaluated. The index is set up
+	 * from the registered mappings whenever they change.
+	 * <p>The default implementation returns {@code false}.
+	 * @since 5.2.26
+	 */
+	protected boolean usePathSegmentIndex() {
+		return false;
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -527,6 +542,12 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	/**
 	 * A registry that maintains all mappings to handler methods, exposing methods
 	 * to perform lookups and providing concurrent access.
+	 * <p>Registrations modify the registry state under a lock, while lookups go
+	 * against an immutable {@link MappingSnapshot} of that state, published
+	 * through a volatile field so that request threads do not need to acquire
+	 * a lock. Registrations at runtime rebuild the snapshot right away; during
+	 * the initial detection of handler methods, it is only rebuilt on first
+	 * access after a change, keeping detection linear in the number of mappings.
 	 * <p>Package-private for testing purposes.
 	 */
 	class MappingRegistry {
@@ -535,59 +556,116 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<T, HandlerMethod> mappingLookup = new LinkedHashMap<>();
 
-		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
+		private final LinkedMultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
+
+		private final Map<String, List<HandlerMethod>> nameLookup = new HashMap<>();
 
-		private final Map<String, List<HandlerMethod>> nameLookup = new ConcurrentHashMap<>();
+		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new HashMap<>();
 
-		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
+		@Nullable
+		private volatile MappingSnapshot<T> snapshot;
 
-		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+		private boolean detecting;
 
 		/**
-		 * Return all mappings and handler methods. Not thread-safe.
-		 * @see #acquireReadLock()
+		 * Defer rebuilding the snapshot until first accessed, while handler
+		 * methods are being detected.
+		 * @since 5.2.26
 		 */
-		public Map<T, HandlerMethod> getMappings() {
-			return this.mappingLookup;
+		void beginDetection() {
+			synchronized (this.registry) {
+				this.detecting = true;
+			}
 		}
 
 		/**
-		 * Return matches for the given URL path. Not thread-safe.
-		 * @see #acquireReadLock()
+		 * Build the snapshot of the detected mappings, if not done yet, and
+		 * rebuild it with every registration change from now on.
+		 * @since 5.2.26
 		 */
-		@Nullable
-		public List<T> getMappingsByUrl(String urlPath) {
-			return this.urlLookup.get(urlPath);
+		void endDetection() {
+			synchronized (this.registry) {
+				this.detecting = false;
+				if (this.snapshot == null) {
+					this.snapshot = createSnapshot();
+				}
+			}
 		}
 
 		/**
-		 * Return handler methods by mapping name. Thread-safe for concurrent use.
+		 * Return an immutable snapshot of the registered mappings, reflecting
+		 * all registrations completed so far. Thread-safe for concurrent use.
+		 * @since 5.2.26
 		 */
-		public List<HandlerMethod> getHandlerMethodsByMappingName(String mappingName) {
-			return this.nameLookup.get(mappingName);
+		public MappingSnapshot<T> getSnapshot() {
+			MappingSnapshot<T> snapshot = this.snapshot;
+			if (snapshot == null) {
+				synchronized (this.registry) {
+					snapshot = this.snapshot;
+					if (snapshot == null) {
+						snapshot = createSnapshot();
+						this.snapshot = snapshot;
+					}
+				}
+			}
+			return snapshot;
+		}
+
+		private MappingSnapshot<T> createSnapshot() {
+			PathSegmentIndex<T> pathSegmentIndex = null;
+			if (usePathSegmentIndex()) {
+				pathSegmentIndex = new PathSegmentIndex<>();
+				for (T mapping : this.mappingLookup.keySet()) {
+					pathSegmentIndex.add(mapping, getMappingPathPatterns(mapping));
+				}
+			}
+			return new MappingSnapshot<>(new LinkedHashMap<>(this.mappingLookup), this.urlLookup.deepCopy(),
+					new HashMap<>(this.nameLookup), new HashMap<>(this.corsLookup), pathSegmentIndex);
 		}
 
 		/**
-		 * Return CORS configuration. Thread-safe for concurrent use.
+		 * Return all mappings and handler methods. Thread-safe for concurrent use.
+		 * <p>The returned map is a point-in-time copy of the registered mappings,
+		 * not reflecting any later registration changes.
+		 * @see #getSnapshot()
+		 */
+		public Map<T, HandlerMethod> getMappings() {
+			return getSnapshot().getMappings();
+		}
+
+		/**
+		 * Return matches for the given URL path. Thread-safe for concurrent use.
+		 * @see #getSnapshot()
 		 */
 		@Nullable
-		public CorsConfiguration getCorsConfiguration(HandlerMethod handlerMethod) {
-			HandlerMethod original = handlerMethod.getResolvedFromHandlerMethod();
-			return this.corsLookup.get(original != null ? original : handlerMethod);
+		public List<T> getMappingsByUrl(String urlPath) {
+			return getSnapshot().getMappingsByUrl(urlPath);
 		}
 
 		/**
-		 * Acquire the read lock when using getMappings and getMappingsByUrl.
+		 * Return the mappings that may match the given lookup path.
+		 * Thread-safe for concurrent use.
+		 * @since 5.2.26
+		 * @see #getSnapshot()
 		 */
-		public void acquireReadLock() {
-			this.readWriteLock.readLock().lock();
+		public Collection<T> getMappingsByPath(String lookupPath) {
+			return getSnapshot().getMappingsByPath(lookupPath);
 		}
 
 		/**
-		 * Release the read lock after using getMappings and getMappingsByUrl.
+		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
-		public void releaseReadLock() {
-			this.readWriteLock.readLock().unlock();
+		@Nullable
+		public List<HandlerMethod> getHandlerMethodsByMappingName(String mappingName) {
+			return getSnapshot().getHandlerMethodsByMappingName(mappingName);
+		}
+
+		/**
+		 * Return CORS configuration. Thread-safe for concurrent use.
+		 */
+		@Nullable
+		public CorsConfiguration getCorsConfiguration(HandlerMethod handlerMethod) {
+			return getSnapshot().getCorsConfiguration(handlerMethod);
 		}
 
 		public void register(T mapping, Object handler, Method method) {
@@ -598,8 +676,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					throw new IllegalStateException("Unsupported suspending handler method detected: " + method);
 				}
 			}
-			this.readWriteLock.writeLock().lock();
-			try {
+			synchronized (this.registry) {
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
 				validateMethodMapping(handlerMethod, mapping);
 				this.mappingLookup.put(mapping, handlerMethod);
@@ -621,9 +698,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 
 				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod, directUrls, name));
-			}
-			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.snapshot = (this.detecting ? null : createSnapshot());
 			}
 		}
 
@@ -667,8 +742,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		}
 
 		public void unregister(T mapping) {
-			this.readWriteLock.writeLock().lock();
-			try {
+			synchronized (this.registry) {
 				MappingRegistration<T> definition = this.registry.remove(mapping);
 				if (definition == null) {
 					return;
@@ -689,9 +763,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
-			}
-			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.snapshot = (this.detecting ? null : createSnapshot());
 			}
 		}
 
@@ -761,6 +833,171 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	/**
+	 * Immutable state of the {@link MappingRegistry} used for lookups.
+	 */
+	private static class MappingSnapshot<T> {
+
+		private final Map<T, HandlerMethod> mappingLookup;
+
+		private final MultiValueMap<String, T> urlLookup;
+
+		private final Map<String, List<HandlerMethod>> nameLookup;
+
+		private final Map<HandlerMethod, CorsConfiguration> corsLookup;
+
+		@Nullable
+		private final PathSegmentIndex<T> pathSegmentIndex;
+
+		public MappingSnapshot(Map<T, HandlerMethod> mappingLookup, MultiValueMap<String, T> urlLookup,
+				Map<String, List<HandlerMethod>> nameLookup, Map<HandlerMethod, CorsConfiguration> corsLookup,
+				@Nullable PathSegmentIndex<T> pathSegmentIndex) {
+
+			this.mappingLookup = Collections.unmodifiableMap(mappingLookup);
+			this.urlLookup = urlLookup;
+			this.nameLookup = nameLookup;
+			this.corsLookup = corsLookup;
+			this.pathSegmentIndex = pathSegmentIndex;
+		}
+
+		public Map<T, HandlerMethod> getMappings() {
+			return this.mappingLookup;
+		}
+
+		@Nullable
+		public List<T> getMappingsByUrl(String urlPath) {
+			return this.urlLookup.get(urlPath);
+		}
+
+		/**
+		 * Return the mappings that may match the given lookup path, in
+		 * registration order: all mappings, unless indexed by path segments.
+		 * @see #usePathSegmentIndex()
+		 */
+		public Collection<T> getMappingsByPath(String lookupPath) {
+			return (this.pathSegmentIndex != null ?
+					this.pathSegmentIndex.getMappings(lookupPath) : this.mappingLookup.keySet());
+		}
+
+		@Nullable
+		public List<HandlerMethod> getHandlerMethodsByMappingName(String mappingName) {
+			return this.nameLookup.get(mappingName);
+		}
+
+		@Nullable
+		public CorsConfiguration getCorsConfiguration(HandlerMethod handlerMethod) {
+			HandlerMethod original = handlerMethod.getResolvedFromHandlerMethod();
+			return this.corsLookup.get(original != null ? original : handlerMethod);
+		}
+	}
+
+
+	/**
+	 * Trie of mappings keyed by the leading literal segments of their path
+	 * patterns, excluding the last segment of each pattern which may be
+	 * extended through suffix pattern or trailing slash matching. Segments
+	 * are compared ignoring case, the result is a superset of the mappings
+	 * that can match a lookup path, in registration order.
+	 */
+	private static class PathSegmentIndex<T> {
+
+		private final Node<T> root = new Node<>();
+
+		private int count;
+
+		public void add(T mapping, Set<String> patterns) {
+			Entry<T> entry = new Entry<>(mapping, this.count++);
+			if (patterns.isEmpty()) {
+				this.root.add(entry);
+			}
+			for (String pattern : patterns) {
+				Node<T> node = this.root;
+				String[] segments = StringUtils.tokenizeToStringArray(pattern, "/");
+				for (int i = 0; i < segments.length - 1 && isLiteral(segments[i]); i++) {
+					node = node.getOrCreateChild(normalize(segments[i]));
+				}
+				node.add(entry);
+			}
+		}
+
+		private static boolean isLiteral(String segment) {
+			for (int i = 0; i < segment.length(); i++) {
+				char c = segment.charAt(i);
+				if (c == '*' || c == '?' || c == '{' || c == '}' || c > 127) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Fold case the same way for ASCII pattern segments and any path
+		 * segment that {@link String#equalsIgnoreCase} would consider equal.
+		 */
+		private static String normalize(String segment) {
+			char[] chars = segment.toCharArray();
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+			}
+			return new String(chars);
+		}
+
+		public List<T> getMappings(String lookupPath) {
+			List<Entry<T>> matches = new ArrayList<>(this.root.entries);
+			Node<T> node = this.root;
+			for (String segment : StringUtils.tokenizeToStringArray(lookupPath, "/")) {
+				node = node.children.get(normalize(segment));
+				if (node == null) {
+					break;
+				}
+				matches.addAll(node.entries);
+			}
+			matches.sort(Comparator.comparingInt(entry -> entry.order));
+			List<T> result = new ArrayList<>(matches.size());
+			Entry<T> previous = null;
+			for (Entry<T> entry : matches) {
+				if (entry != previous) {
+					result.add(entry.mapping);
+					previous = entry;
+				}
+			}
+			return result;
+		}
+
+
+		private static class Entry<T> {
+
+			private final T mapping;
+
+			private final int order;
+
+			Entry(T mapping, int order) {
+				this.mapping = mapping;
+				this.order = order;
+			}
+		}
+
+
+		private static class Node<T> {
+
+			private final Map<String, Node<T>> children = new HashMap<>();
+
+			private final List<Entry<T>> entries = new ArrayList<>(1);
+
+			Node<T> getOrCreateChild(String segment) {
+				return this.children.computeIfAbsent(segment, key -> new Node<>());
+			}
+
+			void add(Entry<T> entry) {
+				// Several patterns of the same mapping may share a node
+				if (this.entries.isEmpty() || this.entries.get(this.entries.size() - 1) != entry) {
+					this.entries.add(entry);
+				}
+			}
+		}
+	}
+
+
 	/**
 	 * A thin wrapper around a matched HandlerMethod and its mapping, for the purpose of
 	 * comparing the best match with a comparator in the context of the current request.
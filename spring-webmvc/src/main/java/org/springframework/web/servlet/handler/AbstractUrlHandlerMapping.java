@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,11 +28,16 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * Abstract base class for URL-mapped {@link org.springframework.web.servlet.HandlerMapping}
@@ -49,6 +54,13 @@ import org.springframework.web.servlet.HandlerExecutionChain;
  * current request path. The most exact match is defined as the longest
  * path pattern that matches the current request path.
  *
+ * <p>Alternatively, with a {@link #setPatternParser PathPatternParser} set,
+ * registered URL paths are also parsed into {@link PathPattern}s and matched
+ * against the parsed {@link RequestPath} of the request, with the most specific
+ * match determined by {@link PathPattern#SPECIFICITY_COMPARATOR}. Note that
+ * this requires URL paths to be valid {@code PathPattern} syntax, e.g. with
+ * "**" only at the end of a pattern.
+ *
  * @author Juergen Hoeller
  * @author Arjen Poutsma
  * @since 16.04.2003
@@ -64,6 +76,8 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 
 	private final Map<String, Object> handlerMap = new LinkedHashMap<>();
 
+	private final Map<PathPattern, Object> pathPatternHandlerMap = new LinkedHashMap<>();
+
 
 	/**
 	 * Set the root handler for this handler mapping, that is,
@@ -87,6 +101,9 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 	 * Whether to match to URLs irrespective of the presence of a trailing slash.
 	 * If enabled a URL pattern such as "/users" also matches to "/users/".
 	 * <p>The default value is {@code false}.
+	 * <p>Not applicable with {@link #setPatternParser parsed patterns} where
+	 * this is controlled through
+	 * {@link PathPatternParser#setMatchOptionalTrailingSeparator(boolean)}.
 	 */
 	public void setUseTrailingSlashMatch(boolean useTrailingSlashMatch) {
 		this.useTrailingSlashMatch = useTrailingSlashMatch;
@@ -121,8 +138,7 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 	@Override
 	@Nullable
 	protected Object getHandlerInternal(HttpServletRequest request) throws Exception {
-		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
-		request.setAttribute(LOOKUP_PATH, lookupPath);
+		String lookupPath = initLookupPath(request);
 		Object handler = lookupHandler(lookupPath, request);
 		if (handler == null) {
 			// We need to care for the default handler directly, since we need to
@@ -163,15 +179,14 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 	@Nullable
 	protected Object lookupHandler(String urlPath, HttpServletRequest request) throws Exception {
 		// Direct match?
-		Object handler = this.handlerMap.get(urlPath);
+		Object handler = getDirectMatch(urlPath, request);
 		if (handler != null) {
-			// Bean name or resolved handler?
-			if (handler instanceof String) {
-				String handlerName = (String) handler;
-				handler = obtainApplicationContext().getBean(handlerName);
-			}
-			validateHandler(handler, request);
-			return buildPathExposingHandler(handler, urlPath, urlPath, null);
+			return handler;
+		}
+
+		if (usesPathPatterns()) {
+			RequestPath path = ServletRequestPathUtils.getParsedRequestPath(request);
+			return lookupHandler(path.pathWithinApplication(), request);
 		}
 
 		// Pattern match?
@@ -235,6 +250,65 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 		return null;
 	}
 
+	@Nullable
+	private Object getDirectMatch(String urlPath, HttpServletRequest request) throws Exception {
+		Object handler = this.handlerMap.get(urlPath);
+		if (handler != null) {
+			// Bean name or resolved handler?
+			if (handler instanceof String) {
+				String handlerName = (String) handler;
+				handler = obtainApplicationContext().getBean(handlerName);
+			}
+			validateHandler(handler, request);
+			return buildPathExposingHandler(handler, urlPath, urlPath, null);
+		}
+		return null;
+	}
+
+	/**
+	 * Variant of {@link #lookupHandler(String, HttpServletRequest)} that
+	 * matches the {@link #setPatternParser parsed patterns} against the
+	 * parsed path within the application, selecting the most specific match
+	 * via {@link PathPattern#SPECIFICITY_COMPARATOR}.
+	 * @param path the parsed path within the application to match
+	 * @param request current HTTP request
+	 * @return the associated handler instance, or {@code null} if not found
+	 */
+	@Nullable
+	private Object lookupHandler(PathContainer path, HttpServletRequest request) throws Exception {
+		List<PathPattern> matches = null;
+		for (PathPattern pattern : this.pathPatternHandlerMap.keySet()) {
+			if (pattern.matches(path)) {
+				matches = (matches != null ? matches : new ArrayList<>());
+				matches.add(pattern);
+			}
+		}
+		if (matches == null) {
+			return null;
+		}
+		if (matches.size() > 1) {
+			matches.sort(PathPattern.SPECIFICITY_COMPARATOR);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Matching patterns " + matches);
+			}
+		}
+		PathPattern pattern = matches.get(0);
+		Object handler = this.pathPatternHandlerMap.get(pattern);
+		// Bean name or resolved handler?
+		if (handler instanceof String) {
+			String handlerName = (String) handler;
+			handler = obtainApplicationContext().getBean(handlerName);
+		}
+		validateHandler(handler, request);
+		String pathWithinMapping = ServletRequestPathUtils.getValueToMatch(pattern.extractPathWithinPattern(path));
+		PathPattern.PathMatchInfo matchInfo = pattern.matchAndExtract(path);
+		Map<String, String> uriVariables = (matchInfo != null ? matchInfo.getUriVariables() : null);
+		if (logger.isTraceEnabled() && !CollectionUtils.isEmpty(uriVariables)) {
+			logger.trace("URI variables " + uriVariables);
+		}
+		return buildPathExposingHandler(handler, pattern.getPatternString(), pathWithinMapping, uriVariables);
+	}
+
 	/**
 	 * Validate the given handler against the current request.
 	 * <p>The default implementation is empty. Can be overridden in subclasses,
@@ -294,6 +368,11 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 	@Override
 	@Nullable
 	public RequestMatchResult match(HttpServletRequest request, String pattern) {
+		if (usesPathPatterns()) {
+			PathPattern pathPattern = obtainPatternParser().parse(pattern);
+			PathContainer path = ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication();
+			return (pathPattern.matches(path) ? new RequestMatchResult(pathPattern, path) : null);
+		}
 		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request, LOOKUP_PATH);
 		if (getPathMatcher().match(pattern, lookupPath)) {
 			return new RequestMatchResult(pattern, lookupPath, getPathMatcher());
@@ -365,6 +444,9 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 			}
 			else {
 				this.handlerMap.put(urlPath, resolvedHandler);
+				if (usesPathPatterns()) {
+					this.pathPatternHandlerMap.put(obtainPatternParser().parse(urlPath), resolvedHandler);
+				}
 				if (logger.isTraceEnabled()) {
 					logger.trace("Mapped [" + urlPath + "] onto " + getHandlerDescription(handler));
 				}
@@ -387,6 +469,21 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 		return Collections.unmodifiableMap(this.handlerMap);
 	}
 
+	/**
+	 * Identical to {@link #getHandlerMap()} but populated when
+	 * {@link #setPatternParser parsed patterns} are enabled; otherwise empty.
+	 * @since 5.2.26
+	 */
+	public final Map<PathPattern, Object> getPathPatternHandlerMap() {
+		return Collections.unmodifiableMap(this.pathPatternHandlerMap);
+	}
+
+	private PathPatternParser obtainPatternParser() {
+		PathPatternParser parser = getPatternParser();
+		Assert.state(parser != null, "No PathPatternParser set");
+		return parser;
+	}
+
 	/**
 	 * Indicates whether this handler mapping support type-level mappings. Default to {@code false}.
 	 */
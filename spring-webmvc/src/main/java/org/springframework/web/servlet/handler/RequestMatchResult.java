@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,14 @@
 
 package org.springframework.web.servlet.handler;
 
+import java.util.Collections;
 import java.util.Map;
 
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.PathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
 
 /**
  * Container for the result from request pattern matching via
@@ -31,12 +35,21 @@ import org.springframework.util.PathMatcher;
  */
 public class RequestMatchResult {
 
+	@Nullable
 	private final String matchingPattern;
 
+	@Nullable
 	private final String lookupPath;
 
+	@Nullable
 	private final PathMatcher pathMatcher;
 
+	@Nullable
+	private final PathPattern pathPattern;
+
+	@Nullable
+	private final PathContainer lookupPathContainer;
+
 
 	/**
 	 * Create an instance with a matching pattern.
@@ -52,15 +65,39 @@ public class RequestMatchResult {
 		this.matchingPattern = matchingPattern;
 		this.lookupPath = lookupPath;
 		this.pathMatcher = pathMatcher;
+		this.pathPattern = null;
+		this.lookupPathContainer = null;
+	}
+
+	/**
+	 * Create an instance with the result of matching a parsed pattern.
+	 * @param pathPattern the matched pattern
+	 * @param lookupPath the parsed lookup path matched to
+	 * @since 5.2.26
+	 */
+	public RequestMatchResult(PathPattern pathPattern, PathContainer lookupPath) {
+		Assert.notNull(pathPattern, "'pathPattern' is required");
+		Assert.notNull(lookupPath, "'lookupPath' is required");
+		this.matchingPattern = null;
+		this.lookupPath = null;
+		this.pathMatcher = null;
+		this.pathPattern = pathPattern;
+		this.lookupPathContainer = lookupPath;
 	}
 
 
 	/**
 	 * Extract URI template variables from the matching pattern as defined in
-	 * {@link PathMatcher#extractUriTemplateVariables}.
+	 * {@link PathMatcher#extractUriTemplateVariables}, or from the parsed
+	 * pattern via {@link PathPattern#matchAndExtract}.
 	 * @return a map with URI template variables
 	 */
+	@SuppressWarnings("ConstantConditions")
 	public Map<String, String> extractUriTemplateVariables() {
+		if (this.pathPattern != null) {
+			PathPattern.PathMatchInfo info = this.pathPattern.matchAndExtract(this.lookupPathContainer);
+			return (info != null ? info.getUriVariables() : Collections.emptyMap());
+		}
 		return this.pathMatcher.extractUriTemplateVariables(this.matchingPattern, this.lookupPath);
 	}
 
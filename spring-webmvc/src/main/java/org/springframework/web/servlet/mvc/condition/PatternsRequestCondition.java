@@ -27,19 +27,30 @@ import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.http.server.PathContainer;
 import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.PathMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
 import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * A logical disjunction (' || ') request condition that matches a request
  * against a set of URL path patterns.
  *
+ * <p>When created with a {@link PathPatternParser}, patterns are parsed once
+ * into {@link PathPattern}s and matched against the
+ * {@link ServletRequestPathUtils#getParsedRequestPath parsed request path},
+ * rather than matching String patterns with a {@link PathMatcher} against
+ * the lookup path from the {@link UrlPathHelper}. In that mode, suffix pattern
+ * matching is not supported, and trailing slash matching is controlled via
+ * {@link PathPatternParser#setMatchOptionalTrailingSeparator}.
+ *
  * @author Rossen Stoyanchev
  * @since 3.1
  */
@@ -60,6 +71,9 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 
 	private final List<String> fileExtensions = new ArrayList<>();
 
+	@Nullable
+	private final List<PathPattern> pathPatterns;
+
 
 	/**
 	 * Creates a new instance with the given URL patterns. Each pattern that is
@@ -126,6 +140,7 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 		this.pathMatcher = pathMatcher != null ? pathMatcher : new AntPathMatcher();
 		this.useSuffixPatternMatch = useSuffixPatternMatch;
 		this.useTrailingSlashMatch = useTrailingSlashMatch;
+		this.pathPatterns = null;
 
 		if (fileExtensions != null) {
 			for (String fileExtension : fileExtensions) {
@@ -137,13 +152,36 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 		}
 	}
 
+	/**
+	 * Constructor for matching with parsed {@link PathPattern}s.
+	 * @param parser the parser to use for the patterns
+	 * @param patterns the URL patterns to use; if 0, the condition will match to every request.
+	 * @since 5.2.26
+	 */
+	public PatternsRequestCondition(PathPatternParser parser, String... patterns) {
+		this.patterns = initPatterns(parser, patterns);
+		this.pathHelper = UrlPathHelper.defaultInstance;
+		this.pathMatcher = new AntPathMatcher();
+		this.useSuffixPatternMatch = false;
+		this.useTrailingSlashMatch = false;
+		List<PathPattern> pathPatterns = new ArrayList<>(this.patterns.size());
+		for (String pattern : this.patterns) {
+			pathPatterns.add(parser.parse(pattern));
+		}
+		this.pathPatterns = pathPatterns;
+	}
+
 	private static Set<String> initPatterns(String[] patterns) {
+		return initPatterns(PathPatternParser.defaultInstance, patterns);
+	}
+
+	private static Set<String> initPatterns(PathPatternParser parser, String[] patterns) {
 		if (!hasPattern(patterns)) {
 			return EMPTY_PATH_PATTERN;
 		}
 		Set<String> result = new LinkedHashSet<>(patterns.length);
 		for (String pattern : patterns) {
-			pattern = PathPatternParser.defaultInstance.initFullPathPattern(pattern);
+			pattern = parser.initFullPathPattern(pattern);
 			result.add(pattern);
 		}
 		return result;
@@ -170,6 +208,23 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 		this.useSuffixPatternMatch = other.useSuffixPatternMatch;
 		this.useTrailingSlashMatch = other.useTrailingSlashMatch;
 		this.fileExtensions.addAll(other.fileExtensions);
+		this.pathPatterns = null;
+	}
+
+	/**
+	 * Private constructor for use when combining and matching parsed patterns.
+	 */
+	private PatternsRequestCondition(List<PathPattern> pathPatterns, PatternsRequestCondition other) {
+		Set<String> patterns = new LinkedHashSet<>(pathPatterns.size());
+		for (PathPattern pathPattern : pathPatterns) {
+			patterns.add(pathPattern.getPatternString());
+		}
+		this.patterns = patterns;
+		this.pathHelper = other.pathHelper;
+		this.pathMatcher = other.pathMatcher;
+		this.useSuffixPatternMatch = false;
+		this.useTrailingSlashMatch = false;
+		this.pathPatterns = pathPatterns;
 	}
 
 
@@ -177,6 +232,17 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 		return this.patterns;
 	}
 
+	/**
+	 * Return the parsed patterns, in the same order as {@link #getPatterns()},
+	 * if this condition was created with a {@link PathPatternParser}, or
+	 * {@code null} otherwise.
+	 * @since 5.2.26
+	 */
+	@Nullable
+	public List<PathPattern> getPathPatterns() {
+		return this.pathPatterns;
+	}
+
 	@Override
 	protected Collection<String> getContent() {
 		return this.patterns;
@@ -208,6 +274,18 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 		else if (isEmptyPathPattern()) {
 			return other;
 		}
+		if (this.pathPatterns != null && other.pathPatterns != null) {
+			List<PathPattern> combined = new ArrayList<>(this.pathPatterns.size() * other.pathPatterns.size());
+			for (PathPattern pattern1 : this.pathPatterns) {
+				for (PathPattern pattern2 : other.pathPatterns) {
+					PathPattern pattern = pattern1.combine(pattern2);
+					if (!combined.contains(pattern)) {
+						combined.add(pattern);
+					}
+				}
+			}
+			return new PatternsRequestCondition(combined, this);
+		}
 		Set<String> result = new LinkedHashSet<>();
 		if (!this.patterns.isEmpty() && !other.patterns.isEmpty()) {
 			for (String pattern1 : this.patterns) {
@@ -242,6 +320,11 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 	@Override
 	@Nullable
 	public PatternsRequestCondition getMatchingCondition(HttpServletRequest request) {
+		if (this.pathPatterns != null) {
+			PathContainer path = ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication();
+			List<PathPattern> matches = getMatchingPathPatterns(this.pathPatterns, path);
+			return (!matches.isEmpty() ? new PatternsRequestCondition(matches, this) : null);
+		}
 		String lookupPath = this.pathHelper.getLookupPathForRequest(request, HandlerMapping.LOOKUP_PATH);
 		List<String> matches = getMatchingPatterns(lookupPath);
 		return !matches.isEmpty() ? new PatternsRequestCondition(new LinkedHashSet<>(matches), this) : null;
@@ -252,10 +335,20 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 	 * yield results equivalent to those of calling {@link #getMatchingCondition}.
 	 * This method is provided as an alternative to be used if no request is available
 	 * (e.g. introspection, tooling, etc).
+	 * <p>For a condition with parsed patterns, the lookup path is parsed
+	 * as an encoded path and matched via {@link PathPattern#matches}.
 	 * @param lookupPath the lookup path to match to existing patterns
 	 * @return a collection of matching patterns sorted with the closest match at the top
 	 */
 	public List<String> getMatchingPatterns(String lookupPath) {
+		if (this.pathPatterns != null) {
+			List<PathPattern> pathPatterns = getMatchingPathPatterns(this.pathPatterns, PathContainer.parsePath(lookupPath));
+			List<String> matches = new ArrayList<>(pathPatterns.size());
+			for (PathPattern pathPattern : pathPatterns) {
+				matches.add(pathPattern.getPatternString());
+			}
+			return matches;
+		}
 		List<String> matches = null;
 		for (String pattern : this.patterns) {
 			String match = getMatchingPattern(pattern, lookupPath);
@@ -273,6 +366,23 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 		return matches;
 	}
 
+	private static List<PathPattern> getMatchingPathPatterns(List<PathPattern> pathPatterns, PathContainer path) {
+		List<PathPattern> matches = null;
+		for (PathPattern pathPattern : pathPatterns) {
+			if (pathPattern.matches(path)) {
+				matches = (matches != null ? matches : new ArrayList<>());
+				matches.add(pathPattern);
+			}
+		}
+		if (matches == null) {
+			return Collections.emptyList();
+		}
+		if (matches.size() > 1) {
+			matches.sort(PathPattern.SPECIFICITY_COMPARATOR);
+		}
+		return matches;
+	}
+
 	@Nullable
 	private String getMatchingPattern(String pattern, String lookupPath) {
 		if (pattern.equals(lookupPath)) {
@@ -314,13 +424,20 @@ public class PatternsRequestCondition extends AbstractRequestCondition<PatternsR
 	 * {@link #getMatchingCondition(HttpServletRequest)} to ensure they
 	 * contain only patterns that match the request and are sorted with
 	 * the best matches on top.
+	 * <p>Parsed patterns are compared via {@link PathPattern#SPECIFICITY_COMPARATOR}.
 	 */
 	@Override
 	public int compareTo(PatternsRequestCondition other, HttpServletRequest request) {
+		if (this.pathPatterns != null && other.pathPatterns != null) {
+			return compareTo(this.pathPatterns, other.pathPatterns, PathPattern.SPECIFICITY_COMPARATOR);
+		}
 		String lookupPath = this.pathHelper.getLookupPathForRequest(request, HandlerMapping.LOOKUP_PATH);
-		Comparator<String> patternComparator = this.pathMatcher.getPatternComparator(lookupPath);
-		Iterator<String> iterator = this.patterns.iterator();
-		Iterator<String> iteratorOther = other.patterns.iterator();
+		return compareTo(this.patterns, other.patterns, this.pathMatcher.getPatternComparator(lookupPath));
+	}
+
+	private static <T> int compareTo(Collection<T> patterns, Collection<T> otherPatterns, Comparator<T> patternComparator) {
+		Iterator<T> iterator = patterns.iterator();
+		Iterator<T> iteratorOther = otherPatterns.iterator();
 		while (iterator.hasNext() && iteratorOther.hasNext()) {
 			int result = patternComparator.compare(iterator.next(), iteratorOther.next());
 			if (result != 0) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,6 +38,7 @@ import org.springframework.web.servlet.mvc.condition.RequestConditionHolder;
 import org.springframework.web.servlet.mvc.condition.RequestMethodsRequestCondition;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * Request mapping information. Encapsulates the following request mapping conditions:
@@ -547,8 +548,10 @@ public final class RequestMappingInfo implements RequestCondition<RequestMapping
 		@SuppressWarnings("deprecation")
 		public RequestMappingInfo build() {
 
-			PatternsRequestCondition patternsCondition = ObjectUtils.isEmpty(this.paths) ? null :
-					new PatternsRequestCondition(
+			PathPatternParser parser = this.options.getPatternParser();
+			PatternsRequestCondition patternsCondition = parser != null ?
+					new PatternsRequestCondition(parser, this.paths) :
+					ObjectUtils.isEmpty(this.paths) ? null : new PatternsRequestCondition(
 							this.paths, this.options.getUrlPathHelper(), this.options.getPathMatcher(),
 							this.options.useSuffixPatternMatch(), this.options.useTrailingSlashMatch(),
 							this.options.getFileExtensions());
@@ -586,6 +589,9 @@ public final class RequestMappingInfo implements RequestCondition<RequestMapping
 		@Nullable
 		private PathMatcher pathMatcher;
 
+		@Nullable
+		private PathPatternParser patternParser;
+
 		private boolean trailingSlashMatch = true;
 
 		private boolean suffixPatternMatch = true;
@@ -628,6 +634,28 @@ public final class RequestMappingInfo implements RequestCondition<RequestMapping
 			return this.pathMatcher;
 		}
 
+		/**
+		 * Set a {@link PathPatternParser} to use for parsing patterns into
+		 * {@link org.springframework.web.util.pattern.PathPattern PathPatterns}
+		 * in the PatternsRequestCondition, in which case the {@code UrlPathHelper},
+		 * {@code PathMatcher}, trailing slash and suffix pattern match options
+		 * do not apply.
+		 * <p>By default this is not set.
+		 * @since 5.2.26
+		 */
+		public void setPatternParser(@Nullable PathPatternParser patternParser) {
+			this.patternParser = patternParser;
+		}
+
+		/**
+		 * Return the {@code PathPatternParser} to use for the PatternsRequestCondition, if any.
+		 * @since 5.2.26
+		 */
+		@Nullable
+		public PathPatternParser getPatternParser() {
+			return this.patternParser;
+		}
+
 		/**
 		 * Set whether to apply trailing slash matching in PatternsRequestCondition.
 		 * <p>By default this is set to 'true'.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -48,6 +48,7 @@ import org.springframework.http.converter.support.AllEncompassingFormHttpMessage
 import org.springframework.http.converter.xml.SourceHttpMessageConverter;
 import org.springframework.lang.Nullable;
 import org.springframework.ui.ModelMap;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ReflectionUtils.MethodFilter;
 import org.springframework.web.accept.ContentNegotiationManager;
@@ -190,6 +191,9 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private final Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceCache = new LinkedHashMap<>();
 
+	private final Map<HandlerMethod, HandlerMethodArgumentResolver[]> parameterResolversCache =
+			new ConcurrentHashMap<>(256);
+
 
 	public RequestMappingHandlerAdapter() {
 		this.messageConverters = new ArrayList<>(4);
@@ -234,6 +238,7 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			this.argumentResolvers = new HandlerMethodArgumentResolverComposite();
 			this.argumentResolvers.addResolvers(argumentResolvers);
 		}
+		this.parameterResolversCache.clear();
 	}
 
 	/**
@@ -843,6 +848,7 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			ServletInvocableHandlerMethod invocableMethod = createInvocableHandlerMethod(handlerMethod);
 			if (this.argumentResolvers != null) {
 				invocableMethod.setHandlerMethodArgumentResolvers(this.argumentResolvers);
+				invocableMethod.setParameterArgumentResolvers(getParameterResolvers(handlerMethod, invocableMethod));
 			}
 			if (this.returnValueHandlers != null) {
 				invocableMethod.setHandlerMethodReturnValueHandlers(this.returnValueHandlers);
@@ -887,6 +893,21 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		}
 	}
 
+	/**
+	 * Select the argument resolvers for the parameters of a handler method once,
+	 * keyed by the registered handler method rather than by the per-request
+	 * instance with the resolved bean.
+	 */
+	private HandlerMethodArgumentResolver[] getParameterResolvers(
+			HandlerMethod handlerMethod, ServletInvocableHandlerMethod invocableMethod) {
+
+		HandlerMethodArgumentResolverComposite resolvers = this.argumentResolvers;
+		Assert.state(resolvers != null, "No argument resolvers");
+		HandlerMethod original = handlerMethod.getResolvedFromHandlerMethod();
+		return this.parameterResolversCache.computeIfAbsent((original != null ? original : handlerMethod),
+				key -> resolvers.getArgumentResolvers(invocableMethod.getMethodParameters()));
+	}
+
 	/**
 	 * Create a {@link ServletInvocableHandlerMethod} from the given {@link HandlerMethod} definition.
 	 * @param handlerMethod the {@link HandlerMethod} definition
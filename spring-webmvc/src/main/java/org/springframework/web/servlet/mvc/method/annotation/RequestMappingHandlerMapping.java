@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.mvc.method.annotation;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -31,11 +32,18 @@ import javax.servlet.http.HttpServletRequest;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotationSelectors;
 import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.core.annotation.RepeatableContainers;
+import org.springframework.http.server.PathContainer;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringValueResolver;
 import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -52,6 +60,8 @@ import org.springframework.web.servlet.mvc.condition.ConsumesRequestCondition;
 import org.springframework.web.servlet.mvc.condition.RequestCondition;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
 
 /**
  * Creates {@link RequestMappingInfo} instances from type and method-level
@@ -90,6 +100,8 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 
 	private RequestMappingInfo.BuilderConfiguration config = new RequestMappingInfo.BuilderConfiguration();
 
+	private final boolean synthesizeRequestMapping = isRequestMappingInfoFactoryOverridden();
+
 
 	/**
 	 * Whether to use suffix pattern match (".*") when matching patterns to
@@ -181,6 +193,7 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 		this.config = new RequestMappingInfo.BuilderConfiguration();
 		this.config.setUrlPathHelper(getUrlPathHelper());
 		this.config.setPathMatcher(getPathMatcher());
+		this.config.setPatternParser(getPatternParser());
 		this.config.setSuffixPatternMatch(useSuffixPatternMatch());
 		this.config.setTrailingSlashMatch(useTrailingSlashMatch());
 		this.config.setRegisteredSuffixPatternMatch(useRegisteredSuffixPatternMatch());
@@ -189,6 +202,29 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 		super.afterPropertiesSet();
 	}
 
+	/**
+	 * Index mappings by path segments if patterns are matched with parsed
+	 * {@code PathPatterns}, or with an {@link AntPathMatcher} that uses the
+	 * default "/" path separator, unless the matching of mappings is customized.
+	 * @since 5.2.26
+	 */
+	@Override
+	protected boolean usePathSegmentIndex() {
+		if (this.config.getPatternParser() == null) {
+			PathMatcher pathMatcher = this.config.getPathMatcher();
+			if (pathMatcher != null && (pathMatcher.getClass() != AntPathMatcher.class ||
+					!"/a/b".equals(pathMatcher.combine("/a", "b")))) {
+				return false;
+			}
+		}
+		return (isDeclaredBy("getMatchingMapping", RequestMappingInfo.class, HttpServletRequest.class) &&
+				isDeclaredBy("getMappingPathPatterns", RequestMappingInfo.class));
+	}
+
+	private boolean isDeclaredBy(String methodName, Class<?>... paramTypes) {
+		return !ReflectionUtils.isOverridden(getClass(), RequestMappingInfoHandlerMapping.class, methodName, paramTypes);
+	}
+
 
 	/**
 	 * Whether to use registered suffixes for pattern matching.
@@ -281,7 +317,7 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 	}
 
 	/**
-	 * Delegates to {@link #createRequestMappingInfo(RequestMapping, RequestCondition)},
+	 * Delegates to {@link #createRequestMappingInfo(MergedAnnotation, RequestCondition)},
 	 * supplying the appropriate custom {@link RequestCondition} depending on whether
 	 * the supplied {@code annotatedElement} is a class or method.
 	 * @see #getCustomTypeCondition(Class)
@@ -289,10 +325,30 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 	 */
 	@Nullable
 	private RequestMappingInfo createRequestMappingInfo(AnnotatedElement element) {
-		RequestMapping requestMapping = AnnotatedElementUtils.findMergedAnnotation(element, RequestMapping.class);
+		MergedAnnotation<RequestMapping> requestMapping = findMergedAnnotation(element, RequestMapping.class);
 		RequestCondition<?> condition = (element instanceof Class ?
 				getCustomTypeCondition((Class<?>) element) : getCustomMethodCondition((Method) element));
-		return (requestMapping != null ? createRequestMappingInfo(requestMapping, condition) : null);
+		if (!requestMapping.isPresent()) {
+			return null;
+		}
+		if (this.synthesizeRequestMapping) {
+			// Subclass expects the annotation itself
+			return createRequestMappingInfo(requestMapping.synthesize(), condition);
+		}
+		return createRequestMappingInfo(requestMapping, condition);
+	}
+
+	private static <A extends Annotation> MergedAnnotation<A> findMergedAnnotation(
+			AnnotatedElement element, Class<A> annotationType) {
+
+		// Same semantics as AnnotatedElementUtils.findMergedAnnotation, without synthesizing
+		return MergedAnnotations.from(element, SearchStrategy.TYPE_HIERARCHY, RepeatableContainers.none())
+				.get(annotationType, null, MergedAnnotationSelectors.firstDirectlyDeclared());
+	}
+
+	private boolean isRequestMappingInfoFactoryOverridden() {
+		return ReflectionUtils.isOverridden(getClass(), RequestMappingHandlerMapping.class,
+				"createRequestMappingInfo", RequestMapping.class, RequestCondition.class);
 	}
 
 	/**
@@ -332,18 +388,34 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 	 * {@link RequestMapping @RequestMapping} annotation, which is either
 	 * a directly declared annotation, a meta-annotation, or the synthesized
 	 * result of merging annotation attributes within an annotation hierarchy.
+	 * <p>If overridden, the annotation for each handler is synthesized in
+	 * order to call this method. Consider overriding
+	 * {@link #createRequestMappingInfo(MergedAnnotation, RequestCondition)}
+	 * instead.
 	 */
 	protected RequestMappingInfo createRequestMappingInfo(
 			RequestMapping requestMapping, @Nullable RequestCondition<?> customCondition) {
 
+		return createRequestMappingInfo(MergedAnnotation.from(requestMapping), customCondition);
+	}
+
+	/**
+	 * Create a {@link RequestMappingInfo} from the supplied merged
+	 * {@link RequestMapping @RequestMapping} annotation, reading its
+	 * attribute values without synthesizing the annotation.
+	 * @since 5.2.26
+	 */
+	protected RequestMappingInfo createRequestMappingInfo(
+			MergedAnnotation<RequestMapping> requestMapping, @Nullable RequestCondition<?> customCondition) {
+
 		RequestMappingInfo.Builder builder = RequestMappingInfo
-				.paths(resolveEmbeddedValuesInPatterns(requestMapping.path()))
-				.methods(requestMapping.method())
-				.params(requestMapping.params())
-				.headers(requestMapping.headers())
-				.consumes(requestMapping.consumes())
-				.produces(requestMapping.produces())
-				.mappingName(requestMapping.name());
+				.paths(resolveEmbeddedValuesInPatterns(requestMapping.getStringArray("path")))
+				.methods(requestMapping.getEnumArray("method", RequestMethod.class))
+				.params(requestMapping.getStringArray("params"))
+				.headers(requestMapping.getStringArray("headers"))
+				.consumes(requestMapping.getStringArray("consumes"))
+				.produces(requestMapping.getStringArray("produces"))
+				.mappingName(requestMapping.getString("name"));
 		if (customCondition != null) {
 			builder.customCondition(customCondition);
 		}
@@ -399,6 +471,11 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 		if (matchingInfo == null) {
 			return null;
 		}
+		List<PathPattern> pathPatterns = matchingInfo.getPatternsCondition().getPathPatterns();
+		if (pathPatterns != null) {
+			PathContainer path = ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication();
+			return new RequestMatchResult(pathPatterns.get(0), path);
+		}
 		Set<String> patterns = matchingInfo.getPatternsCondition().getPatterns();
 		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request, LOOKUP_PATH);
 		return new RequestMatchResult(patterns.iterator().next(), lookupPath, getPathMatcher());
@@ -408,10 +485,10 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 	protected CorsConfiguration initCorsConfiguration(Object handler, Method method, RequestMappingInfo mappingInfo) {
 		HandlerMethod handlerMethod = createHandlerMethod(handler, method);
 		Class<?> beanType = handlerMethod.getBeanType();
-		CrossOrigin typeAnnotation = AnnotatedElementUtils.findMergedAnnotation(beanType, CrossOrigin.class);
-		CrossOrigin methodAnnotation = AnnotatedElementUtils.findMergedAnnotation(method, CrossOrigin.class);
+		MergedAnnotation<CrossOrigin> typeAnnotation = findMergedAnnotation(beanType, CrossOrigin.class);
+		MergedAnnotation<CrossOrigin> methodAnnotation = findMergedAnnotation(method, CrossOrigin.class);
 
-		if (typeAnnotation == null && methodAnnotation == null) {
+		if (!typeAnnotation.isPresent() && !methodAnnotation.isPresent()) {
 			return null;
 		}
 
@@ -427,24 +504,24 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 		return config.applyPermitDefaultValues();
 	}
 
-	private void updateCorsConfig(CorsConfiguration config, @Nullable CrossOrigin annotation) {
-		if (annotation == null) {
+	private void updateCorsConfig(CorsConfiguration config, MergedAnnotation<CrossOrigin> annotation) {
+		if (!annotation.isPresent()) {
 			return;
 		}
-		for (String origin : annotation.origins()) {
+		for (String origin : annotation.getStringArray("origins")) {
 			config.addAllowedOrigin(resolveCorsAnnotationValue(origin));
 		}
-		for (RequestMethod method : annotation.methods()) {
+		for (RequestMethod method : annotation.getEnumArray("methods", RequestMethod.class)) {
 			config.addAllowedMethod(method.name());
 		}
-		for (String header : annotation.allowedHeaders()) {
+		for (String header : annotation.getStringArray("allowedHeaders")) {
 			config.addAllowedHeader(resolveCorsAnnotationValue(header));
 		}
-		for (String header : annotation.exposedHeaders()) {
+		for (String header : annotation.getStringArray("exposedHeaders")) {
 			config.addExposedHeader(resolveCorsAnnotationValue(header));
 		}
 
-		String allowCredentials = resolveCorsAnnotationValue(annotation.allowCredentials());
+		String allowCredentials = resolveCorsAnnotationValue(annotation.getString("allowCredentials"));
 		if ("true".equalsIgnoreCase(allowCredentials)) {
 			config.setAllowCredentials(true);
 		}
@@ -456,8 +533,9 @@ public class RequestMappingHandlerMapping extends RequestMappingInfoHandlerMappi
 					"or an empty string (\"\"): current value is [" + allowCredentials + "]");
 		}
 
-		if (annotation.maxAge() >= 0) {
-			config.setMaxAge(annotation.maxAge());
+		long maxAge = annotation.getLong("maxAge");
+		if (maxAge >= 0) {
+			config.setMaxAge(maxAge);
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.web.servlet;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Locale;
 
 import javax.servlet.Servlet;
@@ -37,6 +38,8 @@ import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.RequestPath;
+import org.springframework.lang.Nullable;
 import org.springframework.web.context.ConfigurableWebApplicationContext;
 import org.springframework.web.context.ConfigurableWebEnvironment;
 import org.springframework.web.context.ContextLoader;
@@ -56,7 +59,9 @@ import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 import org.springframework.web.testfixture.servlet.MockHttpServletResponse;
 import org.springframework.web.testfixture.servlet.MockServletConfig;
 import org.springframework.web.testfixture.servlet.MockServletContext;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.WebUtils;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -652,6 +657,51 @@ public class DispatcherServletTests {
 		assertThat(request.getAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE)).isSameAs(wac);
 	}
 
+	@Test
+	public void parsedRequestPathWithPathPatterns() throws Exception {
+		DispatcherServlet servlet = initPathPatternDispatcherServlet();
+		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/app/form");
+		request.setContextPath("/app");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		servlet.service(request, response);
+
+		assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+		assertThat(getRecordedRequestPath(servlet)).isEqualTo("/form");
+		assertThat(ServletRequestPathUtils.hasParsedRequestPath(request)).isFalse();
+	}
+
+	@Test
+	public void parsedRequestPathRestoredAfterInclude() throws Exception {
+		DispatcherServlet servlet = initPathPatternDispatcherServlet();
+		// restored by the DispatcherServlet itself, not by the include cleanup
+		servlet.setCleanupAfterInclude(false);
+		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/app/main");
+		request.setContextPath("/app");
+		RequestPath previousPath = ServletRequestPathUtils.parseAndCache(request);
+
+		request.setAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE, "/app/form");
+		request.setAttribute(WebUtils.INCLUDE_CONTEXT_PATH_ATTRIBUTE, "/app");
+		servlet.service(request, new MockHttpServletResponse());
+
+		assertThat(getRecordedRequestPath(servlet)).isEqualTo("/form");
+		assertThat(ServletRequestPathUtils.getParsedRequestPath(request)).isSameAs(previousPath);
+	}
+
+	@Test
+	public void parsedRequestPathRestoredAfterForward() throws Exception {
+		DispatcherServlet servlet = initPathPatternDispatcherServlet();
+		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/app/main");
+		request.setContextPath("/app");
+		RequestPath previousPath = ServletRequestPathUtils.parseAndCache(request);
+
+		request.setRequestURI("/app/form");
+		request.setAttribute(WebUtils.FORWARD_REQUEST_URI_ATTRIBUTE, "/app/main");
+		servlet.service(request, new MockHttpServletResponse());
+
+		assertThat(getRecordedRequestPath(servlet)).isEqualTo("/form");
+		assertThat(ServletRequestPathUtils.getParsedRequestPath(request)).isSameAs(previousPath);
+	}
+
 	@Test
 	public void servletHandlerAdapter() throws Exception {
 		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/servlet.do");
@@ -839,6 +889,29 @@ public class DispatcherServletTests {
 	}
 
 
+	private DispatcherServlet initPathPatternDispatcherServlet() throws ServletException {
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("urlMap", Collections.singletonMap("/form", "pathRecordingController"));
+		pvs.add("patternParser", new PathPatternParser());
+
+		StaticWebApplicationContext wac = new StaticWebApplicationContext();
+		wac.setServletContext(getServletContext());
+		wac.registerSingleton("pathRecordingController", RequestPathRecordingController.class);
+		wac.registerSingleton("handlerMapping", SimpleUrlHandlerMapping.class, pvs);
+		wac.refresh();
+
+		DispatcherServlet servlet = new DispatcherServlet(wac);
+		servlet.init(new MockServletConfig(getServletContext(), "pathPatterns"));
+		return servlet;
+	}
+
+	@Nullable
+	private String getRecordedRequestPath(DispatcherServlet servlet) {
+		WebApplicationContext wac = servlet.getWebApplicationContext();
+		return wac.getBean(RequestPathRecordingController.class).requestPath;
+	}
+
+
 	public static class ControllerFromParent implements Controller {
 
 		@Override
@@ -848,6 +921,19 @@ public class DispatcherServletTests {
 	}
 
 
+	public static class RequestPathRecordingController implements Controller {
+
+		@Nullable
+		private String requestPath;
+
+		@Override
+		public ModelAndView handleRequest(HttpServletRequest request, HttpServletResponse response) {
+			this.requestPath = ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication().value();
+			return null;
+		}
+	}
+
+
 	private static class TestWebContextInitializer
 			implements ApplicationContextInitializer<ConfigurableWebApplicationContext> {
 
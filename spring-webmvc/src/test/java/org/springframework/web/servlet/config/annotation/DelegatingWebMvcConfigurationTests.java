@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,16 +34,20 @@ import org.springframework.util.PathMatcher;
 import org.springframework.validation.DefaultMessageCodesResolver;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.bind.support.ConfigurableWebBindingInitializer;
+import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
 import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.handler.AbstractHandlerMapping;
 import org.springframework.web.servlet.handler.HandlerExceptionResolverComposite;
 import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
+import org.springframework.web.testfixture.servlet.MockServletContext;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
@@ -220,6 +224,52 @@ public class DelegatingWebMvcConfigurationTests {
 		assertThat(handlerMapping.useTrailingSlashMatch()).as("PathMatchConfigurer should configure TrailingSlashMatch").isEqualTo(false);
 		assertThat(handlerMapping.getUrlPathHelper()).as("PathMatchConfigurer should configure UrlPathHelper").isEqualTo(pathHelper);
 		assertThat(handlerMapping.getPathMatcher()).as("PathMatchConfigurer should configure PathMatcher").isEqualTo(pathMatcher);
+		assertThat(handlerMapping.getPatternParser()).isNull();
+	}
+
+	@Test
+	public void configurePathMatchWithPatternParser() {
+		final PathPatternParser patternParser = new PathPatternParser();
+
+		List<WebMvcConfigurer> configurers = new ArrayList<>();
+		configurers.add(new WebMvcConfigurer() {
+			@Override
+			public void configurePathMatch(PathMatchConfigurer configurer) {
+				configurer.setPatternParser(patternParser);
+			}
+			@Override
+			public void addViewControllers(ViewControllerRegistry registry) {
+				registry.addViewController("/home");
+			}
+			@Override
+			public void addResourceHandlers(ResourceHandlerRegistry registry) {
+				registry.addResourceHandler("/resources/**").addResourceLocations("/static/");
+			}
+		});
+		delegatingConfig.setConfigurers(configurers);
+		StaticWebApplicationContext context = new StaticWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		delegatingConfig.setApplicationContext(context);
+		delegatingConfig.setServletContext(context.getServletContext());
+
+		RequestMappingHandlerMapping handlerMapping = delegatingConfig.requestMappingHandlerMapping(
+				delegatingConfig.mvcContentNegotiationManager(), delegatingConfig.mvcConversionService(),
+				delegatingConfig.mvcResourceUrlProvider());
+		assertThat(handlerMapping.getPatternParser()).isSameAs(patternParser);
+		assertThat(handlerMapping.usesPathPatterns()).isTrue();
+
+		AbstractHandlerMapping viewControllerMapping = (AbstractHandlerMapping) delegatingConfig.viewControllerHandlerMapping(
+				delegatingConfig.mvcPathMatcher(), delegatingConfig.mvcUrlPathHelper(),
+				delegatingConfig.mvcConversionService(), delegatingConfig.mvcResourceUrlProvider());
+		assertThat(viewControllerMapping).isNotNull();
+		assertThat(viewControllerMapping.getPatternParser()).isSameAs(patternParser);
+
+		AbstractHandlerMapping resourceMapping = (AbstractHandlerMapping) delegatingConfig.resourceHandlerMapping(
+				delegatingConfig.mvcUrlPathHelper(), delegatingConfig.mvcPathMatcher(),
+				delegatingConfig.mvcContentNegotiationManager(), delegatingConfig.mvcConversionService(),
+				delegatingConfig.mvcResourceUrlProvider());
+		assertThat(resourceMapping).isNotNull();
+		assertThat(resourceMapping.getPatternParser()).isSameAs(patternParser);
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,9 @@ import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -108,6 +110,30 @@ public class HandlerMethodMappingTests {
 				this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo")));
 	}
 
+	@Test
+	public void patternMatchWithPathSegmentIndex() throws Exception {
+		MyHandlerMethodMapping mapping = new MyHandlerMethodMapping(true);
+		mapping.registerMapping("/foo/{id}", this.handler, this.method1);
+		mapping.registerMapping("/bar/{id}", this.handler, this.method1);
+		mapping.registerMapping("/**", this.handler, this.method2);
+		mapping.registerMapping("/foo/bar/*", this.handler, this.method2);
+
+		assertThat(mapping.getMappingRegistry().getMappingsByPath("/foo/1"))
+				.containsExactly("/foo/{id}", "/**");
+		assertThat(mapping.getMappingRegistry().getMappingsByPath("/FOO/bar/1"))
+				.containsExactly("/foo/{id}", "/**", "/foo/bar/*");
+		assertThat(mapping.getMappingRegistry().getMappingsByPath("/baz/1")).containsExactly("/**");
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo/1");
+		HandlerMethod result = mapping.getHandlerInternal(request);
+		assertThat(result.getMethod()).isEqualTo(method1);
+
+		mapping.unregisterMapping("/foo/{id}");
+		assertThat(mapping.getMappingRegistry().getMappingsByPath("/foo/1")).containsExactly("/**");
+		result = mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo/1"));
+		assertThat(result.getMethod()).isEqualTo(method2);
+	}
+
 	@Test
 	public void detectHandlerMethodsInAncestorContexts() {
 		StaticApplicationContext cxt = new StaticApplicationContext();
@@ -228,6 +254,48 @@ public class HandlerMethodMappingTests {
 		assertThat(this.mapping.getMappingRegistry().getCorsConfiguration(handlerMethod)).isNull();
 	}
 
+	@Test
+	public void handlerMethodsSnapshot() throws Exception {
+		this.mapping.registerMapping("/foo", this.handler, this.method1);
+		Map<String, HandlerMethod> handlerMethods = this.mapping.getHandlerMethods();
+
+		this.mapping.registerMapping("/bar", this.handler, this.method2);
+		assertThat(handlerMethods).containsOnlyKeys("/foo");
+		assertThat(this.mapping.getHandlerMethods()).containsOnlyKeys("/foo", "/bar");
+		assertThat(this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/bar")).getMethod())
+				.isEqualTo(this.method2);
+
+		this.mapping.unregisterMapping("/foo");
+		assertThat(this.mapping.getHandlerMethods()).containsOnlyKeys("/bar");
+		assertThat(this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo"))).isNull();
+	}
+
+	@Test
+	public void handlerMethodsSnapshotDeferredDuringDetectionOnly() throws Exception {
+		AtomicInteger snapshotCount = new AtomicInteger();
+		AbstractHandlerMethodMapping<String> mapping = new MyHandlerMethodMapping() {
+			@Override
+			protected boolean usePathSegmentIndex() {
+				snapshotCount.incrementAndGet();
+				return super.usePathSegmentIndex();
+			}
+		};
+		StaticApplicationContext cxt = new StaticApplicationContext();
+		cxt.registerSingleton("myHandler", MyHandler.class);
+		mapping.setApplicationContext(cxt);
+		mapping.afterPropertiesSet();
+		assertThat(mapping.getHandlerMethods()).hasSize(2);
+		assertThat(snapshotCount.get()).isEqualTo(1);
+
+		mapping.registerMapping("/foo", this.handler, this.method1);
+		assertThat(snapshotCount.get()).isEqualTo(2);
+		assertThat(mapping.getHandlerMethods()).hasSize(3);
+		mapping.unregisterMapping("/foo");
+		assertThat(snapshotCount.get()).isEqualTo(3);
+		assertThat(mapping.getHandlerMethods()).hasSize(2);
+		assertThat(snapshotCount.get()).isEqualTo(3);
+	}
+
 	@Test
 	public void getCorsConfigWithBeanNameHandler() throws Exception {
 
@@ -254,8 +322,15 @@ public class HandlerMethodMappingTests {
 
 		private PathMatcher pathMatcher = new AntPathMatcher();
 
+		private final boolean usePathSegmentIndex;
+
 
 		public MyHandlerMethodMapping() {
+			this(false);
+		}
+
+		public MyHandlerMethodMapping(boolean usePathSegmentIndex) {
+			this.usePathSegmentIndex = usePathSegmentIndex;
 			setHandlerMethodMappingNamingStrategy(new SimpleMappingNamingStrategy());
 		}
 
@@ -272,7 +347,13 @@ public class HandlerMethodMappingTests {
 
 		@Override
 		protected Set<String> getMappingPathPatterns(String key) {
-			return (this.pathMatcher.isPattern(key) ? Collections.<String>emptySet() : Collections.singleton(key));
+			return (this.usePathSegmentIndex || !this.pathMatcher.isPattern(key) ?
+					Collections.singleton(key) : Collections.<String>emptySet());
+		}
+
+		@Override
+		protected boolean usePathSegmentIndex() {
+			return this.usePathSegmentIndex;
 		}
 
 		@Override
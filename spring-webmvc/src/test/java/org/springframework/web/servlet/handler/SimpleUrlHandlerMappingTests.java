@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.springframework.web.servlet.handler;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
@@ -29,7 +31,9 @@ import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 import org.springframework.web.testfixture.servlet.MockServletContext;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.WebUtils;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -84,6 +88,39 @@ public class SimpleUrlHandlerMappingTests {
 		assertThat(hec.getHandler()).isSameAs(controller);
 	}
 
+	@Test
+	public void pathPatternMatching() throws Exception {
+		Object resourceHandler = new Object();
+		Object userHandler = new Object();
+		Map<String, Object> urlMap = new LinkedHashMap<>();
+		urlMap.put("/resources/**", resourceHandler);
+		urlMap.put("/users/{id}", userHandler);
+		SimpleUrlHandlerMapping handlerMapping = new SimpleUrlHandlerMapping(urlMap);
+		handlerMapping.setPatternParser(new PathPatternParser());
+		handlerMapping.setApplicationContext(new StaticApplicationContext());
+		assertThat(handlerMapping.usesPathPatterns()).isTrue();
+		assertThat(handlerMapping.getPathPatternHandlerMap()).hasSize(2);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/resources/css/a%20b.css");
+		request.setContextPath("/app");
+		ServletRequestPathUtils.parseAndCache(request);
+		HandlerExecutionChain hec = getHandler(handlerMapping, request);
+		assertThat(hec.getHandler()).isSameAs(resourceHandler);
+		assertThat(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).isEqualTo("/resources/**");
+		assertThat(request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE)).isEqualTo("css/a b.css");
+
+		request = new MockHttpServletRequest("GET", "/users/j%20d;a=b");
+		ServletRequestPathUtils.parseAndCache(request);
+		hec = getHandler(handlerMapping, request);
+		assertThat(hec.getHandler()).isSameAs(userHandler);
+		assertThat(request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE))
+				.isEqualTo(Collections.singletonMap("id", "j d"));
+
+		request = new MockHttpServletRequest("GET", "/other");
+		ServletRequestPathUtils.parseAndCache(request);
+		assertThat(handlerMapping.getHandler(request)).isNull();
+	}
+
 	@SuppressWarnings("resource")
 	private void checkMappings(String beanName) throws Exception {
 		MockServletContext sc = new MockServletContext("");
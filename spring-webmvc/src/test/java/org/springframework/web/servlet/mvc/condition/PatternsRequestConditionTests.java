@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,8 @@ import javax.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -224,4 +226,47 @@ public class PatternsRequestConditionTests {
 		assertThat(match1.compareTo(match2, request)).isEqualTo(1);
 	}
 
+	@Test
+	public void matchPathPatterns() {
+		PathPatternParser parser = new PathPatternParser();
+		PatternsRequestCondition condition = new PatternsRequestCondition(parser, "/**", "/foo/bar", "/foo/{id}");
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo/bar");
+		ServletRequestPathUtils.parseAndCache(request);
+		PatternsRequestCondition match = condition.getMatchingCondition(request);
+
+		assertThat(match).isNotNull();
+		assertThat(match.getPatterns()).containsExactly("/foo/bar", "/foo/{id}", "/**");
+		assertThat(match.getPathPatterns()).hasSize(3);
+
+		request = new MockHttpServletRequest("GET", "/foo/b%20r");
+		ServletRequestPathUtils.parseAndCache(request);
+		match = new PatternsRequestCondition(parser, "/foo/b r", "/bar").getMatchingCondition(request);
+
+		assertThat(match).isNotNull();
+		assertThat(match.getPatterns()).containsExactly("/foo/b r");
+	}
+
+	@Test
+	public void combinePathPatterns() {
+		PathPatternParser parser = new PathPatternParser();
+		PatternsRequestCondition c1 = new PatternsRequestCondition(parser, "/t1", "/t2");
+		PatternsRequestCondition c2 = new PatternsRequestCondition(parser, "/m1/{id}");
+		PatternsRequestCondition combined = c1.combine(c2);
+
+		assertThat(combined.getPatterns()).containsExactly("/t1/m1/{id}", "/t2/m1/{id}");
+		assertThat(combined.getPathPatterns()).hasSize(2);
+		assertThat(c1.combine(new PatternsRequestCondition(parser))).isSameAs(c1);
+	}
+
+	@Test
+	public void comparePathPatternSpecificity() {
+		PathPatternParser parser = new PathPatternParser();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		ServletRequestPathUtils.parseAndCache(request);
+		PatternsRequestCondition c1 = new PatternsRequestCondition(parser, "/fo*");
+		PatternsRequestCondition c2 = new PatternsRequestCondition(parser, "/foo");
+
+		assertThat(c1.compareTo(c2, request)).isEqualTo(1);
+	}
+
 }
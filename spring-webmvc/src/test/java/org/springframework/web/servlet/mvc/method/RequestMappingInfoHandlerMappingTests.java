@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.RequestPath;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
@@ -57,7 +58,9 @@ import org.springframework.web.servlet.mvc.condition.PatternsRequestCondition;
 import org.springframework.web.servlet.mvc.condition.ProducesRequestCondition;
 import org.springframework.web.servlet.mvc.condition.RequestMethodsRequestCondition;
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -142,6 +145,53 @@ public class RequestMappingInfoHandlerMappingTests {
 		assertThat(handlerMethod.getMethod()).isEqualTo(this.fooParamMethod.getMethod());
 	}
 
+	@Test
+	public void getHandlerWithPathPatterns() throws Exception {
+		TestRequestMappingInfoHandlerMapping mapping = initPathPatternHandlerMapping();
+
+		HandlerMethod handlerMethod = getHandler(mapping, new MockHttpServletRequest("GET", "/foo"));
+		assertThat(handlerMethod.getMethod()).isEqualTo(this.fooMethod.getMethod());
+
+		handlerMethod = getHandler(mapping, new MockHttpServletRequest("GET", "/bar"));
+		assertThat(handlerMethod.getMethod()).isEqualTo(this.barMethod.getMethod());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.setParameter("p", "anything");
+		handlerMethod = getHandler(mapping, request);
+		assertThat(handlerMethod.getMethod()).isEqualTo(this.fooParamMethod.getMethod());
+	}
+
+	@Test
+	public void getHandlerEmptyPathMatchWithPathPatterns() throws Exception {
+		TestRequestMappingInfoHandlerMapping mapping = initPathPatternHandlerMapping();
+
+		HandlerMethod handlerMethod = getHandler(mapping, new MockHttpServletRequest("GET", ""));
+		assertThat(handlerMethod.getMethod()).isEqualTo(this.emptyMethod.getMethod());
+
+		handlerMethod = getHandler(mapping, new MockHttpServletRequest("GET", "/"));
+		assertThat(handlerMethod.getMethod()).isEqualTo(this.emptyMethod.getMethod());
+	}
+
+	@Test
+	public void getHandlerWithPathPatternsAndServletPath() throws Exception {
+		TestRequestMappingInfoHandlerMapping mapping = initPathPatternHandlerMapping();
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/main/foo");
+		request.setContextPath("/app");
+		request.setServletPath("/main");
+		request.setPathInfo("/foo");
+		HandlerMethod handlerMethod = getHandler(mapping, request);
+		assertThat(handlerMethod.getMethod()).isEqualTo(this.fooMethod.getMethod());
+		assertThat(request.getAttribute(HandlerMapping.LOOKUP_PATH)).isEqualTo("/foo");
+
+		request = new MockHttpServletRequest("GET", "/app/main/");
+		request.setContextPath("/app");
+		request.setServletPath("/main");
+		request.setPathInfo("/");
+		handlerMethod = getHandler(mapping, request);
+		assertThat(handlerMethod.getMethod()).isEqualTo(this.emptyMethod.getMethod());
+	}
+
 	@Test
 	public void getHandlerRequestMethodNotAllowed() throws Exception {
 		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bar");
@@ -368,8 +418,107 @@ public class RequestMappingInfoHandlerMappingTests {
 	}
 
 
+	@Test
+	public void handleMatchUriTemplateVariablesWithPathPatterns() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/1/2");
+		handleMatchWithPathPatterns(request, "/{path1}/{path2}");
+
+		Map<String, String> uriVariables = getUriTemplateVariables(request);
+		assertThat(uriVariables).hasSize(2);
+		assertThat(uriVariables.get("path1")).isEqualTo("1");
+		assertThat(uriVariables.get("path2")).isEqualTo("2");
+
+		// decoded per path segment
+		request = new MockHttpServletRequest("GET", "/group/a%2Fb");
+		handleMatchWithPathPatterns(request, "/{group}/{identifier}");
+
+		uriVariables = getUriTemplateVariables(request);
+		assertThat(uriVariables.get("group")).isEqualTo("group");
+		assertThat(uriVariables.get("identifier")).isEqualTo("a/b");
+	}
+
+	@Test
+	public void handleMatchUriTemplateVariablesWithPathPatternsAndServletPath() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/main/1/2");
+		request.setContextPath("/app");
+		request.setServletPath("/main");
+		request.setPathInfo("/1/2");
+		handleMatchWithPathPatterns(request, "/{path1}/{path2}");
+
+		Map<String, String> uriVariables = getUriTemplateVariables(request);
+		assertThat(uriVariables.get("path1")).isEqualTo("1");
+		assertThat(uriVariables.get("path2")).isEqualTo("2");
+		assertThat(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).isEqualTo("/{path1}/{path2}");
+	}
+
+	@Test
+	public void handleMatchBestMatchingPatternAttributeWithPathPatterns() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/1/2");
+		handleMatchWithPathPatterns(request, "/**", "/{path1}/2");
+
+		assertThat(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).isEqualTo("/{path1}/2");
+		assertThat(getUriTemplateVariables(request)).containsOnlyKeys("path1");
+	}
+
+	@Test
+	public void handleMatchBestMatchingPatternAttributeNoPatternsDefinedWithPathPatterns() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+		handleMatchWithPathPatterns(request);
+
+		assertThat(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).isEqualTo("");
+		assertThat(getUriTemplateVariables(request)).isEmpty();
+	}
+
+	@Test
+	public void handleMatchMatrixVariablesWithPathPatterns() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cars;colors=red,blue,green;year=2012");
+		handleMatchWithPathPatterns(request, "/{cars}");
+
+		MultiValueMap<String, String> matrixVariables = getMatrixVariables(request, "cars");
+		assertThat(matrixVariables).isNotNull();
+		assertThat(matrixVariables.get("colors")).isEqualTo(Arrays.asList("red", "blue", "green"));
+		assertThat(matrixVariables.getFirst("year")).isEqualTo("2012");
+		assertThat(getUriTemplateVariables(request).get("cars")).isEqualTo("cars");
+
+		// decoded
+		request = new MockHttpServletRequest("GET", "/cars;mvar=a%2Fb");
+		handleMatchWithPathPatterns(request, "/{cars}");
+
+		matrixVariables = getMatrixVariables(request, "cars");
+		assertThat(matrixVariables).isNotNull();
+		assertThat(matrixVariables.get("mvar")).isEqualTo(Collections.singletonList("a/b"));
+	}
+
+	@Test
+	public void handleMatchMatrixVariablesWithPathPatternsAndServletPath() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/main/cars;colors=red,blue");
+		request.setContextPath("/app");
+		request.setServletPath("/main");
+		request.setPathInfo("/cars");
+		handleMatchWithPathPatterns(request, "/{cars}");
+
+		MultiValueMap<String, String> matrixVariables = getMatrixVariables(request, "cars");
+		assertThat(matrixVariables).isNotNull();
+		assertThat(matrixVariables.get("colors")).isEqualTo(Arrays.asList("red", "blue"));
+		assertThat(getUriTemplateVariables(request).get("cars")).isEqualTo("cars");
+	}
+
+
+	private TestRequestMappingInfoHandlerMapping initPathPatternHandlerMapping() {
+		TestRequestMappingInfoHandlerMapping mapping = new TestRequestMappingInfoHandlerMapping();
+		mapping.setPatternParser(new PathPatternParser());
+		mapping.registerHandler(new TestController());
+		return mapping;
+	}
+
 	private HandlerMethod getHandler(MockHttpServletRequest request) throws Exception {
-		HandlerExecutionChain chain = this.handlerMapping.getHandler(request);
+		return getHandler(this.handlerMapping, request);
+	}
+
+	private HandlerMethod getHandler(
+			RequestMappingInfoHandlerMapping mapping, MockHttpServletRequest request) throws Exception {
+
+		HandlerExecutionChain chain = mapping.getHandler(request);
 		assertThat(chain).isNotNull();
 		return (HandlerMethod) chain.getHandler();
 	}
@@ -408,6 +557,17 @@ public class RequestMappingInfoHandlerMappingTests {
 		this.handlerMapping.handleMatch(info, lookupPath, request);
 	}
 
+	private void handleMatchWithPathPatterns(MockHttpServletRequest request, String... patterns) {
+		RequestMappingInfo.BuilderConfiguration config = new RequestMappingInfo.BuilderConfiguration();
+		config.setPatternParser(new PathPatternParser());
+		RequestMappingInfo info = RequestMappingInfo.paths(patterns).options(config).build();
+		RequestPath requestPath = ServletRequestPathUtils.parseAndCache(request);
+		RequestMappingInfo matchingInfo = info.getMatchingCondition(request);
+		assertThat(matchingInfo).isNotNull();
+		String lookupPath = ServletRequestPathUtils.getValueToMatch(requestPath.pathWithinApplication());
+		this.handlerMapping.handleMatch(matchingInfo, lookupPath, request);
+	}
+
 	@SuppressWarnings("unchecked")
 	private MultiValueMap<String, String> getMatrixVariables(HttpServletRequest request, String uriVarName) {
 		String attrName = HandlerMapping.MATRIX_VARIABLES_ATTRIBUTE;
@@ -508,8 +668,10 @@ public class RequestMappingInfoHandlerMappingTests {
 		protected RequestMappingInfo getMappingForMethod(Method method, Class<?> handlerType) {
 			RequestMapping annot = AnnotationUtils.findAnnotation(method, RequestMapping.class);
 			if (annot != null) {
+				PathPatternParser parser = getPatternParser();
 				return new RequestMappingInfo(
-					new PatternsRequestCondition(annot.value(), getUrlPathHelper(), getPathMatcher(), true, true),
+					(parser != null ? new PatternsRequestCondition(parser, annot.value()) :
+							new PatternsRequestCondition(annot.value(), getUrlPathHelper(), getPathMatcher(), true, true)),
 					new RequestMethodsRequestCondition(annot.method()),
 					new ParamsRequestCondition(annot.params()),
 					new HeadersRequestCondition(annot.headers()),
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,9 +22,11 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Method;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +34,7 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.core.annotation.AliasFor;
 import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.ClassUtils;
 import org.springframework.web.accept.ContentNegotiationManager;
@@ -47,11 +50,16 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.method.HandlerTypePredicate;
+import org.springframework.web.servlet.handler.RequestMatchResult;
 import org.springframework.web.servlet.mvc.condition.ConsumesRequestCondition;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -174,6 +182,23 @@ public class RequestMappingHandlerMappingTests {
 		assertThat(info.getPatternsCondition().getMatchingCondition(request)).isNull();
 	}
 
+	@Test
+	public void matchWithPathPatterns() {
+		this.handlerMapping.setPatternParser(new PathPatternParser());
+		this.handlerMapping.afterPropertiesSet();
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/main/hotels/42;rooms=1");
+		request.setContextPath("/app");
+		request.setServletPath("/main");
+		request.setPathInfo("/hotels/42");
+		ServletRequestPathUtils.parseAndCache(request);
+
+		RequestMatchResult result = this.handlerMapping.match(request, "/hotels/{hotel}");
+		assertThat(result).isNotNull();
+		assertThat(result.extractUriTemplateVariables()).containsOnly(entry("hotel", "42"));
+		assertThat(this.handlerMapping.match(request, "/hotels")).isNull();
+	}
+
 	@Test
 	public void resolveRequestMappingViaComposedAnnotation() throws Exception {
 		RequestMappingInfo info = assertComposedAnnotationMapping("postJson", "/postJson", RequestMethod.POST);
@@ -205,6 +230,27 @@ public class RequestMappingHandlerMappingTests {
 		assertThat(info.getConsumesCondition().isBodyRequired()).isFalse();
 	}
 
+	@Test
+	public void createRequestMappingInfoWithAnnotationOverride() throws Exception {
+		List<String> methods = new ArrayList<>();
+		RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping() {
+			@Override
+			protected RequestMappingInfo createRequestMappingInfo(
+					RequestMapping requestMapping, @Nullable RequestCondition<?> customCondition) {
+				methods.add(Arrays.toString(requestMapping.method()));
+				return super.createRequestMappingInfo(requestMapping, customCondition);
+			}
+		};
+		mapping.setApplicationContext(this.wac);
+		Method method = ClassUtils.getMethod(ComposedAnnotationController.class, "get", (Class<?>[]) null);
+		RequestMappingInfo info = mapping.getMappingForMethod(method, ComposedAnnotationController.class);
+
+		assertThat(info.getPatternsCondition().getPatterns()).containsExactly("/get");
+		assertThat(info.getMethodsCondition().getMethods()).containsExactly(RequestMethod.GET);
+		// Method-level and type-level mapping, passed in as annotation
+		assertThat(methods).containsExactly("[GET]", "[]");
+	}
+
 	@Test
 	public void getMapping() throws Exception {
 		assertComposedAnnotationMapping(RequestMethod.GET);